@@ -0,0 +1,255 @@
+package nablarch.common.dao;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+import jakarta.persistence.Access;
+import jakarta.persistence.AccessType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.beans.BeansException;
+import nablarch.core.util.StringUtil;
+
+/**
+ * エンティティの関連プロパティ({@link ManyToOne}、{@link OneToMany})のメタ情報を保持するクラス。
+ * <p/>
+ * 関連は、外部キーのカラムを介して以下のように解決する。
+ * <ul>
+ * <li>{@link ManyToOne}: 自エンティティの外部キーのカラム({@link JoinColumn#name()})と、関連先エンティティのID列</li>
+ * <li>{@link OneToMany}: 自エンティティのID列と、関連先エンティティの外部キーのカラム
+ * ({@link OneToMany#mappedBy()}で指定した関連先の{@link ManyToOne}プロパティの外部キー、
+ * または{@link JoinColumn#name()})</li>
+ * </ul>
+ * いずれの場合も、外部キーのカラムは{@link jakarta.persistence.Column}としてエンティティに定義されている必要がある。
+ */
+final class AssociationMeta {
+
+    /** プロパティ */
+    private final PropertyDescriptor propertyDescriptor;
+
+    /** 関連先のエンティティクラス */
+    private final Class<?> targetClass;
+
+    /** 関連先が複数件({@link OneToMany})か否か */
+    private final boolean collection;
+
+    /** 外部キーのカラム({@link ManyToOne}の場合は自エンティティ、{@link OneToMany}の場合は関連先のカラム) */
+    private final ColumnMeta foreignKeyColumn;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param entityClass エンティティクラス
+     * @param propertyName 関連プロパティ名
+     * @throws IllegalArgumentException 関連プロパティでない場合、外部キーのカラムが解決できない場合
+     */
+    AssociationMeta(final Class<?> entityClass, final String propertyName) {
+        propertyDescriptor = BeanUtil.getPropertyDescriptor(entityClass, propertyName);
+        final Annotation[] annotations = findAnnotations(entityClass, propertyDescriptor);
+        final JoinColumn joinColumn = getAnnotation(annotations, JoinColumn.class);
+        final ManyToOne manyToOne = getAnnotation(annotations, ManyToOne.class);
+        final OneToMany oneToMany = getAnnotation(annotations, OneToMany.class);
+        if (manyToOne != null) {
+            collection = false;
+            targetClass = manyToOne.targetEntity() != void.class
+                    ? manyToOne.targetEntity() : propertyDescriptor.getPropertyType();
+            final String columnName = joinColumn != null && !StringUtil.isNullOrEmpty(joinColumn.name())
+                    ? joinColumn.name()
+                    : NamingConversionUtil.deCamelize(propertyName) + '_' + findSingleIdColumn(targetClass).getName();
+            foreignKeyColumn = findColumn(entityClass, columnName);
+        } else if (oneToMany != null) {
+            if (!Collection.class.isAssignableFrom(propertyDescriptor.getPropertyType())
+                    || !propertyDescriptor.getPropertyType().isAssignableFrom(List.class)) {
+                throw new IllegalArgumentException("one-to-many property must be declared as List or Collection. "
+                        + "entity = " + entityClass.getName() + ", property = " + propertyName);
+            }
+            collection = true;
+            targetClass = oneToMany.targetEntity() != void.class
+                    ? oneToMany.targetEntity() : findElementType(entityClass, propertyDescriptor);
+            if (!StringUtil.isNullOrEmpty(oneToMany.mappedBy())) {
+                foreignKeyColumn = new AssociationMeta(targetClass, oneToMany.mappedBy()).getForeignKeyColumn();
+            } else if (joinColumn != null && !StringUtil.isNullOrEmpty(joinColumn.name())) {
+                foreignKeyColumn = findColumn(targetClass, joinColumn.name());
+            } else {
+                throw new IllegalArgumentException("one-to-many property requires mappedBy or JoinColumn. "
+                        + "entity = " + entityClass.getName() + ", property = " + propertyName);
+            }
+        } else {
+            throw new IllegalArgumentException("property is not a ManyToOne or OneToMany association. "
+                    + "entity = " + entityClass.getName() + ", property = " + propertyName);
+        }
+    }
+
+    /**
+     * 関連プロパティ名を取得する。
+     *
+     * @return 関連プロパティ名
+     */
+    String getPropertyName() {
+        return propertyDescriptor.getName();
+    }
+
+    /**
+     * 関連プロパティに値を設定する。
+     *
+     * @param entity エンティティ
+     * @param value 設定する値
+     * @throws BeansException setterが存在しない場合、値の設定に失敗した場合
+     */
+    void setValue(final Object entity, final Object value) {
+        final Method writeMethod = propertyDescriptor.getWriteMethod();
+        if (writeMethod == null) {
+            throw new BeansException("no setter that corresponds to the association property. entity class: "
+                    + entity.getClass().getName() + ", property name: " + propertyDescriptor.getName());
+        }
+        try {
+            writeMethod.invoke(entity, value);
+        } catch (Exception e) {
+            throw new BeansException(e);
+        }
+    }
+
+    /**
+     * 関連先のエンティティクラスを取得する。
+     *
+     * @return 関連先のエンティティクラス
+     */
+    Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * 関連先が複数件({@link OneToMany})か否かを返す。
+     *
+     * @return 複数件の場合{@code true}
+     */
+    boolean isCollection() {
+        return collection;
+    }
+
+    /**
+     * 外部キーのカラムを取得する。
+     *
+     * @return 外部キーのカラム({@link ManyToOne}の場合は自エンティティ、{@link OneToMany}の場合は関連先のカラム)
+     */
+    ColumnMeta getForeignKeyColumn() {
+        return foreignKeyColumn;
+    }
+
+    /**
+     * 単一のID列を取得する。
+     *
+     * @param entityClass エンティティクラス
+     * @return ID列
+     * @throws IllegalArgumentException ID列が単一でない場合
+     */
+    static ColumnMeta findSingleIdColumn(final Class<?> entityClass) {
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        if (idColumns.size() != 1) {
+            throw new IllegalArgumentException(
+                    "association requires a single id column. entity = " + entityClass.getName());
+        }
+        return idColumns.get(0);
+    }
+
+    /**
+     * カラム名に対応するカラムを取得する。
+     *
+     * @param entityClass エンティティクラス
+     * @param columnName カラム名
+     * @return カラム
+     * @throws IllegalArgumentException カラムが存在しない場合
+     */
+    private static ColumnMeta findColumn(final Class<?> entityClass, final String columnName) {
+        for (ColumnMeta column : EntityUtil.findAllColumns(entityClass)) {
+            if (column.getName().equalsIgnoreCase(columnName)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("foreign key column was not found in entity. entity = "
+                + entityClass.getName() + ", column = " + columnName);
+    }
+
+    /**
+     * 関連プロパティの要素の型を取得する。
+     *
+     * @param entityClass エンティティクラス
+     * @param propertyDescriptor プロパティ
+     * @return 要素の型
+     * @throws IllegalArgumentException 要素の型が特定できない場合
+     */
+    private static Class<?> findElementType(final Class<?> entityClass, final PropertyDescriptor propertyDescriptor) {
+        final Method readMethod = propertyDescriptor.getReadMethod();
+        if (readMethod != null) {
+            final Type type = readMethod.getGenericReturnType();
+            if (type instanceof ParameterizedType) {
+                final Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+                if (arguments.length == 1 && arguments[0] instanceof Class) {
+                    return (Class<?>) arguments[0];
+                }
+            }
+        }
+        throw new IllegalArgumentException("element type of one-to-many property was not resolved. "
+                + "specify targetEntity. entity = " + entityClass.getName()
+                + ", property = " + propertyDescriptor.getName());
+    }
+
+    /**
+     * プロパティに付与されたアノテーションを取得する。
+     * <p/>
+     * {@link EntityMeta}と同様に、{@link Access}でフィールドアクセスが指定されている場合はフィールドから、
+     * それ以外の場合はgetterから取得する。
+     *
+     * @param entityClass エンティティクラス
+     * @param propertyDescriptor プロパティ
+     * @return アノテーション
+     */
+    private static Annotation[] findAnnotations(final Class<?> entityClass,
+            final PropertyDescriptor propertyDescriptor) {
+        final Access access = entityClass.getAnnotation(Access.class);
+        if (access != null && access.value() == AccessType.FIELD) {
+            final Field field;
+            try {
+                field = entityClass.getDeclaredField(propertyDescriptor.getName());
+            } catch (NoSuchFieldException e) {
+                throw new IllegalArgumentException("no field that corresponds to the property name. entity class: "
+                        + entityClass.getName() + ", property name: " + propertyDescriptor.getName(), e);
+            }
+            return field.getAnnotations();
+        }
+        final Method readMethod = propertyDescriptor.getReadMethod();
+        if (readMethod == null) {
+            throw new IllegalArgumentException("no getter that corresponds to the property. entity class: "
+                    + entityClass.getName() + ", property name: " + propertyDescriptor.getName());
+        }
+        return readMethod.getAnnotations();
+    }
+
+    /**
+     * 指定されたアノテーションを返す。
+     *
+     * @param <T> アノテーションの型
+     * @param annotations アノテーション情報
+     * @param annotationClass アノテーションクラス
+     * @return アノテーション。存在しない場合はnull
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Annotation> T getAnnotation(final Annotation[] annotations,
+            final Class<T> annotationClass) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().equals(annotationClass)) {
+                return (T) annotation;
+            }
+        }
+        return null;
+    }
+}
@@ -1,17 +1,38 @@
 package nablarch.common.dao;
 
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.NonUniqueResultException;
 import jakarta.persistence.OptimisticLockException;
 
 import nablarch.common.idgenerator.IdGenerator;
@@ -25,6 +46,7 @@ import nablarch.core.db.statement.ResultSetIterator;
 import nablarch.core.db.statement.SelectOption;
 import nablarch.core.db.statement.SqlPStatement;
 import nablarch.core.db.statement.SqlRow;
+import nablarch.core.db.statement.SqlStatement;
 
 /**
  * {@link nablarch.common.dao.DaoContext}のデフォルト実装クラス。
@@ -40,6 +62,9 @@ public class BasicDaoContext implements DaoContext {
     /** サイズ0のオブジェクト配列 */
     private static final Object[] EMPTY_PARAMS = new Object[0];
 
+    /** 複数のプライマリーキーで検索する際に、1回のSQL文で条件とするプライマリーキーの件数 */
+    private static final int[] ID_BUCKET_SIZES = {1, 4, 16, 64, 256};
+
     /** データベース接続 */
     private AppDbConnection dbConnection;
 
@@ -52,6 +77,30 @@ public class BasicDaoContext implements DaoContext {
     /** 遅延ロードするか否か */
     private boolean defer = false;
 
+    /** 遅延取得した検索結果の先読みのバッファサイズ(先読みしない場合は0) */
+    private int prefetchSize = 0;
+
+    /** 並列処理で処理中のレコードの件数の上限(0の場合は利用可能なプロセッサ数の2倍) */
+    private int maxInFlight = 0;
+
+    /** 並列処理で処理結果を完了した順に受け取るか否か */
+    private boolean unordered = false;
+
+    /** 呼び出し単位に指定された実行プロファイル */
+    private ExecutionProfile executionProfile;
+
+    /** 取得するプロパティ(全てのプロパティを取得する場合は{@code null}) */
+    private List<String> selectedProperties;
+
+    /** 全件の検索のソート順(指定しない場合は{@code null}) */
+    private List<String> orderBy;
+
+    /** 子エンティティを設定する関連プロパティ名と、子エンティティのカラムの接頭辞 */
+    private Map<String, String> nestedProperties;
+
+    /** SQL_IDまたはエンティティクラス名をキーとした実行プロファイル */
+    private Map<String, ExecutionProfile> executionProfiles = Collections.emptyMap();
+
     /** {@link GenerationType}と{@link IdGenerator}との対応表 */
     private final Map<GenerationType, IdGenerator> idGenerators =
             new EnumMap<GenerationType, IdGenerator>(GenerationType.class);
@@ -62,6 +111,45 @@ public class BasicDaoContext implements DaoContext {
     /** データベース方言 */
     private final Dialect dialect;
 
+    /** ページネーション検索の件数キャッシュ */
+    private ResultCountCache resultCountCache;
+
+    /** 大量のプライマリーキーによる検索で使用するキー格納用テーブル */
+    private TemporaryKeyTable temporaryKeyTable;
+
+    /** プライマリーキーによる検索結果のキャッシュ */
+    private EntityCache entityCache;
+
+    /** エンティティクラスごとの参照用データのテーブル */
+    private Map<Class<?>, ReferenceDataTable<?>> referenceDataTables = Collections.emptyMap();
+
+    /** トランザクション内で取得済みのエンティティ(保持しない場合は{@code null}) */
+    private IdentityMap identityMap;
+
+    /** プライマリーキーが存在しないことを判定するフィルタ */
+    private PrimaryKeyFilter primaryKeyFilter;
+
+    /** 1件検索で複数件のレコードが該当した場合に例外とするか否か */
+    private boolean strictSingleResult = false;
+
+    /** ページネーション検索で総件数を取得する方法(件数取得SQLで正確な件数を取得する場合は{@code null}) */
+    private CountStrategy countStrategy;
+
+    /** エクスポート時に出力先をフラッシュするレコード件数の間隔 */
+    private int exportFlushInterval = DaoContextFactory.DEFAULT_EXPORT_FLUSH_INTERVAL;
+
+    /** 検索結果をヒープ上に保持する件数の閾値(0以下の場合は件数で判定しない) */
+    private int spillThreshold;
+
+    /** 検索結果をヒープ上に保持するバイト数の閾値(0以下の場合はバイト数で判定しない) */
+    private long spillThresholdBytes;
+
+    /** 検索結果を退避する一時ファイルのディレクトリ(システムの一時ディレクトリを使用する場合は{@code null}) */
+    private String spillDirectory;
+
+    /** 並列処理でエンティティへの変換と処理を実行する{@link Executor}({@code null}の場合は共通プール) */
+    private Executor parallelExecutor;
+
     /**
      * 実行コンテキストを生成する。
      * <p/>
@@ -95,6 +183,9 @@ public class BasicDaoContext implements DaoContext {
      * {@inheritDoc}
      * <p/>
      * この実装では、プライマリーキーのメタデータを{@link java.sql.DatabaseMetaData}から取得する。
+     * 参照用データのテーブル({@link ReferenceDataTable})が設定されたエンティティクラスは、
+     * データベースにアクセスせずにテーブルが保持するエンティティのコピーを返す。
+     * ただし、本クラスによる書き込みがテーブルに反映されていない間は、データベースから取得する。
      * @throws IllegalArgumentException (主キーのカラム数と指定した条件数が一致しない場合)
      */
     @Override
@@ -103,29 +194,431 @@ public class BasicDaoContext implements DaoContext {
         if (id.length != idColumns.size()) {
             throw new IllegalArgumentException("Mismatch the counts of id columns. expected=" + idColumns.size());
         }
-        final String sql = sqlBuilder.buildSelectByIdSql(entityClass);
+        final ReferenceDataTable<?> referenceDataTable = referenceDataTables.get(entityClass);
+        if (referenceDataTable != null && referenceDataTable.isUpToDate()) {
+            final Object found = referenceDataTable.findById(id);
+            return found != null ? BeanUtil.createAndCopy(entityClass, found) : null;
+        }
+        if (identityMap != null) {
+            final T loaded = identityMap.get(entityClass, toIdKey(idColumns, id));
+            if (loaded != null) {
+                return loaded;
+            }
+        }
+        final boolean cacheable = entityCache != null && entityCache.isCacheable(entityClass);
+        if (cacheable) {
+            final T cached = entityCache.get(entityClass, toIdKey(idColumns, id));
+            if (cached != null) {
+                rememberLoaded(entityClass, toIdKey(idColumns, id), cached);
+                return cached;
+            }
+        }
+        if (primaryKeyFilter != null && primaryKeyFilter.isTarget(entityClass)
+                && !primaryKeyFilter.mightContain(entityClass, toIdKey(idColumns, id))) {
+            return null;
+        }
+        // 取得中に書き込みがあった場合に古いエンティティを格納しないよう、取得前にトークンを取得する
+        final long cacheToken = cacheable ? entityCache.beginLoad(entityClass, toIdKey(idColumns, id)) : 0L;
+        final String sql = selectedProperties == null
+                ? sqlBuilder.buildSelectByIdSql(entityClass)
+                : sqlBuilder.buildSelectByIdSql(entityClass, selectedProperties);
         final SqlPStatement stmt = dbConnection.prepareStatement(sql);
         for (int i = 0; i < idColumns.size(); i++) {
             final ColumnMeta meta = idColumns.get(i);
             stmt.setObject(i + 1, ConversionUtil.convert(meta.getJdbcType(), id[i]));
         }
-        final ResultSetIterator rsIter = stmt.executeQuery();
+        final ResultSetIterator rsIter = executeWithProfile(stmt, findExecutionProfile(null, entityClass));
         if (!rsIter.next()) {
             return null;
         }
 
         final SqlRow row = rsIter.getRow();
-        return EntityUtil.createEntity(entityClass, row);
+        final T entity = EntityUtil.createEntity(entityClass, row);
+        if (selectedProperties != null) {
+            // 一部のプロパティのみを取得したエンティティは、キャッシュや取得済みのエンティティとして保持しない
+            return entity;
+        }
+        if (cacheable) {
+            entityCache.put(entityClass, toIdKey(idColumns, id), entity, cacheToken);
+        }
+        rememberLoaded(entityClass, toIdKey(idColumns, id), entity);
+        return entity;
     }
 
+    /**
+     * 取得したエンティティを、トランザクション内で取得済みのエンティティとして保持する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー
+     * @param entity エンティティ
+     * @param <T> エンティティクラス
+     */
+    private <T> void rememberLoaded(final Class<T> entityClass, final List<Object> id, final T entity) {
+        if (identityMap != null) {
+            identityMap.put(entityClass, id, entity);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、プライマリーキーを{@link #ID_BUCKET_SIZES}のいずれかの件数ごとにまとめて検索する。
+     * 件数に満たない場合は最後のプライマリーキーで埋めるため、同一の件数のSQL文が再利用される。
+     * <p/>
+     * キー格納用テーブル({@link TemporaryKeyTable})が設定されていて、プライマリーキーの件数が閾値を超える場合は、
+     * プライマリーキーをキー格納用テーブルに一括登録し、エンティティのテーブルと結合して検索する。
+     *
+     * @throws IllegalArgumentException プライマリーキーのカラムが複数の場合
+     */
+    @Override
+    public <T> EntityList<T> findAllByIds(final Class<T> entityClass, final Collection<?> ids) {
+        if (EntityUtil.findIdColumns(entityClass).size() != 1) {
+            throw new IllegalArgumentException(
+                    "findAllByIds requires a single id column. use findAllByCompositeIds instead.");
+        }
+        final List<Object[]> idValues = new ArrayList<Object[]>(ids.size());
+        for (Object id : ids) {
+            idValues.add(new Object[] {id});
+        }
+        return findAllByIdValues(entityClass, idValues);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、{@link #findAllByIds(Class, Collection)}と同様にプライマリーキーをまとめて検索する。
+     *
+     * @throws IllegalArgumentException プライマリーキーのカラム数と指定した値の数が一致しない場合
+     */
+    @Override
+    public <T> EntityList<T> findAllByCompositeIds(final Class<T> entityClass, final Collection<Object[]> ids) {
+        return findAllByIdValues(entityClass, new ArrayList<Object[]>(ids));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、{@link jakarta.persistence.ManyToOne}の場合は外部キーの値で
+     * {@link #findAllByIds(Class, Collection)}を、{@link jakarta.persistence.OneToMany}の場合は
+     * 関連先の外部キーのカラムを条件としたIN句を{@link #ID_BUCKET_SIZES}のいずれかの件数ごとに実行する。
+     *
+     * @throws IllegalArgumentException 関連プロパティでない場合、外部キーのカラムが解決できない場合
+     */
+    @Override
+    public <T> void loadAssociation(final List<T> entities, final String propertyName) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        final AssociationMeta association = new AssociationMeta(entities.get(0).getClass(), propertyName);
+        if (association.isCollection()) {
+            loadOneToMany(entities, association);
+        } else {
+            loadManyToOne(entities, association);
+        }
+    }
+
+    /**
+     * 外部キーの値で関連先をまとめて検索し、{@link jakarta.persistence.ManyToOne}のプロパティに設定する。
+     *
+     * @param entities エンティティ
+     * @param association 関連プロパティのメタ情報
+     * @param <T> エンティティクラス
+     */
+    private <T> void loadManyToOne(final List<T> entities, final AssociationMeta association) {
+        final List<ColumnMeta> targetIdColumns =
+                Collections.singletonList(AssociationMeta.findSingleIdColumn(association.getTargetClass()));
+        final String foreignKeyProperty = association.getForeignKeyColumn().getPropertyName();
+
+        final Map<List<Object>, Object> targets = new LinkedHashMap<List<Object>, Object>();
+        for (T entity : entities) {
+            final Object foreignKey = BeanUtil.getProperty(entity, foreignKeyProperty);
+            if (foreignKey != null) {
+                targets.put(toIdKey(targetIdColumns, new Object[] {foreignKey}), null);
+            }
+        }
+        if (!targets.isEmpty()) {
+            final List<Object> ids = new ArrayList<Object>(targets.size());
+            for (List<Object> key : targets.keySet()) {
+                ids.add(key.get(0));
+            }
+            for (Object target : findAllByIds(association.getTargetClass(), ids)) {
+                targets.put(toIdKey(targetIdColumns, target), target);
+            }
+        }
+
+        for (T entity : entities) {
+            final Object foreignKey = BeanUtil.getProperty(entity, foreignKeyProperty);
+            association.setValue(entity,
+                    foreignKey == null ? null : targets.get(toIdKey(targetIdColumns, new Object[] {foreignKey})));
+        }
+    }
+
+    /**
+     * 関連先の外部キーのカラムを条件に関連先をまとめて検索し、{@link jakarta.persistence.OneToMany}のプロパティに設定する。
+     *
+     * @param entities エンティティ
+     * @param association 関連プロパティのメタ情報
+     * @param <T> エンティティクラス
+     */
+    private <T> void loadOneToMany(final List<T> entities, final AssociationMeta association) {
+        final List<ColumnMeta> idColumns =
+                Collections.singletonList(AssociationMeta.findSingleIdColumn(entities.get(0).getClass()));
+        final Class<?> targetClass = association.getTargetClass();
+        final ColumnMeta foreignKeyColumn = association.getForeignKeyColumn();
+
+        final Map<List<Object>, List<Object>> targets = new LinkedHashMap<List<Object>, List<Object>>();
+        for (T entity : entities) {
+            final List<Object> key = toIdKey(idColumns, entity);
+            if (key.get(0) != null) {
+                targets.put(key, new ArrayList<Object>());
+            }
+        }
+
+        final List<List<Object>> keys = new ArrayList<List<Object>>(targets.keySet());
+        final ExecutionProfile profile = findExecutionProfile(null, targetClass);
+        int offset = 0;
+        while (offset < keys.size()) {
+            final int bucketSize = findIdBucketSize(keys.size() - offset);
+            final int count = Math.min(bucketSize, keys.size() - offset);
+            final SqlPStatement stmt = dbConnection.prepareStatement(
+                    sqlBuilder.buildSelectByColumnValuesSql(targetClass, foreignKeyColumn.getName(), bucketSize));
+            for (int i = 0; i < bucketSize; i++) {
+                // 件数に満たない分は最後のキーで埋める
+                stmt.setObject(i + 1, keys.get(offset + Math.min(i, count - 1)).get(0));
+            }
+            final ResultSetIterator rows = executeWithProfile(stmt, profile);
+            try {
+                for (SqlRow row : rows) {
+                    final Object target = EntityUtil.createEntity(targetClass, row);
+                    final Object foreignKey = BeanUtil.getProperty(target, foreignKeyColumn.getPropertyName());
+                    targets.get(toIdKey(idColumns, new Object[] {foreignKey})).add(target);
+                }
+            } finally {
+                rows.close();
+            }
+            offset += count;
+        }
+
+        for (T entity : entities) {
+            final List<Object> found = targets.get(toIdKey(idColumns, entity));
+            association.setValue(entity, found == null ? new ArrayList<Object>() : new ArrayList<Object>(found));
+        }
+    }
+
+    /**
+     * 複数のプライマリーキーで検索し、結果をプライマリーキーの順に並べる。
+     *
+     * @param entityClass エンティティクラス
+     * @param ids プライマリーキー(定義順に値を格納した配列)
+     * @param <T> エンティティクラス
+     * @return エンティティリスト
+     */
+    private <T> EntityList<T> findAllByIdValues(final Class<T> entityClass, final List<Object[]> ids) {
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        final Map<List<Object>, T> found = new LinkedHashMap<List<Object>, T>();
+        for (Object[] id : ids) {
+            if (id.length != idColumns.size()) {
+                throw new IllegalArgumentException("Mismatch the counts of id columns. expected=" + idColumns.size());
+            }
+            found.put(toIdKey(idColumns, id), null);
+        }
+
+        final List<List<Object>> keys = new ArrayList<List<Object>>(found.keySet());
+        final ExecutionProfile profile = findExecutionProfile(null, entityClass);
+        if (temporaryKeyTable != null && keys.size() > temporaryKeyTable.getThreshold()) {
+            findByTemporaryKeyTable(entityClass, keys, profile, found);
+        } else {
+            findByIdLists(entityClass, keys, profile, found);
+        }
+
+        final EntityList<T> results = new EntityList<T>(found.size());
+        for (T entity : found.values()) {
+            if (entity != null) {
+                results.add(entity);
+            }
+        }
+        results.setResultCount(results.size());
+        return results;
+    }
+
+    /**
+     * プライマリーキーを一定件数ごとにまとめたIN句(複合キーの場合はOR条件)で検索する。
+     *
+     * @param entityClass エンティティクラス
+     * @param keys プライマリーキー
+     * @param profile 実行プロファイル
+     * @param found 検索結果の格納先
+     * @param <T> エンティティクラス
+     */
+    private <T> void findByIdLists(final Class<T> entityClass, final List<List<Object>> keys,
+            final ExecutionProfile profile, final Map<List<Object>, T> found) {
+        int offset = 0;
+        while (offset < keys.size()) {
+            final int bucketSize = findIdBucketSize(keys.size() - offset);
+            final int count = Math.min(bucketSize, keys.size() - offset);
+            final SqlPStatement stmt = dbConnection.prepareStatement(
+                    sqlBuilder.buildSelectByIdsSql(entityClass, bucketSize));
+            int index = 1;
+            for (int i = 0; i < bucketSize; i++) {
+                // 件数に満たない分は最後のキーで埋める
+                for (Object value : keys.get(offset + Math.min(i, count - 1))) {
+                    stmt.setObject(index++, value);
+                }
+            }
+            putFoundEntities(entityClass, executeWithProfile(stmt, profile), found);
+            offset += count;
+        }
+    }
+
+    /**
+     * プライマリーキーをキー格納用テーブルに一括登録し、エンティティのテーブルと結合して検索する。
+     * <p/>
+     * 登録したプライマリーキーは、検索後(例外発生時を含む)に削除する。
+     * 例外発生時に削除にも失敗した場合は、削除時の例外を抑制された例外として元の例外に追加し、元の例外を送出する。
+     *
+     * @param entityClass エンティティクラス
+     * @param keys プライマリーキー
+     * @param profile 実行プロファイル
+     * @param found 検索結果の格納先
+     * @param <T> エンティティクラス
+     */
+    private <T> void findByTemporaryKeyTable(final Class<T> entityClass, final List<List<Object>> keys,
+            final ExecutionProfile profile, final Map<List<Object>, T> found) {
+        final String sessionId = UUID.randomUUID().toString();
+        final int keyCount = keys.get(0).size();
+        final SqlPStatement insert = dbConnection.prepareStatement(
+                sqlBuilder.buildInsertTemporaryKeySql(temporaryKeyTable, keyCount));
+        try {
+            for (List<Object> key : keys) {
+                insert.setString(1, sessionId);
+                for (int i = 0; i < keyCount; i++) {
+                    insert.setObject(i + 2, key.get(i));
+                }
+                insert.addBatch();
+                if (insert.getBatchSize() >= temporaryKeyTable.getBatchSize()) {
+                    insert.executeBatch();
+                }
+            }
+            if (insert.getBatchSize() > 0) {
+                insert.executeBatch();
+            }
+
+            final SqlPStatement select = dbConnection.prepareStatement(
+                    sqlBuilder.buildSelectByTemporaryKeyTableSql(entityClass, temporaryKeyTable));
+            select.setString(1, sessionId);
+            putFoundEntities(entityClass, executeWithProfile(select, profile), found);
+        } catch (RuntimeException e) {
+            try {
+                deleteTemporaryKeys(sessionId);
+            } catch (RuntimeException deleteFailure) {
+                e.addSuppressed(deleteFailure);
+            }
+            throw e;
+        }
+        deleteTemporaryKeys(sessionId);
+    }
+
+    /**
+     * キー格納用テーブルから、登録したプライマリーキーを削除する。
+     *
+     * @param sessionId 登録時のセッションID
+     */
+    private void deleteTemporaryKeys(final String sessionId) {
+        final SqlPStatement delete = dbConnection.prepareStatement(
+                sqlBuilder.buildDeleteTemporaryKeySql(temporaryKeyTable));
+        delete.setString(1, sessionId);
+        delete.executeUpdate();
+    }
+
+    /**
+     * 検索結果をエンティティに変換し、プライマリーキーに対応付けて格納する。
+     * <p/>
+     * 検索結果は、格納後に解放する。
+     *
+     * @param entityClass エンティティクラス
+     * @param rows 検索結果
+     * @param found 検索結果の格納先
+     * @param <T> エンティティクラス
+     */
+    private static <T> void putFoundEntities(final Class<T> entityClass, final ResultSetIterator rows,
+            final Map<List<Object>, T> found) {
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        try {
+            for (SqlRow row : rows) {
+                final T entity = EntityUtil.createEntity(entityClass, row);
+                final Map<ColumnMeta, Object> idValues = EntityUtil.findIdColumns(entity);
+                final Object[] id = new Object[idColumns.size()];
+                for (int i = 0; i < id.length; i++) {
+                    id[i] = idValues.get(idColumns.get(i));
+                }
+                found.put(toIdKey(idColumns, id), entity);
+            }
+        } finally {
+            rows.close();
+        }
+    }
+
+    /**
+     * プライマリーキーの値を、カラムの型に変換した比較可能なキーに変換する。
+     *
+     * @param idColumns プライマリーキーのカラム
+     * @param id プライマリーキーの値
+     * @return キー
+     */
+    private static List<Object> toIdKey(final List<ColumnMeta> idColumns, final Object[] id) {
+        final List<Object> key = new ArrayList<Object>(id.length);
+        for (int i = 0; i < id.length; i++) {
+            key.add(ConversionUtil.convert(idColumns.get(i).getJdbcType(), id[i]));
+        }
+        return key;
+    }
+
+    /**
+     * エンティティのプライマリーキーを、カラムの型に変換した比較可能なキーに変換する。
+     *
+     * @param idColumns プライマリーキーのカラム
+     * @param entity エンティティ
+     * @return キー
+     */
+    private static List<Object> toIdKey(final List<ColumnMeta> idColumns, final Object entity) {
+        final Map<ColumnMeta, Object> idValues = EntityUtil.findIdColumns(entity);
+        final Object[] id = new Object[idColumns.size()];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = idValues.get(idColumns.get(i));
+        }
+        return toIdKey(idColumns, id);
+    }
+
+    /**
+     * 検索するプライマリーキーの件数に対応するSQL文の件数を返す。
+     *
+     * @param remaining 残りのプライマリーキーの件数
+     * @return SQL文の件数
+     */
+    private static int findIdBucketSize(final int remaining) {
+        for (int size : ID_BUCKET_SIZES) {
+            if (remaining <= size) {
+                return size;
+            }
+        }
+        return ID_BUCKET_SIZES[ID_BUCKET_SIZES.length - 1];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングと遅延ロード({@link #defer()})との併用はサポートしない。
+     * @throws IllegalArgumentException (ページングと遅延ロードが指定されている場合)
+     */
     @Override
     public <T> EntityList<T> findAll(final Class<T> entityClass) {
-        final String sql = sqlBuilder.buildSelectAllSql(entityClass);
-        final SqlPStatement stmt = dbConnection.prepareStatement(sql);
-        final SqlResourceHolder holder = new SqlResourceHolder(stmt.executeQuery());
+        if (page != null) {
+            return findAllWithPaginate(entityClass);
+        }
+        final SqlResourceHolder holder = executeSelectAll(entityClass);
 
         if (defer) {
-            return new DeferredEntityList<T>(entityClass, holder);
+            return new DeferredEntityList<T>(entityClass, holder, prefetchSize);
         } else {
             final EntityList<T> results = new EntityList<T>();
             ResultSetIterator rows = holder.getResultSetIterator();
@@ -136,8 +629,517 @@ public class BasicDaoContext implements DaoContext {
         }
     }
 
+    /**
+     * 全件検索のクエリを実行する。
+     *
+     * @param entityClass エンティティクラス
+     * @param <T> エンティティクラス
+     * @return 検索結果
+     */
+    private <T> SqlResourceHolder executeSelectAll(final Class<T> entityClass) {
+        final SqlPStatement stmt = dbConnection.prepareStatement(buildSelectAllSql(entityClass, orderBy));
+        return new SqlResourceHolder(executeWithProfile(stmt, findExecutionProfile(null, entityClass)));
+    }
+
+    /**
+     * 全件検索のSQL文を構築する。
+     *
+     * @param entityClass エンティティクラス
+     * @param order ソート順(ソートしない場合は{@code null})
+     * @param <T> エンティティクラス
+     * @return SQL文
+     */
+    private <T> String buildSelectAllSql(final Class<T> entityClass, final List<String> order) {
+        if (order != null) {
+            return sqlBuilder.buildSelectAllSql(entityClass, selectedProperties, order);
+        }
+        return selectedProperties == null
+                ? sqlBuilder.buildSelectAllSql(entityClass)
+                : sqlBuilder.buildSelectAllSql(entityClass, selectedProperties);
+    }
+
+    /**
+     * ページネーションつきの全件検索を実行する。
+     * <p/>
+     * 各ページの範囲が一意に定まるよう、ソート順に含まれていないID列をソート順の末尾に追加する。
+     * 総件数は件数取得SQLで取得する(件数キャッシュと{@link CountStrategy}は使用しない)。
+     * 遅延ロード({@link #defer}がtrueの場合)、{@link IllegalArgumentException}を送出する。
+     *
+     * @param entityClass エンティティクラス
+     * @param <T> エンティティクラス
+     * @return 検索結果
+     */
+    private <T> EntityList<T> findAllWithPaginate(final Class<T> entityClass) {
+        if (defer) {
+            throw new IllegalArgumentException("Can't search with defer and pagination.");
+        }
+        final ExecutionProfile profile = findExecutionProfile(null, entityClass);
+        final SqlPStatement countStmt = dbConnection.prepareStatement(
+                dialect.convertCountSql(sqlBuilder.buildSelectAllSql(entityClass)));
+        final EntityList<T> results = new EntityList<T>();
+        results.setPage(page);
+        results.setMax(per);
+        results.setResultCount(getCountQueryResult(executeWithProfile(countStmt, profile)));
+
+        final SqlPStatement stmt = dbConnection.prepareStatement(
+                buildSelectAllSql(entityClass, toStableOrder(entityClass)), toSelectOption(results.getPagination()));
+        final SqlResourceHolder holder = new SqlResourceHolder(executeWithProfile(stmt, profile));
+        try {
+            for (SqlRow row : holder.getResultSetIterator()) {
+                results.add(createResultInstance(entityClass, row));
+            }
+        } finally {
+            holder.dispose();
+        }
+        return results;
+    }
+
+    /**
+     * 指定されたソート順に、含まれていないID列を追加したソート順を取得する。
+     *
+     * @param entityClass エンティティクラス
+     * @param <T> エンティティクラス
+     * @return ソート順(ソート順の指定がなく、ID列もない場合は{@code null})
+     */
+    private <T> List<String> toStableOrder(final Class<T> entityClass) {
+        final List<String> order = orderBy == null ? new ArrayList<String>() : new ArrayList<String>(orderBy);
+        final List<String> orderedProperties = new ArrayList<String>(order.size());
+        for (String each : order) {
+            orderedProperties.add(each.trim().split("\\s+")[0]);
+        }
+        for (ColumnMeta idColumn : EntityUtil.findIdColumns(entityClass)) {
+            if (!orderedProperties.contains(idColumn.getPropertyName())) {
+                order.add(idColumn.getPropertyName());
+            }
+        }
+        return order.isEmpty() ? null : order;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (ページングが指定されている場合)
+     */
+    @Override
+    public <T> Stream<T> streamAll(final Class<T> entityClass) {
+        verifyNotPaginated();
+        return new DeferredEntityList<T>(entityClass, executeSelectAll(entityClass), prefetchSize).stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (ページングが指定されている場合)
+     */
+    @Override
+    public <T> Stream<T> streamBySqlFile(final Class<T> entityClass, final String sqlId, final Object params) {
+        verifyNotPaginated();
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        final SqlResourceHolder holder = executeQuery(normalizedSqlId, params, new SelectOption(0, 0),
+                findExecutionProfile(normalizedSqlId, entityClass));
+        if (nestedProperties != null) {
+            final NestedEntityIterator<T> entities;
+            try {
+                entities = new NestedEntityIterator<T>(entityClass, nestedProperties, holder.getResultSetIterator());
+            } catch (RuntimeException e) {
+                holder.dispose();
+                throw e;
+            }
+            return StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(entities, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(new Runnable() {
+                        @Override
+                        public void run() {
+                            holder.dispose();
+                        }
+                    });
+        }
+        return new DeferredEntityList<T>(entityClass, holder, prefetchSize).stream();
+    }
+
+    @Override
+    public <T> Stream<T> streamBySqlFile(final Class<T> entityClass, final String sqlId) {
+        return streamBySqlFile(entityClass, sqlId, EMPTY_PARAMS);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (チャンクサイズが1未満の場合、またはページングが指定されている場合)
+     */
+    @Override
+    public <T> long findAllInChunks(final Class<T> entityClass, final int chunkSize, final ChunkHandler<T> handler) {
+        verifyChunkSize(chunkSize);
+        verifyNotPaginated();
+        return processInChunks(entityClass, executeSelectAll(entityClass), chunkSize, handler, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (チャンクサイズが1未満の場合、またはページングが指定されている場合)
+     */
+    @Override
+    public <T> long findAllBySqlFileInChunks(final Class<T> entityClass, final String sqlId, final Object params,
+            final int chunkSize, final ChunkHandler<T> handler) {
+        return findAllBySqlFileInChunks(entityClass, sqlId, params, chunkSize, handler, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (チャンクサイズが1未満の場合、またはページングが指定されている場合)
+     */
+    @Override
+    public <T> long findAllBySqlFileInChunks(final Class<T> entityClass, final String sqlId, final Object params,
+            final int chunkSize, final ChunkHandler<T> handler, final Runnable afterChunk) {
+        verifyChunkSize(chunkSize);
+        verifyNotPaginated();
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        final SqlResourceHolder holder = executeQuery(normalizedSqlId, params, new SelectOption(0, 0),
+                findExecutionProfile(normalizedSqlId, entityClass));
+        return processInChunks(entityClass, holder, chunkSize, handler, afterChunk);
+    }
+
+    /**
+     * 検索結果をチャンク単位に処理する。
+     * <p/>
+     * チャンクのバッファは再利用し、処理終了時に検索結果のリソースを解放する。
+     *
+     * @param entityClass エンティティクラス
+     * @param holder 検索結果
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @param afterChunk 各チャンクの処理後に呼び出す処理({@code null}の場合は呼び出さない)
+     * @param <T> エンティティクラス
+     * @return 処理した件数
+     */
+    private <T> long processInChunks(final Class<T> entityClass, final SqlResourceHolder holder,
+            final int chunkSize, final ChunkHandler<T> handler, final Runnable afterChunk) {
+        final List<T> buffer = new ArrayList<T>(chunkSize);
+        final List<T> chunk = Collections.unmodifiableList(buffer);
+        long count = 0;
+        try {
+            for (SqlRow row : holder.getResultSetIterator()) {
+                buffer.add(createResultInstance(entityClass, row));
+                count++;
+                if (buffer.size() == chunkSize) {
+                    handleChunk(chunk, handler, afterChunk);
+                    buffer.clear();
+                }
+            }
+            if (!buffer.isEmpty()) {
+                handleChunk(chunk, handler, afterChunk);
+                buffer.clear();
+            }
+        } finally {
+            holder.dispose();
+        }
+        return count;
+    }
+
+    /**
+     * チャンクをハンドラに引き渡す。
+     *
+     * @param chunk チャンク
+     * @param handler チャンクを処理するハンドラ
+     * @param afterChunk 各チャンクの処理後に呼び出す処理({@code null}の場合は呼び出さない)
+     * @param <T> エンティティクラス
+     */
+    private static <T> void handleChunk(final List<T> chunk, final ChunkHandler<T> handler, final Runnable afterChunk) {
+        handler.handle(chunk);
+        if (afterChunk != null) {
+            afterChunk.run();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (ページングが指定されている場合)
+     */
+    @Override
+    public <T, R> long findAllInParallel(final Class<T> entityClass, final Function<? super T, ? extends R> processor,
+            final Consumer<? super R> sink) {
+        verifyNotPaginated();
+        return processInParallel(entityClass, executeSelectAll(entityClass), processor, sink);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (ページングが指定されている場合)
+     */
+    @Override
+    public <T, R> long findAllBySqlFileInParallel(final Class<T> entityClass, final String sqlId, final Object params,
+            final Function<? super T, ? extends R> processor, final Consumer<? super R> sink) {
+        verifyNotPaginated();
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        final SqlResourceHolder holder = executeQuery(normalizedSqlId, params, new SelectOption(0, 0),
+                findExecutionProfile(normalizedSqlId, entityClass));
+        return processInParallel(entityClass, holder, processor, sink);
+    }
+
+    /**
+     * 検索結果のエンティティへの変換と処理を並列に行う。
+     * <p/>
+     * 処理終了時に検索結果のリソースを解放する。
+     *
+     * @param entityClass エンティティクラス
+     * @param holder 検索結果
+     * @param processor エンティティを処理する関数
+     * @param sink 処理結果の受け取り関数
+     * @param <T> エンティティクラス
+     * @param <R> 処理結果の型
+     * @return 処理した件数
+     */
+    private <T, R> long processInParallel(final Class<T> entityClass, final SqlResourceHolder holder,
+            final Function<? super T, ? extends R> processor, final Consumer<? super R> sink) {
+        final Executor executor = parallelExecutor != null ? parallelExecutor : ForkJoinPool.commonPool();
+        final int limit = maxInFlight > 0 ? maxInFlight : Runtime.getRuntime().availableProcessors() * 2;
+        try {
+            return new ParallelRowProcessor<T, R>(executor, limit, !unordered).process(
+                    holder.getResultSetIterator().iterator(), new Function<SqlRow, T>() {
+                        @Override
+                        public T apply(final SqlRow row) {
+                            return createResultInstance(entityClass, row);
+                        }
+                    }, processor, sink);
+        } finally {
+            holder.dispose();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * チャンクごとに検索を行い、検索結果のリソースを解放してからハンドラを呼び出す。
+     * @throws IllegalArgumentException (チャンクサイズが1未満の場合、ページングが指定されている場合、
+     *                                  ウォーターマークとするプロパティが指定されていない場合、存在しない場合、
+     *                                  またはバージョン番号のプロパティの場合、
+     *                                  ID列が定義されていない場合、
+     *                                  または位置のID列の値の数がID列の数と異なる場合)
+     */
+    @Override
+    public <T> ChangePosition findChangedSince(final Class<T> entityClass, final String watermarkProperty,
+            final ChangePosition position, final int chunkSize, final ChangeHandler<T> handler) {
+        verifyChunkSize(chunkSize);
+        verifyNotPaginated();
+        final ColumnMeta watermarkColumn = findWatermarkColumn(entityClass, watermarkProperty);
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        if (idColumns.isEmpty()) {
+            throw new IllegalArgumentException("id column was not found. entity = " + entityClass.getName());
+        }
+        if (position != null && !position.getIds().isEmpty() && position.getIds().size() != idColumns.size()) {
+            throw new IllegalArgumentException("the number of ids of the position does not match the id columns."
+                    + " entity = " + entityClass.getName() + ", position = " + position);
+        }
+        final ExecutionProfile profile = limitRows(findExecutionProfile(null, entityClass), chunkSize);
+
+        final List<T> buffer = new ArrayList<T>(chunkSize);
+        final List<T> chunk = Collections.unmodifiableList(buffer);
+        ChangePosition current = position;
+        while (true) {
+            final List<Object> keys = toPositionValues(current);
+            final SqlPStatement stmt = dbConnection.prepareStatement(
+                    sqlBuilder.buildSelectChangedSinceSql(entityClass, watermarkColumn.getName(), keys.size()),
+                    new SelectOption(1, chunkSize));
+            int index = 1;
+            for (int i = 0; i < keys.size(); i++) {
+                for (int j = 0; j <= i; j++) {
+                    stmt.setObject(index++, keys.get(j));
+                }
+            }
+            final SqlResourceHolder holder = new SqlResourceHolder(executeWithProfile(stmt, profile));
+            SqlRow last = null;
+            try {
+                for (SqlRow row : holder.getResultSetIterator()) {
+                    buffer.add(EntityUtil.createEntity(entityClass, row));
+                    last = row;
+                }
+            } finally {
+                holder.dispose();
+            }
+            if (last == null) {
+                return current;
+            }
+            final Object[] ids = new Object[idColumns.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = last.get(idColumns.get(i).getName());
+            }
+            current = ChangePosition.of(last.get(watermarkColumn.getName()), ids);
+            final int size = buffer.size();
+            handler.handle(chunk, current);
+            buffer.clear();
+            if (size < chunkSize) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * 位置を表すキー(ウォーターマーク、ID列の順)の値を取得する。
+     *
+     * @param position 位置(初回の場合は{@code null})
+     * @return キーの値(初回の場合は空)
+     */
+    private static List<Object> toPositionValues(final ChangePosition position) {
+        final List<Object> values = new ArrayList<Object>();
+        if (position != null) {
+            values.add(position.getWatermark());
+            values.addAll(position.getIds());
+        }
+        return values;
+    }
+
+    /**
+     * ウォーターマークとするカラムを取得する。
+     * <p/>
+     * バージョン番号はエンティティごとに増加し、テーブル全体で増加する値ではないため、ウォーターマークとして使用できない。
+     *
+     * @param entityClass エンティティクラス
+     * @param watermarkProperty ウォーターマークとするプロパティ名
+     * @return ウォーターマークとするカラム
+     * @throws IllegalArgumentException プロパティ名が{@code null}の場合、カラムが存在しない場合、
+     *                                  またはバージョン番号のカラムの場合
+     */
+    private static ColumnMeta findWatermarkColumn(final Class<?> entityClass, final String watermarkProperty) {
+        if (watermarkProperty == null) {
+            throw new IllegalArgumentException(
+                    "watermark property must not be null. entity = " + entityClass.getName());
+        }
+        for (ColumnMeta column : EntityUtil.findAllColumns(entityClass)) {
+            if (column.getPropertyName().equals(watermarkProperty)) {
+                if (column.isVersion()) {
+                    throw new IllegalArgumentException("version column cannot be used as the watermark"
+                            + " because it is incremented per row. entity = " + entityClass.getName()
+                            + ", property = " + watermarkProperty);
+                }
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("watermark property was not found. entity = "
+                + entityClass.getName() + ", property = " + watermarkProperty);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (ページングが指定されている場合)
+     */
+    @Override
+    public <T> long exportAll(final Class<T> entityClass, final ExportFormat format, final Writer writer) {
+        verifyNotPaginated();
+        return export(entityClass, executeSelectAll(entityClass), format, writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (ページングが指定されている場合)
+     */
+    @Override
+    public <T> long exportAll(final Class<T> entityClass, final ExportFormat format, final OutputStream out) {
+        return exportAll(entityClass, format, toWriter(out));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (ページングが指定されている場合)
+     */
+    @Override
+    public <T> long exportBySqlFile(final Class<T> entityClass, final String sqlId, final Object params,
+            final ExportFormat format, final Writer writer) {
+        verifyNotPaginated();
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        final SqlResourceHolder holder = executeQuery(normalizedSqlId, params, new SelectOption(0, 0),
+                findExecutionProfile(normalizedSqlId, entityClass));
+        return export(entityClass, holder, format, writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、ページングの指定はサポートしない。
+     * @throws IllegalArgumentException (ページングが指定されている場合)
+     */
+    @Override
+    public <T> long exportBySqlFile(final Class<T> entityClass, final String sqlId, final Object params,
+            final ExportFormat format, final OutputStream out) {
+        return exportBySqlFile(entityClass, sqlId, params, format, toWriter(out));
+    }
+
+    /**
+     * 検索結果を出力する。
+     * <p/>
+     * 処理終了時に検索結果のリソースを解放する。
+     *
+     * @param entityClass エンティティクラス
+     * @param holder 検索結果
+     * @param format 出力形式
+     * @param writer 出力先
+     * @return 出力した件数
+     */
+    private long export(final Class<?> entityClass, final SqlResourceHolder holder, final ExportFormat format,
+            final Writer writer) {
+        try {
+            return new ResultSetExporter(entityClass, format, exportFlushInterval)
+                    .export(holder.getResultSetIterator(), writer);
+        } finally {
+            holder.dispose();
+        }
+    }
+
+    /**
+     * 出力先のストリームを、UTF-8で出力する{@link Writer}に変換する。
+     *
+     * @param out 出力先
+     * @return {@link Writer}
+     */
+    private static Writer toWriter(final OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * チャンクサイズが1以上であることを検証する。
+     *
+     * @param chunkSize チャンクサイズ
+     * @throws IllegalArgumentException チャンクサイズが1未満の場合
+     */
+    private static void verifyChunkSize(final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be greater than 0. chunk size = " + chunkSize);
+        }
+    }
+
+    /**
+     * ページングが指定されていないことを検証する。
+     *
+     * @throws IllegalArgumentException ページングが指定されている場合
+     */
+    private void verifyNotPaginated() {
+        if (page != null) {
+            throw new IllegalArgumentException("Can't search with pagination in this method.");
+        }
+    }
+
     @Override
     public <T> EntityList<T> findAllBySqlFile(final Class<T> entityClass, final String sqlId, final Object params) {
+        if (nestedProperties != null) {
+            return findAllBySqlFileWithNest(entityClass, sqlId, params);
+        }
         if (page == null) {
             return findAllBySqlFileWithoutPaginate(entityClass, sqlId, params);
         } else {
@@ -152,14 +1154,30 @@ public class BasicDaoContext implements DaoContext {
 
     /**
      * 検索クエリを実行する。
+     * <p/>
+     * SQL_IDに対応する実行プロファイルが存在する場合は、その設定をステートメントに適用する。
      *
      * @param normalizedSqlId SQL ID
      * @param params バインド変数
      * @param selectOption 検索オプション
      * @return 検索結果
      */
-    @SuppressWarnings("unchecked")
     protected SqlResourceHolder executeQuery(final String normalizedSqlId, final Object params, SelectOption selectOption) {
+        return executeQuery(normalizedSqlId, params, selectOption, findExecutionProfile(normalizedSqlId, null));
+    }
+
+    /**
+     * 実行プロファイルを適用して検索クエリを実行する。
+     *
+     * @param normalizedSqlId SQL ID
+     * @param params バインド変数
+     * @param selectOption 検索オプション
+     * @param profile 実行プロファイル(適用しない場合は{@code null})
+     * @return 検索結果
+     */
+    @SuppressWarnings("unchecked")
+    protected SqlResourceHolder executeQuery(final String normalizedSqlId, final Object params,
+            final SelectOption selectOption, final ExecutionProfile profile) {
         if (params.getClass().isArray()) {
             final Object[] paramsArray = (Object[]) params;
             final SqlPStatement stmt = dbConnection
@@ -167,15 +1185,124 @@ public class BasicDaoContext implements DaoContext {
             for (int i = 0; i < paramsArray.length; i++) {
                 stmt.setObject(i + 1, paramsArray[i]);
             }
-            return new SqlResourceHolder(stmt.executeQuery());
+            return new SqlResourceHolder(executeWithProfile(stmt, profile));
         } else {
             final ParameterizedSqlPStatement stmt = dbConnection
                     .prepareParameterizedSqlStatementBySqlId(normalizedSqlId, params, selectOption);
+            return new SqlResourceHolder(executeWithProfile(stmt, params, profile));
+        }
+    }
+
+    /**
+     * 実行プロファイルを取得する。
+     * <p/>
+     * 以下の優先順で実行プロファイルを探し、最初に見つかったものを返す。
+     * <ol>
+     *     <li>呼び出し単位に指定された実行プロファイル</li>
+     *     <li>SQL_IDに対応する実行プロファイル</li>
+     *     <li>エンティティクラスの完全修飾名に対応する実行プロファイル</li>
+     * </ol>
+     *
+     * @param normalizedSqlId SQL ID(SQL_IDを使用しない場合は{@code null})
+     * @param entityClass エンティティクラス(エンティティクラスで探さない場合は{@code null})
+     * @return 実行プロファイル。存在しない場合は{@code null}
+     */
+    protected ExecutionProfile findExecutionProfile(final String normalizedSqlId, final Class<?> entityClass) {
+        if (executionProfile != null) {
+            return executionProfile;
+        }
+        if (normalizedSqlId != null) {
+            final ExecutionProfile profile = executionProfiles.get(normalizedSqlId);
+            if (profile != null) {
+                return profile;
+            }
+        }
+        return entityClass != null ? executionProfiles.get(entityClass.getName()) : null;
+    }
+
+    /**
+     * 実行プロファイルを適用して検索クエリを実行する。
+     * <p/>
+     * ステートメントはデータベース接続の設定によってSQL文ごとに再利用される場合があるため、
+     * 実行後にステートメントの設定を適用前の値に戻す。
+     *
+     * @param statement ステートメント(バインド変数を設定済みのもの)
+     * @param profile 実行プロファイル(適用しない場合は{@code null})
+     * @return 検索結果
+     */
+    private static ResultSetIterator executeWithProfile(final SqlPStatement statement, final ExecutionProfile profile) {
+        if (profile == null) {
+            return statement.executeQuery();
+        }
+        final ExecutionProfile previous = profile.captureFrom(statement);
+        profile.applyTo(statement);
+        try {
+            return statement.executeQuery();
+        } finally {
+            previous.applyTo(statement);
+        }
+    }
+
+    /**
+     * 実行プロファイルを適用して、名前付きバインド変数を使用した検索クエリを実行する。
+     * <p/>
+     * 実行後のステートメントの設定は、{@link #executeWithProfile(SqlPStatement, ExecutionProfile)}と同様に元に戻す。
+     *
+     * @param statement ステートメント
+     * @param params バインド変数({@link Map}またはBean)
+     * @param profile 実行プロファイル(適用しない場合は{@code null})
+     * @return 検索結果
+     */
+    @SuppressWarnings("unchecked")
+    private static ResultSetIterator executeWithProfile(final ParameterizedSqlPStatement statement, final Object params,
+            final ExecutionProfile profile) {
+        final ExecutionProfile previous = profile != null ? profile.captureFrom(statement) : null;
+        if (profile != null) {
+            profile.applyTo(statement);
+        }
+        try {
             if (params instanceof Map) {
-                return new SqlResourceHolder(stmt.executeQueryByMap((Map<String, ?>) params));
+                return statement.executeQueryByMap((Map<String, ?>) params);
             } else {
-                return new SqlResourceHolder(stmt.executeQueryByObject(params));
+                return statement.executeQueryByObject(params);
+            }
+        } finally {
+            if (previous != null) {
+                previous.applyTo(statement);
+            }
+        }
+    }
+
+    /**
+     * 親子を結合した検索結果を、関連プロパティに子エンティティを設定した親エンティティにマッピングする。
+     *
+     * @param entityClass エンティティクラス
+     * @param sqlId SQL ID
+     * @param params バインド変数
+     * @param <T> エンティティクラス
+     * @return エンティティクラスのリスト
+     * @throws IllegalArgumentException ページングまたは遅延ロードが指定されている場合
+     */
+    private <T> EntityList<T> findAllBySqlFileWithNest(
+            final Class<T> entityClass, final String sqlId, final Object params) {
+        verifyNotPaginated();
+        if (defer) {
+            throw new IllegalArgumentException("Can't search with defer and nested mapping. use streamBySqlFile instead.");
+        }
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        final SqlResourceHolder holder = executeQuery(normalizedSqlId, params, new SelectOption(0, 0),
+                findExecutionProfile(normalizedSqlId, entityClass));
+        try {
+            final EntityList<T> results = new EntityList<T>();
+            final Iterator<T> entities =
+                    new NestedEntityIterator<T>(entityClass, nestedProperties, holder.getResultSetIterator());
+            while (entities.hasNext()) {
+                results.add(entities.next());
             }
+            results.setResultCount(results.size());
+            return results;
+        } finally {
+            holder.dispose();
         }
     }
 
@@ -191,20 +1318,52 @@ public class BasicDaoContext implements DaoContext {
     protected <T> EntityList<T> findAllBySqlFileWithoutPaginate(
             final Class<T> entityClass, final String sqlId, final Object params) {
 
-        final SqlResourceHolder holder = executeQuery(normalizeSqlId(sqlId, entityClass), params, new SelectOption(0, 0));
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        final SqlResourceHolder holder = executeQuery(normalizedSqlId, params, new SelectOption(0, 0),
+                findExecutionProfile(normalizedSqlId, entityClass));
         if (defer) {
-            return new DeferredEntityList<T>(entityClass, holder);
+            return new DeferredEntityList<T>(entityClass, holder, prefetchSize);
         } else {
-            final EntityList<T> results = new EntityList<T>();
-            ResultSetIterator rows = holder.getResultSetIterator();
-            for (SqlRow row : rows) {
-                results.add(createResultInstance(entityClass, row));
+            final EntityList<T> results = createResultList(entityClass);
+            try {
+                ResultSetIterator rows = holder.getResultSetIterator();
+                for (SqlRow row : rows) {
+                    results.add(createResultInstance(entityClass, row));
+                }
+            } catch (RuntimeException e) {
+                if (results instanceof SpillingEntityList) {
+                    ((SpillingEntityList<T>) results).close();
+                }
+                throw e;
             }
             results.setResultCount(results.size());
             return results;
         }
     }
 
+    /**
+     * ページングなしの検索結果を格納するリストを生成する。
+     * <p/>
+     * 一時ファイルへの退避の閾値が設定されていて、エンティティクラスが退避をサポートする場合は
+     * {@link SpillingEntityList}を、それ以外の場合は{@link EntityList}を生成する。
+     *
+     * @param entityClass エンティティクラス
+     * @param <T> エンティティクラス
+     * @return 検索結果を格納するリスト
+     */
+    private <T> EntityList<T> createResultList(final Class<T> entityClass) {
+        if ((spillThreshold <= 0 && spillThresholdBytes <= 0) || entityClass.equals(SqlRow.class)) {
+            return new EntityList<T>();
+        }
+        final EntityCodec codec = EntityCodec.create(entityClass);
+        if (!codec.isSupported()) {
+            return new EntityList<T>();
+        }
+        final Path directory = spillDirectory != null
+                ? Paths.get(spillDirectory) : Paths.get(System.getProperty("java.io.tmpdir"));
+        return new SpillingEntityList<T>(entityClass, codec, spillThreshold, spillThresholdBytes, directory);
+    }
+
     /**
      * 検索結果オブジェクトを生成する。
      *
@@ -238,14 +1397,17 @@ public class BasicDaoContext implements DaoContext {
         if (defer) {
             throw new IllegalArgumentException("Can't search with defer and pagination.");
         }
-        final long count = countBySqlFile(entityClass, sqlId, params);
+        final CountResult count = countForPagination(entityClass, sqlId, params);
         final EntityList<T> results = new EntityList<T>();
         results.setPage(page);
         results.setMax(per);
-        results.setResultCount(count);
+        results.setResultCount(count.getCount());
+        results.setApproximate(count.isApproximate());
 
-        final SqlResourceHolder holder = executeQuery(normalizeSqlId(sqlId, entityClass), params,
-                new SelectOption(results.getPagination().getStartPosition(), results.getPagination().getMax()));
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        final SqlResourceHolder holder = executeQuery(normalizedSqlId, params,
+                toSelectOption(results.getPagination()),
+                findExecutionProfile(normalizedSqlId, entityClass));
         try {
             for (SqlRow row : holder.getResultSetIterator()) {
                 results.add(createResultInstance(entityClass, row));
@@ -256,6 +1418,163 @@ public class BasicDaoContext implements DaoContext {
         return results;
     }
 
+    /**
+     * ページネーションの情報から、検索範囲を指定する検索オプションを生成する。
+     *
+     * @param pagination ページネーションの情報
+     * @return 検索オプション
+     * @throws IllegalArgumentException 開始位置または取得最大件数が{@link Integer#MAX_VALUE}を超える場合
+     */
+    private static SelectOption toSelectOption(final Pagination pagination) {
+        final long startPosition = pagination.getLargeStartPosition();
+        final long max = pagination.getLargeMax();
+        if (startPosition > Integer.MAX_VALUE || max > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("start position and max must be less than or equal to "
+                    + Integer.MAX_VALUE + ". start position = " + startPosition + ", max = " + max);
+        }
+        return new SelectOption((int) startPosition, (int) max);
+    }
+
+    /**
+     * ページネーションのための件数を取得する。
+     * <p/>
+     * 件数キャッシュが設定されている場合、2ページ目以降の検索ではキャッシュした件数を使用する。
+     * 1ページ目の検索では常に件数を取得し直し、キャッシュを更新する。
+     * 概算の件数はキャッシュしない。
+     *
+     * @param entityClass エンティティクラス
+     * @param sqlId SQL ID
+     * @param params バインド変数
+     * @param <T> エンティティクラス
+     * @return 件数
+     */
+    private <T> CountResult countForPagination(final Class<T> entityClass, final String sqlId, final Object params) {
+        if (resultCountCache == null) {
+            return countByStrategy(entityClass, sqlId, params);
+        }
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        if (page > 1) {
+            final Long cachedCount = resultCountCache.get(normalizedSqlId, params);
+            if (cachedCount != null) {
+                return CountResult.exact(cachedCount);
+            }
+        }
+        final CountResult count = countByStrategy(entityClass, sqlId, params);
+        if (!count.isApproximate()) {
+            final String tableName = entityClass.getAnnotation(Entity.class) != null
+                    ? EntityUtil.getTableName(entityClass) : null;
+            resultCountCache.put(normalizedSqlId, params, tableName, count.getCount());
+        }
+        return count;
+    }
+
+    /**
+     * 総件数を取得する方法({@link CountStrategy})に従って件数を取得する。
+     * <p/>
+     * 総件数を取得する方法が設定されていない場合は、件数取得SQLで正確な件数を取得する。
+     *
+     * @param entityClass エンティティクラス
+     * @param sqlId SQL ID
+     * @param params バインド変数
+     * @param <T> エンティティクラス
+     * @return 件数
+     */
+    private <T> CountResult countByStrategy(final Class<T> entityClass, final String sqlId, final Object params) {
+        if (countStrategy == null) {
+            return CountResult.exact(countBySqlFile(entityClass, sqlId, params));
+        }
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        return countStrategy.count(new CountQuery() {
+            @Override
+            public Class<?> getEntityClass() {
+                return entityClass;
+            }
+
+            @Override
+            public String getSqlId() {
+                return normalizedSqlId;
+            }
+
+            @Override
+            public Object getParams() {
+                return params;
+            }
+
+            @Override
+            public long count() {
+                return countBySqlFile(entityClass, sqlId, params);
+            }
+
+            @Override
+            public boolean hasRowAt(final long position) {
+                final SqlResourceHolder holder = executeQuery(normalizedSqlId, params,
+                        new SelectOption(Math.toIntExact(position), 1), findExecutionProfile(normalizedSqlId, entityClass));
+                try {
+                    return holder.getResultSetIterator().next();
+                } finally {
+                    holder.dispose();
+                }
+            }
+        });
+    }
+
+    /**
+     * 登録・更新・削除したエンティティを、プライマリーキーによる検索結果のキャッシュと取得済みのエンティティから削除する。
+     * <p/>
+     * 登録したエンティティも、トランザクションが確定する前にキャッシュに格納されないよう、キャッシュに書き込みを通知する。
+     * 参照用データのテーブルが設定されている場合は、テーブルにも書き込みを通知する。
+     *
+     * @param entityClass エンティティクラス
+     * @param entities 登録・更新・削除したエンティティ
+     */
+    private void evictLoadedEntities(final Class<?> entityClass, final List<?> entities) {
+        final ReferenceDataTable<?> referenceDataTable = referenceDataTables.get(entityClass);
+        if (referenceDataTable != null) {
+            referenceDataTable.written();
+        }
+        final boolean cacheable = entityCache != null && entityCache.isCacheable(entityClass);
+        if (!cacheable && identityMap == null) {
+            return;
+        }
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        for (Object entity : entities) {
+            final List<Object> key = toIdKey(idColumns, entity);
+            if (cacheable) {
+                entityCache.evict(entityClass, key);
+            }
+            if (identityMap != null) {
+                identityMap.remove(entityClass, key);
+            }
+        }
+    }
+
+    /**
+     * 登録したエンティティのプライマリーキーを、プライマリーキーが存在しないことを判定するフィルタに追加する。
+     *
+     * @param entityClass エンティティクラス
+     * @param entities 登録したエンティティ
+     */
+    private void rememberInserted(final Class<?> entityClass, final List<?> entities) {
+        if (primaryKeyFilter == null || !primaryKeyFilter.isTarget(entityClass)) {
+            return;
+        }
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        for (Object entity : entities) {
+            primaryKeyFilter.add(entityClass, toIdKey(idColumns, entity));
+        }
+    }
+
+    /**
+     * エンティティクラスのテーブルに関連付けられた件数キャッシュを無効化する。
+     *
+     * @param entityClass 更新対象のエンティティクラス
+     */
+    private void invalidateResultCount(final Class<?> entityClass) {
+        if (resultCountCache != null) {
+            resultCountCache.invalidate(EntityUtil.getTableName(entityClass));
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @throws NoDataException (検索条件に該当するレコードが存在しない場合)
@@ -272,14 +1591,27 @@ public class BasicDaoContext implements DaoContext {
 
     /**
      * {@inheritDoc}
+     * <p/>
+     * この実装では、最大行数とフェッチサイズを1件(厳密モードの場合は2件)に設定して検索する。
+     * 条件に該当するレコードが複数件存在する場合でも、使用しない行の転送やマッピングは行わない。
+     * SQL文はページング用に変換しないため、{@code FOR UPDATE}などを含むSQL文もそのまま実行される。
+     *
+     * @throws NonUniqueResultException 厳密モードで、条件に該当するレコードが複数件存在する場合
      */
     @Override
     public <T> T findBySqlFileOrNull(final Class<T> entityClass, final String sqlId, final Object params) {
-        final SqlResourceHolder holder = executeQuery(normalizeSqlId(sqlId, entityClass), params, new SelectOption(0, 0));
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        final int rowLimit = strictSingleResult ? 2 : 1;
+        final SqlResourceHolder holder = executeQuery(normalizedSqlId, params, new SelectOption(0, 0),
+                limitRows(findExecutionProfile(normalizedSqlId, entityClass), rowLimit));
         try {
             ResultSetIterator rows = holder.getResultSetIterator();
             if (rows.next()) {
                 final SqlRow row = holder.getResultSetIterator().getRow();
+                if (strictSingleResult && rows.next()) {
+                    throw new NonUniqueResultException(
+                            "query returned more than one result. sql_id = " + normalizedSqlId);
+                }
                 if (entityClass.equals(SqlRow.class)) {
                     @SuppressWarnings("unchecked")
                     T t = (T) row;
@@ -295,34 +1627,81 @@ public class BasicDaoContext implements DaoContext {
         }
     }
 
+    /**
+     * 最大行数とフェッチサイズを指定された件数に制限した実行プロファイルを生成する。
+     * <p/>
+     * 元の実行プロファイルの全ての設定を引き継ぐ。
+     * 最大行数は指定された件数とする。フェッチサイズは、元の実行プロファイルに指定された件数より小さい値(0より大きい値)が
+     * 設定されている場合はその値を使用する。
+     *
+     * @param profile 元の実行プロファイル(存在しない場合は{@code null})
+     * @param rows 件数
+     * @return 実行プロファイル
+     */
+    private static ExecutionProfile limitRows(final ExecutionProfile profile, final int rows) {
+        final ExecutionProfile limited = new ExecutionProfile();
+        limited.setMaxRows(rows);
+        limited.setFetchSize(rows);
+        if (profile != null) {
+            limited.setFetchSize(minPositive(profile.getFetchSize(), rows));
+            limited.setQueryTimeout(profile.getQueryTimeout());
+        }
+        return limited;
+    }
+
+    /**
+     * 設定値と上限のうち小さい方を返す。
+     *
+     * @param value 設定値(未設定の場合は{@code null}、0以下の場合は設定なしとみなす)
+     * @param limit 上限
+     * @return 設定値が0より大きく上限より小さい場合は設定値、それ以外は上限
+     */
+    private static int minPositive(final Integer value, final int limit) {
+        return value != null && value > 0 ? Math.min(value, limit) : limit;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> long countBySqlFile(final Class<T> entityClass, final String sqlId, final Object params) {
 
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        final ExecutionProfile profile = findExecutionProfile(normalizedSqlId, entityClass);
         final ResultSetIterator rs;
         if (params.getClass().isArray()) {
             final Object[] paramsArray = (Object[]) params;
-            final SqlPStatement stmtCount = dbConnection.prepareCountStatementBySqlId(
-                    normalizeSqlId(sqlId, entityClass));
+            final SqlPStatement stmtCount = dbConnection.prepareCountStatementBySqlId(normalizedSqlId);
             for (int i = 0; i < paramsArray.length; i++) {
                 stmtCount.setObject(i + 1, paramsArray[i]);
             }
 
-            rs = stmtCount.executeQuery();
+            rs = executeWithProfile(stmtCount, profile);
         } else {
             final ParameterizedSqlPStatement stmtCount = dbConnection
-                    .prepareParameterizedCountSqlStatementBySqlId(
-                            normalizeSqlId(sqlId, entityClass), params);
-
-            if (params instanceof Map) {
-                rs = stmtCount.executeQueryByMap((Map<String, ?>) params);
-            } else {
-                rs = stmtCount.executeQueryByObject(params);
-            }
+                    .prepareParameterizedCountSqlStatementBySqlId(normalizedSqlId, params);
+            rs = executeWithProfile(stmtCount, params, profile);
         }
         return getCountQueryResult(rs);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * この実装では、検索範囲を先頭の1件とした{@link SelectOption}で検索する。
+     * {@link Dialect#supportsOffset()}が{@code true}の場合は、{@link Dialect#convertPaginationSql(String, SelectOption)}で
+     * 1件のみを取得するSQLに変換されるため、データベースは最初の1件が見つかった時点で検索を終了する。
+     */
+    @Override
+    public <T> boolean exists(final Class<T> entityClass, final String sqlId, final Object params) {
+        final String normalizedSqlId = normalizeSqlId(sqlId, entityClass);
+        final SqlResourceHolder holder = executeQuery(normalizedSqlId, params, new SelectOption(1, 1),
+                findExecutionProfile(normalizedSqlId, entityClass));
+        try {
+            return holder.getResultSetIterator().next();
+        } finally {
+            holder.dispose();
+        }
+    }
+
     /**
      * 件数取得クエリから結果を取得する。
      *
@@ -353,6 +1732,8 @@ public class BasicDaoContext implements DaoContext {
             stmt.setObject(i + 1, sqlWithParams.getParams().get(i));
         }
         final int rows = stmt.executeUpdate();
+        invalidateResultCount(entity.getClass());
+        evictLoadedEntities(entity.getClass(), Collections.singletonList(entity));
         if ((EntityUtil.findVersionColumn(entity) != null) && (rows == 0)) {
             throw new OptimisticLockException();
         }
@@ -375,6 +1756,8 @@ public class BasicDaoContext implements DaoContext {
             addBatchParameter(stmt, entity, columns);
         }
         stmt.executeBatch();
+        invalidateResultCount(entityClass);
+        evictLoadedEntities(entityClass, entities);
     }
 
     @Override
@@ -402,8 +1785,11 @@ public class BasicDaoContext implements DaoContext {
             index++;
         }
         stmt.executeUpdate();
+        invalidateResultCount(entity.getClass());
 
         postInsert(entity, generationType, stmt);
+        rememberInserted(entity.getClass(), Collections.singletonList(entity));
+        evictLoadedEntities(entity.getClass(), Collections.singletonList(entity));
     }
 
     @Override
@@ -438,8 +1824,11 @@ public class BasicDaoContext implements DaoContext {
             addBatchParameter(stmt, entity, columns);
         }
         stmt.executeBatch();
+        invalidateResultCount(entityClass);
 
         postBatchInsert(entityClass, entities, generationType, stmt);
+        rememberInserted(entityClass, entities);
+        evictLoadedEntities(entityClass, entities);
     }
 
     /**
@@ -635,7 +2024,10 @@ public class BasicDaoContext implements DaoContext {
             stmt.setObject(index, valueIter.next());
             index++;
         }
-        return stmt.executeUpdate();
+        final int rows = stmt.executeUpdate();
+        invalidateResultCount(entity.getClass());
+        evictLoadedEntities(entity.getClass(), Collections.singletonList(entity));
+        return rows;
     }
 
     @Override
@@ -653,6 +2045,8 @@ public class BasicDaoContext implements DaoContext {
             addBatchParameter(stmt, entity, columns);
         }
         stmt.executeBatch();
+        invalidateResultCount(entityClass);
+        evictLoadedEntities(entityClass, entities);
     }
 
     /**
@@ -710,6 +2104,94 @@ public class BasicDaoContext implements DaoContext {
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException バッファサイズが1未満の場合
+     */
+    @Override
+    public DaoContext prefetch(final int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("prefetch buffer size must be greater than 0. buffer size = "
+                    + bufferSize);
+        }
+        this.prefetchSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException 上限が1未満の場合
+     */
+    @Override
+    public DaoContext parallel(final int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("max in-flight rows must be greater than 0. max in-flight rows = "
+                    + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    @Override
+    public DaoContext unordered() {
+        this.unordered = true;
+        return this;
+    }
+
+    @Override
+    public DaoContext executionProfile(final ExecutionProfile executionProfile) {
+        this.executionProfile = executionProfile;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一部のプロパティのみを取得したエンティティは、プライマリーキーによる検索結果のキャッシュや
+     * トランザクション内で取得済みのエンティティとして保持しない。
+     *
+     * @throws IllegalArgumentException プロパティ名が指定されていない場合
+     */
+    @Override
+    public DaoContext select(final String... propertyNames) {
+        if (propertyNames.length == 0) {
+            throw new IllegalArgumentException("property names must not be empty.");
+        }
+        this.selectedProperties = Arrays.asList(propertyNames);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException ソート順が指定されていない場合
+     */
+    @Override
+    public DaoContext orderBy(final String... orderBy) {
+        if (orderBy.length == 0) {
+            throw new IllegalArgumentException("order by must not be empty.");
+        }
+        this.orderBy = Arrays.asList(orderBy);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 複数の関連プロパティを指定する場合は、関連プロパティごとに呼び出す。
+     * この実装では、ページングと遅延ロード({@link #defer()})との併用はサポートしない。
+     */
+    @Override
+    public DaoContext nest(final String propertyName, final String columnPrefix) {
+        if (nestedProperties == null) {
+            nestedProperties = new LinkedHashMap<String, String>();
+        }
+        nestedProperties.put(propertyName, columnPrefix);
+        return this;
+    }
+
     /**
      * SQL_IDにファイル名がついてない場合は、Entityクラスの完全修飾名を付加する。
      *
@@ -736,6 +2218,132 @@ public class BasicDaoContext implements DaoContext {
         idGenerators.put(type, generator);
     }
 
+    /**
+     * ページネーション検索の件数キャッシュを設定する。
+     *
+     * @param resultCountCache 件数キャッシュ
+     */
+    protected void setResultCountCache(final ResultCountCache resultCountCache) {
+        this.resultCountCache = resultCountCache;
+    }
+
+    /**
+     * SQL_IDまたはエンティティクラス名をキーとした実行プロファイルを設定する。
+     *
+     * @param executionProfiles 実行プロファイル
+     */
+    protected void setExecutionProfiles(final Map<String, ExecutionProfile> executionProfiles) {
+        this.executionProfiles = executionProfiles;
+    }
+
+    /**
+     * 大量のプライマリーキーによる検索で使用するキー格納用テーブルを設定する。
+     *
+     * @param temporaryKeyTable キー格納用テーブル
+     */
+    protected void setTemporaryKeyTable(final TemporaryKeyTable temporaryKeyTable) {
+        this.temporaryKeyTable = temporaryKeyTable;
+    }
+
+    /**
+     * プライマリーキーによる検索結果のキャッシュを設定する。
+     *
+     * @param entityCache エンティティのキャッシュ
+     */
+    protected void setEntityCache(final EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    /**
+     * エンティティクラスごとの参照用データのテーブルを設定する。
+     *
+     * @param referenceDataTables 参照用データのテーブル
+     */
+    protected void setReferenceDataTables(final Map<Class<?>, ReferenceDataTable<?>> referenceDataTables) {
+        this.referenceDataTables = referenceDataTables;
+    }
+
+    /**
+     * トランザクション内で取得済みのエンティティの保持先を設定する。
+     *
+     * @param identityMap 取得済みのエンティティの保持先(保持しない場合は{@code null})
+     */
+    protected void setIdentityMap(final IdentityMap identityMap) {
+        this.identityMap = identityMap;
+    }
+
+    /**
+     * プライマリーキーが存在しないことを判定するフィルタを設定する。
+     *
+     * @param primaryKeyFilter フィルタ
+     */
+    protected void setPrimaryKeyFilter(final PrimaryKeyFilter primaryKeyFilter) {
+        this.primaryKeyFilter = primaryKeyFilter;
+    }
+
+    /**
+     * 1件検索で複数件のレコードが該当した場合に例外とするか否か(厳密モード)を設定する。
+     *
+     * @param strictSingleResult 例外とする場合{@code true}
+     */
+    protected void setStrictSingleResult(final boolean strictSingleResult) {
+        this.strictSingleResult = strictSingleResult;
+    }
+
+    /**
+     * ページネーション検索で総件数を取得する方法を設定する。
+     *
+     * @param countStrategy 総件数を取得する方法
+     */
+    protected void setCountStrategy(final CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+    }
+
+    /**
+     * エクスポート時に出力先をフラッシュするレコード件数の間隔を設定する。
+     *
+     * @param exportFlushInterval フラッシュするレコード件数の間隔
+     */
+    protected void setExportFlushInterval(final int exportFlushInterval) {
+        this.exportFlushInterval = exportFlushInterval;
+    }
+
+    /**
+     * 検索結果をヒープ上に保持する件数の閾値を設定する。
+     *
+     * @param spillThreshold 件数の閾値(0以下の場合は件数で判定しない)
+     */
+    protected void setSpillThreshold(final int spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * 検索結果をヒープ上に保持するバイト数の閾値を設定する。
+     *
+     * @param spillThresholdBytes バイト数の閾値(0以下の場合はバイト数で判定しない)
+     */
+    protected void setSpillThresholdBytes(final long spillThresholdBytes) {
+        this.spillThresholdBytes = spillThresholdBytes;
+    }
+
+    /**
+     * 検索結果を退避する一時ファイルのディレクトリを設定する。
+     *
+     * @param spillDirectory ディレクトリ(システムの一時ディレクトリを使用する場合は{@code null})
+     */
+    protected void setSpillDirectory(final String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * 並列処理でエンティティへの変換と処理を実行する{@link Executor}を設定する。
+     *
+     * @param parallelExecutor {@link Executor}(共通プールを使用する場合は{@code null})
+     */
+    protected void setParallelExecutor(final Executor parallelExecutor) {
+        this.parallelExecutor = parallelExecutor;
+    }
+
     /**
      * 使用するデータベースコネクションを設定する。
      *
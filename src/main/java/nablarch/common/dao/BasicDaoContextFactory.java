@@ -36,6 +36,22 @@ public class BasicDaoContextFactory extends DaoContextFactory {
         if (tableIdGenerator != null) {
             daoContext.setIdGenerator(GenerationType.TABLE, tableIdGenerator);
         }
+        daoContext.setResultCountCache(resultCountCache);
+        daoContext.setExecutionProfiles(executionProfiles);
+        daoContext.setTemporaryKeyTable(temporaryKeyTable);
+        daoContext.setEntityCache(entityCache);
+        daoContext.setReferenceDataTables(referenceDataTables);
+        daoContext.setPrimaryKeyFilter(primaryKeyFilter);
+        daoContext.setStrictSingleResult(strictSingleResult);
+        daoContext.setCountStrategy(countStrategy);
+        daoContext.setExportFlushInterval(exportFlushInterval);
+        daoContext.setSpillThreshold(spillThreshold);
+        daoContext.setSpillThresholdBytes(spillThresholdBytes);
+        daoContext.setSpillDirectory(spillDirectory);
+        daoContext.setParallelExecutor(parallelExecutor);
+        if (identityMapEnabled) {
+            daoContext.setIdentityMap(identityMap.get());
+        }
 
         return daoContext;
     }
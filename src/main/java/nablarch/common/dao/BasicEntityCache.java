@@ -0,0 +1,487 @@
+package nablarch.common.dao;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.persistence.Cacheable;
+
+import nablarch.core.beans.BeanUtil;
+
+/**
+ * {@link EntityCache}の基本実装クラス。
+ * <p/>
+ * 以下のいずれかに該当するエンティティクラスをキャッシュ対象とする。
+ * <ul>
+ * <li>{@link Cacheable}アノテーションが設定されている(値が{@code true})</li>
+ * <li>{@link #setEntityClassNames(List)}でクラス名が設定されている(アノテーションの設定が優先される)</li>
+ * </ul>
+ * <p/>
+ * キャッシュはエンティティクラスごとに上限数まで保持する。
+ * 上限を超えた場合の破棄対象は、W-TinyLFUを簡略化した方式で決定する。
+ * 新しいエンティティはまず小さな新規領域(上限数の1%)に格納され、新規領域から溢れたエンティティは
+ * メイン領域で最も長い間参照されていないエンティティとアクセス頻度を比較し、頻度が高い場合のみメイン領域に格納される。
+ * アクセス頻度は、Count-Min Sketchにより一定のメモリで近似し、定期的に半減させることで過去の頻度の影響を減らす。
+ * これにより、一度しか参照されないエンティティによって頻繁に参照されるエンティティが破棄されることを防ぐ。
+ * <p/>
+ * キャッシュへの格納時と取得時には、{@link BeanUtil#createAndCopy(Class, Object)}でエンティティをコピーする。
+ * コピーは浅いコピーのため、{@link java.util.Date}などの可変なプロパティを変更してはならない。
+ * <p/>
+ * 登録・更新・削除によるキャッシュの削除は、データベースへの反映時に行われる。
+ * 反映したトランザクションの確定を検知する仕組みはないため、反映から保留期間({@link #setWriteHoldOff(long)})が
+ * 経過するまでは、同じプライマリーキーのエンティティを格納しない。
+ * また、取得の開始後に反映があった場合も、取得したエンティティは格納しない。
+ * 他のプロセスによる更新は検知できないため、有効期限(デフォルトは10分)が経過したエンティティは破棄する。
+ */
+public class BasicEntityCache implements EntityCache {
+
+    /** デフォルトのエンティティクラスごとのキャッシュ上限数 */
+    private static final int DEFAULT_MAX_SIZE = 1000;
+
+    /** エンティティクラスごとのキャッシュ上限数 */
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    /** デフォルトの有効期限(ミリ秒) */
+    private static final long DEFAULT_TIME_TO_LIVE = 10L * 60L * 1000L;
+
+    /** デフォルトの書き込み後の保留期間(ミリ秒) */
+    private static final long DEFAULT_WRITE_HOLD_OFF = 60L * 1000L;
+
+    /** 有効期限(ミリ秒、0以下の場合は無期限) */
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    /** 書き込み後に格納しない保留期間(ミリ秒) */
+    private long writeHoldOff = DEFAULT_WRITE_HOLD_OFF;
+
+    /** 書き込み履歴による格納可否の判定 */
+    private final CacheWriteGuard writeGuard = new CacheWriteGuard();
+
+    /** キャッシュ対象のエンティティクラス名 */
+    private Set<String> entityClassNames = Collections.emptySet();
+
+    /** エンティティクラスごとのキャッシュ */
+    private final ConcurrentMap<Class<?>, Segment> segments = new ConcurrentHashMap<Class<?>, Segment>();
+
+    /** キャッシュから取得できた回数 */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** キャッシュから取得できなかった回数 */
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Override
+    public boolean isCacheable(final Class<?> entityClass) {
+        final Cacheable cacheable = entityClass.getAnnotation(Cacheable.class);
+        if (cacheable != null) {
+            return cacheable.value();
+        }
+        return entityClassNames.contains(entityClass.getName());
+    }
+
+    @Override
+    public <T> T get(final Class<T> entityClass, final List<Object> id) {
+        // 未格納のエンティティも頻度に反映するため、取得時にもキャッシュを生成する
+        final Object entity = findSegment(entityClass).get(id, currentTimeMillis());
+        if (entity == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return BeanUtil.createAndCopy(entityClass, entity);
+    }
+
+    @Override
+    public long beginLoad(final Class<?> entityClass, final List<Object> id) {
+        return writeGuard.begin();
+    }
+
+    @Override
+    public <T> void put(final Class<T> entityClass, final List<Object> id, final T entity, final long token) {
+        final long now = currentTimeMillis();
+        if (!writeGuard.canPut(entityClass, id, token, now)) {
+            return;
+        }
+        final long expiresAt = timeToLive > 0 ? now + timeToLive : Long.MAX_VALUE;
+        findSegment(entityClass).put(id, BeanUtil.createAndCopy(entityClass, entity), expiresAt);
+    }
+
+    /**
+     * エンティティクラスのキャッシュを取得する。存在しない場合は生成する。
+     *
+     * @param entityClass エンティティクラス
+     * @return キャッシュ
+     */
+    private Segment findSegment(final Class<?> entityClass) {
+        Segment segment = segments.get(entityClass);
+        if (segment == null) {
+            final Segment newSegment = new Segment(maxSize);
+            segment = segments.putIfAbsent(entityClass, newSegment);
+            if (segment == null) {
+                segment = newSegment;
+            }
+        }
+        return segment;
+    }
+
+    @Override
+    public void evict(final Class<?> entityClass, final List<Object> id) {
+        writeGuard.written(entityClass, id, currentTimeMillis(), writeHoldOff);
+        final Segment segment = segments.get(entityClass);
+        if (segment != null) {
+            segment.remove(id);
+        }
+    }
+
+    @Override
+    public void invalidate(final Class<?> entityClass) {
+        writeGuard.written(entityClass, null, currentTimeMillis(), writeHoldOff);
+        segments.remove(entityClass);
+    }
+
+    /**
+     * キャッシュから取得できた回数を返す。
+     *
+     * @return キャッシュから取得できた回数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * キャッシュから取得できなかった回数を返す。
+     *
+     * @return キャッシュから取得できなかった回数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * キャッシュのヒット率を返す。
+     *
+     * @return ヒット率(一度も取得していない場合は0)
+     */
+    public double getHitRate() {
+        final long hit = hitCount.get();
+        final long total = hit + missCount.get();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    /**
+     * エンティティクラスごとのキャッシュ件数を返す。
+     *
+     * @param entityClass エンティティクラス
+     * @return キャッシュ件数(有効期限切れのものを含む)
+     */
+    public int getSize(final Class<?> entityClass) {
+        final Segment segment = segments.get(entityClass);
+        return segment != null ? segment.size() : 0;
+    }
+
+    /**
+     * 現在時刻(ミリ秒)を返す。
+     *
+     * @return 現在時刻
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * エンティティクラスごとのキャッシュ上限数を設定する。
+     * <p/>
+     * 設定しない場合は、1000が使用される。
+     *
+     * @param maxSize キャッシュ上限数
+     */
+    public void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 有効期限(ミリ秒)を設定する。
+     * <p/>
+     * 設定しない場合は、10分となる。0以下の場合は、無期限となる。
+     *
+     * @param timeToLive 有効期限(ミリ秒)
+     */
+    public void setTimeToLive(final long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * 書き込み後に格納しない保留期間(ミリ秒)を設定する。
+     * <p/>
+     * 登録・更新・削除したトランザクションが確定するまでは、確定前のエンティティや書き込み前のエンティティを
+     * 格納しないよう、書き込みから保留期間が経過するまで同じプライマリーキーのエンティティを格納しない。
+     * トランザクションの最大の実行時間より長い値を設定すること。
+     * <p/>
+     * 設定しない場合は、1分となる。
+     *
+     * @param writeHoldOff 保留期間(ミリ秒)
+     */
+    public void setWriteHoldOff(final long writeHoldOff) {
+        this.writeHoldOff = writeHoldOff;
+    }
+
+    /**
+     * キャッシュ対象のエンティティクラス名(完全修飾名)を設定する。
+     *
+     * @param entityClassNames エンティティクラス名
+     */
+    public void setEntityClassNames(final List<String> entityClassNames) {
+        this.entityClassNames = new HashSet<String>(entityClassNames);
+    }
+
+    /**
+     * エンティティクラスごとのキャッシュ。
+     */
+    private static final class Segment {
+
+        /** 新規領域(アクセス順) */
+        private final LinkedHashMap<List<Object>, CacheEntry> window =
+                new LinkedHashMap<List<Object>, CacheEntry>(16, 0.75f, true);
+
+        /** メイン領域(アクセス順) */
+        private final LinkedHashMap<List<Object>, CacheEntry> main =
+                new LinkedHashMap<List<Object>, CacheEntry>(16, 0.75f, true);
+
+        /** 新規領域の上限数 */
+        private final int windowMaxSize;
+
+        /** メイン領域の上限数 */
+        private final int mainMaxSize;
+
+        /** アクセス頻度 */
+        private final FrequencySketch sketch;
+
+        /**
+         * キャッシュを生成する。
+         *
+         * @param maxSize 上限数
+         */
+        private Segment(final int maxSize) {
+            windowMaxSize = Math.max(1, maxSize / 100);
+            mainMaxSize = Math.max(0, maxSize - windowMaxSize);
+            sketch = new FrequencySketch(maxSize);
+        }
+
+        /**
+         * エンティティを取得する。
+         *
+         * @param id プライマリーキー
+         * @param now 現在時刻
+         * @return エンティティ(存在しない場合や有効期限切れの場合は{@code null})
+         */
+        synchronized Object get(final List<Object> id, final long now) {
+            sketch.increment(id);
+            CacheEntry entry = window.get(id);
+            if (entry == null) {
+                entry = main.get(id);
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= now) {
+                remove(id);
+                return null;
+            }
+            return entry.entity;
+        }
+
+        /**
+         * エンティティを格納する。
+         *
+         * @param id プライマリーキー
+         * @param entity エンティティ
+         * @param expiresAt 有効期限
+         */
+        synchronized void put(final List<Object> id, final Object entity, final long expiresAt) {
+            final CacheEntry entry = new CacheEntry(id, entity, expiresAt);
+            if (main.containsKey(id)) {
+                main.put(id, entry);
+                return;
+            }
+            window.put(id, entry);
+            if (window.size() > windowMaxSize) {
+                final Iterator<CacheEntry> iterator = window.values().iterator();
+                final CacheEntry candidate = iterator.next();
+                iterator.remove();
+                admit(candidate);
+            }
+        }
+
+        /**
+         * 新規領域から溢れたエンティティを、メイン領域に格納するか判定する。
+         *
+         * @param candidate 新規領域から溢れたエンティティ
+         */
+        private void admit(final CacheEntry candidate) {
+            if (main.size() < mainMaxSize) {
+                main.put(candidate.id, candidate);
+                return;
+            }
+            if (mainMaxSize == 0) {
+                return;
+            }
+            final Iterator<CacheEntry> iterator = main.values().iterator();
+            final CacheEntry victim = iterator.next();
+            if (sketch.frequency(candidate.id) > sketch.frequency(victim.id)) {
+                iterator.remove();
+                main.put(candidate.id, candidate);
+            }
+        }
+
+        /**
+         * エンティティを削除する。
+         *
+         * @param id プライマリーキー
+         */
+        synchronized void remove(final List<Object> id) {
+            window.remove(id);
+            main.remove(id);
+        }
+
+        /**
+         * 件数を返す。
+         *
+         * @return 件数
+         */
+        synchronized int size() {
+            return window.size() + main.size();
+        }
+    }
+
+    /**
+     * キャッシュしたエンティティ。
+     */
+    private static final class CacheEntry {
+
+        /** プライマリーキー */
+        private final List<Object> id;
+
+        /** エンティティ */
+        private final Object entity;
+
+        /** 有効期限(エポックミリ秒) */
+        private final long expiresAt;
+
+        /**
+         * キャッシュしたエンティティを生成する。
+         *
+         * @param id プライマリーキー
+         * @param entity エンティティ
+         * @param expiresAt 有効期限
+         */
+        private CacheEntry(final List<Object> id, final Object entity, final long expiresAt) {
+            this.id = id;
+            this.entity = entity;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * アクセス頻度を近似するCount-Min Sketch。
+     * <p/>
+     * 4つのハッシュ関数それぞれに対応するカウンタを持ち、最小値を頻度とする。
+     * カウンタの合計の増加数が上限数の10倍に達するごとに、全てのカウンタを半減させる。
+     */
+    private static final class FrequencySketch {
+
+        /** ハッシュ関数ごとのシード */
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+        /** カウンタの最大値 */
+        private static final int MAX_COUNT = 15;
+
+        /** カウンタ */
+        private final int[][] table;
+
+        /** カウンタの添字のマスク */
+        private final int mask;
+
+        /** カウンタを半減させる増加数 */
+        private final int sampleSize;
+
+        /** 前回半減させてからの増加数 */
+        private int additions;
+
+        /**
+         * Count-Min Sketchを生成する。
+         *
+         * @param maxSize キャッシュの上限数
+         */
+        private FrequencySketch(final int maxSize) {
+            final int width = Integer.highestOneBit(Math.max(16, maxSize) - 1) << 1;
+            table = new int[SEEDS.length][width];
+            mask = width - 1;
+            sampleSize = Math.max(10, maxSize * 10);
+        }
+
+        /**
+         * 頻度を返す。
+         *
+         * @param key キー
+         * @return 頻度
+         */
+        int frequency(final Object key) {
+            final int hash = key.hashCode();
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < SEEDS.length; i++) {
+                frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+            }
+            return frequency;
+        }
+
+        /**
+         * 頻度を加算する。
+         *
+         * @param key キー
+         */
+        void increment(final Object key) {
+            final int hash = key.hashCode();
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                final int index = indexOf(hash, i);
+                if (table[i][index] < MAX_COUNT) {
+                    table[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        /**
+         * 全てのカウンタを半減させる。
+         */
+        private void reset() {
+            for (int[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>>= 1;
+                }
+            }
+            additions /= 2;
+        }
+
+        /**
+         * カウンタの添字を返す。
+         *
+         * @param hash キーのハッシュ値
+         * @param depth ハッシュ関数の番号
+         * @return 添字
+         */
+        private int indexOf(final int hash, final int depth) {
+            long h = (hash + SEEDS[depth]) * SEEDS[depth];
+            h += h >>> 32;
+            return (int) h & mask;
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package nablarch.common.dao;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import nablarch.core.beans.ConversionUtil;
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.db.statement.SqlRow;
+import nablarch.core.db.transaction.SimpleDbTransactionExecutor;
+import nablarch.core.db.transaction.SimpleDbTransactionManager;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.repository.disposal.Disposable;
+import nablarch.core.repository.initialization.Initializable;
+
+/**
+ * ブルームフィルタを使用した{@link PrimaryKeyFilter}の実装クラス。
+ * <p/>
+ * 初期化時に、判定対象のエンティティクラスのテーブルから全レコードのプライマリーキーを読み込み、
+ * エンティティクラスごとのブルームフィルタを構築する。
+ * ブルームフィルタのサイズは、読み込んだ件数の2倍(最小で{@link #setMinExpectedInsertions(int)}の件数)を
+ * 設定した偽陽性率で保持できるサイズとする。
+ * <p/>
+ * 削除されたプライマリーキーはブルームフィルタから取り除けないため、偽陽性が増えていく。
+ * また、想定件数を超えて登録された場合も偽陽性率が上がるため、再構築間隔を設定して定期的に再構築すること。
+ * 再構築中や再構築の開始前の猶予期間({@link #setRebuildGracePeriod(long)})に追加されたプライマリーキーは、
+ * 再構築したブルームフィルタにも追加される。
+ * 猶予期間は、プライマリーキーを登録するトランザクションの最長の実行時間よりも長い値を設定すること。
+ * <p/>
+ * 本クラスは、他のプロセス(別のサーバや他のアプリケーション)による登録を検知できない。
+ * 判定対象とするエンティティクラスは、このプロセスの{@link DaoContext}からのみ登録されるテーブルに限定すること。
+ * <p/>
+ * 本クラスは初期化対象のコンポーネント({@link Initializable})として、また廃棄対象のコンポーネント({@link Disposable})として
+ * 登録する必要がある。
+ */
+public class BasicPrimaryKeyFilter implements PrimaryKeyFilter, Initializable, Disposable {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(BasicPrimaryKeyFilter.class);
+
+    /** デフォルトの偽陽性率 */
+    private static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    /** デフォルトの最小の想定件数 */
+    private static final int DEFAULT_MIN_EXPECTED_INSERTIONS = 10000;
+
+    /** デフォルトの再構築の猶予期間(ミリ秒) */
+    private static final long DEFAULT_REBUILD_GRACE_PERIOD = 60000L;
+
+    /** デフォルトのフェッチサイズ */
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /** 判定対象のエンティティクラス名 */
+    private List<String> entityClassNames = Collections.emptyList();
+
+    /** 偽陽性率 */
+    private double falsePositiveProbability = DEFAULT_FALSE_POSITIVE_PROBABILITY;
+
+    /** 最小の想定件数 */
+    private int minExpectedInsertions = DEFAULT_MIN_EXPECTED_INSERTIONS;
+
+    /** 再構築間隔(ミリ秒、0以下の場合は定期的な再構築を行わない) */
+    private long rebuildInterval = 0L;
+
+    /** 再構築の猶予期間(ミリ秒) */
+    private long rebuildGracePeriod = DEFAULT_REBUILD_GRACE_PERIOD;
+
+    /** プライマリーキーを読み込む際のフェッチサイズ */
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /** トランザクションマネージャ */
+    private SimpleDbTransactionManager transactionManager;
+
+    /** SQLビルダー */
+    private StandardSqlBuilder sqlBuilder = new StandardSqlBuilder();
+
+    /** エンティティクラスごとのフィルタ */
+    private final Map<Class<?>, Entry> entries = new ConcurrentHashMap<Class<?>, Entry>();
+
+    /** 定期的な再構築を行うスケジューラ */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 判定対象のエンティティクラスのブルームフィルタを構築し、再構築間隔が設定されている場合は定期的な再構築を開始する。
+     */
+    @Override
+    public void initialize() {
+        for (String entityClassName : entityClassNames) {
+            final Class<?> entityClass;
+            try {
+                entityClass = Class.forName(entityClassName, true, Thread.currentThread().getContextClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("entity class was not found. class = " + entityClassName, e);
+            }
+            entries.put(entityClass, new Entry());
+        }
+        rebuild();
+        if (rebuildInterval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "primary-key-filter");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        rebuild();
+                    } catch (RuntimeException e) {
+                        LOGGER.logWarn("failed to rebuild primary key filter.", e);
+                    }
+                }
+            }, rebuildInterval, rebuildInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 定期的な再構築を停止する。
+     */
+    @Override
+    public void dispose() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 全ての判定対象のエンティティクラスのブルームフィルタを再構築する。
+     */
+    public void rebuild() {
+        for (Class<?> entityClass : entries.keySet()) {
+            rebuild(entityClass);
+        }
+    }
+
+    /**
+     * 指定されたエンティティクラスのブルームフィルタを再構築する。
+     * <p/>
+     * 再構築中も、再構築前のブルームフィルタによる判定は継続する。
+     *
+     * @param entityClass エンティティクラス
+     * @throws IllegalArgumentException 判定対象ではないエンティティクラスが指定された場合
+     */
+    public void rebuild(final Class<?> entityClass) {
+        final Entry entry = entries.get(entityClass);
+        if (entry == null) {
+            throw new IllegalArgumentException("entity class is not a filter target. class = " + entityClass.getName());
+        }
+        final long startedAt = currentTimeMillis();
+        final long[] hashes = loadHashes(entityClass);
+        final BloomFilter filter = BloomFilter.create(
+                Math.max((long) hashes.length * 2, minExpectedInsertions), falsePositiveProbability);
+        for (long hash : hashes) {
+            filter.put(hash);
+        }
+        entry.replace(filter, startedAt - rebuildGracePeriod);
+    }
+
+    @Override
+    public boolean isTarget(final Class<?> entityClass) {
+        final Entry entry = entries.get(entityClass);
+        return entry != null && entry.filter != null;
+    }
+
+    @Override
+    public boolean mightContain(final Class<?> entityClass, final List<Object> id) {
+        final Entry entry = entries.get(entityClass);
+        final BloomFilter filter = entry != null ? entry.filter : null;
+        return filter == null || filter.mightContain(hash(id));
+    }
+
+    @Override
+    public void add(final Class<?> entityClass, final List<Object> id) {
+        final Entry entry = entries.get(entityClass);
+        if (entry != null) {
+            entry.add(hash(id), currentTimeMillis(), rebuildGracePeriod);
+        }
+    }
+
+    /**
+     * テーブルから全レコードのプライマリーキーを読み込み、ハッシュ値に変換する。
+     *
+     * @param entityClass エンティティクラス
+     * @return プライマリーキーのハッシュ値
+     */
+    private long[] loadHashes(final Class<?> entityClass) {
+        return new SimpleDbTransactionExecutor<long[]>(transactionManager) {
+            @Override
+            public long[] execute(final AppDbConnection connection) {
+                final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+                final SqlPStatement stmt = connection.prepareStatement(sqlBuilder.buildSelectAllIdsSql(entityClass));
+                stmt.setFetchSize(fetchSize);
+                final ResultSetIterator rows = stmt.executeQuery();
+                try {
+                    long[] hashes = new long[1024];
+                    int count = 0;
+                    for (SqlRow row : rows) {
+                        final List<Object> id = new ArrayList<Object>(idColumns.size());
+                        for (ColumnMeta idColumn : idColumns) {
+                            id.add(ConversionUtil.convert(idColumn.getJdbcType(), row.get(idColumn.getName())));
+                        }
+                        if (count == hashes.length) {
+                            hashes = Arrays.copyOf(hashes, count * 2);
+                        }
+                        hashes[count++] = hash(id);
+                    }
+                    return Arrays.copyOf(hashes, count);
+                } finally {
+                    rows.close();
+                }
+            }
+        }.doTransaction();
+    }
+
+    /**
+     * プライマリーキーの64bitのハッシュ値を返す。
+     * <p/>
+     * データベースから読み込んだ値と検索条件の値でスケールが異なる場合があるため、
+     * {@link BigDecimal}は末尾の0を除いた値でハッシュ値を求める。
+     *
+     * @param id プライマリーキー
+     * @return ハッシュ値
+     */
+    private static long hash(final List<Object> id) {
+        long h = 1125899906842597L;
+        for (Object value : id) {
+            final int valueHash;
+            if (value == null) {
+                valueHash = 0;
+            } else if (value instanceof BigDecimal) {
+                valueHash = ((BigDecimal) value).stripTrailingZeros().hashCode();
+            } else if (value instanceof Date) {
+                valueHash = Long.valueOf(((Date) value).getTime()).hashCode();
+            } else {
+                valueHash = value.hashCode();
+            }
+            h = 31 * h + valueHash;
+        }
+        // MurmurHash3の最終処理で上位・下位のビットを拡散する
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 現在時刻(ミリ秒)を返す。
+     *
+     * @return 現在時刻(ミリ秒)
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * 判定対象のエンティティクラス名(完全修飾名)を設定する。
+     *
+     * @param entityClassNames エンティティクラス名
+     */
+    public void setEntityClassNames(final List<String> entityClassNames) {
+        this.entityClassNames = entityClassNames;
+    }
+
+    /**
+     * 偽陽性率を設定する。
+     * <p/>
+     * 設定しない場合は、0.01(1%)となる。
+     *
+     * @param falsePositiveProbability 偽陽性率(0より大きく1より小さい値)
+     * @throws IllegalArgumentException 0以下または1以上の値が指定された場合
+     */
+    public void setFalsePositiveProbability(final double falsePositiveProbability) {
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException(
+                    "false positive probability must be between 0 and 1. false positive probability = "
+                            + falsePositiveProbability);
+        }
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    /**
+     * ブルームフィルタのサイズを決める最小の想定件数を設定する。
+     * <p/>
+     * 設定しない場合は、10000件となる。
+     *
+     * @param minExpectedInsertions 最小の想定件数
+     */
+    public void setMinExpectedInsertions(final int minExpectedInsertions) {
+        this.minExpectedInsertions = minExpectedInsertions;
+    }
+
+    /**
+     * 再構築間隔(ミリ秒)を設定する。
+     * <p/>
+     * 設定しない場合(0以下の場合)は、定期的な再構築を行わない。
+     *
+     * @param rebuildInterval 再構築間隔(ミリ秒)
+     */
+    public void setRebuildInterval(final long rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    /**
+     * 再構築の開始前に追加されたプライマリーキーを、再構築したブルームフィルタに追加する猶予期間(ミリ秒)を設定する。
+     * <p/>
+     * 設定しない場合は、60000ミリ秒(1分)となる。
+     *
+     * @param rebuildGracePeriod 猶予期間(ミリ秒)
+     */
+    public void setRebuildGracePeriod(final long rebuildGracePeriod) {
+        this.rebuildGracePeriod = rebuildGracePeriod;
+    }
+
+    /**
+     * プライマリーキーを読み込む際のフェッチサイズを設定する。
+     * <p/>
+     * 設定しない場合は、1000となる。
+     *
+     * @param fetchSize フェッチサイズ
+     */
+    public void setFetchSize(final int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * データベース接続を取得するトランザクションマネージャを設定する。
+     *
+     * @param transactionManager トランザクションマネージャ
+     */
+    public void setTransactionManager(final SimpleDbTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * SQLビルダーを設定する。
+     * <p/>
+     * 設定しない場合は、{@link StandardSqlBuilder}が使用される。
+     *
+     * @param sqlBuilder SQLビルダー
+     */
+    public void setSqlBuilder(final StandardSqlBuilder sqlBuilder) {
+        this.sqlBuilder = sqlBuilder;
+    }
+
+    /**
+     * エンティティクラスごとのブルームフィルタと、猶予期間内に追加されたプライマリーキー。
+     */
+    private static final class Entry {
+
+        /** ブルームフィルタ(構築前は{@code null}) */
+        private volatile BloomFilter filter;
+
+        /** 追加時刻 */
+        private long[] addedTimes = new long[16];
+
+        /** 追加されたプライマリーキーのハッシュ値 */
+        private long[] addedHashes = new long[16];
+
+        /** 猶予期間内の最初の要素の位置 */
+        private int head;
+
+        /** 最後の要素の次の位置 */
+        private int tail;
+
+        /**
+         * プライマリーキーを追加する。
+         *
+         * @param hash プライマリーキーのハッシュ値
+         * @param now 現在時刻
+         * @param gracePeriod 猶予期間
+         */
+        synchronized void add(final long hash, final long now, final long gracePeriod) {
+            if (filter != null) {
+                filter.put(hash);
+            }
+            while (head < tail && addedTimes[head] < now - gracePeriod) {
+                head++;
+            }
+            if (tail == addedHashes.length) {
+                final int size = tail - head;
+                final int capacity = size * 2 > addedHashes.length ? addedHashes.length * 2 : addedHashes.length;
+                addedTimes = Arrays.copyOf(Arrays.copyOfRange(addedTimes, head, tail), capacity);
+                addedHashes = Arrays.copyOf(Arrays.copyOfRange(addedHashes, head, tail), capacity);
+                head = 0;
+                tail = size;
+            }
+            addedTimes[tail] = now;
+            addedHashes[tail] = hash;
+            tail++;
+        }
+
+        /**
+         * ブルームフィルタを置き換える。
+         * <p/>
+         * 指定された時刻以降に追加されたプライマリーキーは、新しいブルームフィルタにも追加する。
+         *
+         * @param newFilter 新しいブルームフィルタ
+         * @param since 新しいブルームフィルタにも追加するプライマリーキーの追加時刻
+         */
+        synchronized void replace(final BloomFilter newFilter, final long since) {
+            for (int i = head; i < tail; i++) {
+                if (addedTimes[i] >= since) {
+                    newFilter.put(addedHashes[i]);
+                }
+            }
+            filter = newFilter;
+        }
+    }
+
+    /**
+     * ブルームフィルタ。
+     * <p/>
+     * ビット列は{@link AtomicLongArray}で保持するため、ロックなしで複数のスレッドから追加・判定できる。
+     * ハッシュ関数は、64bitのハッシュ値の上位と下位の32bitを組み合わせて生成する(Kirsch-Mitzenmacher法)。
+     */
+    private static final class BloomFilter {
+
+        /** ビット列 */
+        private final AtomicLongArray bits;
+
+        /** ビット数 */
+        private final long bitSize;
+
+        /** ハッシュ関数の数 */
+        private final int hashCount;
+
+        /**
+         * ブルームフィルタを生成する。
+         *
+         * @param bitSize ビット数
+         * @param hashCount ハッシュ関数の数
+         */
+        private BloomFilter(final long bitSize, final int hashCount) {
+            this.bits = new AtomicLongArray((int) ((bitSize + 63) / 64));
+            this.bitSize = bitSize;
+            this.hashCount = hashCount;
+        }
+
+        /**
+         * 想定件数と偽陽性率から、ブルームフィルタを生成する。
+         *
+         * @param expectedInsertions 想定件数
+         * @param falsePositiveProbability 偽陽性率
+         * @return ブルームフィルタ
+         */
+        static BloomFilter create(final long expectedInsertions, final double falsePositiveProbability) {
+            final double ln2 = Math.log(2);
+            final long bitSize = Math.min(Math.max(64L,
+                    (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (ln2 * ln2))),
+                    (long) Integer.MAX_VALUE * 64);
+            final int hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * ln2));
+            return new BloomFilter(bitSize, hashCount);
+        }
+
+        /**
+         * ハッシュ値を追加する。
+         *
+         * @param hash ハッシュ値
+         */
+        void put(final long hash) {
+            final long hash1 = (int) hash;
+            final long hash2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                final long index = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize;
+                final int word = (int) (index >>> 6);
+                final long mask = 1L << index;
+                long current = bits.get(word);
+                while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    current = bits.get(word);
+                }
+            }
+        }
+
+        /**
+         * ハッシュ値が追加されている可能性があるか否かを返す。
+         *
+         * @param hash ハッシュ値
+         * @return 追加されている可能性がある場合{@code true}
+         */
+        boolean mightContain(final long hash) {
+            final long hash1 = (int) hash;
+            final long hash2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                final long index = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize;
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
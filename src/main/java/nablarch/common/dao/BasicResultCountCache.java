@@ -0,0 +1,259 @@
+package nablarch.common.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import nablarch.core.beans.BeanUtil;
+
+/**
+ * {@link ResultCountCache}の基本実装クラス。
+ * <p/>
+ * 本実装では、キャッシュした件数を有効期限(ミリ秒)が経過するまで保持する。
+ * キャッシュの件数が上限を超えた場合には、最も長い間参照されていないものから破棄する。
+ * <p/>
+ * バインド変数は、配列・{@link Map}・Beanのいずれの場合も値の内容でキーを構築するため、
+ * 同一内容の条件であれば別インスタンスであってもキャッシュが利用される。
+ * <p/>
+ * 件数は、検索結果のエンティティクラスのテーブルに加えて、{@link #setRelatedTables(Map)}でSQL_IDごとに指定したテーブルに関連付ける。
+ * 結合先のテーブルなど、指定していないテーブルへの更新では破棄されないため、有効期限が経過するまで古い件数が使用される。
+ */
+public class BasicResultCountCache implements ResultCountCache {
+
+    /** デフォルトのキャッシュ上限数 */
+    private static final int DEFAULT_MAX_SIZE = 1000;
+
+    /** デフォルトの有効期限(ミリ秒) */
+    private static final long DEFAULT_TIME_TO_LIVE = 60000L;
+
+    /** キャッシュ上限数 */
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    /** 有効期限(ミリ秒) */
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    /** SQL_IDごとの関連するテーブル名(大文字) */
+    private Map<String, Set<String>> relatedTables = Collections.emptyMap();
+
+    /** キャッシュ(アクセス順) */
+    private final Map<CacheKey, CacheEntry> cache = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<CacheKey, CacheEntry> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    @Override
+    public synchronized Long get(final String sqlId, final Object params) {
+        final CacheKey key = new CacheKey(sqlId, normalize(params));
+        final CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= currentTimeMillis()) {
+            cache.remove(key);
+            return null;
+        }
+        return entry.count;
+    }
+
+    @Override
+    public synchronized void put(final String sqlId, final Object params, final String tableName, final long count) {
+        final Set<String> tableNames = new HashSet<String>();
+        if (tableName != null) {
+            tableNames.add(tableName.toUpperCase(Locale.ROOT));
+        }
+        final Set<String> related = relatedTables.get(sqlId);
+        if (related != null) {
+            tableNames.addAll(related);
+        }
+        cache.put(new CacheKey(sqlId, normalize(params)),
+                new CacheEntry(count, tableNames, currentTimeMillis() + timeToLive));
+    }
+
+    @Override
+    public synchronized void invalidate(final String tableName) {
+        final String upperTableName = tableName.toUpperCase(Locale.ROOT);
+        final Iterator<CacheEntry> iterator = cache.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().tableNames.contains(upperTableName)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 現在時刻(ミリ秒)を返す。
+     *
+     * @return 現在時刻
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * バインド変数をキャッシュのキーとして扱える形式に変換する。
+     *
+     * @param params バインド変数(配列・{@link Map}・Bean)
+     * @return 変換後のバインド変数
+     */
+    private static Object normalize(final Object params) {
+        if (params.getClass().isArray()) {
+            return normalizeValue(params);
+        } else if (params instanceof Map) {
+            return normalizeMap((Map<?, ?>) params);
+        } else {
+            return normalizeMap(BeanUtil.createMapAndCopy(params));
+        }
+    }
+
+    /**
+     * Mapを値ごとに正規化したMapに変換する。
+     *
+     * @param map Map
+     * @return 正規化したMap
+     */
+    private static Map<Object, Object> normalizeMap(final Map<?, ?> map) {
+        final Map<Object, Object> values = new HashMap<Object, Object>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            values.put(entry.getKey(), normalizeValue(entry.getValue()));
+        }
+        return values;
+    }
+
+    /**
+     * 値を正規化する。
+     * <p/>
+     * 配列は内容で比較できるよう、要素ごとに正規化したリストに変換する。
+     *
+     * @param value 値
+     * @return 正規化した値
+     */
+    private static Object normalizeValue(final Object value) {
+        if (value == null || !value.getClass().isArray()) {
+            return value;
+        }
+        if (!(value instanceof Object[])) {
+            // プリミティブ型の配列は、内容を文字列表現に変換して比較する
+            return Arrays.deepToString(new Object[] {value});
+        }
+        final List<Object> values = new ArrayList<Object>();
+        for (Object element : (Object[]) value) {
+            values.add(normalizeValue(element));
+        }
+        return values;
+    }
+
+    /**
+     * キャッシュ上限数を設定する。
+     *
+     * @param maxSize キャッシュ上限数
+     */
+    public void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 有効期限(ミリ秒)を設定する。
+     *
+     * @param timeToLive 有効期限(ミリ秒)
+     */
+    public void setTimeToLive(final long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * SQL_IDごとに、件数を関連付けるテーブル名を設定する。
+     * <p/>
+     * キーには正規化済みのSQL_ID(例: {@code com.example.entity.Users#FIND_WITH_ADDRESS})を指定する。
+     * 検索結果のエンティティクラスのテーブルは、指定しなくても関連付けられる。
+     * 結合先のテーブルや、エンティティクラスでないクラスを検索結果とするSQLの参照先のテーブルを指定すること。
+     *
+     * @param relatedTables SQL_IDをキー、関連するテーブル名のリストを値としたMap
+     */
+    public void setRelatedTables(final Map<String, List<String>> relatedTables) {
+        final Map<String, Set<String>> tables = new HashMap<String, Set<String>>();
+        for (Map.Entry<String, List<String>> entry : relatedTables.entrySet()) {
+            final Set<String> tableNames = new HashSet<String>();
+            for (String tableName : entry.getValue()) {
+                tableNames.add(tableName.toUpperCase(Locale.ROOT));
+            }
+            tables.put(entry.getKey(), tableNames);
+        }
+        this.relatedTables = tables;
+    }
+
+    /**
+     * キャッシュのキー。
+     */
+    private static final class CacheKey {
+
+        /** SQL_ID */
+        private final String sqlId;
+
+        /** 正規化したバインド変数 */
+        private final Object params;
+
+        /**
+         * キーを生成する。
+         *
+         * @param sqlId SQL_ID
+         * @param params 正規化したバインド変数
+         */
+        private CacheKey(final String sqlId, final Object params) {
+            this.sqlId = sqlId;
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(final Object another) {
+            if (!(another instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey anotherKey = (CacheKey) another;
+            return sqlId.equals(anotherKey.sqlId)
+                    && (params == null ? anotherKey.params == null : params.equals(anotherKey.params));
+        }
+
+        @Override
+        public int hashCode() {
+            return sqlId.hashCode() * 31 + (params == null ? 0 : params.hashCode());
+        }
+    }
+
+    /**
+     * キャッシュした件数。
+     */
+    private static final class CacheEntry {
+
+        /** 件数 */
+        private final long count;
+
+        /** 関連付けられたテーブル名(大文字) */
+        private final Set<String> tableNames;
+
+        /** 有効期限(エポックミリ秒) */
+        private final long expiresAt;
+
+        /**
+         * キャッシュした件数を生成する。
+         *
+         * @param count 件数
+         * @param tableNames 関連付けられたテーブル名(大文字)
+         * @param expiresAt 有効期限
+         */
+        private CacheEntry(final long count, final Set<String> tableNames, final long expiresAt) {
+            this.count = count;
+            this.tableNames = tableNames;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package nablarch.common.dao;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * エンティティのキャッシュへの格納可否を、プライマリーキーごとの書き込み履歴で判定するクラス。
+ * <p/>
+ * データベースからの取得開始時に{@link #begin()}でトークン(書き込みの通番)を取得し、
+ * 格納時に{@link #canPut(Class, List, long, long)}で判定する。
+ * 以下のいずれかに該当する場合は、格納しない。
+ * <ul>
+ * <li>取得開始後に同じプライマリーキー(またはエンティティクラス全体)への書き込みがあった場合</li>
+ * <li>書き込みから保留期間が経過していない場合(書き込んだトランザクションが未確定の可能性があるため)</li>
+ * </ul>
+ * 保留期間が経過した書き込み履歴は、書き込みのたびに破棄する。
+ * 破棄した履歴より前に取得を開始したものは、書き込みの有無を判定できないため格納しない。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ */
+final class CacheWriteGuard {
+
+    /** 書き込み履歴を破棄する件数の閾値 */
+    private static final int PURGE_THRESHOLD = 1024;
+
+    /** 書き込みの通番 */
+    private long sequence;
+
+    /** 破棄した書き込み履歴の最大の通番 */
+    private long purgedSequence;
+
+    /** エンティティクラスとプライマリーキー(エンティティクラス全体の場合は{@code null})ごとの書き込み履歴 */
+    private final Map<List<Object>, Write> writes = new HashMap<List<Object>, Write>();
+
+    /**
+     * 取得を開始する。
+     *
+     * @return トークン
+     */
+    synchronized long begin() {
+        return sequence;
+    }
+
+    /**
+     * 書き込みを記録する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー(エンティティクラス全体の場合は{@code null})
+     * @param now 現在時刻
+     * @param holdOff 保留期間(ミリ秒)
+     */
+    synchronized void written(final Class<?> entityClass, final List<Object> id, final long now, final long holdOff) {
+        if (writes.size() >= PURGE_THRESHOLD) {
+            purge(now);
+        }
+        writes.put(key(entityClass, id), new Write(++sequence, now + holdOff));
+    }
+
+    /**
+     * 格納できるか否かを判定する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー
+     * @param token 取得開始時のトークン
+     * @param now 現在時刻
+     * @return 格納できる場合{@code true}
+     */
+    synchronized boolean canPut(final Class<?> entityClass, final List<Object> id, final long token, final long now) {
+        if (token < purgedSequence) {
+            return false;
+        }
+        return isClear(writes.get(key(entityClass, null)), token, now)
+                && isClear(writes.get(key(entityClass, id)), token, now);
+    }
+
+    /**
+     * 書き込み履歴が格納を妨げないか否かを判定する。
+     *
+     * @param write 書き込み履歴(存在しない場合は{@code null})
+     * @param token 取得開始時のトークン
+     * @param now 現在時刻
+     * @return 格納を妨げない場合{@code true}
+     */
+    private static boolean isClear(final Write write, final long token, final long now) {
+        return write == null || (write.sequence <= token && write.holdUntil <= now);
+    }
+
+    /**
+     * 保留期間が経過した書き込み履歴を破棄する。
+     *
+     * @param now 現在時刻
+     */
+    private void purge(final long now) {
+        final Iterator<Write> iterator = writes.values().iterator();
+        while (iterator.hasNext()) {
+            final Write write = iterator.next();
+            if (write.holdUntil <= now) {
+                purgedSequence = Math.max(purgedSequence, write.sequence);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 書き込み履歴のキーを生成する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー
+     * @return キー
+     */
+    private static List<Object> key(final Class<?> entityClass, final List<Object> id) {
+        return Arrays.<Object>asList(entityClass, id);
+    }
+
+    /**
+     * 書き込み履歴。
+     */
+    private static final class Write {
+
+        /** 通番 */
+        private final long sequence;
+
+        /** 保留期間の終了時刻 */
+        private final long holdUntil;
+
+        /**
+         * 書き込み履歴を生成する。
+         *
+         * @param sequence 通番
+         * @param holdUntil 保留期間の終了時刻
+         */
+        private Write(final long sequence, final long holdUntil) {
+            this.sequence = sequence;
+            this.holdUntil = holdUntil;
+        }
+    }
+}
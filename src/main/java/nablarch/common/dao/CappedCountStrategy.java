@@ -0,0 +1,47 @@
+package nablarch.common.dao;
+
+/**
+ * 件数の上限を設けた{@link CountStrategy}の実装クラス。
+ * <p/>
+ * 上限の次の位置のレコードが存在するか否かを先に判定し、存在する場合は上限値を概算の件数とする。
+ * 存在しない場合のみ件数取得SQLを実行し、正確な件数を取得する。
+ * 件数の多い検索で、画面に「10,000件以上」のように表示する場合に使用する。
+ */
+public class CappedCountStrategy implements CountStrategy {
+
+    /** デフォルトの件数の上限 */
+    private static final long DEFAULT_CAP = 10000L;
+
+    /** 設定可能な件数の上限の最大値(上限の次の位置が検索範囲の開始位置(int)に収まる値) */
+    private static final long MAX_CAP = Integer.MAX_VALUE - 1L;
+
+    /** 件数の上限 */
+    private long cap = DEFAULT_CAP;
+
+    @Override
+    public CountResult count(final CountQuery query) {
+        if (query.hasRowAt(cap + 1)) {
+            return CountResult.approximate(cap);
+        }
+        return CountResult.exact(query.count());
+    }
+
+    /**
+     * 件数の上限を設定する。
+     * <p/>
+     * 設定しない場合は、10000となる。
+     * 上限の次の位置を検索範囲の開始位置として検索するため、{@code Integer.MAX_VALUE - 1}以下の値を指定すること。
+     *
+     * @param cap 件数の上限
+     * @throws IllegalArgumentException 1未満の値、または{@code Integer.MAX_VALUE - 1}を超える値を指定した場合
+     */
+    public void setCap(final long cap) {
+        if (cap < 1) {
+            throw new IllegalArgumentException("cap must be greater than 0. cap = " + cap);
+        }
+        if (cap > MAX_CAP) {
+            throw new IllegalArgumentException("cap must be less than or equal to " + MAX_CAP + ". cap = " + cap);
+        }
+        this.cap = cap;
+    }
+}
@@ -0,0 +1,31 @@
+package nablarch.common.dao;
+
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 前回の取得以降に変更されたエンティティを、一定件数ごと(チャンク単位)に処理するインタフェース。
+ * <p/>
+ * {@link DaoContext#findChangedSince(Class, String, ChangePosition, int, ChangeHandler)}から、
+ * チャンクごとに呼び出される。
+ * <p/>
+ * チャンクと共に渡される位置は、チャンクの最後のエンティティのウォーターマークとID列の値である。
+ * チャンクの処理後にこの位置を保存しておけば、処理が中断した場合でも、保存した位置から漏れなく再開できる。
+ * <p/>
+ * 引数のリストはメモリ使用量を抑えるため次のチャンクで再利用される。
+ * そのため、リストやその参照をチャンクの処理後まで保持してはならない。
+ *
+ * @param <T> エンティティの型
+ */
+@Published
+public interface ChangeHandler<T> {
+
+    /**
+     * チャンクを処理する。
+     *
+     * @param chunk チャンク(変更不可のリスト)
+     * @param position チャンクの最後のエンティティの位置
+     */
+    void handle(List<T> chunk, ChangePosition position);
+}
@@ -0,0 +1,112 @@
+package nablarch.common.dao;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link DaoContext#findChangedSince(Class, String, ChangePosition, int, ChangeHandler)}で、
+ * 処理済みの変更の位置を表すクラス。
+ * <p/>
+ * 位置はウォーターマークとID列の値の組で表す。
+ * ウォーターマークが同じエンティティがチャンクをまたぐ場合でも、ID列の値により続きから再開できる。
+ * <p/>
+ * ID列の値を持たない位置({@link #after(Object)})は、ウォーターマークが同じエンティティを全て処理済みとみなす。
+ * ウォーターマークのみを保存していた場合は、この位置から再開すること。
+ */
+@Published
+public final class ChangePosition implements Serializable {
+
+    /** serialVersionUID */
+    private static final long serialVersionUID = 1L;
+
+    /** ウォーターマーク */
+    private final Object watermark;
+
+    /** ID列の値(ID列の定義順、ウォーターマークが同じエンティティを全て処理済みの場合は空) */
+    private final List<Object> ids;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param watermark ウォーターマーク
+     * @param ids ID列の値
+     */
+    private ChangePosition(final Object watermark, final List<Object> ids) {
+        this.watermark = watermark;
+        this.ids = ids;
+    }
+
+    /**
+     * ウォーターマークが同じエンティティを全て処理済みとした位置を生成する。
+     *
+     * @param watermark ウォーターマーク
+     * @return 位置
+     * @throws IllegalArgumentException ウォーターマークが{@code null}の場合
+     */
+    public static ChangePosition after(final Object watermark) {
+        if (watermark == null) {
+            throw new IllegalArgumentException("watermark must not be null.");
+        }
+        return new ChangePosition(watermark, Collections.emptyList());
+    }
+
+    /**
+     * ウォーターマークとID列の値で表す位置を生成する。
+     *
+     * @param watermark ウォーターマーク
+     * @param ids ID列の値(ID列の定義順)
+     * @return 位置
+     * @throws IllegalArgumentException ウォーターマークまたはID列の値が{@code null}の場合
+     */
+    public static ChangePosition of(final Object watermark, final Object... ids) {
+        if (watermark == null || ids == null || ids.length == 0 || Arrays.asList(ids).contains(null)) {
+            throw new IllegalArgumentException("watermark and ids must not be null.");
+        }
+        return new ChangePosition(watermark, Collections.unmodifiableList(new ArrayList<Object>(Arrays.asList(ids))));
+    }
+
+    /**
+     * ウォーターマークを取得する。
+     *
+     * @return ウォーターマーク
+     */
+    public Object getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * ID列の値を取得する。
+     *
+     * @return ID列の値(ID列の定義順、ウォーターマークが同じエンティティを全て処理済みの場合は空のリスト)
+     */
+    public List<Object> getIds() {
+        return ids;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChangePosition)) {
+            return false;
+        }
+        final ChangePosition that = (ChangePosition) o;
+        return watermark.equals(that.watermark) && ids.equals(that.ids);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * watermark.hashCode() + ids.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return watermark + "/" + ids;
+    }
+}
@@ -0,0 +1,27 @@
+package nablarch.common.dao;
+
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 検索結果を一定件数ごと(チャンク単位)に処理するインタフェース。
+ * <p/>
+ * {@link DaoContext#findAllBySqlFileInChunks(Class, String, Object, int, ChunkHandler)}などから、
+ * チャンクに達するごとに呼び出される。
+ * <p/>
+ * 引数のリストはメモリ使用量を抑えるため次のチャンクで再利用される。
+ * そのため、リストやその参照をチャンクの処理後まで保持してはならない。
+ *
+ * @param <T> 検索結果の型
+ */
+@Published
+public interface ChunkHandler<T> {
+
+    /**
+     * チャンクを処理する。
+     *
+     * @param chunk チャンク(変更不可のリスト)
+     */
+    void handle(List<T> chunk);
+}
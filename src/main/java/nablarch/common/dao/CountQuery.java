@@ -0,0 +1,51 @@
+package nablarch.common.dao;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link CountStrategy}が件数を取得する検索を表すインタフェース。
+ * <p/>
+ * 検索の情報と、件数を取得するための検索の実行方法を提供する。
+ */
+@Published(tag = "architect")
+public interface CountQuery {
+
+    /**
+     * エンティティクラスを取得する。
+     *
+     * @return エンティティクラス
+     */
+    Class<?> getEntityClass();
+
+    /**
+     * SQL_IDを取得する。
+     *
+     * @return SQL_ID(正規化済み)
+     */
+    String getSqlId();
+
+    /**
+     * バインド変数を取得する。
+     *
+     * @return バインド変数
+     */
+    Object getParams();
+
+    /**
+     * 件数取得SQLを実行し、正確な件数を取得する。
+     *
+     * @return 件数
+     */
+    long count();
+
+    /**
+     * 指定した位置のレコードが存在するか否かを返す。
+     * <p/>
+     * 指定した位置のレコードのみを取得する検索を実行するため、件数が指定した位置を超えるか否かを
+     * 件数取得SQLよりも少ないコストで判定できる。
+     *
+     * @param position レコードの位置(1始まり)
+     * @return 存在する場合{@code true}
+     */
+    boolean hasRowAt(long position);
+}
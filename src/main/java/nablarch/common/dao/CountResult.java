@@ -0,0 +1,65 @@
+package nablarch.common.dao;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link CountStrategy}で取得した件数を保持するクラス。
+ */
+@Published(tag = "architect")
+public final class CountResult {
+
+    /** 件数 */
+    private final long count;
+
+    /** 概算の件数か否か */
+    private final boolean approximate;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param count 件数
+     * @param approximate 概算の件数か否か
+     */
+    private CountResult(final long count, final boolean approximate) {
+        this.count = count;
+        this.approximate = approximate;
+    }
+
+    /**
+     * 正確な件数を生成する。
+     *
+     * @param count 件数
+     * @return 件数
+     */
+    public static CountResult exact(final long count) {
+        return new CountResult(count, false);
+    }
+
+    /**
+     * 概算の件数を生成する。
+     *
+     * @param count 件数
+     * @return 件数
+     */
+    public static CountResult approximate(final long count) {
+        return new CountResult(count, true);
+    }
+
+    /**
+     * 件数を取得する。
+     *
+     * @return 件数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 概算の件数か否かを返す。
+     *
+     * @return 概算の件数の場合{@code true}
+     */
+    public boolean isApproximate() {
+        return approximate;
+    }
+}
@@ -0,0 +1,22 @@
+package nablarch.common.dao;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * ページネーション検索で、検索結果の総件数を取得する方法を定義するインタフェース。
+ * <p/>
+ * 件数の多いテーブルで正確な件数の取得に時間がかかる場合に、上限付きの件数や統計情報に基づく推定件数など、
+ * 概算の件数を使用するために使用する。
+ * 実装クラスは複数のスレッドで共有されるため、スレッドセーフである必要がある。
+ */
+@Published(tag = "architect")
+public interface CountStrategy {
+
+    /**
+     * 検索結果の総件数を取得する。
+     *
+     * @param query 件数を取得する検索
+     * @return 件数
+     */
+    CountResult count(CountQuery query);
+}
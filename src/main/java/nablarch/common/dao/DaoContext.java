@@ -1,6 +1,12 @@
 package nablarch.common.dao;
 
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import jakarta.persistence.OptimisticLockException;
 
@@ -11,6 +17,9 @@ import nablarch.core.util.annotation.Published;
  * <p/>
  * ページネーションのためのページ数などを状態としてもつ必要があるので、
  * このコンテキストを介してSQLの実行処理が行われる。
+ * <p/>
+ * 既存の実装クラスが変更なしで利用できるよう、後から追加したメソッドにはデフォルト実装を定義している。
+ * デフォルト実装は、既存のメソッドに委譲できるものは委譲し、それ以外は{@link UnsupportedOperationException}を送出する。
  *
  * @author kawasima
  * @author Hisaaki Shioiri
@@ -38,8 +47,66 @@ public interface DaoContext {
      */
     <T> T findByIdOrNull(Class<T> entityClass, Object... id);
 
+    /**
+     * 複数のプライマリーキーによる検索を行う。
+     * <p/>
+     * 検索結果は、指定されたプライマリーキーの順に並ぶ。
+     * 該当するレコードが存在しないプライマリーキーは検索結果に含まれず、重複したプライマリーキーは1件として扱う。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> エンティティクラスの型
+     * @param entityClass エンティティクラス(プライマリーキーが単一のもの)
+     * @param ids プライマリーキー
+     * @return エンティティリスト
+     */
+    @Published
+    default <T> EntityList<T> findAllByIds(Class<T> entityClass, Collection<?> ids) {
+        throw new UnsupportedOperationException("findAllByIds");
+    }
+
+    /**
+     * 複数の複合プライマリーキーによる検索を行う。
+     * <p/>
+     * 検索結果の順序などは{@link #findAllByIds(Class, Collection)}と同じである。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> エンティティクラスの型
+     * @param entityClass エンティティクラス
+     * @param ids 複合プライマリーキー(各要素は定義順に値を格納した配列)
+     * @return エンティティリスト
+     */
+    @Published
+    default <T> EntityList<T> findAllByCompositeIds(Class<T> entityClass, Collection<Object[]> ids) {
+        throw new UnsupportedOperationException("findAllByCompositeIds");
+    }
+
+    /**
+     * エンティティの関連プロパティ({@link jakarta.persistence.ManyToOne}、{@link jakarta.persistence.OneToMany})に、
+     * 関連先のエンティティを一括で設定する。
+     * <p/>
+     * 全てのエンティティの外部キー(またはプライマリーキー)をまとめて関連先を検索するため、
+     * エンティティごとに関連先を検索する必要がない。
+     * 関連先が存在しない場合、{@link jakarta.persistence.ManyToOne}のプロパティにはnullが、
+     * {@link jakarta.persistence.OneToMany}のプロパティには空のリストが設定される。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> エンティティクラスの型
+     * @param entities エンティティ(全て同一のエンティティクラスであること)
+     * @param propertyName 関連プロパティ名
+     */
+    @Published
+    default <T> void loadAssociation(List<T> entities, String propertyName) {
+        throw new UnsupportedOperationException("loadAssociation");
+    }
+
     /**
      * 全件の検索を行う。
+     * <p/>
+     * {@link #orderBy(String...)}でソート順を指定した場合は、その順に取得する。
+     * {@link #page(long)}でページ番号を指定した場合は、指定したページの範囲のみを取得する。
      *
      * @param <T> エンティティクラスの型
      * @param entityClass エンティティクラス
@@ -71,6 +138,294 @@ public interface DaoContext {
     @Published
     <T> EntityList<T> findAllBySqlFile(Class<T> entityClass, String sqlId);
 
+    /**
+     * 全件の検索を行い、検索結果を遅延取得する{@link Stream}を返す。
+     * <p/>
+     * 返却されたストリームはサーバサイドカーソルを保持するため、
+     * try-with-resources文などで必ずクローズすること。
+     * <p/>
+     * デフォルト実装は、{@link #findAll(Class)}で全件を取得し、そのストリームを返す。
+     *
+     * @param <T> エンティティクラスの型
+     * @param entityClass エンティティクラス
+     * @return 検索結果のストリーム
+     */
+    @Published
+    default <T> Stream<T> streamAll(Class<T> entityClass) {
+        return findAll(entityClass).stream();
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開して検索処理を行い、検索結果を遅延取得する{@link Stream}を返す。
+     * <p/>
+     * 返却されたストリームはサーバサイドカーソルを保持するため、
+     * try-with-resources文などで必ずクローズすること。
+     * <p/>
+     * デフォルト実装は、{@link #findAllBySqlFile(Class, String, Object)}で全件を取得し、そのストリームを返す。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラスの型
+     * @param entityClass 検索結果をマッピングするBeanクラス
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @return 検索結果のストリーム
+     */
+    @Published
+    default <T> Stream<T> streamBySqlFile(Class<T> entityClass, String sqlId, Object params) {
+        return findAllBySqlFile(entityClass, sqlId, params).stream();
+    }
+
+    /**
+     * SQL_IDをもとに検索処理を行い、検索結果を遅延取得する{@link Stream}を返す。
+     * <p/>
+     * 返却されたストリームはサーバサイドカーソルを保持するため、
+     * try-with-resources文などで必ずクローズすること。
+     * <p/>
+     * デフォルト実装は、{@link #findAllBySqlFile(Class, String)}で全件を取得し、そのストリームを返す。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラスの型
+     * @param entityClass 検索結果をマッピングするBeanクラス
+     * @param sqlId SQL_ID
+     * @return 検索結果のストリーム
+     */
+    @Published
+    default <T> Stream<T> streamBySqlFile(Class<T> entityClass, String sqlId) {
+        return findAllBySqlFile(entityClass, sqlId).stream();
+    }
+
+    /**
+     * 全件の検索を行い、検索結果をチャンク単位に処理する。
+     * <p/>
+     * 検索結果はサーバサイドカーソルで取得し、チャンクサイズに達するごとに{@link ChunkHandler}を呼び出す。
+     * カーソルは全てのチャンクの処理が終わるまで保持され、処理終了時(例外発生時を含む)に解放される。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> エンティティクラスの型
+     * @param entityClass エンティティクラス
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @return 処理した件数
+     */
+    @Published
+    default <T> long findAllInChunks(Class<T> entityClass, int chunkSize, ChunkHandler<T> handler) {
+        throw new UnsupportedOperationException("findAllInChunks");
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開して検索処理を行い、検索結果をチャンク単位に処理する。
+     * <p/>
+     * 検索結果はサーバサイドカーソルで取得し、チャンクサイズに達するごとに{@link ChunkHandler}を呼び出す。
+     * カーソルは全てのチャンクの処理が終わるまで保持され、処理終了時(例外発生時を含む)に解放される。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラスの型
+     * @param entityClass 検索結果をマッピングするBeanクラス
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @return 処理した件数
+     */
+    @Published
+    default <T> long findAllBySqlFileInChunks(Class<T> entityClass, String sqlId, Object params,
+            int chunkSize, ChunkHandler<T> handler) {
+        throw new UnsupportedOperationException("findAllBySqlFileInChunks");
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開して検索処理を行い、検索結果をチャンク単位に処理する。
+     * <p/>
+     * {@link #findAllBySqlFileInChunks(Class, String, Object, int, ChunkHandler)}に加え、
+     * 各チャンクの処理後に{@code afterChunk}を呼び出す。
+     * 関連する更新処理のフラッシュなど、チャンクごとに行う処理を記述する。
+     * <p/>
+     * {@code afterChunk}内で検索と同一のデータベース接続をコミットする場合、
+     * カーソルがコミット後も保持されるかはデータベース製品とJDBCドライバの設定に依存する。
+     * コミットは別トランザクション({@link UniversalDao.Transaction})で行うこと。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラスの型
+     * @param entityClass 検索結果をマッピングするBeanクラス
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @param afterChunk 各チャンクの処理後に呼び出す処理
+     * @return 処理した件数
+     */
+    @Published
+    default <T> long findAllBySqlFileInChunks(Class<T> entityClass, String sqlId, Object params,
+            int chunkSize, ChunkHandler<T> handler, Runnable afterChunk) {
+        throw new UnsupportedOperationException("findAllBySqlFileInChunks");
+    }
+
+    /**
+     * 全件の検索を行い、エンティティへの変換と処理を並列に行う。
+     * <p/>
+     * 詳細は{@link #findAllBySqlFileInParallel(Class, String, Object, Function, Consumer)}を参照すること。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> エンティティクラスの型
+     * @param <R> 処理結果の型
+     * @param entityClass エンティティクラス
+     * @param processor エンティティを処理する関数
+     * @param sink 処理結果の受け取り関数
+     * @return 処理した件数
+     */
+    @Published
+    default <T, R> long findAllInParallel(Class<T> entityClass, Function<? super T, ? extends R> processor,
+            Consumer<? super R> sink) {
+        throw new UnsupportedOperationException("findAllInParallel");
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開して検索処理を行い、エンティティへの変換と処理を並列に行う。
+     * <p/>
+     * 検索結果はサーバサイドカーソルで取得し、呼び出し元のスレッドではレコードの取得のみを行う。
+     * エンティティへの変換と{@code processor}の呼び出しは、{@link DaoContextFactory#setParallelExecutor(java.util.concurrent.Executor)}
+     * で設定したスレッドプールで並列に実行し、その結果を呼び出し元のスレッドで{@code sink}に渡す。
+     * <p/>
+     * 処理中のレコードの件数の上限は{@link #parallel(int)}で、
+     * 処理結果を完了した順に{@code sink}に渡す場合は{@link #unordered()}で指定する。
+     * {@code processor}や{@code sink}で例外が発生した場合は、処理中のタスクを取り消して例外を送出する。
+     * カーソルは処理終了時(例外発生時を含む)に解放される。
+     * <p/>
+     * {@code processor}は複数のスレッドから呼び出されるため、スレッドセーフであること。
+     * また、{@code processor}からはデータベースにアクセスしないこと(データベース接続はスレッドに紐づくため)。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラスの型
+     * @param <R> 処理結果の型
+     * @param entityClass 検索結果をマッピングするBeanクラス
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @param processor エンティティを処理する関数
+     * @param sink 処理結果の受け取り関数
+     * @return 処理した件数
+     */
+    @Published
+    default <T, R> long findAllBySqlFileInParallel(Class<T> entityClass, String sqlId, Object params,
+            Function<? super T, ? extends R> processor, Consumer<? super R> sink) {
+        throw new UnsupportedOperationException("findAllBySqlFileInParallel");
+    }
+
+    /**
+     * 指定したプロパティをウォーターマークとして、
+     * 指定した位置より後に変更されたエンティティをチャンク単位に処理する。
+     * <p/>
+     * ウォーターマークとID列の組が指定した位置より大きいエンティティを、ウォーターマーク、ID列の昇順に
+     * チャンクサイズずつ取得し、チャンクごとに{@link ChangeHandler}を呼び出す。
+     * チャンクは前のチャンクの最後の位置を条件(キーセット)として取得するため、
+     * チャンクの件数がチャンクサイズを超えることはなく、取得コストは変更されたエンティティの件数に比例する。
+     * <p/>
+     * 位置に{@code null}を指定した場合は、ウォーターマークのカラムがnullでない全てのエンティティを対象とする。
+     * ウォーターマークのカラムは、更新時にテーブル全体で必ず増加する値(更新日時など)である必要がある。
+     * バージョン番号({@link jakarta.persistence.Version})はエンティティごとに増加する値のため、ウォーターマークとして使用できない。
+     * また、エンティティにはID列が定義されている必要がある。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> エンティティクラスの型
+     * @param entityClass エンティティクラス
+     * @param watermarkProperty ウォーターマークとするプロパティ名
+     * @param position 前回処理した位置(初回の場合は{@code null})
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @return 次回の取得で使用する位置(変更がない場合は指定した位置)
+     */
+    @Published
+    default <T> ChangePosition findChangedSince(Class<T> entityClass, String watermarkProperty,
+            ChangePosition position, int chunkSize, ChangeHandler<T> handler) {
+        throw new UnsupportedOperationException("findChangedSince");
+    }
+
+    /**
+     * 全件の検索を行い、検索結果を指定した形式で出力する。
+     * <p/>
+     * 検索結果はサーバサイドカーソルで取得し、エンティティを生成せずに1レコードずつ出力する。
+     * 出力するカラムとその順序は、エンティティクラスのカラム定義に従う。
+     * 出力先は一定件数ごとと出力の完了時にフラッシュされ、クローズはされない。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> エンティティクラスの型
+     * @param entityClass エンティティクラス
+     * @param format 出力形式
+     * @param writer 出力先
+     * @return 出力した件数
+     */
+    @Published
+    default <T> long exportAll(Class<T> entityClass, ExportFormat format, Writer writer) {
+        throw new UnsupportedOperationException("exportAll");
+    }
+
+    /**
+     * 全件の検索を行い、検索結果を指定した形式でUTF-8で出力する。
+     * <p/>
+     * 出力先以外は{@link #exportAll(Class, ExportFormat, Writer)}と同じである。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> エンティティクラスの型
+     * @param entityClass エンティティクラス
+     * @param format 出力形式
+     * @param out 出力先
+     * @return 出力した件数
+     */
+    @Published
+    default <T> long exportAll(Class<T> entityClass, ExportFormat format, OutputStream out) {
+        throw new UnsupportedOperationException("exportAll");
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開して検索処理を行い、検索結果を指定した形式で出力する。
+     * <p/>
+     * 検索結果はサーバサイドカーソルで取得し、エンティティを生成せずに1レコードずつ出力する。
+     * 出力するカラムとその順序は、エンティティクラスのカラム定義に従う(検索結果に含まれないカラムは出力しない)。
+     * {@link nablarch.core.db.statement.SqlRow}を指定した場合は、検索結果の全てのカラムを出力する。
+     * 出力先は一定件数ごとと出力の完了時にフラッシュされ、クローズはされない。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラスの型
+     * @param entityClass 検索結果をマッピングするBeanクラス
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @param format 出力形式
+     * @param writer 出力先
+     * @return 出力した件数
+     */
+    @Published
+    default <T> long exportBySqlFile(Class<T> entityClass, String sqlId, Object params, ExportFormat format,
+            Writer writer) {
+        throw new UnsupportedOperationException("exportBySqlFile");
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開して検索処理を行い、検索結果を指定した形式でUTF-8で出力する。
+     * <p/>
+     * 出力先以外は{@link #exportBySqlFile(Class, String, Object, ExportFormat, Writer)}と同じである。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラスの型
+     * @param entityClass 検索結果をマッピングするBeanクラス
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @param format 出力形式
+     * @param out 出力先
+     * @return 出力した件数
+     */
+    @Published
+    default <T> long exportBySqlFile(Class<T> entityClass, String sqlId, Object params, ExportFormat format,
+            OutputStream out) {
+        throw new UnsupportedOperationException("exportBySqlFile");
+    }
+
     /**
      * SQL_IDをもとに1件検索を行う。
      *
@@ -104,6 +459,23 @@ public interface DaoContext {
      */
     <T> long countBySqlFile(Class<T> entityClass, String sqlId, Object params);
 
+    /**
+     * SQL_IDをもとに検索し、データが存在するか否かを確認する。
+     * <p/>
+     * 件数を取得せずに、最初の1件が存在するか否かのみを確認する。
+     * <p/>
+     * デフォルト実装は、{@link #countBySqlFile(Class, String, Object)}で取得した件数が1件以上か否かを返す。
+     *
+     * @param <T> エンティティクラスの型
+     * @param entityClass エンティティクラス
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @return 存在すればtrue
+     */
+    default <T> boolean exists(Class<T> entityClass, String sqlId, Object params) {
+        return countBySqlFile(entityClass, sqlId, params) > 0;
+    }
+
     /**
      * エンティティオブジェクトを元に更新処理を行う。
      * <p/>
@@ -187,4 +559,112 @@ public interface DaoContext {
      * @return DaoContextがそのまま返る。
      */
     DaoContext defer();
+
+    /**
+     * 遅延取得した検索結果を、別スレッドで先読みする。
+     * <p/>
+     * 検索結果の取得とエンティティへの変換を別スレッドで行い、指定したサイズのバッファに格納する。
+     * データベースからの取得待ちと呼び出し元の処理が並行して行われるため、I/O待ちの多い処理のスループットが向上する。
+     * <p/>
+     * {@link #defer()}を指定した検索と、{@link #streamAll(Class)}などのストリームでの検索に適用される。
+     * 先読み中は、検索に使用したデータベース接続を呼び出し元で使用しないこと。
+     * <p/>
+     * デフォルト実装は、先読みを行わずにこのDaoContextを返す。
+     *
+     * @param bufferSize 先読みのバッファサイズ
+     * @return DaoContextがそのまま返る。
+     */
+    default DaoContext prefetch(int bufferSize) {
+        return this;
+    }
+
+    /**
+     * 並列処理({@link #findAllInParallel(Class, Function, Consumer)}など)で、処理中のレコードの件数の上限を指定する。
+     * <p/>
+     * 指定しない場合は、利用可能なプロセッサ数の2倍となる。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param maxInFlight 処理中のレコードの件数の上限
+     * @return DaoContextがそのまま返る。
+     */
+    default DaoContext parallel(int maxInFlight) {
+        throw new UnsupportedOperationException("parallel");
+    }
+
+    /**
+     * 並列処理({@link #findAllInParallel(Class, Function, Consumer)}など)で、処理結果を完了した順に受け取る。
+     * <p/>
+     * 指定しない場合は、検索結果の順に受け取る。
+     * 処理時間にばらつきがある場合、完了した順に受け取ることで、遅い処理に後続の処理結果が待たされなくなる。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @return DaoContextがそのまま返る。
+     */
+    default DaoContext unordered() {
+        throw new UnsupportedOperationException("unordered");
+    }
+
+    /**
+     * SQL実行時に適用する実行プロファイルを指定する。
+     * <p/>
+     * 指定した実行プロファイルは、コンポーネント設定ファイルで定義した実行プロファイルよりも優先される。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param executionProfile 実行プロファイル
+     * @return DaoContextがそのまま返る。
+     */
+    default DaoContext executionProfile(ExecutionProfile executionProfile) {
+        throw new UnsupportedOperationException("executionProfile");
+    }
+
+    /**
+     * 取得するプロパティを指定する。
+     * <p/>
+     * {@link #findAll(Class)}、{@link #findById(Class, Object...)}、{@link #findByIdOrNull(Class, Object...)}で、
+     * 指定したプロパティに対応するカラムのみを検索する。指定していないプロパティは、初期値のままとなる。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param propertyNames 取得するプロパティ名
+     * @return DaoContextがそのまま返る。
+     */
+    default DaoContext select(String... propertyNames) {
+        throw new UnsupportedOperationException("select");
+    }
+
+    /**
+     * 全件の検索({@link #findAll(Class)}など)のソート順を指定する。
+     * <p/>
+     * ソート順はプロパティ名で指定し、プロパティ名の後に半角スペースに続けて
+     * {@code ASC}(昇順)または{@code DESC}(降順)を指定できる。省略した場合は昇順となる。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param orderBy ソート順(例: {@code "name"}、{@code "insertDate DESC"})
+     * @return DaoContextがそのまま返る。
+     */
+    default DaoContext orderBy(String... orderBy) {
+        throw new UnsupportedOperationException("orderBy");
+    }
+
+    /**
+     * 親子を結合した検索結果を、関連プロパティに子エンティティを設定した親エンティティにマッピングする。
+     * <p/>
+     * {@link #findAllBySqlFile(Class, String, Object)}、{@link #streamBySqlFile(Class, String, Object)}で、
+     * 親エンティティのID列が同じ連続したレコードを1つの親エンティティにまとめ、
+     * 接頭辞を付けたカラムから生成した子エンティティを関連プロパティに設定する。
+     * 検索結果は、親エンティティのID列でソートされている必要がある。
+     * <p/>
+     * デフォルト実装は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @param propertyName 関連プロパティ名
+     * @param columnPrefix 子エンティティのカラムに付けた接頭辞
+     * @return DaoContextがそのまま返る。
+     */
+    default DaoContext nest(String propertyName, String columnPrefix) {
+        throw new UnsupportedOperationException("nest");
+    }
 }
@@ -1,5 +1,11 @@
 package nablarch.common.dao;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
 import nablarch.common.idgenerator.IdGenerator;
 import nablarch.core.db.connection.AppDbConnection;
 import nablarch.core.util.annotation.Published;
@@ -13,6 +19,9 @@ import nablarch.core.util.annotation.Published;
 @Published(tag = "architect")
 public abstract class DaoContextFactory {
 
+    /** エクスポート時に出力先をフラッシュするレコード件数の間隔のデフォルト値 */
+    static final int DEFAULT_EXPORT_FLUSH_INTERVAL = 1000;
+
     /** シーケンスID採番用の{@link IdGenerator}実装クラス */
     protected IdGenerator sequenceIdGenerator;      // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
 
@@ -25,6 +34,51 @@ public abstract class DaoContextFactory {
     /** SQLビルダー({@link nablarch.common.dao.StandardSqlBuilder}) */
     protected StandardSqlBuilder sqlBuilder = new StandardSqlBuilder();       // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
 
+    /** ページネーション検索の件数キャッシュ */
+    protected ResultCountCache resultCountCache;        // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** SQL_IDまたはエンティティクラス名をキーとした実行プロファイル */
+    protected Map<String, ExecutionProfile> executionProfiles = Collections.emptyMap();     // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** 大量のプライマリーキーによる検索で使用するキー格納用テーブル */
+    protected TemporaryKeyTable temporaryKeyTable;      // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** プライマリーキーによる検索結果のキャッシュ */
+    protected EntityCache entityCache;      // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** エンティティクラスごとの参照用データのテーブル */
+    protected Map<Class<?>, ReferenceDataTable<?>> referenceDataTables = Collections.emptyMap();     // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** プライマリーキーが存在しないことを判定するフィルタ */
+    protected PrimaryKeyFilter primaryKeyFilter;        // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** 1件検索で複数件のレコードが該当した場合に例外とするか否か */
+    protected boolean strictSingleResult = false;       // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** ページネーション検索で総件数を取得する方法 */
+    protected CountStrategy countStrategy;              // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** エクスポート時に出力先をフラッシュするレコード件数の間隔 */
+    protected int exportFlushInterval = DEFAULT_EXPORT_FLUSH_INTERVAL;     // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** 検索結果をヒープ上に保持する件数の閾値(0以下の場合は件数で判定しない) */
+    protected int spillThreshold;       // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** 検索結果をヒープ上に保持するバイト数の閾値(0以下の場合はバイト数で判定しない) */
+    protected long spillThresholdBytes;     // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** 検索結果を退避する一時ファイルのディレクトリ */
+    protected String spillDirectory;        // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** 並列処理でエンティティへの変換と処理を実行する{@link Executor} */
+    protected Executor parallelExecutor;        // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** トランザクション内で取得済みのエンティティを保持するか否か */
+    protected boolean identityMapEnabled = false;       // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
+    /** スレッド上に保持する取得済みのエンティティ */
+    protected ThreadLocal<IdentityMap> identityMap = new ThreadLocal<IdentityMap>();       // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
+
     /**
      * DaoContextを生成する。
      *
@@ -61,6 +115,222 @@ public abstract class DaoContextFactory {
         this.sqlBuilder = sqlBuilder;
     }
 
+    /**
+     * ページネーション検索の件数キャッシュを設定する。
+     * <p/>
+     * 設定しない場合は、ページを切り替える度に件数取得SQLが実行される。
+     * キャッシュした件数は、検索結果のエンティティクラスのテーブルへの更新時に破棄される。
+     * 結合先のテーブルなど、それ以外のテーブルへの更新で破棄する場合は、件数キャッシュに関連するテーブルを指定すること。
+     *
+     * @param resultCountCache 件数キャッシュ
+     */
+    public void setResultCountCache(final ResultCountCache resultCountCache) {
+        this.resultCountCache = resultCountCache;
+    }
+
+    /**
+     * SQL_IDまたはエンティティクラス名をキーとした実行プロファイルを設定する。
+     * <p/>
+     * キーには、SQL_ID(SQLファイル名を含む「{@code 完全修飾名#SQL_ID}」形式)または
+     * エンティティクラスの完全修飾名を指定する。
+     * 両方に該当する場合は、SQL_IDに対応する実行プロファイルが使用される。
+     *
+     * @param executionProfiles 実行プロファイル
+     */
+    public void setExecutionProfiles(final Map<String, ExecutionProfile> executionProfiles) {
+        this.executionProfiles = Collections.unmodifiableMap(executionProfiles);
+    }
+
+    /**
+     * 大量のプライマリーキーによる検索で使用するキー格納用テーブルを設定する。
+     * <p/>
+     * 設定しない場合は、プライマリーキーの件数によらずIN句による検索が行われる。
+     *
+     * @param temporaryKeyTable キー格納用テーブル
+     */
+    public void setTemporaryKeyTable(final TemporaryKeyTable temporaryKeyTable) {
+        this.temporaryKeyTable = temporaryKeyTable;
+    }
+
+    /**
+     * プライマリーキーによる検索結果のキャッシュを設定する。
+     * <p/>
+     * 設定しない場合は、プライマリーキーによる検索は常にデータベースにアクセスする。
+     *
+     * @param entityCache エンティティのキャッシュ
+     */
+    public void setEntityCache(final EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    /**
+     * メモリ上に保持する参照用データのテーブルを設定する。
+     * <p/>
+     * 設定したテーブルのエンティティクラスに対するプライマリーキーによる検索は、
+     * データベースやキャッシュにアクセスせず、テーブルが保持するエンティティを返す。
+     *
+     * @param referenceDataTables 参照用データのテーブル
+     */
+    public void setReferenceDataTables(final List<ReferenceDataTable<?>> referenceDataTables) {
+        final Map<Class<?>, ReferenceDataTable<?>> tables = new HashMap<Class<?>, ReferenceDataTable<?>>();
+        for (ReferenceDataTable<?> table : referenceDataTables) {
+            tables.put(table.getEntityClass(), table);
+        }
+        this.referenceDataTables = tables;
+    }
+
+    /**
+     * プライマリーキーが存在しないことを判定するフィルタを設定する。
+     * <p/>
+     * 設定した場合、{@link DaoContext#findByIdOrNull(Class, Object...)}は、
+     * フィルタで確実に存在しないと判定されたプライマリーキーの検索でデータベースにアクセスしない。
+     *
+     * @param primaryKeyFilter フィルタ
+     */
+    public void setPrimaryKeyFilter(final PrimaryKeyFilter primaryKeyFilter) {
+        this.primaryKeyFilter = primaryKeyFilter;
+    }
+
+    /**
+     * SQL_IDによる1件検索で、複数件のレコードが該当した場合に例外とするか否か(厳密モード)を設定する。
+     * <p/>
+     * {@code true}を設定した場合、{@link DaoContext#findBySqlFile(Class, String, Object)}、
+     * {@link DaoContext#findBySqlFileOrNull(Class, String, Object)}は先頭の2件を検索し、
+     * 2件目が存在する場合は{@link jakarta.persistence.NonUniqueResultException}を送出する。
+     * <p/>
+     * 設定しない場合は、{@code false}(先頭の1件のみを検索し、2件目以降は無視する)となる。
+     *
+     * @param strictSingleResult 例外とする場合{@code true}
+     */
+    public void setStrictSingleResult(final boolean strictSingleResult) {
+        this.strictSingleResult = strictSingleResult;
+    }
+
+    /**
+     * ページネーション検索で総件数を取得する方法を設定する。
+     * <p/>
+     * 設定しない場合は、件数取得SQLで正確な件数を取得する。
+     *
+     * @param countStrategy 総件数を取得する方法
+     */
+    public void setCountStrategy(final CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+    }
+
+    /**
+     * エクスポート時に出力先をフラッシュするレコード件数の間隔を設定する。
+     * <p/>
+     * 設定しない場合は、1000件ごとにフラッシュする。
+     *
+     * @param exportFlushInterval フラッシュするレコード件数の間隔
+     * @throws IllegalArgumentException 1未満の値を指定した場合
+     */
+    public void setExportFlushInterval(final int exportFlushInterval) {
+        if (exportFlushInterval < 1) {
+            throw new IllegalArgumentException(
+                    "export flush interval must be greater than 0. export flush interval = " + exportFlushInterval);
+        }
+        this.exportFlushInterval = exportFlushInterval;
+    }
+
+    /**
+     * ページングなしの検索結果をヒープ上に保持する件数の閾値を設定する。
+     * <p/>
+     * 検索結果が閾値を超えた場合、超えた分のエンティティは一時ファイルに退避する({@link SpillingEntityList})。
+     * 退避した検索結果は、並び替えや削除などの変更操作をサポートしない。
+     * 設定しない場合(0以下の場合)は、件数では判定しない。
+     *
+     * @param spillThreshold 件数の閾値
+     */
+    public void setSpillThreshold(final int spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * ページングなしの検索結果をヒープ上に保持するバイト数の閾値を設定する。
+     * <p/>
+     * ヒープ上に保持するエンティティのバイナリ形式でのサイズの合計が閾値を超えた場合、
+     * 超えた分のエンティティは一時ファイルに退避する({@link SpillingEntityList})。
+     * 設定しない場合(0以下の場合)は、バイト数では判定しない。
+     *
+     * @param spillThresholdBytes バイト数の閾値
+     */
+    public void setSpillThresholdBytes(final long spillThresholdBytes) {
+        this.spillThresholdBytes = spillThresholdBytes;
+    }
+
+    /**
+     * 検索結果を退避する一時ファイルのディレクトリを設定する。
+     * <p/>
+     * 設定しない場合は、システムの一時ディレクトリ({@code java.io.tmpdir})に作成する。
+     *
+     * @param spillDirectory ディレクトリ
+     */
+    public void setSpillDirectory(final String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * 並列処理({@link DaoContext#findAllInParallel(Class, java.util.function.Function, java.util.function.Consumer)}など)で、
+     * エンティティへの変換と処理を実行する{@link Executor}を設定する。
+     * <p/>
+     * 設定しない場合は、{@link java.util.concurrent.ForkJoinPool#commonPool()}を使用する。
+     * 処理にI/O待ちが多い場合は、専用のスレッドプールや仮想スレッドの{@link Executor}を設定すること。
+     *
+     * @param parallelExecutor {@link Executor}
+     */
+    public void setParallelExecutor(final Executor parallelExecutor) {
+        this.parallelExecutor = parallelExecutor;
+    }
+
+    /**
+     * トランザクション内で取得済みのエンティティを保持するか否かを設定する。
+     * <p/>
+     * {@code true}を設定した場合、{@link UniversalDao.Transaction}の実行中は、
+     * プライマリーキーにより取得したエンティティを保持し、同じプライマリーキーでの検索時に同一のインスタンスを返す。
+     * 保持したエンティティは、DAOを介した更新・削除時に破棄され、トランザクションの終了時に全て破棄される。
+     * <p/>
+     * 設定しない場合は、{@code false}(保持しない)となる。
+     *
+     * @param identityMapEnabled 取得済みのエンティティを保持する場合{@code true}
+     */
+    public void setIdentityMapEnabled(final boolean identityMapEnabled) {
+        this.identityMapEnabled = identityMapEnabled;
+    }
+
+    /**
+     * トランザクション内で取得済みのエンティティを保持するか否かを返す。
+     *
+     * @return 取得済みのエンティティを保持する場合{@code true}
+     */
+    public boolean isIdentityMapEnabled() {
+        return identityMapEnabled;
+    }
+
+    /**
+     * DAOで使う取得済みのエンティティの保持先を設定する。
+     * (トランザクション用です)
+     *
+     * @param aIdentityMap 取得済みのエンティティの保持先
+     */
+    public void setIdentityMap(final IdentityMap aIdentityMap) {
+        if (aIdentityMap == null) {
+            identityMap.remove();
+        } else {
+            identityMap.set(aIdentityMap);
+        }
+    }
+
+    /**
+     * DAOで使う取得済みのエンティティの保持先を取得する。
+     * (トランザクション用です)
+     *
+     * @return 取得済みのエンティティの保持先
+     */
+    public IdentityMap getIdentityMap() {
+        return identityMap.get();
+    }
+
     /**
      * DAOで使うコネクションを設定する。
      * (トランザクション用です)
@@ -5,6 +5,10 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import nablarch.core.db.statement.SqlRow;
 import nablarch.core.util.annotation.Published;
@@ -23,7 +27,7 @@ import nablarch.core.util.annotation.Published;
  * これは、{@link java.sql.ResultSet#TYPE_FORWARD_ONLY}のカーソルしかサポートしないため、
  * 一度読み込んだレコードを再度読み込むことは出来ないためである。
  * <p/>
- * 本クラスでは、{@link #iterator()}のみサポートする。
+ * 本クラスでは、{@link #iterator()}と、これを元にした{@link #spliterator()}、{@link #stream()}のみサポートする。
  * これ以外のメソッドが呼び出された場合は、{@link java.lang.UnsupportedOperationException}を送出する。
  *
  * @param <E> 型パラメータ
@@ -42,6 +46,12 @@ public class DeferredEntityList<E> extends EntityList<E> implements Closeable {
     /** エンティティクラス */
     private final Class<E> entityClass;
 
+    /** 先読みのバッファサイズ(先読みしない場合は0) */
+    private final int prefetchSize;
+
+    /** 先読み中の{@link Iterator}(先読みしない場合、または{@link #iterator()}の呼び出し前は{@code null}) */
+    private transient PrefetchingIterator<E> prefetchingIterator;
+
     /**
      * 遅延EntityListを生成する。
      *
@@ -49,14 +59,48 @@ public class DeferredEntityList<E> extends EntityList<E> implements Closeable {
      * @param resourceHolder SQLリソース
      */
     public DeferredEntityList(Class<E> entityClass, SqlResourceHolder resourceHolder) {
+        this(entityClass, resourceHolder, 0);
+    }
+
+    /**
+     * 検索結果を別スレッドで先読みする遅延EntityListを生成する。
+     * <p/>
+     * 先読みのバッファサイズに1以上を指定した場合、{@link #iterator()}の呼び出し時に先読みスレッドを開始し、
+     * 検索結果の取得とエンティティへの変換を、呼び出し元の処理と並行して行う。
+     * 先読みスレッドは本リストごとに生成され、呼び出し元と同じデータベース接続で検索結果を取得する。
+     * データベース接続はスレッドセーフではないため、先読み中(クローズするまで)は、
+     * 検索に使用したデータベース接続を呼び出し元で使用しないこと。
+     *
+     * @param entityClass Entityのクラス
+     * @param resourceHolder SQLリソース
+     * @param prefetchSize 先読みのバッファサイズ(先読みしない場合は0)
+     */
+    public DeferredEntityList(Class<E> entityClass, SqlResourceHolder resourceHolder, int prefetchSize) {
         this.entityClass = entityClass;
         this.resourceHolder = resourceHolder;
+        this.prefetchSize = prefetchSize;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 先読みする場合、先読みスレッドで発生した例外は、返却する{@link Iterator}の
+     * {@link Iterator#hasNext()}または{@link Iterator#next()}から送出する。
+     * また、1つの検索結果を複数のスレッドから読み込まないよう、{@link Iterator}は1回のみ取得できる。
+     *
+     * @throws IllegalStateException 先読みする場合で、既に{@link Iterator}を取得している場合
+     */
     @Published
     @Override
     public Iterator<E> iterator() {
+        if (prefetchingIterator != null) {
+            throw new IllegalStateException("prefetching iterator has already been created.");
+        }
         final Iterator<SqlRow> iter = resourceHolder.getResultSetIterator().iterator();
+        if (prefetchSize > 0) {
+            prefetchingIterator = new PrefetchingIterator<E>(iter, this::toEntity, prefetchSize);
+            return prefetchingIterator;
+        }
         return new Iterator<E>() {
             @Override
             public boolean hasNext() {
@@ -65,14 +109,7 @@ public class DeferredEntityList<E> extends EntityList<E> implements Closeable {
 
             @Override
             public E next() {
-                SqlRow row = iter.next();
-                if (entityClass.equals(SqlRow.class)) {
-                    @SuppressWarnings("unchecked")
-                    E e = (E) row;
-                    return e;
-                } else {
-                    return EntityUtil.createEntity(entityClass, row);
-                }
+                return toEntity(iter.next());
             }
 
             @Override
@@ -82,6 +119,57 @@ public class DeferredEntityList<E> extends EntityList<E> implements Closeable {
         };
     }
 
+    /**
+     * 検索結果のレコードをエンティティに変換する。
+     *
+     * @param row 検索結果のレコード
+     * @return エンティティ
+     */
+    private E toEntity(final SqlRow row) {
+        if (entityClass.equals(SqlRow.class)) {
+            @SuppressWarnings("unchecked")
+            E e = (E) row;
+            return e;
+        } else {
+            return EntityUtil.createEntity(entityClass, row);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 本実装では、{@link #iterator()}を元に検索結果を順に取得する{@link Spliterator}を返す。
+     * 返却する{@link Spliterator}は、{@link Spliterator#ORDERED}と{@link Spliterator#NONNULL}を報告する。
+     */
+    @Published
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 本実装では、検索結果を遅延取得する逐次ストリームを返す。
+     * ストリームをクローズ({@link Stream#close()})すると、本リストもクローズされSQLリソースが解放される。
+     * そのため、ストリームはtry-with-resources文で使用すること。
+     */
+    @Published
+    @Override
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false).onClose(new Runnable() {
+            @Override
+            public void run() {
+                close();
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 先読み中の場合は、先読みスレッドを停止してからSQLリソースを解放する。
+     */
     @Override
     public void close() {
         dispose();
@@ -91,7 +179,13 @@ public class DeferredEntityList<E> extends EntityList<E> implements Closeable {
      * SQLリソースを解放する。
      */
     private void dispose() {
-        resourceHolder.dispose();
+        try {
+            if (prefetchingIterator != null) {
+                prefetchingIterator.cancel();
+            }
+        } finally {
+            resourceHolder.dispose();
+        }
     }
 
     /**
@@ -0,0 +1,86 @@
+package nablarch.common.dao;
+
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * プライマリーキーによる検索結果のエンティティをキャッシュするインタフェース。
+ * <p/>
+ * {@link DaoContext#findById(Class, Object...)}、{@link DaoContext#findByIdOrNull(Class, Object...)}で
+ * 参照頻度の高いエンティティ(税率や商品、支店など)をデータベースにアクセスせずに取得するために使用する。
+ * キャッシュは複数のスレッドで共有されるため、実装クラスはスレッドセーフである必要がある。
+ * <p/>
+ * キャッシュからは、キャッシュしたエンティティと同じインスタンスを返してはならない。
+ * 呼び出し元で変更されてもキャッシュの内容に影響しないよう、コピーを返すこと。
+ * <p/>
+ * データベースから取得したエンティティは、取得前に{@link #beginLoad(Class, List)}で取得したトークンと共に格納される。
+ * 取得開始後に登録・更新・削除({@link #evict(Class, List)})があった場合や、
+ * 書き込んだトランザクションが未確定の可能性がある間は、古いエンティティや確定前のエンティティを格納しないよう、
+ * 実装クラスは格納を破棄する必要がある。
+ */
+@Published(tag = "architect")
+public interface EntityCache {
+
+    /**
+     * エンティティクラスがキャッシュ対象か否かを返す。
+     *
+     * @param entityClass エンティティクラス
+     * @return キャッシュ対象の場合{@code true}
+     */
+    boolean isCacheable(Class<?> entityClass);
+
+    /**
+     * キャッシュからエンティティを取得する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー(定義順、カラムの型に変換済みの値)
+     * @param <T> エンティティクラスの型
+     * @return エンティティのコピー。キャッシュされていない場合や有効期限切れの場合は{@code null}
+     */
+    <T> T get(Class<T> entityClass, List<Object> id);
+
+    /**
+     * データベースからのエンティティの取得を開始する。
+     * <p/>
+     * 戻り値のトークンは、取得したエンティティを{@link #put(Class, List, Object, long)}で格納する際に指定する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー(定義順、カラムの型に変換済みの値)
+     * @return トークン
+     */
+    long beginLoad(Class<?> entityClass, List<Object> id);
+
+    /**
+     * エンティティをキャッシュに格納する。
+     * <p/>
+     * トークンの取得後に同じプライマリーキーへの書き込みがあった場合や、書き込み後の保留期間中の場合は、格納しない。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー(定義順、カラムの型に変換済みの値)
+     * @param entity エンティティ
+     * @param token 取得開始時に{@link #beginLoad(Class, List)}で取得したトークン
+     * @param <T> エンティティクラスの型
+     */
+    <T> void put(Class<T> entityClass, List<Object> id, T entity, long token);
+
+    /**
+     * 指定されたプライマリーキーのエンティティをキャッシュから削除する。
+     * <p/>
+     * エンティティの登録・更新・削除時に呼び出される。
+     * 削除後は、書き込みの保留期間が経過するまで同じプライマリーキーのエンティティを格納しない。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー(定義順、カラムの型に変換済みの値)
+     */
+    void evict(Class<?> entityClass, List<Object> id);
+
+    /**
+     * 指定されたエンティティクラスのキャッシュを全て削除する。
+     * <p/>
+     * 削除後は、書き込みの保留期間が経過するまで指定されたエンティティクラスのエンティティを格納しない。
+     *
+     * @param entityClass エンティティクラス
+     */
+    void invalidate(Class<?> entityClass);
+}
@@ -0,0 +1,474 @@
+package nablarch.common.dao;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.core.beans.BeanUtil;
+
+/**
+ * エンティティクラスごとのバイナリ形式。
+ * <p/>
+ * エンティティクラスのカラム定義({@link EntityUtil#findAllColumns(Class)})の順に値を並べたもので、カラム名は含まない。
+ * 各値は、nullか否かを表す1バイトに続けて、カラムの型に応じた形式で格納する。
+ * サポートする型は{@link OffHeapEntityCache}を参照。
+ */
+final class EntityCodec {
+
+    /** 全カラム */
+    private final List<ColumnMeta> columns;
+
+    /** 全カラムの型 */
+    private final List<ValueType> columnTypes;
+
+    /** ID列の型 */
+    private final List<ValueType> idTypes;
+
+    /** サポートしない型を含むか否か */
+    private final boolean supported;
+
+    /**
+     * バイナリ形式を生成する。
+     *
+     * @param columns 全カラム
+     * @param columnTypes 全カラムの型
+     * @param idTypes ID列の型
+     * @param supported サポートしない型を含まない場合{@code true}
+     */
+    private EntityCodec(final List<ColumnMeta> columns, final List<ValueType> columnTypes,
+            final List<ValueType> idTypes, final boolean supported) {
+        this.columns = columns;
+        this.columnTypes = columnTypes;
+        this.idTypes = idTypes;
+        this.supported = supported;
+    }
+
+    /**
+     * エンティティクラスのバイナリ形式を生成する。
+     *
+     * @param entityClass エンティティクラス
+     * @return バイナリ形式
+     */
+    static EntityCodec create(final Class<?> entityClass) {
+        final List<ColumnMeta> columns = EntityUtil.findAllColumns(entityClass);
+        final List<ValueType> columnTypes = new ArrayList<ValueType>(columns.size());
+        boolean supported = true;
+        for (ColumnMeta column : columns) {
+            final ValueType type = ValueType.of(column.getPropertyType());
+            supported &= type != null;
+            columnTypes.add(type);
+        }
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        final List<ValueType> idTypes = new ArrayList<ValueType>(idColumns.size());
+        for (ColumnMeta idColumn : idColumns) {
+            final ValueType type = ValueType.of(idColumn.getJdbcType());
+            supported &= type != null;
+            idTypes.add(type);
+        }
+        return new EntityCodec(columns, columnTypes, idTypes, supported);
+    }
+
+    /**
+     * サポートしない型を含まないか否かを返す。
+     *
+     * @return サポートしない型を含まない場合{@code true}
+     */
+    boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * プライマリーキーをバイナリに変換する。
+     *
+     * @param id プライマリーキー(定義順、カラムの型に変換済みの値)
+     * @return バイナリ
+     */
+    byte[] encodeKey(final List<Object> id) {
+        final Encoder encoder = new Encoder();
+        for (int i = 0; i < idTypes.size(); i++) {
+            encoder.write(idTypes.get(i), id.get(i));
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * エンティティをバイナリに変換する。
+     *
+     * @param entity エンティティ
+     * @return バイナリ
+     */
+    byte[] encodeEntity(final Object entity) {
+        final Map<ColumnMeta, Object> values = EntityUtil.findAllColumns(entity);
+        final Encoder encoder = new Encoder();
+        for (int i = 0; i < columns.size(); i++) {
+            encoder.write(columnTypes.get(i), values.get(columns.get(i)));
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * バイナリからエンティティを復元する。
+     *
+     * @param entityClass エンティティクラス
+     * @param buffer バイナリ
+     * @param <T> エンティティクラスの型
+     * @return エンティティ
+     */
+    <T> T decodeEntity(final Class<T> entityClass, final ByteBuffer buffer) {
+        final Map<String, Object> values = new HashMap<String, Object>(columns.size() * 2);
+        for (int i = 0; i < columns.size(); i++) {
+            final Object value = buffer.get() == 0 ? null : columnTypes.get(i).read(buffer);
+            if (value != null) {
+                values.put(columns.get(i).getPropertyName(), value);
+            }
+        }
+        return BeanUtil.createAndCopy(entityClass, values);
+    }
+
+    /**
+     * バイナリへの変換を行うクラス。
+     */
+    private static final class Encoder {
+
+        /** 出力先 */
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+
+        /** 出力ストリーム */
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        /**
+         * 値を出力する。
+         *
+         * @param type 型
+         * @param value 値
+         */
+        void write(final ValueType type, final Object value) {
+            try {
+                if (value == null) {
+                    out.writeByte(0);
+                } else {
+                    out.writeByte(1);
+                    type.write(out, value);
+                }
+            } catch (IOException e) {
+                // ByteArrayOutputStreamへの出力のため発生しない
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * 出力したバイナリを返す。
+         *
+         * @return バイナリ
+         */
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * サポートする型ごとのバイナリ形式。
+     */
+    private enum ValueType {
+        /** 文字列(UTF-8) */
+        STRING {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return new String(readBytes(in), StandardCharsets.UTF_8);
+            }
+        },
+        /** 真偽値 */
+        BOOLEAN {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                out.writeBoolean((Boolean) value);
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return in.get() != 0;
+            }
+        },
+        /** 短整数 */
+        SHORT {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                out.writeShort((Short) value);
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return in.getShort();
+            }
+        },
+        /** 整数 */
+        INTEGER {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                out.writeInt((Integer) value);
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return in.getInt();
+            }
+        },
+        /** 長整数 */
+        LONG {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                out.writeLong((Long) value);
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return in.getLong();
+            }
+        },
+        /** 単精度浮動小数点数 */
+        FLOAT {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                out.writeFloat((Float) value);
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return in.getFloat();
+            }
+        },
+        /** 倍精度浮動小数点数 */
+        DOUBLE {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                out.writeDouble((Double) value);
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return in.getDouble();
+            }
+        },
+        /** 十進数(スケールと値のバイト配列) */
+        BIG_DECIMAL {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                final BigDecimal decimal = (BigDecimal) value;
+                out.writeInt(decimal.scale());
+                writeBytes(out, decimal.unscaledValue().toByteArray());
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                final int scale = in.getInt();
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+        },
+        /** 多倍長整数 */
+        BIG_INTEGER {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                writeBytes(out, ((BigInteger) value).toByteArray());
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return new BigInteger(readBytes(in));
+            }
+        },
+        /** バイト配列 */
+        BYTES {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                writeBytes(out, (byte[]) value);
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return readBytes(in);
+            }
+        },
+        /** 日時(エポックミリ秒) */
+        DATE {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                out.writeLong(((Date) value).getTime());
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return new Date(in.getLong());
+            }
+        },
+        /** SQL日付(エポックミリ秒) */
+        SQL_DATE {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                out.writeLong(((Date) value).getTime());
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return new java.sql.Date(in.getLong());
+            }
+        },
+        /** SQL時刻(エポックミリ秒) */
+        SQL_TIME {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                out.writeLong(((Date) value).getTime());
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return new Time(in.getLong());
+            }
+        },
+        /** タイムスタンプ(エポックミリ秒とナノ秒) */
+        TIMESTAMP {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                final Timestamp timestamp = (Timestamp) value;
+                out.writeLong(timestamp.getTime());
+                out.writeInt(timestamp.getNanos());
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                final Timestamp timestamp = new Timestamp(in.getLong());
+                timestamp.setNanos(in.getInt());
+                return timestamp;
+            }
+        },
+        /** 日付(エポック日数) */
+        LOCAL_DATE {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                out.writeLong(((LocalDate) value).toEpochDay());
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                return LocalDate.ofEpochDay(in.getLong());
+            }
+        },
+        /** 日時(UTCのエポック秒とナノ秒) */
+        LOCAL_DATE_TIME {
+            @Override
+            void write(final DataOutputStream out, final Object value) throws IOException {
+                final LocalDateTime dateTime = (LocalDateTime) value;
+                out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(dateTime.getNano());
+            }
+
+            @Override
+            Object read(final ByteBuffer in) {
+                final long seconds = in.getLong();
+                return LocalDateTime.ofEpochSecond(seconds, in.getInt(), ZoneOffset.UTC);
+            }
+        };
+
+        /**
+         * 値を出力する。
+         *
+         * @param out 出力ストリーム
+         * @param value 値(nullではない)
+         * @throws IOException 入出力例外
+         */
+        abstract void write(DataOutputStream out, Object value) throws IOException;
+
+        /**
+         * 値を読み込む。
+         *
+         * @param in 入力バッファ
+         * @return 値
+         */
+        abstract Object read(ByteBuffer in);
+
+        /**
+         * 型に対応するバイナリ形式を返す。
+         *
+         * @param type 型
+         * @return バイナリ形式(サポートしない型の場合は{@code null})
+         */
+        static ValueType of(final Class<?> type) {
+            if (type == String.class) {
+                return STRING;
+            } else if (type == Boolean.class || type == boolean.class) {
+                return BOOLEAN;
+            } else if (type == Short.class || type == short.class) {
+                return SHORT;
+            } else if (type == Integer.class || type == int.class) {
+                return INTEGER;
+            } else if (type == Long.class || type == long.class) {
+                return LONG;
+            } else if (type == Float.class || type == float.class) {
+                return FLOAT;
+            } else if (type == Double.class || type == double.class) {
+                return DOUBLE;
+            } else if (type == BigDecimal.class) {
+                return BIG_DECIMAL;
+            } else if (type == BigInteger.class) {
+                return BIG_INTEGER;
+            } else if (type == byte[].class) {
+                return BYTES;
+            } else if (type == Timestamp.class) {
+                return TIMESTAMP;
+            } else if (type == java.sql.Date.class) {
+                return SQL_DATE;
+            } else if (type == Time.class) {
+                return SQL_TIME;
+            } else if (type == Date.class) {
+                return DATE;
+            } else if (type == LocalDate.class) {
+                return LOCAL_DATE;
+            } else if (type == LocalDateTime.class) {
+                return LOCAL_DATE_TIME;
+            }
+            return null;
+        }
+
+        /**
+         * 長さとバイト配列を出力する。
+         *
+         * @param out 出力ストリーム
+         * @param bytes バイト配列
+         * @throws IOException 入出力例外
+         */
+        private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        /**
+         * 長さとバイト配列を読み込む。
+         *
+         * @param in 入力バッファ
+         * @return バイト配列
+         */
+        private static byte[] readBytes(final ByteBuffer in) {
+            final byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            return bytes;
+        }
+    }
+}
@@ -55,7 +55,7 @@ public class EntityList<E> extends ArrayList<E> {
      */
     protected void setPage(final long page) {
         initPagination();
-        pagination.setPageNumber((int) page);
+        pagination.setLargePageNumber(page);
     }
 
     /**
@@ -65,7 +65,7 @@ public class EntityList<E> extends ArrayList<E> {
      */
     protected void setMax(final long max) {
         initPagination();
-        pagination.setMax((int) max);
+        pagination.setLargeMax(max);
     }
 
     /**
@@ -75,7 +75,17 @@ public class EntityList<E> extends ArrayList<E> {
      */
     protected void setResultCount(final long resultCount) {
         initPagination();
-        pagination.setResultCount((int) resultCount);
+        pagination.setLargeResultCount(resultCount);
+    }
+
+    /**
+     * 検索結果の総件数が概算の件数か否かを設定する。
+     *
+     * @param approximate 概算の件数の場合{@code true}
+     */
+    protected void setApproximate(final boolean approximate) {
+        initPagination();
+        pagination.setApproximate(approximate);
     }
 
     /**
@@ -0,0 +1,143 @@
+package nablarch.common.dao;
+
+import nablarch.core.db.statement.SqlStatement;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * SQL実行時のステートメント設定(実行プロファイル)を保持するクラス。
+ * <p/>
+ * 設定されていない(値が{@code null}の)項目は、ステートメントに設定せずJDBCドライバのデフォルト値を使用する。
+ * <p/>
+ * 実行プロファイルは、{@link DaoContextFactory#setExecutionProfiles(java.util.Map)}でSQL_IDまたはエンティティクラスごとに
+ * コンポーネント設定ファイルで定義するか、{@link DaoContext#executionProfile(ExecutionProfile)}で呼び出し単位に指定する。
+ * <pre>
+ * {@code
+ * <component name="daoContextFactory" class="nablarch.common.dao.BasicDaoContextFactory">
+ *   <property name="executionProfiles">
+ *     <map>
+ *       <entry key="com.example.entity.Project#SEARCH_PROJECT">
+ *         <value-component class="nablarch.common.dao.ExecutionProfile">
+ *           <property name="fetchSize" value="1000" />
+ *           <property name="queryTimeout" value="600" />
+ *         </value-component>
+ *       </entry>
+ *     </map>
+ *   </property>
+ * </component>
+ * }</pre>
+ * <p/>
+ * {@link java.sql.ResultSet}のタイプや並行処理モードは、
+ * {@link nablarch.core.db.connection.AppDbConnection}からステートメント生成時に指定できないためサポートしない。
+ */
+@Published(tag = "architect")
+public class ExecutionProfile {
+
+    /** フェッチサイズ */
+    private Integer fetchSize;
+
+    /** 最大行数 */
+    private Integer maxRows;
+
+    /** クエリタイムアウト(秒) */
+    private Integer queryTimeout;
+
+    /**
+     * フェッチサイズを取得する。
+     *
+     * @return フェッチサイズ
+     */
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * フェッチサイズを設定する。
+     *
+     * @param fetchSize フェッチサイズ
+     */
+    public void setFetchSize(final Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * 最大行数を取得する。
+     *
+     * @return 最大行数
+     */
+    public Integer getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * 最大行数を設定する。
+     * <p/>
+     * 最大行数を超えた行は、JDBCドライバによって通知なく切り捨てられる。
+     *
+     * @param maxRows 最大行数
+     */
+    public void setMaxRows(final Integer maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * クエリタイムアウト(秒)を取得する。
+     *
+     * @return クエリタイムアウト(秒)
+     */
+    public Integer getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    /**
+     * クエリタイムアウト(秒)を設定する。
+     *
+     * @param queryTimeout クエリタイムアウト(秒)
+     */
+    public void setQueryTimeout(final Integer queryTimeout) {
+        this.queryTimeout = queryTimeout;
+    }
+
+    /**
+     * 本プロファイルの設定をステートメントに適用する。
+     * <p/>
+     * JDBCの仕様上、フェッチサイズは最大行数を超えられないため、
+     * 最大行数が設定されている場合のフェッチサイズは最大行数に切り詰める。
+     *
+     * @param statement ステートメント
+     */
+    public void applyTo(final SqlStatement statement) {
+        if (maxRows != null) {
+            statement.setMaxRows(maxRows);
+        }
+        if (fetchSize != null) {
+            statement.setFetchSize(maxRows != null && maxRows > 0 ? Math.min(fetchSize, maxRows) : fetchSize);
+        }
+        if (queryTimeout != null) {
+            statement.setQueryTimeout(queryTimeout);
+        }
+    }
+
+    /**
+     * 本プロファイルで設定する項目について、ステートメントの現在の設定値を保持した実行プロファイルを生成する。
+     * <p/>
+     * ステートメントは、データベース接続の設定によってSQL文ごとにキャッシュされ、再利用される場合がある。
+     * 本プロファイルを適用する前に現在の設定値を取得し、SQLの実行後に{@link #applyTo(SqlStatement)}で適用することで、
+     * 同じSQL文の後続の実行に本プロファイルの設定が残らないようにする。
+     *
+     * @param statement ステートメント
+     * @return 現在の設定値を保持した実行プロファイル
+     */
+    public ExecutionProfile captureFrom(final SqlStatement statement) {
+        final ExecutionProfile current = new ExecutionProfile();
+        if (maxRows != null) {
+            current.setMaxRows(statement.getMaxRows());
+        }
+        if (fetchSize != null) {
+            current.setFetchSize(statement.getFetchSize());
+        }
+        if (queryTimeout != null) {
+            current.setQueryTimeout(statement.getQueryTimeout());
+        }
+        return current;
+    }
+}
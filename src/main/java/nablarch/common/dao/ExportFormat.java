@@ -0,0 +1,181 @@
+package nablarch.common.dao;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 検索結果をエクスポートする際の出力形式。
+ *
+ * @see DaoContext#exportBySqlFile(Class, String, Object, ExportFormat, Writer)
+ */
+@Published
+public enum ExportFormat {
+
+    /**
+     * CSV形式(RFC 4180)。
+     * <p/>
+     * 1行目にカラム名のヘッダを出力する。改行はCRLFとし、区切り文字、ダブルクォート、改行を含む値は
+     * ダブルクォートで囲む(値に含まれるダブルクォートは2つ重ねる)。nullは空文字列として出力する。
+     */
+    CSV {
+        @Override
+        void writeHeader(final Writer writer, final List<ResultSetExporter.ExportColumn> columns) throws IOException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i != 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(writer, columns.get(i).getColumnName());
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void writeRecord(final Writer writer, final List<ResultSetExporter.ExportColumn> columns, final Object[] values)
+                throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i != 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writeCsvValue(writer, toText(values[i]));
+                }
+            }
+            writer.write("\r\n");
+        }
+    },
+
+    /**
+     * NDJSON形式(1行に1つのJSONオブジェクト)。
+     * <p/>
+     * キーはプロパティ名(エンティティクラス以外の場合はカラム名)とし、数値と真偽値はJSONの数値と真偽値、
+     * nullはJSONのnull、それ以外は文字列として出力する。改行はLFとする。
+     */
+    NDJSON {
+        @Override
+        void writeHeader(final Writer writer, final List<ResultSetExporter.ExportColumn> columns) {
+            // ヘッダは出力しない
+        }
+
+        @Override
+        void writeRecord(final Writer writer, final List<ResultSetExporter.ExportColumn> columns, final Object[] values)
+                throws IOException {
+            writer.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i != 0) {
+                    writer.write(',');
+                }
+                writeJsonString(writer, columns.get(i).getPropertyName());
+                writer.write(':');
+                final Object value = values[i];
+                if (value == null) {
+                    writer.write("null");
+                } else if (value instanceof BigDecimal || value instanceof Boolean) {
+                    writer.write(toText(value));
+                } else {
+                    writeJsonString(writer, value.toString());
+                }
+            }
+            writer.write("}\n");
+        }
+    };
+
+    /**
+     * ヘッダを出力する。
+     *
+     * @param writer 出力先
+     * @param columns 出力するカラム
+     * @throws IOException 出力に失敗した場合
+     */
+    abstract void writeHeader(Writer writer, List<ResultSetExporter.ExportColumn> columns) throws IOException;
+
+    /**
+     * 1レコードを出力する。
+     *
+     * @param writer 出力先
+     * @param columns 出力するカラム
+     * @param values 値({@link String}、{@link BigDecimal}、{@link Boolean}またはnull)
+     * @throws IOException 出力に失敗した場合
+     */
+    abstract void writeRecord(Writer writer, List<ResultSetExporter.ExportColumn> columns, Object[] values)
+            throws IOException;
+
+    /**
+     * 値を文字列に変換する。
+     *
+     * @param value 値
+     * @return 文字列
+     */
+    private static String toText(final Object value) {
+        return value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+    }
+
+    /**
+     * CSVの値を出力する。
+     *
+     * @param writer 出力先
+     * @param value 値
+     * @throws IOException 出力に失敗した場合
+     */
+    private static void writeCsvValue(final Writer writer, final String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            final char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    /**
+     * JSONの文字列を出力する。
+     *
+     * @param writer 出力先
+     * @param value 値
+     * @throws IOException 出力に失敗した場合
+     */
+    private static void writeJsonString(final Writer writer, final String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+}
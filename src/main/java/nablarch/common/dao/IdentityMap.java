@@ -0,0 +1,72 @@
+package nablarch.common.dao;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * トランザクション内でプライマリーキーにより取得したエンティティを保持するクラス。
+ * <p/>
+ * 同一トランザクション内で同じプライマリーキーのエンティティを繰り返し取得する場合に、
+ * データベースにアクセスせずに取得済みのインスタンスを返すために使用する。
+ * <p/>
+ * 本クラスは単一のスレッド(トランザクション)内でのみ使用されるため、スレッドセーフではない。
+ */
+@Published(tag = "architect")
+public class IdentityMap {
+
+    /** エンティティクラスごとの取得済みエンティティ */
+    private final Map<Class<?>, Map<List<Object>, Object>> entities = new HashMap<Class<?>, Map<List<Object>, Object>>();
+
+    /**
+     * 取得済みのエンティティを返す。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー(定義順、カラムの型に変換済みの値)
+     * @param <T> エンティティクラスの型
+     * @return 取得済みのエンティティ(存在しない場合は{@code null})
+     */
+    public <T> T get(final Class<T> entityClass, final List<Object> id) {
+        final Map<List<Object>, Object> map = entities.get(entityClass);
+        return map != null ? entityClass.cast(map.get(id)) : null;
+    }
+
+    /**
+     * 取得したエンティティを格納する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー(定義順、カラムの型に変換済みの値)
+     * @param entity エンティティ
+     * @param <T> エンティティクラスの型
+     */
+    public <T> void put(final Class<T> entityClass, final List<Object> id, final T entity) {
+        Map<List<Object>, Object> map = entities.get(entityClass);
+        if (map == null) {
+            map = new HashMap<List<Object>, Object>();
+            entities.put(entityClass, map);
+        }
+        map.put(id, entity);
+    }
+
+    /**
+     * エンティティを削除する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー(定義順、カラムの型に変換済みの値)
+     */
+    public void remove(final Class<?> entityClass, final List<Object> id) {
+        final Map<List<Object>, Object> map = entities.get(entityClass);
+        if (map != null) {
+            map.remove(id);
+        }
+    }
+
+    /**
+     * 全てのエンティティを削除する。
+     */
+    public void clear() {
+        entities.clear();
+    }
+}
@@ -0,0 +1,229 @@
+package nablarch.common.dao;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import nablarch.core.beans.ConversionUtil;
+import nablarch.core.db.DbAccessException;
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlRow;
+
+/**
+ * 親子を結合した検索結果から、関連プロパティに子エンティティを設定した親エンティティを順に生成する{@link Iterator}。
+ * <p/>
+ * 検索結果は、親エンティティのID列が同じレコードが連続している(ID列でソートされている)必要がある。
+ * ID列が同じ連続したレコードを1つの親エンティティにまとめるため、保持するのは処理中の親エンティティ1件分のみである。
+ * <p/>
+ * 親エンティティのカラムは接頭辞なしのカラム名(別名)で、子エンティティのカラムは関連プロパティごとに指定した
+ * 接頭辞を付けた別名で取得すること。子エンティティのID列が全てnullのレコード(外部結合で子が存在しない場合)は、
+ * 子エンティティとして扱わない。
+ *
+ * @param <T> 親エンティティの型
+ */
+class NestedEntityIterator<T> implements Iterator<T> {
+
+    /** 親エンティティクラス */
+    private final Class<T> entityClass;
+
+    /** 親エンティティのID列 */
+    private final List<ColumnMeta> idColumns;
+
+    /** 関連プロパティごとのマッピング */
+    private final List<NestedMapping> mappings;
+
+    /** 検索結果 */
+    private final Iterator<SqlRow> rows;
+
+    /** 次の親エンティティの先頭レコード */
+    private SqlRow pending;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param entityClass 親エンティティクラス
+     * @param nestedProperties 関連プロパティ名と、子エンティティのカラムの接頭辞
+     * @param resultSet 検索結果
+     * @throws IllegalArgumentException 親エンティティにID列がない場合、関連プロパティでない場合
+     */
+    NestedEntityIterator(final Class<T> entityClass, final Map<String, String> nestedProperties,
+            final ResultSetIterator resultSet) {
+        this.entityClass = entityClass;
+        idColumns = EntityUtil.findIdColumns(entityClass);
+        if (idColumns.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "nested mapping requires id columns. entity = " + entityClass.getName());
+        }
+        final ResultSetMetaData metaData = resultSet.getMetaData();
+        mappings = new ArrayList<NestedMapping>(nestedProperties.size());
+        for (Map.Entry<String, String> entry : nestedProperties.entrySet()) {
+            mappings.add(new NestedMapping(new AssociationMeta(entityClass, entry.getKey()), entry.getValue(), metaData));
+        }
+        rows = resultSet.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pending != null || rows.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SqlRow row = pending != null ? pending : rows.next();
+        pending = null;
+
+        final T entity = EntityUtil.createEntity(entityClass, row);
+        final List<Object> id = toIdKey(row);
+        final List<Map<List<Object>, Object>> children = new ArrayList<Map<List<Object>, Object>>(mappings.size());
+        for (int i = 0; i < mappings.size(); i++) {
+            children.add(new LinkedHashMap<List<Object>, Object>());
+        }
+        while (true) {
+            for (int i = 0; i < mappings.size(); i++) {
+                mappings.get(i).addChild(row, children.get(i));
+            }
+            if (!rows.hasNext()) {
+                break;
+            }
+            row = rows.next();
+            if (!id.equals(toIdKey(row))) {
+                pending = row;
+                break;
+            }
+        }
+        for (int i = 0; i < mappings.size(); i++) {
+            mappings.get(i).setChildren(entity, children.get(i));
+        }
+        return entity;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * レコードから親エンティティのID列の値を取得する。
+     *
+     * @param row レコード
+     * @return ID列の値(カラムの型に変換済み)
+     */
+    private List<Object> toIdKey(final SqlRow row) {
+        return toKey(idColumns, row, "");
+    }
+
+    /**
+     * レコードからID列の値を、カラムの型に変換した比較可能なキーとして取得する。
+     *
+     * @param idColumns ID列
+     * @param row レコード
+     * @param prefix カラム名の接頭辞
+     * @return キー
+     */
+    private static List<Object> toKey(final List<ColumnMeta> idColumns, final SqlRow row, final String prefix) {
+        final List<Object> key = new ArrayList<Object>(idColumns.size());
+        for (ColumnMeta idColumn : idColumns) {
+            key.add(ConversionUtil.convert(idColumn.getJdbcType(), row.get(prefix + idColumn.getName())));
+        }
+        return key;
+    }
+
+    /**
+     * 関連プロパティごとのマッピング。
+     */
+    private static final class NestedMapping {
+
+        /** 関連プロパティのメタ情報 */
+        private final AssociationMeta association;
+
+        /** 子エンティティのカラムの接頭辞 */
+        private final String prefix;
+
+        /** 子エンティティのID列 */
+        private final List<ColumnMeta> childIdColumns;
+
+        /** 接頭辞を除いたカラム名と、検索結果のカラム名(別名)の対応 */
+        private final Map<String, String> labels = new LinkedHashMap<String, String>();
+
+        /** 接頭辞を除いたカラム名と、カラムの型の対応 */
+        private final Map<String, Integer> columnTypes = new HashMap<String, Integer>();
+
+        /**
+         * コンストラクタ。
+         *
+         * @param association 関連プロパティのメタ情報
+         * @param prefix 子エンティティのカラムの接頭辞
+         * @param metaData 検索結果のメタ情報
+         */
+        NestedMapping(final AssociationMeta association, final String prefix, final ResultSetMetaData metaData) {
+            this.association = association;
+            this.prefix = prefix;
+            childIdColumns = EntityUtil.findIdColumns(association.getTargetClass());
+            try {
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    final String label = metaData.getColumnLabel(i);
+                    if (label.length() > prefix.length()
+                            && label.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                        final String name = label.substring(prefix.length());
+                        labels.put(name, label);
+                        columnTypes.put(name, metaData.getColumnType(i));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DbAccessException("failed to get result set meta data.", e);
+            }
+        }
+
+        /**
+         * レコードから子エンティティを生成し、追加する。
+         * <p/>
+         * 子エンティティのID列が全てnullの場合と、追加済みの子エンティティの場合は追加しない。
+         *
+         * @param row レコード
+         * @param children 子エンティティの格納先
+         */
+        void addChild(final SqlRow row, final Map<List<Object>, Object> children) {
+            final List<Object> childId = childIdColumns.isEmpty() ? null : toKey(childIdColumns, row, prefix);
+            if (childId != null) {
+                boolean allNull = true;
+                for (Object value : childId) {
+                    allNull &= value == null;
+                }
+                if (allNull || children.containsKey(childId)) {
+                    return;
+                }
+            }
+            final Map<String, Object> data = new HashMap<String, Object>();
+            for (Map.Entry<String, String> label : labels.entrySet()) {
+                data.put(label.getKey(), row.get(label.getValue()));
+            }
+            final Object child = EntityUtil.createEntity(association.getTargetClass(), new SqlRow(data, columnTypes));
+            children.put(childId != null ? childId : new ArrayList<Object>(data.values()), child);
+        }
+
+        /**
+         * 親エンティティの関連プロパティに子エンティティを設定する。
+         *
+         * @param entity 親エンティティ
+         * @param children 子エンティティ
+         */
+        void setChildren(final Object entity, final Map<List<Object>, Object> children) {
+            final Object value;
+            if (association.isCollection()) {
+                value = new ArrayList<Object>(children.values());
+            } else {
+                value = children.isEmpty() ? null : children.values().iterator().next();
+            }
+            association.setValue(entity, value);
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package nablarch.common.dao;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.persistence.Cacheable;
+
+/**
+ * エンティティをヒープ外のメモリに格納する{@link EntityCache}の実装クラス。
+ * <p/>
+ * 件数の多いマスタテーブルなどをヒープ上にキャッシュすると、Old領域が肥大化しフルGCの時間が長くなる。
+ * 本クラスは、エンティティをバイナリ形式に変換してダイレクトバッファ({@link ByteBuffer#allocateDirect(int)})に格納し、
+ * プライマリーキーの索引もダイレクトバッファ上のオープンアドレス法のハッシュ表で保持する。
+ * ヒープ上に残るのはエンティティクラスごとのバッファの参照のみのため、大量のエンティティをキャッシュしてもGCへの影響は小さい。
+ * <p/>
+ * バイナリ形式はエンティティクラスのカラム定義({@link EntityUtil#findAllColumns(Class)})の順に値を並べたもので、
+ * カラム名は含まない。取得時には毎回エンティティを復元するため、呼び出し元での変更はキャッシュに影響しない。
+ * 以下の型のプロパティをサポートする(プリミティブ型はラッパー型と同様に扱う)。
+ * <ul>
+ * <li>{@link String}、{@link Boolean}、{@link Short}、{@link Integer}、{@link Long}、{@link Float}、{@link Double}</li>
+ * <li>{@link BigDecimal}、{@link BigInteger}、{@code byte[]}</li>
+ * <li>{@link Date}、{@link java.sql.Date}、{@link Time}、{@link Timestamp}、{@link LocalDate}、{@link LocalDateTime}</li>
+ * </ul>
+ * サポートしない型のプロパティを持つエンティティクラスは、キャッシュ対象とならない。
+ * <p/>
+ * キャッシュ対象のエンティティクラスの判定は、{@link BasicEntityCache}と同じく、
+ * {@link Cacheable}アノテーションまたは{@link #setEntityClassNames(List)}で設定されたクラス名で行う。
+ * <p/>
+ * データ領域はエンティティクラスごとに初期サイズから必要に応じて倍に拡張し、上限サイズに達した場合は
+ * 更新や削除により不要となった領域を詰める。それでも空きがない場合は、そのエンティティクラスのキャッシュを全て破棄する。
+ * 破棄するエンティティの選択は行わないため、上限サイズはキャッシュ対象のテーブル全体が収まる値を設定すること。
+ * <p/>
+ * 登録・更新・削除後の格納の抑止と有効期限(デフォルトは10分)は、{@link BasicEntityCache}と同じである。
+ */
+public class OffHeapEntityCache implements EntityCache {
+
+    /** デフォルトのエンティティクラスごとのデータ領域の初期サイズ(バイト) */
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024 * 1024;
+
+    /** デフォルトのエンティティクラスごとのデータ領域の上限サイズ(バイト) */
+    private static final int DEFAULT_MAX_CAPACITY = 256 * 1024 * 1024;
+
+    /** エンティティクラスごとのデータ領域の初期サイズ(バイト) */
+    private int initialCapacity = DEFAULT_INITIAL_CAPACITY;
+
+    /** エンティティクラスごとのデータ領域の上限サイズ(バイト) */
+    private int maxCapacity = DEFAULT_MAX_CAPACITY;
+
+    /** デフォルトの有効期限(ミリ秒) */
+    private static final long DEFAULT_TIME_TO_LIVE = 10L * 60L * 1000L;
+
+    /** デフォルトの書き込み後の保留期間(ミリ秒) */
+    private static final long DEFAULT_WRITE_HOLD_OFF = 60L * 1000L;
+
+    /** 有効期限(ミリ秒、0以下の場合は無期限) */
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    /** 書き込み後に格納しない保留期間(ミリ秒) */
+    private long writeHoldOff = DEFAULT_WRITE_HOLD_OFF;
+
+    /** 書き込み履歴による格納可否の判定 */
+    private final CacheWriteGuard writeGuard = new CacheWriteGuard();
+
+    /** キャッシュ対象のエンティティクラス名 */
+    private Set<String> entityClassNames = Collections.emptySet();
+
+    /** エンティティクラスごとのバイナリ形式 */
+    private final ConcurrentMap<Class<?>, EntityCodec> codecs = new ConcurrentHashMap<Class<?>, EntityCodec>();
+
+    /** エンティティクラスごとのキャッシュ */
+    private final ConcurrentMap<Class<?>, Region> regions = new ConcurrentHashMap<Class<?>, Region>();
+
+    /** キャッシュから取得できた回数 */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** キャッシュから取得できなかった回数 */
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Override
+    public boolean isCacheable(final Class<?> entityClass) {
+        final Cacheable cacheable = entityClass.getAnnotation(Cacheable.class);
+        final boolean cacheTarget = cacheable != null
+                ? cacheable.value()
+                : entityClassNames.contains(entityClass.getName());
+        return cacheTarget && findCodec(entityClass) != null;
+    }
+
+    @Override
+    public <T> T get(final Class<T> entityClass, final List<Object> id) {
+        final Region region = regions.get(entityClass);
+        final EntityCodec codec = findCodec(entityClass);
+        final ByteBuffer record = region != null ? region.get(codec.encodeKey(id), currentTimeMillis()) : null;
+        if (record == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return codec.decodeEntity(entityClass, record);
+    }
+
+    @Override
+    public long beginLoad(final Class<?> entityClass, final List<Object> id) {
+        return writeGuard.begin();
+    }
+
+    @Override
+    public <T> void put(final Class<T> entityClass, final List<Object> id, final T entity, final long token) {
+        final EntityCodec codec = findCodec(entityClass);
+        final long now = currentTimeMillis();
+        if (codec == null || !writeGuard.canPut(entityClass, id, token, now)) {
+            return;
+        }
+        final long expiresAt = timeToLive > 0 ? now + timeToLive : Long.MAX_VALUE;
+        findRegion(entityClass).put(codec.encodeKey(id), codec.encodeEntity(entity), expiresAt);
+    }
+
+    @Override
+    public void evict(final Class<?> entityClass, final List<Object> id) {
+        writeGuard.written(entityClass, id, currentTimeMillis(), writeHoldOff);
+        final Region region = regions.get(entityClass);
+        if (region != null) {
+            region.remove(findCodec(entityClass).encodeKey(id));
+        }
+    }
+
+    @Override
+    public void invalidate(final Class<?> entityClass) {
+        writeGuard.written(entityClass, null, currentTimeMillis(), writeHoldOff);
+        regions.remove(entityClass);
+    }
+
+    /**
+     * エンティティクラスのキャッシュを取得する。存在しない場合は生成する。
+     *
+     * @param entityClass エンティティクラス
+     * @return キャッシュ
+     */
+    private Region findRegion(final Class<?> entityClass) {
+        Region region = regions.get(entityClass);
+        if (region == null) {
+            final Region newRegion = new Region(Math.min(initialCapacity, maxCapacity), maxCapacity);
+            region = regions.putIfAbsent(entityClass, newRegion);
+            if (region == null) {
+                region = newRegion;
+            }
+        }
+        return region;
+    }
+
+    /**
+     * エンティティクラスのバイナリ形式を取得する。
+     *
+     * @param entityClass エンティティクラス
+     * @return バイナリ形式(サポートしない型のプロパティがある場合は{@code null})
+     */
+    private EntityCodec findCodec(final Class<?> entityClass) {
+        EntityCodec codec = codecs.get(entityClass);
+        if (codec == null) {
+            codec = EntityCodec.create(entityClass);
+            codecs.putIfAbsent(entityClass, codec);
+        }
+        return codec.isSupported() ? codec : null;
+    }
+
+    /**
+     * キャッシュから取得できた回数を返す。
+     *
+     * @return キャッシュから取得できた回数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * キャッシュから取得できなかった回数を返す。
+     *
+     * @return キャッシュから取得できなかった回数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * エンティティクラスごとのキャッシュ件数を返す。
+     *
+     * @param entityClass エンティティクラス
+     * @return キャッシュ件数
+     */
+    public int getSize(final Class<?> entityClass) {
+        final Region region = regions.get(entityClass);
+        return region != null ? region.size() : 0;
+    }
+
+    /**
+     * エンティティクラスごとのデータ領域のサイズ(バイト)を返す。
+     *
+     * @param entityClass エンティティクラス
+     * @return データ領域のサイズ(バイト)
+     */
+    public int getCapacity(final Class<?> entityClass) {
+        final Region region = regions.get(entityClass);
+        return region != null ? region.capacity() : 0;
+    }
+
+    /**
+     * 現在時刻(ミリ秒)を返す。
+     *
+     * @return 現在時刻(ミリ秒)
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * エンティティクラスごとのデータ領域の初期サイズ(バイト)を設定する。
+     * <p/>
+     * 設定しない場合は、1MBとなる。
+     *
+     * @param initialCapacity 初期サイズ(バイト)
+     */
+    public void setInitialCapacity(final int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    /**
+     * エンティティクラスごとのデータ領域の上限サイズ(バイト)を設定する。
+     * <p/>
+     * 設定しない場合は、256MBとなる。
+     *
+     * @param maxCapacity 上限サイズ(バイト)
+     */
+    public void setMaxCapacity(final int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * 有効期限(ミリ秒)を設定する。
+     * <p/>
+     * 設定しない場合は、10分となる。0以下の場合は、無期限となる。
+     *
+     * @param timeToLive 有効期限(ミリ秒)
+     */
+    public void setTimeToLive(final long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * 書き込み後に格納しない保留期間(ミリ秒)を設定する。
+     * <p/>
+     * 登録・更新・削除したトランザクションが確定するまでは、確定前のエンティティや書き込み前のエンティティを
+     * 格納しないよう、書き込みから保留期間が経過するまで同じプライマリーキーのエンティティを格納しない。
+     * トランザクションの最大の実行時間より長い値を設定すること。
+     * <p/>
+     * 設定しない場合は、1分となる。
+     *
+     * @param writeHoldOff 保留期間(ミリ秒)
+     */
+    public void setWriteHoldOff(final long writeHoldOff) {
+        this.writeHoldOff = writeHoldOff;
+    }
+
+    /**
+     * キャッシュ対象のエンティティクラス名(完全修飾名)を設定する。
+     *
+     * @param entityClassNames エンティティクラス名
+     */
+    public void setEntityClassNames(final List<String> entityClassNames) {
+        this.entityClassNames = new HashSet<String>(entityClassNames);
+    }
+
+    /**
+     * エンティティクラスごとのキャッシュ。
+     * <p/>
+     * データ領域には、以下の形式のレコードを追記する。
+     * <pre>
+     * [レコード長(int)][キー長(int)][有効期限(long)][キー][エンティティ]
+     * </pre>
+     * 索引は、ハッシュ値(上位32bit)とレコード位置+1(下位32bit)を1つのlong値としたスロットの配列で、
+     * 線形探索のオープンアドレス法で管理する。0は空き、-1は削除済みを表す。
+     */
+    private static final class Region {
+
+        /** レコードのヘッダ長 */
+        private static final int HEADER_LENGTH = 16;
+
+        /** 空きスロット */
+        private static final long EMPTY = 0L;
+
+        /** 削除済みスロット */
+        private static final long DELETED = -1L;
+
+        /** 索引の初期スロット数 */
+        private static final int INITIAL_SLOTS = 1024;
+
+        /** データ領域の上限サイズ */
+        private final int maxCapacity;
+
+        /** データ領域 */
+        private ByteBuffer data;
+
+        /** データ領域の使用済みサイズ */
+        private int used;
+
+        /** 更新・削除により不要となったサイズ */
+        private int garbage;
+
+        /** 索引 */
+        private ByteBuffer index;
+
+        /** 索引のスロット数 */
+        private int slots;
+
+        /** 有効なエントリ数 */
+        private int liveCount;
+
+        /** 削除済みスロット数 */
+        private int deletedCount;
+
+        /**
+         * キャッシュを生成する。
+         *
+         * @param initialCapacity データ領域の初期サイズ
+         * @param maxCapacity データ領域の上限サイズ
+         */
+        private Region(final int initialCapacity, final int maxCapacity) {
+            this.maxCapacity = maxCapacity;
+            data = ByteBuffer.allocateDirect(initialCapacity);
+            resetIndex(INITIAL_SLOTS);
+        }
+
+        /**
+         * キーに対応するエンティティのバイナリを取得する。
+         *
+         * @param key キー
+         * @param now 現在時刻
+         * @return エンティティのバイナリ(存在しない場合や有効期限切れの場合は{@code null})
+         */
+        synchronized ByteBuffer get(final byte[] key, final long now) {
+            final int slot = findSlot(key);
+            if (slot < 0) {
+                return null;
+            }
+            final int offset = offsetOf(index.getLong(slot * 8));
+            if (data.getLong(offset + 8) <= now) {
+                delete(slot);
+                return null;
+            }
+            final int recordLength = data.getInt(offset);
+            final int keyLength = data.getInt(offset + 4);
+            final int valueOffset = offset + HEADER_LENGTH + keyLength;
+            final byte[] value = new byte[recordLength - HEADER_LENGTH - keyLength];
+            final ByteBuffer view = data.duplicate();
+            view.position(valueOffset);
+            view.get(value);
+            return ByteBuffer.wrap(value);
+        }
+
+        /**
+         * エンティティのバイナリを格納する。
+         *
+         * @param key キー
+         * @param value エンティティのバイナリ
+         * @param expiresAt 有効期限
+         */
+        synchronized void put(final byte[] key, final byte[] value, final long expiresAt) {
+            remove(key);
+            final int recordLength = HEADER_LENGTH + key.length + value.length;
+            if (!reserve(recordLength)) {
+                return;
+            }
+            final int offset = used;
+            final ByteBuffer view = data.duplicate();
+            view.position(offset);
+            view.putInt(recordLength);
+            view.putInt(key.length);
+            view.putLong(expiresAt);
+            view.put(key);
+            view.put(value);
+            used += recordLength;
+            insertSlot(hash(key), offset);
+        }
+
+        /**
+         * キーに対応するエンティティを削除する。
+         *
+         * @param key キー
+         */
+        synchronized void remove(final byte[] key) {
+            final int slot = findSlot(key);
+            if (slot >= 0) {
+                delete(slot);
+            }
+        }
+
+        /**
+         * 有効なエントリ数を返す。
+         *
+         * @return 有効なエントリ数
+         */
+        synchronized int size() {
+            return liveCount;
+        }
+
+        /**
+         * データ領域のサイズを返す。
+         *
+         * @return データ領域のサイズ
+         */
+        synchronized int capacity() {
+            return data.capacity();
+        }
+
+        /**
+         * レコードを追記する領域を確保する。
+         * <p/>
+         * 空きがない場合はデータ領域を拡張し、上限サイズに達している場合は不要な領域を詰める。
+         * それでも空きがない場合は、全てのエントリを破棄する。
+         *
+         * @param length レコード長
+         * @return 確保できた場合{@code true}(レコード長が上限サイズを超える場合は{@code false})
+         */
+        private boolean reserve(final int length) {
+            if (length > maxCapacity) {
+                return false;
+            }
+            if (used + length <= data.capacity()) {
+                return true;
+            }
+            final int required = used - garbage + length;
+            if (required > maxCapacity) {
+                data = ByteBuffer.allocateDirect(data.capacity());
+                used = 0;
+                garbage = 0;
+                resetIndex(INITIAL_SLOTS);
+                return used + length <= data.capacity() || grow(length);
+            }
+            if (garbage > 0) {
+                compact(data.capacity());
+            }
+            return used + length <= data.capacity() || grow(length);
+        }
+
+        /**
+         * データ領域を拡張する。
+         *
+         * @param length 追記するレコード長
+         * @return 拡張できた場合{@code true}
+         */
+        private boolean grow(final int length) {
+            long capacity = data.capacity();
+            while (capacity < used + length) {
+                capacity *= 2;
+            }
+            compact((int) Math.min(capacity, maxCapacity));
+            return used + length <= data.capacity();
+        }
+
+        /**
+         * 有効なレコードのみを新しいデータ領域に詰めて複製し、索引を再構築する。
+         *
+         * @param capacity 新しいデータ領域のサイズ
+         */
+        private void compact(final int capacity) {
+            final ByteBuffer oldData = data;
+            final ByteBuffer oldIndex = index;
+            final int oldSlots = slots;
+            data = ByteBuffer.allocateDirect(capacity);
+            used = 0;
+            garbage = 0;
+            resetIndex(indexSlotsFor(liveCount));
+            for (int i = 0; i < oldSlots; i++) {
+                final long entry = oldIndex.getLong(i * 8);
+                if (entry == EMPTY || entry == DELETED) {
+                    continue;
+                }
+                final int offset = offsetOf(entry);
+                final int recordLength = oldData.getInt(offset);
+                final ByteBuffer record = oldData.duplicate();
+                record.position(offset);
+                record.limit(offset + recordLength);
+                final ByteBuffer view = data.duplicate();
+                view.position(used);
+                view.put(record);
+                insertSlot((int) (entry >>> 32), used);
+                used += recordLength;
+            }
+        }
+
+        /**
+         * 索引を空の状態で生成する。
+         *
+         * @param slotCount スロット数
+         */
+        private void resetIndex(final int slotCount) {
+            slots = slotCount;
+            index = ByteBuffer.allocateDirect(slotCount * 8);
+            liveCount = 0;
+            deletedCount = 0;
+        }
+
+        /**
+         * エントリ数に応じた索引のスロット数を返す(使用率が50%以下となる2の累乗)。
+         *
+         * @param count エントリ数
+         * @return スロット数
+         */
+        private static int indexSlotsFor(final int count) {
+            int slotCount = INITIAL_SLOTS;
+            while (slotCount < count * 2) {
+                slotCount *= 2;
+            }
+            return slotCount;
+        }
+
+        /**
+         * 索引にエントリを追加する。使用率が50%を超える場合は、索引を再構築する。
+         *
+         * @param hash キーのハッシュ値
+         * @param offset レコード位置
+         */
+        private void insertSlot(final int hash, final int offset) {
+            if ((liveCount + deletedCount + 1) * 2 > slots) {
+                rehash(indexSlotsFor(liveCount + 1));
+            }
+            int slot = hash & (slots - 1);
+            while (true) {
+                final long entry = index.getLong(slot * 8);
+                if (entry == EMPTY || entry == DELETED) {
+                    if (entry == DELETED) {
+                        deletedCount--;
+                    }
+                    index.putLong(slot * 8, ((long) hash << 32) | ((offset + 1) & 0xFFFFFFFFL));
+                    liveCount++;
+                    return;
+                }
+                slot = (slot + 1) & (slots - 1);
+            }
+        }
+
+        /**
+         * 削除済みスロットを除いて索引を再構築する。
+         *
+         * @param slotCount スロット数
+         */
+        private void rehash(final int slotCount) {
+            final ByteBuffer oldIndex = index;
+            final int oldSlots = slots;
+            resetIndex(slotCount);
+            for (int i = 0; i < oldSlots; i++) {
+                final long entry = oldIndex.getLong(i * 8);
+                if (entry != EMPTY && entry != DELETED) {
+                    insertSlot((int) (entry >>> 32), offsetOf(entry));
+                }
+            }
+        }
+
+        /**
+         * キーに対応するスロットを探す。
+         *
+         * @param key キー
+         * @return スロット位置(存在しない場合は-1)
+         */
+        private int findSlot(final byte[] key) {
+            final int hash = hash(key);
+            int slot = hash & (slots - 1);
+            while (true) {
+                final long entry = index.getLong(slot * 8);
+                if (entry == EMPTY) {
+                    return -1;
+                }
+                if (entry != DELETED && (int) (entry >>> 32) == hash && keyEquals(offsetOf(entry), key)) {
+                    return slot;
+                }
+                slot = (slot + 1) & (slots - 1);
+            }
+        }
+
+        /**
+         * レコードのキーが一致するか否かを返す。
+         *
+         * @param offset レコード位置
+         * @param key キー
+         * @return 一致する場合{@code true}
+         */
+        private boolean keyEquals(final int offset, final byte[] key) {
+            if (data.getInt(offset + 4) != key.length) {
+                return false;
+            }
+            final int keyOffset = offset + HEADER_LENGTH;
+            for (int i = 0; i < key.length; i++) {
+                if (data.get(keyOffset + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * スロットを削除済みにする。
+         *
+         * @param slot スロット位置
+         */
+        private void delete(final int slot) {
+            garbage += data.getInt(offsetOf(index.getLong(slot * 8)));
+            index.putLong(slot * 8, DELETED);
+            liveCount--;
+            deletedCount++;
+        }
+
+        /**
+         * スロットの値からレコード位置を取得する。
+         *
+         * @param entry スロットの値
+         * @return レコード位置
+         */
+        private static int offsetOf(final long entry) {
+            return (int) (entry & 0xFFFFFFFFL) - 1;
+        }
+
+        /**
+         * キーのハッシュ値を返す。
+         *
+         * @param key キー
+         * @return ハッシュ値
+         */
+        private static int hash(final byte[] key) {
+            final int h = Arrays.hashCode(key);
+            return h ^ (h >>> 16);
+        }
+    }
+}
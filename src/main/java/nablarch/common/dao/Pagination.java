@@ -5,6 +5,11 @@ import nablarch.core.util.annotation.Published;
 
 /**
  * ページネーションのための値をもつクラス。
+ * <p/>
+ * {@link ListSearchInfo}から継承した件数や位置を返すメソッドは{@code int}で値を返すため、
+ * {@link Integer#MAX_VALUE}を超える値は{@link Integer#MAX_VALUE}に丸められる。
+ * 総件数や位置が{@link Integer#MAX_VALUE}を超える可能性がある場合は、
+ * {@link #getLargeResultCount()}などの{@code long}で値を返すメソッドを使用すること。
  *
  * @author kawasima
  * @author Hisaaki Shioiri
@@ -15,11 +20,166 @@ public class Pagination extends ListSearchInfo {
     /** serialVersionUID */
     private static final long serialVersionUID = 1L;
 
+    /** 検索結果の総件数が概算の件数か否か */
+    private boolean approximate = false;
+
+    /** ページ番号(設定されていない場合は{@code null}) */
+    private Long largePageNumber;
+
+    /** 取得最大件数(設定されていない場合は{@code null}) */
+    private Long largeMax;
+
+    /** 検索結果の総件数(設定されていない場合は{@code null}) */
+    private Long largeResultCount;
+
     /** デフォルトコンストラクタ */
     Pagination() {
         super();
     }
 
+    /**
+     * 検索結果の総件数が概算の件数か否かを返す。
+     * <p/>
+     * {@link CountStrategy}で概算の件数を取得した場合、{@code true}となる。
+     * 画面には「10,000件以上」のように、概算であることが分かる形式で件数を表示すること。
+     *
+     * @return 概算の件数の場合{@code true}
+     */
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    /**
+     * 検索結果の総件数が概算の件数か否かを設定する。
+     *
+     * @param approximate 概算の件数の場合{@code true}
+     */
+    void setApproximate(final boolean approximate) {
+        this.approximate = approximate;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * {@link #getLargePageNumber()}が返す値も更新する。
+     */
+    @Override
+    public void setPageNumber(final Integer pageNumber) {
+        largePageNumber = pageNumber != null ? Long.valueOf(pageNumber) : null;
+        super.setPageNumber(pageNumber);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * {@link #getLargeMax()}が返す値も更新する。
+     */
+    @Override
+    public void setMax(final Integer max) {
+        largeMax = max != null ? Long.valueOf(max) : null;
+        super.setMax(max);
+    }
+
+    /**
+     * ページ番号を設定する。
+     *
+     * @param pageNumber ページ番号
+     */
+    void setLargePageNumber(final long pageNumber) {
+        largePageNumber = pageNumber;
+        super.setPageNumber(toInt(pageNumber));
+    }
+
+    /**
+     * 取得最大件数を設定する。
+     *
+     * @param max 取得最大件数
+     */
+    void setLargeMax(final long max) {
+        largeMax = max;
+        super.setMax(toInt(max));
+    }
+
+    /**
+     * 検索結果の総件数を設定する。
+     *
+     * @param resultCount 検索結果の総件数
+     */
+    void setLargeResultCount(final long resultCount) {
+        largeResultCount = resultCount;
+        setResultCount(toInt(resultCount));
+    }
+
+    /**
+     * ページ番号を{@code long}で取得する。
+     *
+     * @return ページ番号
+     */
+    public long getLargePageNumber() {
+        return largePageNumber != null ? largePageNumber : getPageNumber();
+    }
+
+    /**
+     * 取得最大件数を{@code long}で取得する。
+     *
+     * @return 取得最大件数
+     */
+    public long getLargeMax() {
+        return largeMax != null ? largeMax : getMax();
+    }
+
+    /**
+     * 検索結果の総件数を{@code long}で取得する。
+     *
+     * @return 検索結果の総件数
+     */
+    public long getLargeResultCount() {
+        // 継承したsetResultCount(int)で変更された場合は、そちらの値を使用する
+        if (largeResultCount != null && toInt(largeResultCount) == getResultCount()) {
+            return largeResultCount;
+        }
+        return getResultCount();
+    }
+
+    /**
+     * 検索結果の開始位置(1始まり)を{@code long}で取得する。
+     *
+     * @return 開始位置
+     */
+    public long getLargeStartPosition() {
+        final long pageNumber = getLargePageNumber();
+        return pageNumber == 1L ? 1L : (pageNumber - 1L) * getLargeMax() + 1L;
+    }
+
+    /**
+     * 検索結果の終了位置を{@code long}で取得する。
+     *
+     * @return 終了位置(総件数を超える場合は総件数)
+     */
+    public long getLargeEndPosition() {
+        return Math.min(getLargeStartPosition() + getLargeMax() - 1L, getLargeResultCount());
+    }
+
+    /**
+     * 総ページ数を{@code long}で取得する。
+     *
+     * @return 総ページ数
+     */
+    public long getLargePageCount() {
+        final long max = getLargeMax();
+        return (getLargeResultCount() + max - 1L) / max;
+    }
+
+    /**
+     * {@code long}の値を、{@link Integer#MAX_VALUE}を上限とした{@code int}の値に変換する。
+     *
+     * @param value 値
+     * @return {@code int}の値
+     */
+    private static int toInt(final long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
     /**
      * 本実装では、サポートしない。
      *
@@ -0,0 +1,160 @@
+package nablarch.common.dao;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import nablarch.core.db.statement.SqlRow;
+
+/**
+ * 検索結果のエンティティへの変換と処理を、複数のスレッドで並列に行うクラス。
+ * <p/>
+ * 呼び出し元のスレッドは検索結果のレコードの取得のみを行い、
+ * エンティティへの変換と処理関数の呼び出しは{@link Executor}で実行する。
+ * 処理結果は呼び出し元のスレッドで受け取り関数に渡すため、受け取り関数はスレッドセーフである必要はない。
+ * <p/>
+ * 処理中(受け取り関数に渡す前)のレコードの件数は上限を超えないように制御する。
+ * 上限に達した場合は、処理結果を受け取り関数に渡してから次のレコードを取得する。
+ *
+ * @param <T> エンティティの型
+ * @param <R> 処理結果の型
+ */
+final class ParallelRowProcessor<T, R> {
+
+    /** 変換と処理を実行する{@link Executor} */
+    private final Executor executor;
+
+    /** 処理中のレコードの件数の上限 */
+    private final int maxInFlight;
+
+    /** 処理結果を検索結果の順に受け取り関数に渡すか否か */
+    private final boolean ordered;
+
+    /** 処理中のタスク(順序を保証する場合は検索結果の順の{@link Deque}、保証しない場合は同一性で比較する{@link java.util.Set}) */
+    private final Collection<Future<R>> inFlight;
+
+    /** 完了したタスク(順序を保証しない場合のみ使用する) */
+    private final BlockingQueue<Future<R>> completed = new LinkedBlockingQueue<Future<R>>();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param executor 変換と処理を実行する{@link Executor}
+     * @param maxInFlight 処理中のレコードの件数の上限
+     * @param ordered 処理結果を検索結果の順に受け取り関数に渡す場合は{@code true}
+     */
+    ParallelRowProcessor(final Executor executor, final int maxInFlight, final boolean ordered) {
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.ordered = ordered;
+        this.inFlight = ordered
+                ? new ArrayDeque<Future<R>>()
+                : Collections.newSetFromMap(new IdentityHashMap<Future<R>, Boolean>());
+    }
+
+    /**
+     * 検索結果の全てのレコードを処理する。
+     * <p/>
+     * 変換または処理で例外が発生した場合は、処理中のタスクを取り消して、発生した例外を送出する。
+     * 非検査例外とエラー以外(検査例外を非検査に送出された場合など)は、{@link IllegalStateException}で包んで送出する。
+     *
+     * @param rows 検索結果
+     * @param mapper レコードをエンティティに変換する関数
+     * @param processor エンティティを処理する関数
+     * @param sink 処理結果の受け取り関数
+     * @return 処理した件数
+     */
+    long process(final Iterator<SqlRow> rows, final Function<SqlRow, T> mapper,
+            final Function<? super T, ? extends R> processor, final Consumer<? super R> sink) {
+        long count = 0;
+        try {
+            while (rows.hasNext()) {
+                if (inFlight.size() >= maxInFlight) {
+                    sink.accept(takeResult());
+                    count++;
+                }
+                submit(rows.next(), mapper, processor);
+            }
+            while (!inFlight.isEmpty()) {
+                sink.accept(takeResult());
+                count++;
+            }
+        } finally {
+            for (Future<R> task : inFlight) {
+                task.cancel(true);
+            }
+            inFlight.clear();
+        }
+        return count;
+    }
+
+    /**
+     * レコードの変換と処理を実行するタスクを登録する。
+     *
+     * @param row レコード
+     * @param mapper レコードをエンティティに変換する関数
+     * @param processor エンティティを処理する関数
+     */
+    private void submit(final SqlRow row, final Function<SqlRow, T> mapper,
+            final Function<? super T, ? extends R> processor) {
+        final FutureTask<R> task = new FutureTask<R>(new Callable<R>() {
+            @Override
+            public R call() {
+                return processor.apply(mapper.apply(row));
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (!ordered) {
+                    completed.add(this);
+                }
+            }
+        };
+        inFlight.add(task);
+        executor.execute(task);
+    }
+
+    /**
+     * 次の処理結果を取得する。
+     * <p/>
+     * 順序を保証する場合は最も古いタスクの、保証しない場合は最初に完了したタスクの処理結果を、完了まで待機して取得する。
+     *
+     * @return 処理結果
+     */
+    private R takeResult() {
+        try {
+            final Future<R> task;
+            if (ordered) {
+                task = ((Deque<Future<R>>) inFlight).poll();
+            } else {
+                task = completed.take();
+                inFlight.remove(task);
+            }
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for processed rows.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("failed to process a row.", cause);
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package nablarch.common.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.db.statement.SqlRow;
+import nablarch.core.db.transaction.SimpleDbTransactionExecutor;
+import nablarch.core.db.transaction.SimpleDbTransactionManager;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * エンティティのテーブルをID列の範囲で分割し、並列に全件走査するクラス。
+ * <p/>
+ * ID列の最小値と最大値をもとにテーブルを指定された数のパーティションに分割し、
+ * パーティションごとに別スレッド・別のデータベース接続で検索を行う。
+ * データベース接続は{@link #setTransactionManager(SimpleDbTransactionManager)}で設定した
+ * トランザクションマネージャから取得するため、接続プールのサイズは並列数以上にしておく必要がある。
+ * <pre>
+ * {@code
+ * <component name="partitionedTableScanner" class="nablarch.common.dao.PartitionedTableScanner">
+ *   <property name="transactionManager" ref="scanTransactionManager" />
+ *   <property name="parallelism" value="4" />
+ * </component>
+ * }</pre>
+ * <p/>
+ * 分割対象のエンティティは、数値型の単一のID列を持つ必要がある。
+ * ID列の値に偏りがある場合、パーティションごとの件数にも偏りが生じる。
+ * <p/>
+ * 各パーティションは別トランザクションで読み込むため、走査結果は単一のスナップショットとはならない。
+ */
+@Published(tag = "architect")
+public class PartitionedTableScanner {
+
+    /** トランザクションマネージャ */
+    private SimpleDbTransactionManager transactionManager;
+
+    /** 並列数 */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** SQLビルダー */
+    private StandardSqlBuilder sqlBuilder = new StandardSqlBuilder();
+
+    /** 検索時の実行プロファイル */
+    private ExecutionProfile executionProfile;
+
+    /**
+     * テーブルを分割して走査し、検索結果をチャンク単位に処理する。
+     * <p/>
+     * ハンドラは複数のスレッドから同時に呼び出されるため、スレッドセーフである必要がある。
+     * また、ハンドラに渡されるリストは同一パーティションの次のチャンクで再利用される。
+     *
+     * @param entityClass エンティティクラス
+     * @param partitionCount パーティション数
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @param <T> エンティティクラスの型
+     * @return 処理した件数
+     */
+    public <T> long scan(final Class<T> entityClass, final int partitionCount, final int chunkSize,
+            final ChunkHandler<T> handler) {
+        return scan(entityClass, partitionCount, chunkSize, handler, null);
+    }
+
+    /**
+     * テーブルを分割して走査し、検索結果をチャンク単位に処理する。
+     * <p/>
+     * {@link #scan(Class, int, int, ChunkHandler)}に加え、パーティションごとの進捗を{@link ProgressListener}に通知する。
+     * リスナーも複数のスレッドから同時に呼び出されるため、スレッドセーフである必要がある。
+     * <p/>
+     * いずれかのパーティションで例外が発生した場合は、残りのパーティションの処理を中断し、例外をそのまま送出する。
+     *
+     * @param entityClass エンティティクラス
+     * @param partitionCount パーティション数
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @param listener 進捗を通知するリスナー({@code null}の場合は通知しない)
+     * @param <T> エンティティクラスの型
+     * @return 処理した件数
+     * @throws IllegalArgumentException パーティション数またはチャンクサイズが1未満の場合
+     * @throws IllegalEntityException ID列が単一でない場合
+     */
+    public <T> long scan(final Class<T> entityClass, final int partitionCount, final int chunkSize,
+            final ChunkHandler<T> handler, final ProgressListener listener) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException(
+                    "partition count must be greater than 0. partition count = " + partitionCount);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be greater than 0. chunk size = " + chunkSize);
+        }
+        final List<Partition> partitions = split(entityClass, partitionCount);
+        if (partitions.isEmpty()) {
+            return 0;
+        }
+
+        final String sql = sqlBuilder.buildSelectByIdRangeSql(entityClass);
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, partitions.size()));
+        final CompletionService<Long> completion = new ExecutorCompletionService<Long>(executor);
+        final List<Future<Long>> futures = new ArrayList<Future<Long>>(partitions.size());
+        try {
+            for (final Partition partition : partitions) {
+                futures.add(completion.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() {
+                        return scanPartition(entityClass, sql, partition, chunkSize, handler, listener);
+                    }
+                }));
+            }
+            // 完了した順に待ち合わせ、最初に失敗したパーティションの例外を直ちに送出する
+            long count = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                count += await(completion);
+            }
+            return count;
+        } finally {
+            for (Future<Long> future : futures) {
+                future.cancel(true);
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * ID列の最小値と最大値をもとに、テーブルをパーティションに分割する。
+     *
+     * @param entityClass エンティティクラス
+     * @param partitionCount パーティション数
+     * @return パーティション(データが存在しない場合は空のリスト)
+     */
+    protected List<Partition> split(final Class<?> entityClass, final int partitionCount) {
+        final String sql = sqlBuilder.buildSelectIdBoundsSql(entityClass);
+        final SqlRow bounds = new SimpleDbTransactionExecutor<SqlRow>(transactionManager) {
+            @Override
+            public SqlRow execute(final AppDbConnection connection) {
+                return connection.prepareStatement(sql).retrieve().get(0);
+            }
+        }.doTransaction();
+
+        if (bounds.get("MIN_ID") == null) {
+            return Collections.emptyList();
+        }
+        final long min = bounds.getLong("MIN_ID");
+        final long max = bounds.getLong("MAX_ID");
+
+        // 範囲が狭い場合はパーティション数を減らす(オーバーフローを避けるため範囲はdoubleで比較する)
+        final double range = (double) max - min + 1;
+        final int count = (int) Math.min(partitionCount, range);
+        final long size = (long) Math.ceil(range / count);
+
+        final List<Partition> partitions = new ArrayList<Partition>(count);
+        long lower = min;
+        for (int i = 0; i < count && lower <= max; i++) {
+            final long upper = (i == count - 1 || max - lower < size) ? max : lower + size - 1;
+            partitions.add(new Partition(i, lower, upper));
+            if (upper == max) {
+                break;
+            }
+            lower = upper + 1;
+        }
+        return partitions;
+    }
+
+    /**
+     * パーティションを走査する。
+     *
+     * @param entityClass エンティティクラス
+     * @param sql ID列の範囲を条件としたSQL文
+     * @param partition パーティション
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @param listener 進捗を通知するリスナー
+     * @param <T> エンティティクラスの型
+     * @return 処理した件数
+     */
+    private <T> long scanPartition(final Class<T> entityClass, final String sql, final Partition partition,
+            final int chunkSize, final ChunkHandler<T> handler, final ProgressListener listener) {
+        final long count = new SimpleDbTransactionExecutor<Long>(transactionManager) {
+            @Override
+            public Long execute(final AppDbConnection connection) {
+                final SqlPStatement statement = connection.prepareStatement(sql);
+                statement.setLong(1, partition.getLowerBound());
+                statement.setLong(2, partition.getUpperBound());
+
+                final List<T> buffer = new ArrayList<T>(chunkSize);
+                final List<T> chunk = Collections.unmodifiableList(buffer);
+                long processed = 0;
+                final ResultSetIterator rows = executeQuery(statement);
+                try {
+                    for (SqlRow row : rows) {
+                        buffer.add(EntityUtil.createEntity(entityClass, row));
+                        if (buffer.size() == chunkSize) {
+                            processed += handleChunk(buffer, chunk, handler);
+                            notifyProgress(listener, partition, processed);
+                        }
+                    }
+                    if (!buffer.isEmpty()) {
+                        processed += handleChunk(buffer, chunk, handler);
+                        notifyProgress(listener, partition, processed);
+                    }
+                } finally {
+                    rows.close();
+                }
+                return processed;
+            }
+        }.doTransaction();
+
+        if (listener != null) {
+            listener.onComplete(partition, count);
+        }
+        return count;
+    }
+
+    /**
+     * 実行プロファイルを適用して検索クエリを実行する。
+     * <p/>
+     * ステートメントはSQL文ごとに再利用される場合があるため、実行後にステートメントの設定を適用前の値に戻す。
+     *
+     * @param statement ステートメント(バインド変数を設定済みのもの)
+     * @return 検索結果
+     */
+    private ResultSetIterator executeQuery(final SqlPStatement statement) {
+        if (executionProfile == null) {
+            return statement.executeQuery();
+        }
+        final ExecutionProfile previous = executionProfile.captureFrom(statement);
+        executionProfile.applyTo(statement);
+        try {
+            return statement.executeQuery();
+        } finally {
+            previous.applyTo(statement);
+        }
+    }
+
+    /**
+     * チャンクをハンドラに引き渡し、バッファをクリアする。
+     * <p/>
+     * 他のパーティションの失敗により中断されている場合は、処理を継続しない。
+     *
+     * @param buffer バッファ
+     * @param chunk チャンク(バッファの変更不可ビュー)
+     * @param handler チャンクを処理するハンドラ
+     * @param <T> エンティティクラスの型
+     * @return 処理した件数
+     */
+    private static <T> int handleChunk(final List<T> buffer, final List<T> chunk, final ChunkHandler<T> handler) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException("partitioned scan was interrupted.");
+        }
+        final int size = buffer.size();
+        handler.handle(chunk);
+        buffer.clear();
+        return size;
+    }
+
+    /**
+     * 進捗をリスナーに通知する。
+     *
+     * @param listener リスナー
+     * @param partition パーティション
+     * @param processed 処理済みの件数
+     */
+    private static void notifyProgress(final ProgressListener listener, final Partition partition,
+            final long processed) {
+        if (listener != null) {
+            listener.onProgress(partition, processed);
+        }
+    }
+
+    /**
+     * 次に完了したパーティションの処理結果を待ち合わせる。
+     *
+     * @param completion パーティションの処理結果
+     * @return 処理した件数
+     */
+    private static long await(final CompletionService<Long> completion) {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("partitioned scan was interrupted.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * データベース接続を取得するトランザクションマネージャを設定する。
+     *
+     * @param transactionManager トランザクションマネージャ
+     */
+    public void setTransactionManager(final SimpleDbTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * 並列数を設定する。
+     * <p/>
+     * 設定しない場合は、利用可能なプロセッサ数が使用される。
+     *
+     * @param parallelism 並列数
+     */
+    public void setParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0. parallelism = " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * SQLビルダーを設定する。
+     * <p/>
+     * 設定しない場合は、{@link StandardSqlBuilder}が使用される。
+     *
+     * @param sqlBuilder SQLビルダー
+     */
+    public void setSqlBuilder(final StandardSqlBuilder sqlBuilder) {
+        this.sqlBuilder = sqlBuilder;
+    }
+
+    /**
+     * 検索時の実行プロファイルを設定する。
+     *
+     * @param executionProfile 実行プロファイル
+     */
+    public void setExecutionProfile(final ExecutionProfile executionProfile) {
+        this.executionProfile = executionProfile;
+    }
+
+    /**
+     * ID列の範囲で分割したパーティション。
+     */
+    @Published(tag = "architect")
+    public static final class Partition {
+
+        /** パーティションの番号(0始まり) */
+        private final int index;
+
+        /** ID列の下限値(この値を含む) */
+        private final long lowerBound;
+
+        /** ID列の上限値(この値を含む) */
+        private final long upperBound;
+
+        /**
+         * パーティションを生成する。
+         *
+         * @param index パーティションの番号(0始まり)
+         * @param lowerBound ID列の下限値(この値を含む)
+         * @param upperBound ID列の上限値(この値を含む)
+         */
+        public Partition(final int index, final long lowerBound, final long upperBound) {
+            this.index = index;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+        }
+
+        /**
+         * パーティションの番号(0始まり)を取得する。
+         *
+         * @return パーティションの番号
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * ID列の下限値(この値を含む)を取得する。
+         *
+         * @return ID列の下限値
+         */
+        public long getLowerBound() {
+            return lowerBound;
+        }
+
+        /**
+         * ID列の上限値(この値を含む)を取得する。
+         *
+         * @return ID列の上限値
+         */
+        public long getUpperBound() {
+            return upperBound;
+        }
+
+        @Override
+        public String toString() {
+            return "Partition[" + index + "](" + lowerBound + " - " + upperBound + ')';
+        }
+    }
+
+    /**
+     * パーティションごとの進捗を通知するインタフェース。
+     */
+    @Published(tag = "architect")
+    public interface ProgressListener {
+
+        /**
+         * チャンクの処理が終わったことを通知する。
+         *
+         * @param partition パーティション
+         * @param processedCount パーティション内で処理済みの件数
+         */
+        void onProgress(Partition partition, long processedCount);
+
+        /**
+         * パーティションの処理が終わったこと(トランザクションの終了後)を通知する。
+         *
+         * @param partition パーティション
+         * @param processedCount パーティション内で処理した件数
+         */
+        void onComplete(Partition partition, long processedCount);
+    }
+}
@@ -0,0 +1,171 @@
+package nablarch.common.dao;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+import nablarch.core.db.statement.SqlRow;
+
+/**
+ * 検索結果の取得とエンティティへの変換を別スレッドで先読みする{@link Iterator}。
+ * <p/>
+ * 先読みスレッドは、検索結果を1レコードずつ取得してエンティティに変換し、指定サイズのバッファに格納する。
+ * 呼び出し元はバッファからエンティティを取り出すため、データベースからの取得待ちと呼び出し元の処理が並行して行われる。
+ * バッファが一杯の場合、先読みスレッドは呼び出し元が取り出すまで待機する。
+ * <p/>
+ * 先読みスレッドで発生した例外は、呼び出し元の{@link #hasNext()}または{@link #next()}から送出する。
+ * {@link #cancel()}を呼び出した場合、先読みスレッドを停止し、その終了を待機する。
+ * 検索結果のリソースは、先読みスレッドの終了後に呼び出し元で解放すること。
+ * <p/>
+ * 先読みスレッドはインスタンスごとに生成するデーモンスレッドであり、呼び出し元と同じデータベース接続で検索結果を取得する。
+ * データベース接続はスレッドセーフではないため、先読み中は呼び出し元で同じ接続を使用してはならない。
+ * また、JDBCドライバによっては割り込みで物理接続がクローズされるため、先読みスレッドには割り込みを行わない。
+ *
+ * @param <E> エンティティの型
+ */
+class PrefetchingIterator<E> implements Iterator<E> {
+
+    /** 検索結果の終端を表す要素 */
+    private static final Object END = new Object();
+
+    /** 停止時に、先読みスレッドの終了を確認する間隔(ミリ秒) */
+    private static final long CANCEL_POLL_MILLIS = 10L;
+
+    /** 先読みしたエンティティのバッファ */
+    private final BlockingQueue<Object> buffer;
+
+    /** 先読みスレッド */
+    private final Thread worker;
+
+    /** 停止が要求されたか否か */
+    private volatile boolean cancelled;
+
+    /** 次に返す要素(未取得の場合は{@code null}) */
+    private Object next;
+
+    /**
+     * 先読みを開始する。
+     *
+     * @param rows 検索結果
+     * @param mapper 検索結果のレコードをエンティティに変換する関数
+     * @param bufferSize バッファサイズ
+     */
+    PrefetchingIterator(final Iterator<SqlRow> rows, final Function<SqlRow, E> mapper, final int bufferSize) {
+        buffer = new ArrayBlockingQueue<Object>(bufferSize);
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                prefetch(rows, mapper);
+            }
+        }, "deferred-entity-list-prefetch");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 検索結果を取得してエンティティに変換し、バッファに格納する。
+     * <p/>
+     * 先読みスレッドで実行する。
+     *
+     * @param rows 検索結果
+     * @param mapper 検索結果のレコードをエンティティに変換する関数
+     */
+    private void prefetch(final Iterator<SqlRow> rows, final Function<SqlRow, E> mapper) {
+        try {
+            Object element;
+            try {
+                while (!cancelled && rows.hasNext()) {
+                    buffer.put(mapper.apply(rows.next()));
+                }
+                element = END;
+            } catch (RuntimeException e) {
+                element = new Failure(e);
+            } catch (Error e) {
+                element = new Failure(e);
+            }
+            if (!cancelled) {
+                buffer.put(element);
+            }
+        } catch (InterruptedException ignored) {
+            // 先読みスレッドに割り込むことはないが、割り込まれた場合はそのまま終了する
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            if (cancelled) {
+                throw new IllegalStateException("prefetching has already been cancelled.");
+            }
+            try {
+                next = buffer.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for prefetched rows.", e);
+            }
+        }
+        if (next instanceof Failure) {
+            final Throwable cause = ((Failure) next).cause;
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+        return next != END;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final E element = (E) next;
+        next = null;
+        return element;
+    }
+
+    /**
+     * 先読みを停止する。
+     * <p/>
+     * 先読みスレッドには割り込みを行わず、バッファを空にすることでバッファへの格納待ちを解除する。
+     * 停止を要求された先読みスレッドは、次のレコードを取得する前に終了する。
+     * 先読みスレッドがデータベースからの取得中の場合は、その取得が終わるまで待機する。
+     */
+    void cancel() {
+        cancelled = true;
+        boolean interrupted = false;
+        while (worker.isAlive()) {
+            buffer.clear();
+            try {
+                worker.join(CANCEL_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        buffer.clear();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 先読みスレッドで発生した例外を保持する要素。
+     */
+    private static final class Failure {
+
+        /** 発生した例外 */
+        private final Throwable cause;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param cause 発生した例外
+         */
+        private Failure(final Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
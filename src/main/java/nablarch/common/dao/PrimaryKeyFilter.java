@@ -0,0 +1,46 @@
+package nablarch.common.dao;
+
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * プライマリーキーが存在しないことを、データベースにアクセスせずに判定するためのインタフェース。
+ * <p/>
+ * {@link DaoContext#findByIdOrNull(Class, Object...)}で、検索結果が存在しないことが多い(存在チェックなど)場合に、
+ * 確実に存在しないプライマリーキーの検索を省略するために使用する。
+ * <p/>
+ * 判定は偽陽性を許容する(存在しないプライマリーキーを存在する可能性があると判定する)が、
+ * 偽陰性(存在するプライマリーキーを存在しないと判定する)があってはならない。
+ * そのため、{@link DaoContext#insert(Object)}、{@link DaoContext#batchInsert(List)}で登録したプライマリーキーは、
+ * {@link #add(Class, List)}で追加される。
+ * 実装クラスは複数のスレッドで共有されるため、スレッドセーフである必要がある。
+ */
+@Published(tag = "architect")
+public interface PrimaryKeyFilter {
+
+    /**
+     * エンティティクラスが判定対象か否かを返す。
+     *
+     * @param entityClass エンティティクラス
+     * @return 判定対象の場合{@code true}
+     */
+    boolean isTarget(Class<?> entityClass);
+
+    /**
+     * プライマリーキーが存在する可能性があるか否かを返す。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー(定義順、カラムの型に変換済みの値)
+     * @return 存在する可能性がある場合{@code true}、確実に存在しない場合{@code false}
+     */
+    boolean mightContain(Class<?> entityClass, List<Object> id);
+
+    /**
+     * 登録したプライマリーキーを追加する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー(定義順、カラムの型に変換済みの値)
+     */
+    void add(Class<?> entityClass, List<Object> id);
+}
@@ -0,0 +1,539 @@
+package nablarch.common.dao;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.beans.ConversionUtil;
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.statement.SqlRow;
+import nablarch.core.db.transaction.SimpleDbTransactionExecutor;
+import nablarch.core.db.transaction.SimpleDbTransactionManager;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.repository.disposal.Disposable;
+import nablarch.core.repository.initialization.Initializable;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 参照用データ(コード表やマスタなど)のテーブル全体をメモリ上に保持するクラス。
+ * <p/>
+ * 初期化時に{@link DaoContext#findAll(Class)}でテーブルの全レコードを読み込み、
+ * プライマリーキーと指定されたプロパティごとのハッシュインデックスを構築する。
+ * 検索はメモリ上のインデックスのみで行うため、データベースにはアクセスしない。
+ * <p/>
+ * 更新の検知には、ウォーターマーク(更新日時カラムなど、更新のたびにテーブル全体で増加する値のカラムの最大値)と
+ * レコード件数を使用する。
+ * バージョン番号({@link jakarta.persistence.Version})はレコードごとに増加する値のため、ウォーターマークとして使用できない。
+ * ウォーターマークとするプロパティを設定しない場合は、確認のたびにテーブル全体を再読み込みする。
+ * 更新間隔を設定した場合、バックグラウンドで定期的に確認し、変化があった場合はテーブル全体を再読み込みする。
+ * 再読み込みしたデータは新しいスナップショットとして構築した後に一括で差し替えるため、
+ * 検索処理が待たされたり、読み込み途中のデータを参照することはない。
+ * <pre>
+ * {@code
+ * <component name="taxRateTable" class="nablarch.common.dao.ReferenceDataTable">
+ *   <property name="entityClassName" value="com.example.entity.TaxRate" />
+ *   <property name="indexedProperties">
+ *     <list>
+ *       <value>taxType</value>
+ *     </list>
+ *   </property>
+ *   <property name="watermarkProperty" value="updatedAt" />
+ *   <property name="refreshInterval" value="60000" />
+ *   <property name="transactionManager" ref="referenceDataTransactionManager" />
+ * </component>
+ * }</pre>
+ * 本クラスは初期化対象のコンポーネント({@link Initializable})として、また廃棄対象のコンポーネント({@link Disposable})として
+ * 登録する必要がある。
+ * {@link DaoContextFactory#setReferenceDataTables(List)}に設定した場合、
+ * {@link DaoContext#findById(Class, Object...)}などのプライマリーキーによる検索は、データベースではなく本クラスから取得し、
+ * エンティティのコピーを返す。
+ * {@link DaoContext}でエンティティを登録・更新・削除した場合、反映したトランザクションの確定を検知する仕組みはないため、
+ * 反映から保留期間({@link #setWriteHoldOff(long)})の経過後に再読み込みするまでは、プライマリーキーによる検索はデータベースから取得する。
+ * SQLファイルによる更新や他のプロセスによる更新は、再読み込みまで反映されない。
+ * <p/>
+ * 本クラスの検索メソッドが返すエンティティは全ての呼び出し元で共有されるため、変更してはならない。
+ * 件数が多いテーブル(目安として10万件以上)は、メモリ使用量が大きくなるため対象としないこと。
+ *
+ * @param <T> エンティティクラスの型
+ */
+@Published(tag = "architect")
+public class ReferenceDataTable<T> implements Initializable, Disposable {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(ReferenceDataTable.class);
+
+    /** エンティティクラス */
+    private Class<T> entityClass;
+
+    /** インデックスを構築するプロパティ */
+    private List<String> indexedProperties = Collections.emptyList();
+
+    /** デフォルトの書き込み後の保留期間(ミリ秒) */
+    private static final long DEFAULT_WRITE_HOLD_OFF = 60000L;
+
+    /** ウォーターマークとするプロパティ(未設定の場合は確認のたびに再読み込みする) */
+    private String watermarkProperty;
+
+    /** 更新間隔(ミリ秒、0以下の場合は定期的な確認を行わない) */
+    private long refreshInterval = 0L;
+
+    /** 書き込み後の保留期間(ミリ秒) */
+    private long writeHoldOff = DEFAULT_WRITE_HOLD_OFF;
+
+    /** {@link DaoContext}による最後の書き込みの保留期間の終了時刻(書き込みがない場合は0) */
+    private volatile long writtenUntil;
+
+    /** トランザクションマネージャ */
+    private SimpleDbTransactionManager transactionManager;
+
+    /** {@link DaoContext}を生成するファクトリ */
+    private DaoContextFactory daoContextFactory = new BasicDaoContextFactory();
+
+    /** SQLビルダー */
+    private StandardSqlBuilder sqlBuilder = new StandardSqlBuilder();
+
+    /** 現在のスナップショット */
+    private volatile Snapshot<T> snapshot;
+
+    /** 定期的な確認を行うスケジューラ */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * テーブル全体を読み込み、更新間隔が設定されている場合は定期的な確認を開始する。
+     */
+    @Override
+    public void initialize() {
+        if (entityClass == null) {
+            throw new IllegalStateException("entityClass must be set.");
+        }
+        snapshot = load(findWatermarkColumn());
+        if (refreshInterval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "reference-data-" + entityClass.getSimpleName());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        refresh();
+                    } catch (RuntimeException e) {
+                        LOGGER.logWarn("failed to refresh reference data. entity = " + entityClass.getName(), e);
+                    }
+                }
+            }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 定期的な確認を停止する。
+     */
+    @Override
+    public void dispose() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * ウォーターマークとレコード件数を確認し、変化があった場合はテーブル全体を再読み込みする。
+     * <p/>
+     * ウォーターマークとするプロパティを設定していない場合は、常に再読み込みする。
+     * また、{@link DaoContext}による書き込みの保留期間が経過した後に、まだ再読み込みしていない場合も再読み込みする。
+     *
+     * @return 再読み込みした場合{@code true}
+     */
+    public boolean refresh() {
+        final Snapshot<T> current = current();
+        final ColumnMeta column = findWatermarkColumn();
+        final long until = writtenUntil;
+        final boolean writtenSinceLoad = current.loadedAt < until && until <= currentTimeMillis();
+        if (column != null && !writtenSinceLoad && current.watermark.equals(readWatermark(column))) {
+            return false;
+        }
+        snapshot = load(column);
+        return true;
+    }
+
+    /**
+     * {@link DaoContext}による書き込みを記録する。
+     * <p/>
+     * 保留期間の経過後に再読み込みするまでは、{@link #isUpToDate()}は{@code false}を返す。
+     */
+    synchronized void written() {
+        writtenUntil = Math.max(writtenUntil, currentTimeMillis() + writeHoldOff);
+    }
+
+    /**
+     * {@link DaoContext}による書き込みが、現在のスナップショットに反映されているか否かを返す。
+     *
+     * @return 最後の書き込みの保留期間の経過後に読み込んだスナップショットの場合{@code true}
+     */
+    boolean isUpToDate() {
+        return current().loadedAt >= writtenUntil;
+    }
+
+    /**
+     * 現在時刻(ミリ秒)を返す。
+     *
+     * @return 現在時刻
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * プライマリーキーを指定して、エンティティを取得する。
+     *
+     * @param id プライマリーキー(複合キーの場合は定義順)
+     * @return エンティティ(存在しない場合は{@code null})
+     * @throws IllegalArgumentException プライマリーキーのカラム数と指定した値の数が一致しない場合
+     */
+    public T findById(final Object... id) {
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        if (id.length != idColumns.size()) {
+            throw new IllegalArgumentException("Mismatch the counts of id columns. expected=" + idColumns.size());
+        }
+        final List<Object> key = new ArrayList<Object>(id.length);
+        for (int i = 0; i < id.length; i++) {
+            key.add(ConversionUtil.convert(idColumns.get(i).getPropertyType(), id[i]));
+        }
+        return current().byId.get(key);
+    }
+
+    /**
+     * インデックスを構築したプロパティの値が一致するエンティティを取得する。
+     *
+     * @param propertyName プロパティ名
+     * @param value 値
+     * @return エンティティのリスト(変更不可。存在しない場合は空のリスト)
+     * @throws IllegalArgumentException インデックスを構築していないプロパティが指定された場合
+     */
+    public List<T> findBy(final String propertyName, final Object value) {
+        final Index<T> index = current().indexes.get(propertyName);
+        if (index == null) {
+            throw new IllegalArgumentException("property is not indexed. property = " + propertyName);
+        }
+        final List<T> entities = index.entities.get(ConversionUtil.convert(index.propertyType, value));
+        return entities != null ? entities : Collections.<T>emptyList();
+    }
+
+    /**
+     * 全てのエンティティを取得する。
+     *
+     * @return エンティティのリスト(変更不可。読み込み時の順序)
+     */
+    public List<T> findAll() {
+        return current().all;
+    }
+
+    /**
+     * 現在のスナップショットを取得する。
+     *
+     * @return スナップショット
+     */
+    private Snapshot<T> current() {
+        final Snapshot<T> current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("reference data is not initialized. entity = " + entityClass.getName());
+        }
+        return current;
+    }
+
+    /**
+     * テーブル全体を読み込み、スナップショットを構築する。
+     *
+     * @param column ウォーターマークとするカラム(設定されていない場合は{@code null})
+     * @return スナップショット
+     */
+    private Snapshot<T> load(final ColumnMeta column) {
+        final long loadedAt = currentTimeMillis();
+        return new SimpleDbTransactionExecutor<Snapshot<T>>(transactionManager) {
+            @Override
+            public Snapshot<T> execute(final AppDbConnection connection) {
+                // 読み込み中の更新を次回の確認で検知できるよう、先にウォーターマークを取得する
+                final List<Object> watermark = column != null
+                        ? readWatermark(connection, column) : Collections.<Object>emptyList();
+                final AppDbConnection origConn = daoContextFactory.getDbConnection();
+                daoContextFactory.setDbConnection(connection);
+                try {
+                    return new Snapshot<T>(entityClass, daoContextFactory.create().findAll(entityClass),
+                            indexedProperties, watermark, loadedAt);
+                } finally {
+                    daoContextFactory.setDbConnection(origConn);
+                }
+            }
+        }.doTransaction();
+    }
+
+    /**
+     * ウォーターマークとレコード件数を取得する。
+     *
+     * @param column ウォーターマークとするカラム
+     * @return ウォーターマークとレコード件数
+     */
+    private List<Object> readWatermark(final ColumnMeta column) {
+        return new SimpleDbTransactionExecutor<List<Object>>(transactionManager) {
+            @Override
+            public List<Object> execute(final AppDbConnection connection) {
+                return readWatermark(connection, column);
+            }
+        }.doTransaction();
+    }
+
+    /**
+     * ウォーターマークとレコード件数を取得する。
+     *
+     * @param connection データベース接続
+     * @param column ウォーターマークとするカラム
+     * @return ウォーターマークとレコード件数
+     */
+    private List<Object> readWatermark(final AppDbConnection connection, final ColumnMeta column) {
+        final SqlRow row = connection.prepareStatement(
+                sqlBuilder.buildSelectWatermarkSql(entityClass, column.getName()))
+                .retrieve().get(0);
+        return Arrays.asList(row.getLong("RECORD_COUNT"), row.get("WATERMARK"));
+    }
+
+    /**
+     * ウォーターマークとするカラムを取得する。
+     *
+     * @return ウォーターマークとするカラム(ウォーターマークとするプロパティが設定されていない場合は{@code null})
+     * @throws IllegalStateException プロパティが存在しない場合、またはバージョン番号のプロパティの場合
+     */
+    private ColumnMeta findWatermarkColumn() {
+        if (watermarkProperty == null) {
+            return null;
+        }
+        for (ColumnMeta column : EntityUtil.findAllColumns(entityClass)) {
+            if (column.getPropertyName().equals(watermarkProperty)) {
+                if (column.isVersion()) {
+                    throw new IllegalStateException("version column cannot be used as the watermark"
+                            + " because it is incremented per row. property = " + watermarkProperty);
+                }
+                return column;
+            }
+        }
+        throw new IllegalStateException("watermark property was not found. property = " + watermarkProperty);
+    }
+
+    /**
+     * エンティティクラスを取得する。
+     *
+     * @return エンティティクラス
+     */
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * エンティティクラスを設定する。
+     *
+     * @param entityClass エンティティクラス
+     */
+    public void setEntityClass(final Class<T> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * エンティティクラス名(完全修飾名)を設定する。
+     *
+     * @param entityClassName エンティティクラス名
+     */
+    @SuppressWarnings("unchecked")
+    public void setEntityClassName(final String entityClassName) {
+        try {
+            entityClass = (Class<T>) Class.forName(entityClassName, true, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("entity class was not found. class = " + entityClassName, e);
+        }
+    }
+
+    /**
+     * インデックスを構築するプロパティを設定する。
+     *
+     * @param indexedProperties プロパティ名
+     */
+    public void setIndexedProperties(final List<String> indexedProperties) {
+        this.indexedProperties = indexedProperties;
+    }
+
+    /**
+     * ウォーターマークとするプロパティを設定する。
+     * <p/>
+     * 更新日時など、更新のたびにテーブル全体で増加する値のプロパティを指定すること。
+     * バージョン番号のプロパティは指定できない。
+     * 設定しない場合は、確認のたびにテーブル全体を再読み込みする。
+     *
+     * @param watermarkProperty プロパティ名
+     */
+    public void setWatermarkProperty(final String watermarkProperty) {
+        this.watermarkProperty = watermarkProperty;
+    }
+
+    /**
+     * 更新を確認する間隔(ミリ秒)を設定する。
+     * <p/>
+     * 設定しない場合(0以下の場合)は、定期的な確認を行わない。
+     *
+     * @param refreshInterval 更新間隔(ミリ秒)
+     */
+    public void setRefreshInterval(final long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * {@link DaoContext}による書き込み後に、プライマリーキーによる検索をデータベースから取得する保留期間(ミリ秒)を設定する。
+     * <p/>
+     * 書き込んだトランザクションの確定を待つための期間であり、トランザクションの最大時間より長い値を設定すること。
+     * 設定しない場合は、1分となる。
+     *
+     * @param writeHoldOff 保留期間(ミリ秒)
+     */
+    public void setWriteHoldOff(final long writeHoldOff) {
+        this.writeHoldOff = writeHoldOff;
+    }
+
+    /**
+     * データベース接続を取得するトランザクションマネージャを設定する。
+     *
+     * @param transactionManager トランザクションマネージャ
+     */
+    public void setTransactionManager(final SimpleDbTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * {@link DaoContext}を生成するファクトリを設定する。
+     * <p/>
+     * 設定しない場合は、{@link BasicDaoContextFactory}が使用される。
+     *
+     * @param daoContextFactory ファクトリ
+     */
+    public void setDaoContextFactory(final DaoContextFactory daoContextFactory) {
+        this.daoContextFactory = daoContextFactory;
+    }
+
+    /**
+     * SQLビルダーを設定する。
+     * <p/>
+     * 設定しない場合は、{@link StandardSqlBuilder}が使用される。
+     *
+     * @param sqlBuilder SQLビルダー
+     */
+    public void setSqlBuilder(final StandardSqlBuilder sqlBuilder) {
+        this.sqlBuilder = sqlBuilder;
+    }
+
+    /**
+     * ある時点のテーブル全体の内容とインデックス。
+     *
+     * @param <T> エンティティクラスの型
+     */
+    private static final class Snapshot<T> {
+
+        /** 全てのエンティティ */
+        private final List<T> all;
+
+        /** プライマリーキーのインデックス */
+        private final Map<List<Object>, T> byId;
+
+        /** プロパティごとのインデックス */
+        private final Map<String, Index<T>> indexes;
+
+        /** 読み込み時のウォーターマークとレコード件数(ウォーターマークとするカラムがない場合は空) */
+        private final List<Object> watermark;
+
+        /** 読み込みを開始した時刻 */
+        private final long loadedAt;
+
+        /**
+         * スナップショットを構築する。
+         *
+         * @param entityClass エンティティクラス
+         * @param entities 全てのエンティティ
+         * @param indexedProperties インデックスを構築するプロパティ
+         * @param watermark 読み込み時のウォーターマークとレコード件数
+         * @param loadedAt 読み込みを開始した時刻
+         */
+        private Snapshot(final Class<T> entityClass, final List<T> entities, final List<String> indexedProperties,
+                final List<Object> watermark, final long loadedAt) {
+            this.all = Collections.unmodifiableList(new ArrayList<T>(entities));
+            this.watermark = watermark;
+            this.loadedAt = loadedAt;
+
+            final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+            final Map<List<Object>, T> idIndex = new HashMap<List<Object>, T>(entities.size() * 2);
+            for (T entity : entities) {
+                final Map<ColumnMeta, Object> idValues = EntityUtil.findIdColumns(entity);
+                final List<Object> key = new ArrayList<Object>(idColumns.size());
+                for (ColumnMeta idColumn : idColumns) {
+                    key.add(idValues.get(idColumn));
+                }
+                idIndex.put(key, entity);
+            }
+            this.byId = idIndex;
+
+            final Map<String, Index<T>> propertyIndexes = new HashMap<String, Index<T>>();
+            for (String property : indexedProperties) {
+                propertyIndexes.put(property, new Index<T>(entityClass, property, entities));
+            }
+            this.indexes = propertyIndexes;
+        }
+    }
+
+    /**
+     * プロパティの値によるハッシュインデックス。
+     *
+     * @param <T> エンティティクラスの型
+     */
+    private static final class Index<T> {
+
+        /** プロパティの型 */
+        private final Class<?> propertyType;
+
+        /** プロパティの値ごとのエンティティ */
+        private final Map<Object, List<T>> entities;
+
+        /**
+         * インデックスを構築する。
+         *
+         * @param entityClass エンティティクラス
+         * @param property プロパティ名
+         * @param all 全てのエンティティ
+         */
+        private Index(final Class<T> entityClass, final String property, final List<T> all) {
+            final PropertyDescriptor descriptor = BeanUtil.getPropertyDescriptor(entityClass, property);
+            propertyType = descriptor.getPropertyType();
+
+            final Map<Object, List<T>> grouped = new HashMap<Object, List<T>>();
+            for (T entity : all) {
+                final Object value = BeanUtil.getProperty(entity, property);
+                List<T> list = grouped.get(value);
+                if (list == null) {
+                    list = new ArrayList<T>();
+                    grouped.put(value, list);
+                }
+                list.add(entity);
+            }
+            for (Map.Entry<Object, List<T>> entry : grouped.entrySet()) {
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+            entities = grouped;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package nablarch.common.dao;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * ページネーション検索で取得した件数をキャッシュするインタフェース。
+ * <p/>
+ * 同一条件でページを切り替える度に件数取得SQLが実行されることを避けるために使用する。
+ * キャッシュのキーは、SQL_IDとバインド変数の組み合わせとなる。
+ * <p/>
+ * {@link DaoContext}による登録・更新・削除時には、そのエンティティのテーブルを指定して{@link #invalidate(String)}が呼び出される。
+ * 検索結果のエンティティクラスのテーブル以外を参照するSQL(結合を含むSQLなど)や、
+ * {@link jakarta.persistence.Entity}アノテーションが設定されていないクラスを検索結果とするSQLの件数は、
+ * 実装クラスで関連するテーブルを指定しない限り、有効期限などの実装クラスの破棄条件でのみ破棄される。
+ */
+@Published(tag = "architect")
+public interface ResultCountCache {
+
+    /**
+     * キャッシュから件数を取得する。
+     *
+     * @param sqlId SQL_ID(正規化済み)
+     * @param params バインド変数
+     * @return 件数。キャッシュされていない場合や有効期限切れの場合は{@code null}
+     */
+    Long get(String sqlId, Object params);
+
+    /**
+     * 件数をキャッシュに格納する。
+     *
+     * @param sqlId SQL_ID(正規化済み)
+     * @param params バインド変数
+     * @param tableName 無効化の対象となる検索結果のエンティティクラスのテーブル名(エンティティクラスでない場合は{@code null})
+     * @param count 件数
+     */
+    void put(String sqlId, Object params, String tableName, long count);
+
+    /**
+     * 指定されたテーブルに関連付けられたキャッシュを無効化する。
+     *
+     * @param tableName テーブル名
+     */
+    void invalidate(String tableName);
+}
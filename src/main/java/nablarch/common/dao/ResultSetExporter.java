@@ -0,0 +1,215 @@
+package nablarch.common.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import nablarch.core.beans.ConversionUtil;
+import nablarch.core.db.DbAccessException;
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlRow;
+
+/**
+ * 検索結果を、エンティティを生成せずに指定した形式で出力するクラス。
+ * <p/>
+ * 出力するカラムとその順序は、エンティティクラスのカラム定義({@link EntityMeta})に従う。
+ * 検索結果に含まれないカラムは出力しない。エンティティクラスに{@link SqlRow}を指定した場合は、
+ * 検索結果の全てのカラムを検索結果の順に出力する。
+ * <p/>
+ * 値は以下の形式で出力する。
+ * <ul>
+ * <li>数値: 指数表記を使用しない10進数</li>
+ * <li>日付({@link jakarta.persistence.TemporalType#DATE}、{@link java.time.LocalDate}): ISO-8601形式(yyyy-MM-dd)</li>
+ * <li>日時: ISO-8601形式(yyyy-MM-ddTHH:mm:ss.SSS…)</li>
+ * <li>バイナリ: Base64</li>
+ * </ul>
+ */
+final class ResultSetExporter {
+
+    /** 出力形式 */
+    private final ExportFormat format;
+
+    /** 出力先をフラッシュするレコード件数の間隔 */
+    private final int flushInterval;
+
+    /** エンティティクラス */
+    private final Class<?> entityClass;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param entityClass エンティティクラス
+     * @param format 出力形式
+     * @param flushInterval 出力先をフラッシュするレコード件数の間隔
+     */
+    ResultSetExporter(final Class<?> entityClass, final ExportFormat format, final int flushInterval) {
+        this.entityClass = entityClass;
+        this.format = format;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * 検索結果を出力する。
+     * <p/>
+     * 出力先は、フラッシュの間隔ごとと全レコードの出力後にフラッシュする。出力先はクローズしない。
+     *
+     * @param rows 検索結果
+     * @param writer 出力先
+     * @return 出力したレコード件数
+     * @throws UncheckedIOException 出力に失敗した場合
+     */
+    long export(final ResultSetIterator rows, final Writer writer) {
+        final List<ExportColumn> columns = findColumns(rows.getMetaData());
+        final Object[] values = new Object[columns.size()];
+        long count = 0;
+        try {
+            format.writeHeader(writer, columns);
+            while (rows.next()) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = columns.get(i).getValue(rows);
+                }
+                format.writeRecord(writer, columns, values);
+                count++;
+                if (count % flushInterval == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to export. entity = " + entityClass.getName(), e);
+        }
+        return count;
+    }
+
+    /**
+     * 出力するカラムを取得する。
+     *
+     * @param metaData 検索結果のメタ情報
+     * @return 出力するカラム
+     */
+    private List<ExportColumn> findColumns(final ResultSetMetaData metaData) {
+        try {
+            final List<ExportColumn> columns = new ArrayList<ExportColumn>();
+            if (entityClass.equals(SqlRow.class)) {
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    final String label = metaData.getColumnLabel(i);
+                    columns.add(new ExportColumn(label, label, i, null, null));
+                }
+                return columns;
+            }
+            for (ColumnMeta column : EntityUtil.findAllColumns(entityClass)) {
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    if (column.getName().equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                        columns.add(new ExportColumn(column.getName(), column.getPropertyName(), i,
+                                column.getPropertyType(), column.getJdbcType()));
+                        break;
+                    }
+                }
+            }
+            return columns;
+        } catch (SQLException e) {
+            throw new DbAccessException("failed to get result set meta data.", e);
+        }
+    }
+
+    /**
+     * 出力するカラム。
+     */
+    static final class ExportColumn {
+
+        /** カラム名 */
+        private final String columnName;
+
+        /** プロパティ名 */
+        private final String propertyName;
+
+        /** 検索結果のカラム位置(1始まり) */
+        private final int index;
+
+        /** プロパティの型(エンティティクラス以外の場合は{@code null}) */
+        private final Class<?> propertyType;
+
+        /** データベースの型(エンティティクラス以外の場合は{@code null}) */
+        private final Class<?> jdbcType;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param columnName カラム名
+         * @param propertyName プロパティ名
+         * @param index 検索結果のカラム位置(1始まり)
+         * @param propertyType プロパティの型
+         * @param jdbcType データベースの型
+         */
+        ExportColumn(final String columnName, final String propertyName, final int index,
+                final Class<?> propertyType, final Class<?> jdbcType) {
+            this.columnName = columnName;
+            this.propertyName = propertyName;
+            this.index = index;
+            this.propertyType = propertyType;
+            this.jdbcType = jdbcType;
+        }
+
+        /**
+         * カラム名を取得する。
+         *
+         * @return カラム名
+         */
+        String getColumnName() {
+            return columnName;
+        }
+
+        /**
+         * プロパティ名を取得する。
+         *
+         * @return プロパティ名
+         */
+        String getPropertyName() {
+            return propertyName;
+        }
+
+        /**
+         * 現在のレコードから、出力する値を取得する。
+         *
+         * @param rows 検索結果
+         * @return 値({@link String}、{@link BigDecimal}、{@link Boolean}またはnull)
+         */
+        Object getValue(final ResultSetIterator rows) {
+            final Object value = rows.getObject(index);
+            if (value == null) {
+                return null;
+            }
+            if (propertyType == Boolean.class || propertyType == boolean.class || value instanceof Boolean) {
+                return ConversionUtil.convert(Boolean.class, value);
+            }
+            if (propertyType == String.class || value instanceof Clob) {
+                return rows.getString(index);
+            }
+            if (value instanceof Number) {
+                return value instanceof BigDecimal ? value : new BigDecimal(value.toString());
+            }
+            if (value instanceof Timestamp) {
+                return jdbcType == java.sql.Date.class
+                        ? new java.sql.Date(((Timestamp) value).getTime()).toString()
+                        : ((Timestamp) value).toLocalDateTime().toString();
+            }
+            if (value instanceof Date) {
+                return value.toString();
+            }
+            if (value instanceof Blob || value instanceof byte[]) {
+                return Base64.getEncoder().encodeToString(rows.getBytes(index));
+            }
+            return value.toString();
+        }
+    }
+}
@@ -0,0 +1,679 @@
+package nablarch.common.dao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 閾値を超えた検索結果を一時ファイルに退避するEntityList。
+ * <p/>
+ * 閾値(件数またはバイト数)に達するまではヒープ上に保持し、それ以降に追加されたエンティティは
+ * バイナリ形式({@link EntityCodec})に変換して一時ファイルに書き出す。
+ * 一時ファイルに退避したエンティティは、{@link #get(int)}や{@link #iterator()}で参照するたびにファイルから読み込んで復元する。
+ * そのため、退避したエンティティは参照するたびに別のインスタンスとなり、取得したエンティティへの変更はリストに反映されない。
+ * <p/>
+ * バイト数の閾値は、ヒープ上に保持するエンティティのバイナリ形式でのサイズの合計で判定する。
+ * <p/>
+ * 一時ファイルは{@link #close()}で削除する。クローズせずに本リストが参照されなくなった場合も、
+ * ガベージコレクション後に{@link Cleaner}により削除される。
+ * <p/>
+ * 一時ファイルに退避する前は、{@link EntityList}と同じく削除や並び替えなどの変更操作({@link #sort(Comparator)}、
+ * {@link #subList(int, int)}、{@link #remove(Object)}、{@link #clear()}、{@link #removeIf(Predicate)}など)を利用できる。
+ * 一時ファイルに退避した後は参照と追加({@link #add(Object)}、{@link #addAll(Collection)})のみサポートし、
+ * これ以外の変更操作が呼び出された場合は、{@link UnsupportedOperationException}を送出する。
+ * また、シリアライズはサポートしない。
+ *
+ * @param <E> 型パラメータ
+ */
+@Published
+public class SpillingEntityList<E> extends EntityList<E> implements Closeable {
+
+    /** serialVersionUID */
+    private static final long serialVersionUID = 1L;
+
+    /** 一時ファイルを削除する{@link Cleaner} */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /** エンティティクラス */
+    private final Class<E> entityClass;
+
+    /** バイナリ形式 */
+    private final transient EntityCodec codec;
+
+    /** ヒープ上に保持する件数の閾値(0以下の場合は件数で判定しない) */
+    private final int rowThreshold;
+
+    /** ヒープ上に保持するバイト数の閾値(0以下の場合はバイト数で判定しない) */
+    private final long byteThreshold;
+
+    /** 一時ファイルを作成するディレクトリ */
+    private final transient Path directory;
+
+    /** ヒープ上に保持するエンティティのバイト数(削除したエンティティの分は減算しない) */
+    private long memoryBytes;
+
+    /** 一時ファイル(退避前は{@code null}) */
+    private transient SpillFile spillFile;
+
+    /** 一時ファイルの削除処理(退避前は{@code null}) */
+    private transient Cleaner.Cleanable cleanable;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param entityClass エンティティクラス
+     * @param codec バイナリ形式
+     * @param rowThreshold ヒープ上に保持する件数の閾値(0以下の場合は件数で判定しない)
+     * @param byteThreshold ヒープ上に保持するバイト数の閾値(0以下の場合はバイト数で判定しない)
+     * @param directory 一時ファイルを作成するディレクトリ
+     */
+    SpillingEntityList(final Class<E> entityClass, final EntityCodec codec, final int rowThreshold,
+            final long byteThreshold, final Path directory) {
+        this.entityClass = entityClass;
+        this.codec = codec;
+        this.rowThreshold = rowThreshold;
+        this.byteThreshold = byteThreshold;
+        this.directory = directory;
+    }
+
+    /**
+     * 一時ファイルに退避しているか否かを返す。
+     *
+     * @return 退避している場合{@code true}
+     */
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 閾値を超えた場合、エンティティは一時ファイルに書き出す。
+     */
+    @Override
+    public boolean add(final E e) {
+        if (spillFile == null) {
+            if (rowThreshold <= 0 || super.size() < rowThreshold) {
+                if (byteThreshold <= 0) {
+                    return super.add(e);
+                }
+                final byte[] record = codec.encodeEntity(e);
+                if (memoryBytes + record.length <= byteThreshold) {
+                    memoryBytes += record.length;
+                    return super.add(e);
+                }
+                startSpill().append(record);
+                return true;
+            }
+            startSpill();
+        }
+        spillFile.append(codec.encodeEntity(e));
+        return true;
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends E> c) {
+        for (E e : c) {
+            add(e);
+        }
+        return !c.isEmpty();
+    }
+
+    /**
+     * 一時ファイルを作成する。
+     *
+     * @return 一時ファイル
+     */
+    private SpillFile startSpill() {
+        spillFile = new SpillFile(directory);
+        cleanable = CLEANER.register(this, spillFile);
+        return spillFile;
+    }
+
+    @Override
+    public E get(final int index) {
+        final int memorySize = super.size();
+        if (index < memorySize) {
+            return super.get(index);
+        }
+        if (index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return codec.decodeEntity(entityClass, spillFile.read(index - memorySize));
+    }
+
+    @Override
+    public int size() {
+        return super.size() + (spillFile != null ? spillFile.count : 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator() {
+        return new Itr(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator(final int index) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        return new Itr(index);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+    }
+
+    @Override
+    public void forEach(final Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (E e : this) {
+            action.accept(e);
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        final Object[] result = new Object[size()];
+        int i = 0;
+        for (E e : this) {
+            result[i++] = e;
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(final T[] a) {
+        final int size = size();
+        final T[] result = a.length >= size ? a : (T[]) Arrays.copyOf(a, size, a.getClass());
+        int i = 0;
+        for (E e : this) {
+            result[i++] = (T) e;
+        }
+        if (result.length > size) {
+            result[size] = null;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(final Object o) {
+        int i = 0;
+        for (E e : this) {
+            if (Objects.equals(o, e)) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(final Object o) {
+        int last = -1;
+        int i = 0;
+        for (E e : this) {
+            if (Objects.equals(o, e)) {
+                last = i;
+            }
+            i++;
+        }
+        return last;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof List)) {
+            return false;
+        }
+        final Iterator<?> other = ((List<?>) o).iterator();
+        for (E e : this) {
+            if (!other.hasNext() || !Objects.equals(e, other.next())) {
+                return false;
+            }
+        }
+        return !other.hasNext();
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (E e : this) {
+            hashCode = 31 * hashCode + (e == null ? 0 : e.hashCode());
+        }
+        return hashCode;
+    }
+
+    /**
+     * 一時ファイルを削除する。
+     * <p/>
+     * クローズ後に一時ファイルに退避したエンティティを参照した場合は、{@link IllegalStateException}を送出する。
+     */
+    @Override
+    public void close() {
+        if (cleanable != null) {
+            cleanable.clean();
+        }
+    }
+
+    /**
+     * シリアライズはサポートしない。
+     *
+     * @param out 出力ストリーム
+     * @throws NotSerializableException 常に送出する
+     */
+    private void writeObject(final ObjectOutputStream out) throws NotSerializableException {
+        throw new NotSerializableException(getClass().getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一時ファイルに退避する前のみ利用できる。
+     * 退避後に呼び出した場合、{@link UnsupportedOperationException}を送出する。
+     */
+    @Override
+    public boolean remove(final Object o) {
+        verifyNotSpilled("remove");
+        return super.remove(o);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一時ファイルに退避する前のみ利用できる。
+     * 退避後に呼び出した場合、{@link UnsupportedOperationException}を送出する。
+     */
+    @Override
+    public void clear() {
+        verifyNotSpilled("clear");
+        super.clear();
+        memoryBytes = 0L;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一時ファイルに退避する前のみ利用できる。
+     * 退避後に呼び出した場合、{@link UnsupportedOperationException}を送出する。
+     */
+    @Override
+    public boolean removeAll(final Collection<?> c) {
+        verifyNotSpilled("removeAll");
+        return super.removeAll(c);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一時ファイルに退避する前のみ利用できる。
+     * 退避後に呼び出した場合、{@link UnsupportedOperationException}を送出する。
+     */
+    @Override
+    public boolean retainAll(final Collection<?> c) {
+        verifyNotSpilled("retainAll");
+        return super.retainAll(c);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一時ファイルに退避する前のみ利用できる。
+     * 退避後に呼び出した場合、{@link UnsupportedOperationException}を送出する。
+     */
+    @Override
+    public boolean removeIf(final Predicate<? super E> filter) {
+        verifyNotSpilled("removeIf");
+        return super.removeIf(filter);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一時ファイルに退避する前のみ利用できる。
+     * 退避後に呼び出した場合、{@link UnsupportedOperationException}を送出する。
+     */
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        verifyNotSpilled("removeRange");
+        super.removeRange(fromIndex, toIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一時ファイルに退避する前のみ利用できる。
+     * 退避後に呼び出した場合、{@link UnsupportedOperationException}を送出する。
+     */
+    @Override
+    public void replaceAll(final UnaryOperator<E> operator) {
+        verifyNotSpilled("replaceAll");
+        super.replaceAll(operator);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一時ファイルに退避する前のみ利用できる。
+     * 退避後に呼び出した場合、{@link UnsupportedOperationException}を送出する。
+     */
+    @Override
+    public void sort(final Comparator<? super E> c) {
+        verifyNotSpilled("sort");
+        super.sort(c);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一時ファイルに退避する前のみ利用できる。
+     * 退避後に呼び出した場合、{@link UnsupportedOperationException}を送出する。
+     */
+    @Override
+    public List<E> subList(final int fromIndex, final int toIndex) {
+        verifyNotSpilled("subList");
+        return super.subList(fromIndex, toIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 一時ファイルに退避する前のみ利用できる。
+     * 退避後に呼び出した場合、{@link UnsupportedOperationException}を送出する。
+     */
+    @Override
+    public Object clone() {
+        verifyNotSpilled("clone");
+        return super.clone();
+    }
+
+    /**
+     * 一時ファイルに退避していないことを検証する。
+     *
+     * @param operation 変更操作の名前
+     * @throws UnsupportedOperationException 一時ファイルに退避している場合
+     */
+    private void verifyNotSpilled(final String operation) {
+        if (spillFile != null) {
+            throw new UnsupportedOperationException(operation);
+        }
+    }
+
+    /**
+     * インデックスで要素を参照する参照専用の{@link ListIterator}。
+     */
+    private final class Itr implements ListIterator<E> {
+
+        /** 次に返す要素のインデックス */
+        private int cursor;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param index 開始位置
+         */
+        private Itr(final int index) {
+            cursor = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size();
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(cursor++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        public E previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            return get(--cursor);
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+
+        @Override
+        public void set(final E e) {
+            throw new UnsupportedOperationException("set");
+        }
+
+        @Override
+        public void add(final E e) {
+            throw new UnsupportedOperationException("add");
+        }
+    }
+
+    /**
+     * エンティティを退避する一時ファイル。
+     * <p/>
+     * 書き込みと読み込みはそれぞれバッファを介して行う。
+     * 順に参照する場合は、読み込みバッファ単位でまとめてファイルから読み込む。
+     * {@link Cleaner}から呼び出されるため、リストへの参照は保持しない。
+     */
+    private static final class SpillFile implements Runnable {
+
+        /** バッファサイズ */
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        /** 一時ファイルのパス */
+        private final Path path;
+
+        /** 一時ファイル */
+        private final FileChannel channel;
+
+        /** 書き込みバッファ */
+        private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /** 読み込みバッファ */
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /** 読み込みバッファの先頭のファイル上の位置(読み込み前は-1) */
+        private long readBufferStart = -1L;
+
+        /** 書き込みバッファの先頭のファイル上の位置 */
+        private long flushedSize;
+
+        /** 各レコードのファイル上の位置 */
+        private long[] offsets = new long[1024];
+
+        /** レコード件数 */
+        private int count;
+
+        /** 削除済みか否か */
+        private volatile boolean closed;
+
+        /**
+         * 一時ファイルを作成する。
+         *
+         * @param directory 一時ファイルを作成するディレクトリ
+         */
+        private SpillFile(final Path directory) {
+            try {
+                path = Files.createTempFile(directory, "nablarch-dao-", ".spill");
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to create spill file. directory = " + directory, e);
+            }
+        }
+
+        /**
+         * レコードを追加する。
+         *
+         * @param record レコード
+         */
+        void append(final byte[] record) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = flushedSize + writeBuffer.position();
+            if (record.length > writeBuffer.remaining()) {
+                flush();
+            }
+            if (record.length > writeBuffer.capacity()) {
+                write(ByteBuffer.wrap(record));
+            } else {
+                writeBuffer.put(record);
+            }
+        }
+
+        /**
+         * レコードを読み込む。
+         *
+         * @param index レコードのインデックス
+         * @return レコード
+         * @throws IllegalStateException 一時ファイルが削除済みの場合
+         */
+        ByteBuffer read(final int index) {
+            if (closed) {
+                throw new IllegalStateException("spill file has already been closed. path = " + path);
+            }
+            flush();
+            final long start = offsets[index];
+            final int length = (int) ((index + 1 < count ? offsets[index + 1] : flushedSize) - start);
+            if (readBufferStart >= 0 && start >= readBufferStart
+                    && start + length <= readBufferStart + readBuffer.limit()) {
+                return ByteBuffer.wrap(readBuffer.array(), (int) (start - readBufferStart), length);
+            }
+            if (length > readBuffer.capacity()) {
+                final ByteBuffer record = ByteBuffer.allocate(length);
+                readFully(record, start);
+                record.flip();
+                return record;
+            }
+            readBuffer.clear();
+            readFully(readBuffer, start);
+            readBuffer.flip();
+            readBufferStart = start;
+            return ByteBuffer.wrap(readBuffer.array(), 0, length);
+        }
+
+        /**
+         * 書き込みバッファの内容をファイルに書き出す。
+         */
+        private void flush() {
+            if (writeBuffer.position() == 0) {
+                return;
+            }
+            writeBuffer.flip();
+            write(writeBuffer);
+            writeBuffer.clear();
+        }
+
+        /**
+         * ファイルの末尾に書き出す。
+         *
+         * @param buffer 書き出す内容
+         */
+        private void write(final ByteBuffer buffer) {
+            try {
+                while (buffer.hasRemaining()) {
+                    flushedSize += channel.write(buffer, flushedSize);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to write spill file. path = " + path, e);
+            }
+        }
+
+        /**
+         * ファイルの指定位置から、バッファが一杯になるかファイルの末尾まで読み込む。
+         *
+         * @param buffer 読み込み先
+         * @param position ファイル上の位置
+         */
+        private void readFully(final ByteBuffer buffer, final long position) {
+            try {
+                final long base = position - buffer.position();
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, base + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to read spill file. path = " + path, e);
+            }
+        }
+
+        /**
+         * 一時ファイルを削除する。
+         */
+        @Override
+        public void run() {
+            closed = true;
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // 削除に失敗した場合も、一時ディレクトリの掃除に委ねる
+            }
+        }
+    }
+}
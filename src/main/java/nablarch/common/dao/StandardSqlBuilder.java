@@ -1,8 +1,10 @@
 package nablarch.common.dao;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.persistence.Entity;
 
@@ -17,6 +19,14 @@ import nablarch.core.util.annotation.Published;
  * <ul>
  * <li>ID列を条件としたSELECT文</li>
  * <li>条件なしのSELECT文</li>
+ * <li>指定したプロパティのカラムのみを取得するSELECT文(ID列を条件としたもの、条件なしのもの)</li>
+ * <li>複数のID値を条件としたSELECT文</li>
+ * <li>指定したカラムの複数の値を条件としたSELECT文</li>
+ * <li>キー格納用テーブルと結合したSELECT文、キー格納用テーブルへのINSERT文、DELETE文</li>
+ * <li>ID列の範囲を条件としたSELECT文</li>
+ * <li>ID列の最小値と最大値を取得するSELECT文</li>
+ * <li>レコード件数とウォーターマークを取得するSELECT文</li>
+ * <li>全レコードのID列のみを取得するSELECT文</li>
  * <li>ID列を条件としたUPDATE文(バージョンカラムがある場合はそのカラムも条件に含まれる)</li>
  * <li>ID列を条件としたDELETE文</li>
  * <li>全カラムを対象としたINSERT文(IDENTITYカラムはサポートしない)</li>
@@ -27,6 +37,12 @@ import nablarch.core.util.annotation.Published;
 @Published(tag = "architect")
 public class StandardSqlBuilder {
 
+    /** エンティティクラスとプロパティ名をキーとした、指定したカラムのみを取得するSELECT文のキャッシュ */
+    private final Map<List<Object>, String> projectionSqlCache = new ConcurrentHashMap<List<Object>, String>();
+
+    /** エンティティクラスと取得するプロパティ名、ソート順をキーとした、ソート順を指定したSELECT文のキャッシュ */
+    private final Map<List<Object>, String> orderedSqlCache = new ConcurrentHashMap<List<Object>, String>();
+
     /**
      * ID列を条件として全カラムの情報を取得するSQL文を構築する。
      *
@@ -61,6 +77,395 @@ public class StandardSqlBuilder {
         return sql.toString();
     }
 
+    /**
+     * ID列を条件として、指定したプロパティのカラムのみを取得するSQL文を構築する。
+     *
+     * @param entityClass エンティティクラス
+     * @param propertyNames 取得するプロパティ名
+     * @param <T> 型パラメータ
+     * @return ID列を条件としたSELECT文
+     * @throws IllegalArgumentException エンティティクラスに存在しないプロパティ名が指定された場合
+     */
+    public <T> String buildSelectByIdSql(final Class<T> entityClass, final List<String> propertyNames) {
+        return buildSelectAllSql(entityClass, propertyNames)
+                + ' ' + buildIdCondition(entityClass);
+    }
+
+    /**
+     * 指定したプロパティのカラムのみを取得する全レコード検索(条件なし)のSQL文を構築する。
+     * <p/>
+     * 構築したSQL文は、エンティティクラスとプロパティ名の組み合わせごとにキャッシュする。
+     *
+     * @param entityClass エンティティクラス
+     * @param propertyNames 取得するプロパティ名
+     * @param <T> 型パラメータ
+     * @return 条件なしのSELECT文
+     * @throws IllegalArgumentException エンティティクラスに存在しないプロパティ名が指定された場合
+     */
+    public <T> String buildSelectAllSql(final Class<T> entityClass, final List<String> propertyNames) {
+        final List<Object> key = Arrays.<Object>asList(entityClass, new ArrayList<String>(propertyNames));
+        final String cached = projectionSqlCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final List<ColumnMeta> columns = EntityUtil.findAllColumns(entityClass);
+        final List<String> columnNames = new ArrayList<String>(propertyNames.size());
+        for (String propertyName : propertyNames) {
+            columnNames.add(findColumnByPropertyName(entityClass, columns, propertyName).getName());
+        }
+        final String sql = "SELECT " + StringUtil.join(",", columnNames)
+                + " FROM " + EntityUtil.getTableNameWithSchema(entityClass);
+        projectionSqlCache.put(key, sql);
+        return sql;
+    }
+
+    /**
+     * プロパティ名に対応するカラムを取得する。
+     *
+     * @param entityClass エンティティクラス
+     * @param columns エンティティクラスの全カラム
+     * @param propertyName プロパティ名
+     * @return カラム
+     * @throws IllegalArgumentException エンティティクラスに存在しないプロパティ名が指定された場合
+     */
+    private static ColumnMeta findColumnByPropertyName(final Class<?> entityClass, final List<ColumnMeta> columns,
+            final String propertyName) {
+        for (ColumnMeta column : columns) {
+            if (column.getPropertyName().equals(propertyName)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("property was not found in entity. entity = "
+                + entityClass.getName() + ", property = " + propertyName);
+    }
+
+    /**
+     * ソート順を指定した全レコード検索(条件なし)のSQL文を構築する。
+     * <p/>
+     * ソート順はプロパティ名で指定し、プロパティ名の後に半角スペースに続けて
+     * {@code ASC}(昇順)または{@code DESC}(降順)を指定できる。省略した場合は昇順となる。
+     * <p/>
+     * 構築したSQL文は、エンティティクラスと取得するプロパティ名、ソート順の組み合わせごとにキャッシュする。
+     *
+     * @param entityClass エンティティクラス
+     * @param propertyNames 取得するプロパティ名(全てのプロパティを取得する場合は{@code null})
+     * @param orderBy ソート順(例: {@code "name"}、{@code "insertDate DESC"})
+     * @param <T> 型パラメータ
+     * @return ORDER BY句を付加したSELECT文
+     * @throws IllegalArgumentException エンティティクラスに存在しないプロパティ名や、
+     * {@code ASC}、{@code DESC}以外のソート方向が指定された場合
+     */
+    public <T> String buildSelectAllSql(final Class<T> entityClass, final List<String> propertyNames,
+            final List<String> orderBy) {
+        final List<Object> key = Arrays.<Object>asList(entityClass,
+                propertyNames == null ? null : new ArrayList<String>(propertyNames), new ArrayList<String>(orderBy));
+        final String cached = orderedSqlCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final List<ColumnMeta> columns = EntityUtil.findAllColumns(entityClass);
+        final List<String> orderColumns = new ArrayList<String>(orderBy.size());
+        for (String order : orderBy) {
+            final String[] tokens = order.trim().split("\\s+");
+            final String columnName = findColumnByPropertyName(entityClass, columns, tokens[0]).getName();
+            if (tokens.length == 1) {
+                orderColumns.add(columnName);
+            } else if (tokens.length == 2
+                    && ("ASC".equalsIgnoreCase(tokens[1]) || "DESC".equalsIgnoreCase(tokens[1]))) {
+                orderColumns.add(columnName + ' ' + tokens[1].toUpperCase());
+            } else {
+                throw new IllegalArgumentException("invalid order by. entity = "
+                        + entityClass.getName() + ", order by = " + order);
+            }
+        }
+        final String sql = (propertyNames == null
+                ? buildSelectAllSql(entityClass)
+                : buildSelectAllSql(entityClass, propertyNames))
+                + " ORDER BY " + StringUtil.join(",", orderColumns);
+        orderedSqlCache.put(key, sql);
+        return sql;
+    }
+
+    /**
+     * 複数のID値を条件として全カラムの情報を取得するSQL文を構築する。
+     * <p/>
+     * ID列が単一の場合はIN句を、複数の場合はID列ごとの条件をORで結合した条件を構築する。
+     * 複数列のIN句(行値構成子)はデータベース製品によってはサポートされないため使用しない。
+     *
+     * @param entityClass エンティティクラス
+     * @param idCount 条件とするID値の数
+     * @param <T> 型パラメータ
+     * @return 複数のID値を条件としたSQL文
+     */
+    public <T> String buildSelectByIdsSql(final Class<T> entityClass, final int idCount) {
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        final StringBuilder sql = new StringBuilder(buildSelectAllSql(entityClass));
+        sql.append(" WHERE ");
+        if (idColumns.size() == 1) {
+            sql.append(idColumns.get(0).getName())
+                    .append(" IN (");
+            for (int i = 0; i < idCount; i++) {
+                if (i != 0) {
+                    sql.append(',');
+                }
+                sql.append('?');
+            }
+            sql.append(')');
+        } else {
+            final List<String> conditions = new ArrayList<String>(idColumns.size());
+            for (ColumnMeta idColumn : idColumns) {
+                conditions.add(idColumn.getName() + "=?");
+            }
+            final String condition = '(' + StringUtil.join(" AND ", conditions) + ')';
+            for (int i = 0; i < idCount; i++) {
+                if (i != 0) {
+                    sql.append(" OR ");
+                }
+                sql.append(condition);
+            }
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 指定したカラムの複数の値を条件(IN句)として全カラムの情報を取得するSQL文を構築する。
+     * <p/>
+     * 検索結果はID列の順に並ぶ。
+     *
+     * @param entityClass エンティティクラス
+     * @param columnName 条件とするカラム名
+     * @param valueCount 条件とする値の数
+     * @param <T> 型パラメータ
+     * @return 指定したカラムの複数の値を条件としたSQL文
+     */
+    public <T> String buildSelectByColumnValuesSql(final Class<T> entityClass, final String columnName,
+            final int valueCount) {
+        final StringBuilder sql = new StringBuilder(buildSelectAllSql(entityClass));
+        sql.append(" WHERE ")
+                .append(columnName)
+                .append(" IN (");
+        for (int i = 0; i < valueCount; i++) {
+            if (i != 0) {
+                sql.append(',');
+            }
+            sql.append('?');
+        }
+        sql.append(')');
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        if (!idColumns.isEmpty()) {
+            final List<String> idColumnNames = new ArrayList<String>(idColumns.size());
+            for (ColumnMeta idColumn : idColumns) {
+                idColumnNames.add(idColumn.getName());
+            }
+            sql.append(" ORDER BY ")
+                    .append(StringUtil.join(",", idColumnNames));
+        }
+        return sql.toString();
+    }
+
+    /**
+     * キー格納用テーブルと結合して全カラムの情報を取得するSQL文を構築する。
+     * <p/>
+     * バインド変数には、セッションIDを指定する。
+     *
+     * @param entityClass エンティティクラス
+     * @param keyTable キー格納用テーブル
+     * @param <T> 型パラメータ
+     * @return キー格納用テーブルと結合したSQL文
+     * @throws IllegalStateException キーカラムの数がID列の数より少ない場合
+     */
+    public <T> String buildSelectByTemporaryKeyTableSql(final Class<T> entityClass, final TemporaryKeyTable keyTable) {
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        final List<String> keyColumnNames = findKeyColumnNames(keyTable, idColumns.size());
+
+        final List<String> columnNames = new ArrayList<String>();
+        for (ColumnMeta column : EntityUtil.findAllColumns(entityClass)) {
+            columnNames.add("E." + column.getName());
+        }
+        final List<String> joinConditions = new ArrayList<String>(idColumns.size());
+        for (int i = 0; i < idColumns.size(); i++) {
+            joinConditions.add("E." + idColumns.get(i).getName() + "=K." + keyColumnNames.get(i));
+        }
+
+        final StringBuilder sql = new StringBuilder(512);
+        sql.append("SELECT ")
+                .append(StringUtil.join(",", columnNames))
+                .append(" FROM ")
+                .append(EntityUtil.getTableNameWithSchema(entityClass))
+                .append(" E INNER JOIN ")
+                .append(keyTable.getTableName())
+                .append(" K ON ")
+                .append(StringUtil.join(" AND ", joinConditions))
+                .append(" WHERE K.")
+                .append(keyTable.getSessionIdColumnName())
+                .append("=?");
+        return sql.toString();
+    }
+
+    /**
+     * キー格納用テーブルにキーを登録するSQL文を構築する。
+     * <p/>
+     * バインド変数には、セッションID、キーの値(定義順)を指定する。
+     *
+     * @param keyTable キー格納用テーブル
+     * @param keyCount キーのカラム数
+     * @return キーを登録するSQL文
+     * @throws IllegalStateException キーカラムの数がキーのカラム数より少ない場合
+     */
+    public String buildInsertTemporaryKeySql(final TemporaryKeyTable keyTable, final int keyCount) {
+        final List<String> columnNames = new ArrayList<String>(keyCount + 1);
+        columnNames.add(keyTable.getSessionIdColumnName());
+        columnNames.addAll(findKeyColumnNames(keyTable, keyCount));
+        final List<String> values = new ArrayList<String>(keyCount + 1);
+        for (int i = 0; i <= keyCount; i++) {
+            values.add("?");
+        }
+        return "INSERT INTO " + keyTable.getTableName()
+                + '(' + StringUtil.join(",", columnNames) + ")VALUES(" + StringUtil.join(",", values) + ')';
+    }
+
+    /**
+     * キー格納用テーブルからセッションIDを条件にキーを削除するSQL文を構築する。
+     *
+     * @param keyTable キー格納用テーブル
+     * @return キーを削除するSQL文
+     */
+    public String buildDeleteTemporaryKeySql(final TemporaryKeyTable keyTable) {
+        return "DELETE FROM " + keyTable.getTableName() + " WHERE " + keyTable.getSessionIdColumnName() + "=?";
+    }
+
+    /**
+     * 使用するキーカラム名を取得する。
+     *
+     * @param keyTable キー格納用テーブル
+     * @param keyCount キーのカラム数
+     * @return キーカラム名
+     * @throws IllegalStateException キーカラムの数がキーのカラム数より少ない場合
+     */
+    private static List<String> findKeyColumnNames(final TemporaryKeyTable keyTable, final int keyCount) {
+        final List<String> keyColumnNames = keyTable.getKeyColumnNames();
+        if (keyColumnNames.size() < keyCount) {
+            throw new IllegalStateException("temporary key table must have at least " + keyCount
+                    + " key columns. table = " + keyTable.getTableName());
+        }
+        return keyColumnNames.subList(0, keyCount);
+    }
+
+    /**
+     * ID列の範囲(下限値、上限値を含む)を条件として全カラムの情報を取得するSQL文を構築する。
+     * <p/>
+     * ID列が複数のエンティティはサポートしない。
+     *
+     * @param entityClass エンティティクラス
+     * @param <T> 型パラメータ
+     * @return ID列の範囲を条件としたSQL文
+     * @throws IllegalEntityException ID列が複数定義されている場合
+     */
+    public <T> String buildSelectByIdRangeSql(final Class<T> entityClass) {
+        final String idColumnName = findSingleIdColumn(entityClass).getName();
+        return buildSelectAllSql(entityClass)
+                + " WHERE " + idColumnName + ">=? AND " + idColumnName + "<=?";
+    }
+
+    /**
+     * ID列の最小値(MIN_ID)と最大値(MAX_ID)を取得するSQL文を構築する。
+     * <p/>
+     * ID列が複数のエンティティはサポートしない。
+     *
+     * @param entityClass エンティティクラス
+     * @param <T> 型パラメータ
+     * @return ID列の最小値と最大値を取得するSQL文
+     * @throws IllegalEntityException ID列が複数定義されている場合
+     */
+    public <T> String buildSelectIdBoundsSql(final Class<T> entityClass) {
+        final String idColumnName = findSingleIdColumn(entityClass).getName();
+        return "SELECT MIN(" + idColumnName + ") MIN_ID,MAX(" + idColumnName + ") MAX_ID FROM "
+                + toTableName(entityClass);
+    }
+
+    /**
+     * レコード件数(RECORD_COUNT)とウォーターマークとするカラムの最大値(WATERMARK)を取得するSQL文を構築する。
+     *
+     * @param entityClass エンティティクラス
+     * @param watermarkColumnName ウォーターマークとするカラム名
+     * @param <T> 型パラメータ
+     * @return レコード件数とウォーターマークを取得するSQL文
+     */
+    public <T> String buildSelectWatermarkSql(final Class<T> entityClass, final String watermarkColumnName) {
+        return "SELECT COUNT(*) RECORD_COUNT,MAX(" + watermarkColumnName + ") WATERMARK FROM "
+                + toTableName(entityClass);
+    }
+
+    /**
+     * ウォーターマークとするカラムとID列の組(キー)が指定した位置より大きい全カラムの情報を取得するSQL文を構築する。
+     * <p/>
+     * 検索結果はウォーターマークとするカラム、ID列の順に並ぶ。
+     * 位置は、キーの先頭から指定した個数のカラムの値で表す。条件は、i番目(0始まり)のキーについて
+     * 「先頭からi個のキーが位置と等しく、i番目のキーが位置より大きい」を論理和で結合したものとなる。
+     * バインド変数は、この順に各条件のキーの値を並べたものとなる。
+     * <p/>
+     * 位置のカラム数が0の場合は、ウォーターマークとするカラムがnullでないレコードを対象とする(バインド変数なし)。
+     *
+     * @param entityClass エンティティクラス
+     * @param watermarkColumnName ウォーターマークとするカラム名
+     * @param positionColumnCount 位置を表すカラム数(ウォーターマークのみの場合は1、ID列を含む場合はID列の数+1)
+     * @param <T> 型パラメータ
+     * @return 位置より後の変更を取得するSQL文
+     */
+    public <T> String buildSelectChangedSinceSql(final Class<T> entityClass, final String watermarkColumnName,
+            final int positionColumnCount) {
+        final List<String> keys = new ArrayList<String>();
+        keys.add(watermarkColumnName);
+        for (ColumnMeta idColumn : EntityUtil.findIdColumns(entityClass)) {
+            keys.add(idColumn.getName());
+        }
+        final StringBuilder sql = new StringBuilder(buildSelectAllSql(entityClass));
+        sql.append(" WHERE ");
+        if (positionColumnCount == 0) {
+            sql.append(watermarkColumnName)
+                    .append(" IS NOT NULL");
+        } else if (positionColumnCount == 1) {
+            sql.append(watermarkColumnName)
+                    .append(">?");
+        } else {
+            sql.append('(');
+            for (int i = 0; i < positionColumnCount; i++) {
+                if (i > 0) {
+                    sql.append(" OR (");
+                }
+                for (int j = 0; j < i; j++) {
+                    sql.append(keys.get(j))
+                            .append("=? AND ");
+                }
+                sql.append(keys.get(i))
+                        .append(">?");
+                if (i > 0) {
+                    sql.append(')');
+                }
+            }
+            sql.append(')');
+        }
+        sql.append(" ORDER BY ")
+                .append(StringUtil.join(",", keys));
+        return sql.toString();
+    }
+
+    /**
+     * 全レコードのID列のみを取得するSQL文を構築する。
+     *
+     * @param entityClass エンティティクラス
+     * @param <T> 型パラメータ
+     * @return ID列のみを取得するSELECT文
+     */
+    public <T> String buildSelectAllIdsSql(final Class<T> entityClass) {
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        final List<String> columnNames = new ArrayList<String>(idColumns.size());
+        for (ColumnMeta idColumn : idColumns) {
+            columnNames.add(idColumn.getName());
+        }
+        return "SELECT " + StringUtil.join(",", columnNames) + " FROM " + toTableName(entityClass);
+    }
+
     /**
      * ID列を条件とした更新用のSQL文を構築する。
      *
@@ -316,6 +721,22 @@ public class StandardSqlBuilder {
         return "WHERE " + StringUtil.join(" AND ", conditions);
     }
 
+    /**
+     * 単一のID列を取得する。
+     *
+     * @param entityClass エンティティクラス
+     * @param <T> 型パラメータ
+     * @return ID列
+     * @throws IllegalEntityException ID列が単一でない場合
+     */
+    protected <T> ColumnMeta findSingleIdColumn(final Class<T> entityClass) {
+        final List<ColumnMeta> idColumns = EntityUtil.findIdColumns(entityClass);
+        if (idColumns.size() != 1) {
+            throw new IllegalEntityException(entityClass + " must have a single id column.");
+        }
+        return idColumns.get(0);
+    }
+
     /**
      * エンティティクラス名からテーブル名(スキーマ名つき)へ変換する。
      *
@@ -0,0 +1,167 @@
+package nablarch.common.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 大量のプライマリーキーによる検索で使用する、キー格納用テーブルの定義。
+ * <p/>
+ * {@link DaoContext#findAllByIds(Class, java.util.Collection)}などで指定されたプライマリーキーの件数が
+ * 閾値を超えた場合、プライマリーキーをこのテーブルに一括登録し、エンティティのテーブルと結合して検索する。
+ * これにより、IN句に指定できる件数の上限を超えるプライマリーキーでも検索できる。
+ * <p/>
+ * テーブルは事前に作成しておく必要がある。
+ * 一時表をサポートするデータベースでは一時表(例えばOracleのGLOBAL TEMPORARY TABLE)として作成することを推奨する。
+ * 登録したキーは、検索処理の終了時に同一トランザクション内で削除される。
+ * 通常のテーブルとして作成した場合でも他の検索処理と競合しないよう、検索処理ごとに一意な識別子をセッションIDカラムに登録する。
+ * <pre>
+ * {@code
+ * CREATE GLOBAL TEMPORARY TABLE DAO_TEMPORARY_KEYS (
+ *   SESSION_ID VARCHAR2(36) NOT NULL,
+ *   KEY1 NUMBER(18),
+ *   KEY2 VARCHAR2(100)
+ * ) ON COMMIT DELETE ROWS;
+ *
+ * <component name="daoContextFactory" class="nablarch.common.dao.BasicDaoContextFactory">
+ *   <property name="temporaryKeyTable">
+ *     <component class="nablarch.common.dao.TemporaryKeyTable">
+ *       <property name="tableName" value="DAO_TEMPORARY_KEYS" />
+ *       <property name="keyColumnNames">
+ *         <list>
+ *           <value>KEY1</value>
+ *           <value>KEY2</value>
+ *         </list>
+ *       </property>
+ *     </component>
+ *   </property>
+ * </component>
+ * }</pre>
+ * キーカラムは、プライマリーキーの定義順にエンティティのID列と結合される。
+ * 結合時にインデックスが使用されるよう、キーカラムの型はエンティティのID列の型に合わせておくこと。
+ */
+@Published(tag = "architect")
+public class TemporaryKeyTable {
+
+    /** デフォルトの閾値 */
+    private static final int DEFAULT_THRESHOLD = 1000;
+
+    /** デフォルトの一括登録の件数 */
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** テーブル名 */
+    private String tableName;
+
+    /** セッションIDカラム名 */
+    private String sessionIdColumnName = "SESSION_ID";
+
+    /** キーカラム名 */
+    private List<String> keyColumnNames = new ArrayList<String>();
+
+    /** キー格納用テーブルを使用するプライマリーキーの件数の閾値 */
+    private int threshold = DEFAULT_THRESHOLD;
+
+    /** 一括登録の件数 */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * テーブル名を取得する。
+     *
+     * @return テーブル名
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * テーブル名を設定する。
+     *
+     * @param tableName テーブル名(スキーマ名で修飾することができる)
+     */
+    public void setTableName(final String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * セッションIDカラム名を取得する。
+     *
+     * @return セッションIDカラム名
+     */
+    public String getSessionIdColumnName() {
+        return sessionIdColumnName;
+    }
+
+    /**
+     * セッションIDカラム名を設定する。
+     * <p/>
+     * 設定しない場合は、{@code SESSION_ID}が使用される。
+     * セッションIDには36桁の文字列が登録される。
+     *
+     * @param sessionIdColumnName セッションIDカラム名
+     */
+    public void setSessionIdColumnName(final String sessionIdColumnName) {
+        this.sessionIdColumnName = sessionIdColumnName;
+    }
+
+    /**
+     * キーカラム名を取得する。
+     *
+     * @return キーカラム名
+     */
+    public List<String> getKeyColumnNames() {
+        return keyColumnNames;
+    }
+
+    /**
+     * キーカラム名を設定する。
+     * <p/>
+     * 複合プライマリーキーのエンティティを検索する場合は、プライマリーキーのカラム数以上を定義すること。
+     *
+     * @param keyColumnNames キーカラム名
+     */
+    public void setKeyColumnNames(final List<String> keyColumnNames) {
+        this.keyColumnNames = keyColumnNames;
+    }
+
+    /**
+     * キー格納用テーブルを使用するプライマリーキーの件数の閾値を取得する。
+     *
+     * @return 閾値
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * キー格納用テーブルを使用するプライマリーキーの件数の閾値を設定する。
+     * <p/>
+     * プライマリーキーの件数がこの値を超えた場合に、キー格納用テーブルを使用する。
+     * 設定しない場合は、1000が使用される。
+     *
+     * @param threshold 閾値
+     */
+    public void setThreshold(final int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * 一括登録の件数を取得する。
+     *
+     * @return 一括登録の件数
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 一括登録(batch insert)で一度に送信するキーの件数を設定する。
+     * <p/>
+     * 設定しない場合は、1000が使用される。
+     *
+     * @param batchSize 一括登録の件数
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
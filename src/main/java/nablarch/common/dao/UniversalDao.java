@@ -1,6 +1,12 @@
 package nablarch.common.dao;
 
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import nablarch.core.db.connection.AppDbConnection;
 import nablarch.core.db.transaction.SimpleDbTransactionExecutor;
@@ -106,8 +112,95 @@ public final class UniversalDao {
         }
     }
 
+    /**
+     * 主キーを複数指定して、エンティティを一括で取得する。
+     * <p/>
+     * 主キーは一定数ごとにまとめて1回のSQLで検索するため、{@link #findByIdOrNull(Class, Object...)}を
+     * 繰り返し呼び出すよりもデータベースとの往復回数が少なくなる。
+     * 検索結果は指定した主キーの順に並び、該当するレコードが存在しない主キーは含まれない。
+     * <pre>
+     * {@code
+     * EntityList<Project> projects = UniversalDao.findAllByIds(Project.class, Arrays.asList(1L, 5L, 3L));
+     * }</pre>
+     *
+     * @param <T> エンティティクラス(戻り値の型)
+     * @param entityClass エンティティクラスオブジェクト(主キーのカラムが1つのもの)
+     * @param ids 主キー
+     * @return 取得したエンティティのリスト
+     * @throws IllegalArgumentException 主キーのカラムが複数の場合
+     * @throws IllegalStateException 対象テーブルから主キーの定義を取得できなかった場合
+     */
+    public static <T> EntityList<T> findAllByIds(final Class<T> entityClass, final Collection<?> ids) {
+        if (EntityUtil.findEntityMeta(entityClass).canFindById()) {
+            return daoContext().findAllByIds(entityClass, ids);
+        } else {
+            throw new IllegalStateException("For findAllByIds, enable to get the orders of primary keys.");
+        }
+    }
+
+    /**
+     * 複合主キーを複数指定して、エンティティを一括で取得する。
+     * <p/>
+     * 検索結果の順序などは{@link #findAllByIds(Class, Collection)}と同じである。
+     * <pre>
+     * {@code
+     * List<Object[]> ids = Arrays.asList(new Object[] {1L, "01"}, new Object[] {2L, "02"});
+     * EntityList<ProjectMember> members = UniversalDao.findAllByCompositeIds(ProjectMember.class, ids);
+     * }</pre>
+     *
+     * @param <T> エンティティクラス(戻り値の型)
+     * @param entityClass エンティティクラスオブジェクト
+     * @param ids 複合主キー(各要素は対象テーブルでのキーの定義順に値を格納した配列)
+     * @return 取得したエンティティのリスト
+     * @throws IllegalArgumentException 主キーのカラム数と指定した値の数が一致しない場合
+     * @throws IllegalStateException 対象テーブルから主キーの定義順を取得できなかった場合
+     */
+    public static <T> EntityList<T> findAllByCompositeIds(final Class<T> entityClass, final Collection<Object[]> ids) {
+        if (EntityUtil.findEntityMeta(entityClass).canFindById()) {
+            return daoContext().findAllByCompositeIds(entityClass, ids);
+        } else {
+            throw new IllegalStateException("For findAllByCompositeIds, enable to get the orders of primary keys.");
+        }
+    }
+
+    /**
+     * エンティティの関連プロパティに、関連先のエンティティを一括で設定する。
+     * <p/>
+     * 関連プロパティは、{@link jakarta.persistence.ManyToOne}または{@link jakarta.persistence.OneToMany}で定義する。
+     * 外部キーのカラムは、{@link jakarta.persistence.Column}としてもエンティティに定義する必要がある。
+     * 関連先は外部キーをまとめて検索するため、エンティティごとに関連先を検索するよりもSQLの実行回数が少なくなる。
+     * <pre>
+     * {@code
+     * // Project#getClient()に@ManyToOne、@JoinColumn(name = "CLIENT_ID")を指定
+     * EntityList<Project> projects = UniversalDao.findAll(Project.class);
+     * UniversalDao.loadAssociation(projects, "client");
+     *
+     * // Client#getProjects()に@OneToMany(mappedBy = "client")を指定
+     * EntityList<Client> clients = UniversalDao.findAll(Client.class);
+     * UniversalDao.loadAssociation(clients, "projects");
+     * }</pre>
+     *
+     * @param <T> エンティティクラス
+     * @param entities エンティティ(全て同一のエンティティクラスであること)
+     * @param propertyName 関連プロパティ名
+     * @throws IllegalArgumentException 関連プロパティでない場合、外部キーのカラムが解決できない場合
+     */
+    public static <T> void loadAssociation(final List<T> entities, final String propertyName) {
+        daoContext().loadAssociation(entities, propertyName);
+    }
+
     /**
      * すべてのエンティティを取得する。
+     * <p/>
+     * {@link #orderBy(String...)}でソート順を、{@link #page(long)}と{@link #per(long)}で取得するページを指定できる。
+     * <pre>
+     * {@code
+     * EntityList<Project> projects = UniversalDao
+     *         .orderBy("projectName", "projectId DESC")
+     *         .page(1)
+     *         .per(20)
+     *         .findAll(Project.class);
+     * }</pre>
      *
      * @param <T> エンティティクラス(戻り値の型)
      * @param entityClass エンティティクラスオブジェクト
@@ -157,6 +250,274 @@ public final class UniversalDao {
         return daoContext().findAllBySqlFile(entityClass, sqlId, EMPTY_PARAM);
     }
 
+    /**
+     * すべてのエンティティを、遅延取得する{@link Stream}として取得する。
+     * <p/>
+     * {@link #defer()}と同様にサーバサイドカーソルを利用するため、大量データでもヒープを圧迫しない。
+     * ストリームのクローズ時にカーソルが解放されるため、必ずtry-with-resources文で使用すること。
+     * <pre>
+     * {@code
+     * try (Stream<Project> projects = UniversalDao.streamAll(Project.class)) {
+     *     projects.filter(project -> project.getClientId() != null)
+     *             .forEach(project -> {
+     *                 // projectを利用した処理
+     *             });
+     * }
+     * }</pre>
+     *
+     * @param <T> エンティティクラス(戻り値の型)
+     * @param entityClass エンティティクラスオブジェクト
+     * @return エンティティのストリーム
+     */
+    public static <T> Stream<T> streamAll(final Class<T> entityClass) {
+        return daoContext().streamAll(entityClass);
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開した上で検索し、結果Beanを遅延取得する{@link Stream}として取得する。
+     * <p/>
+     * 検索の詳細は{@link #findAllBySqlFile(Class, String, Object)}を、
+     * ストリームの扱いについては{@link #streamAll(Class)}を参照すること。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラス
+     * @param entityClass 検索結果をマッピングするBeanクラスオブジェクト
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @return Beanのストリーム
+     */
+    public static <T> Stream<T> streamBySqlFile(
+            final Class<T> entityClass, final String sqlId, final Object params) {
+        return daoContext().streamBySqlFile(entityClass, sqlId, params);
+    }
+
+    /**
+     * SQL_IDをもとに検索し、結果Beanを遅延取得する{@link Stream}として取得する。
+     * <p/>
+     * 検索の詳細は{@link #streamBySqlFile(Class, String, Object)}を参照すること。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラス
+     * @param entityClass 検索結果をマッピングするBeanクラスオブジェクト
+     * @param sqlId SQL_ID
+     * @return Beanのストリーム
+     */
+    public static <T> Stream<T> streamBySqlFile(final Class<T> entityClass, final String sqlId) {
+        return daoContext().streamBySqlFile(entityClass, sqlId, EMPTY_PARAM);
+    }
+
+    /**
+     * すべてのエンティティを検索し、チャンク単位に処理する。
+     * <p/>
+     * 検索結果はサーバサイドカーソルで取得し、チャンクサイズ分の検索結果が揃うごとにハンドラを呼び出す。
+     * ハンドラに渡されるリストは次のチャンクで再利用されるため、処理後まで保持しないこと。
+     * <pre>
+     * {@code
+     * UniversalDao.findAllInChunks(Project.class, 1000, chunk -> {
+     *     // 1000件ごとの処理
+     * });
+     * }</pre>
+     *
+     * @param <T> エンティティクラス
+     * @param entityClass エンティティクラスオブジェクト
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @return 処理した件数
+     */
+    public static <T> long findAllInChunks(
+            final Class<T> entityClass, final int chunkSize, final ChunkHandler<T> handler) {
+        return daoContext().findAllInChunks(entityClass, chunkSize, handler);
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開した上で検索し、結果Beanをチャンク単位に処理する。
+     * <p/>
+     * 検索の詳細は{@link #findAllBySqlFile(Class, String, Object)}を、
+     * チャンクの扱いについては{@link #findAllInChunks(Class, int, ChunkHandler)}を参照すること。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラス
+     * @param entityClass 検索結果をマッピングするBeanクラスオブジェクト
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @return 処理した件数
+     */
+    public static <T> long findAllBySqlFileInChunks(final Class<T> entityClass, final String sqlId,
+            final Object params, final int chunkSize, final ChunkHandler<T> handler) {
+        return daoContext().findAllBySqlFileInChunks(entityClass, sqlId, params, chunkSize, handler);
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開した上で検索し、結果Beanをチャンク単位に処理する。
+     * <p/>
+     * 各チャンクの処理後に{@code afterChunk}を呼び出す以外は、
+     * {@link #findAllBySqlFileInChunks(Class, String, Object, int, ChunkHandler)}と同じである。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラス
+     * @param entityClass 検索結果をマッピングするBeanクラスオブジェクト
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @param afterChunk 各チャンクの処理後に呼び出す処理
+     * @return 処理した件数
+     */
+    public static <T> long findAllBySqlFileInChunks(final Class<T> entityClass, final String sqlId,
+            final Object params, final int chunkSize, final ChunkHandler<T> handler, final Runnable afterChunk) {
+        return daoContext().findAllBySqlFileInChunks(entityClass, sqlId, params, chunkSize, handler, afterChunk);
+    }
+
+    /**
+     * すべてのエンティティを検索し、エンティティへの変換と処理を並列に行う。
+     * <p/>
+     * 検索の詳細は{@link #findAllBySqlFileInParallel(Class, String, Object, Function, Consumer)}を参照すること。
+     *
+     * @param <T> エンティティクラス
+     * @param <R> 処理結果の型
+     * @param entityClass エンティティクラスオブジェクト
+     * @param processor エンティティを処理する関数
+     * @param sink 処理結果の受け取り関数
+     * @return 処理した件数
+     */
+    public static <T, R> long findAllInParallel(final Class<T> entityClass,
+            final Function<? super T, ? extends R> processor, final Consumer<? super R> sink) {
+        return daoContext().findAllInParallel(entityClass, processor, sink);
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開した上で検索し、結果Beanへの変換と処理を並列に行う。
+     * <p/>
+     * 呼び出し元のスレッドは検索結果の取得のみを行い、Beanへの変換と{@code processor}の呼び出しを
+     * スレッドプールで並列に実行する。処理結果は呼び出し元のスレッドで{@code sink}に渡される。
+     * <pre>
+     * {@code
+     * UniversalDao.parallel(64)
+     *         .unordered()
+     *         .findAllBySqlFileInParallel(Project.class, "FIND_PROJECTS", condition,
+     *                 project -> convert(project),    // 並列に実行する重い変換処理
+     *                 writer::write);                 // 呼び出し元のスレッドで実行する処理
+     * }</pre>
+     * {@code processor}はスレッドセーフであること。また、{@code processor}からはデータベースにアクセスしないこと。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラス
+     * @param <R> 処理結果の型
+     * @param entityClass 検索結果をマッピングするBeanクラスオブジェクト
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @param processor Beanを処理する関数
+     * @param sink 処理結果の受け取り関数
+     * @return 処理した件数
+     */
+    public static <T, R> long findAllBySqlFileInParallel(final Class<T> entityClass, final String sqlId,
+            final Object params, final Function<? super T, ? extends R> processor, final Consumer<? super R> sink) {
+        return daoContext().findAllBySqlFileInParallel(entityClass, sqlId, params, processor, sink);
+    }
+
+    /**
+     * 指定したプロパティをウォーターマークとして、前回の取得以降に変更されたエンティティをチャンク単位に処理する。
+     * <p/>
+     * 変更されたエンティティはウォーターマークとID列の順にチャンクサイズずつ取得するため、
+     * 変更件数が多い場合でもメモリ使用量はチャンクサイズ分となる。
+     * ハンドラにはチャンクと共にチャンクの最後の位置が渡されるため、
+     * チャンクの処理後に保存しておくことで、中断した場合も保存した位置から再開できる。
+     * <pre>
+     * {@code
+     * ChangePosition position = UniversalDao.findChangedSince(Project.class, "updatedAt", lastPosition, 1000,
+     *         (chunk, chunkPosition) -> {
+     *             // 検索インデックスへの反映と位置の保存
+     *         });
+     * }</pre>
+     *
+     * @param <T> エンティティクラス
+     * @param entityClass エンティティクラスオブジェクト
+     * @param watermarkProperty ウォーターマークとするプロパティ名
+     * @param position 前回処理した位置(初回の場合は{@code null})
+     * @param chunkSize チャンクサイズ
+     * @param handler チャンクを処理するハンドラ
+     * @return 次回の取得で使用する位置(変更がない場合は指定した位置)
+     */
+    public static <T> ChangePosition findChangedSince(final Class<T> entityClass, final String watermarkProperty,
+            final ChangePosition position, final int chunkSize, final ChangeHandler<T> handler) {
+        return daoContext().findChangedSince(entityClass, watermarkProperty, position, chunkSize, handler);
+    }
+
+    /**
+     * すべてのエンティティを検索し、CSVやNDJSONの形式で出力する。
+     * <p/>
+     * 検索結果はサーバサイドカーソルで取得し、エンティティを生成せずに1レコードずつ出力するため、
+     * 件数が多い場合でもメモリ使用量は一定となる。
+     * 出力するカラムとその順序は、エンティティクラスのカラム定義に従う。
+     * <pre>
+     * {@code
+     * UniversalDao.exportAll(Project.class, ExportFormat.CSV, response.getWriter());
+     * }</pre>
+     *
+     * @param <T> エンティティクラス
+     * @param entityClass エンティティクラスオブジェクト
+     * @param format 出力形式
+     * @param writer 出力先(クローズはされない)
+     * @return 出力した件数
+     */
+    public static <T> long exportAll(final Class<T> entityClass, final ExportFormat format, final Writer writer) {
+        return daoContext().exportAll(entityClass, format, writer);
+    }
+
+    /**
+     * すべてのエンティティを検索し、CSVやNDJSONの形式でUTF-8で出力する。
+     * <p/>
+     * 出力先以外は{@link #exportAll(Class, ExportFormat, Writer)}と同じである。
+     *
+     * @param <T> エンティティクラス
+     * @param entityClass エンティティクラスオブジェクト
+     * @param format 出力形式
+     * @param out 出力先(クローズはされない)
+     * @return 出力した件数
+     */
+    public static <T> long exportAll(final Class<T> entityClass, final ExportFormat format, final OutputStream out) {
+        return daoContext().exportAll(entityClass, format, out);
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開した上で検索し、CSVやNDJSONの形式で出力する。
+     * <p/>
+     * 検索の詳細は{@link #findAllBySqlFile(Class, String, Object)}を、
+     * 出力の詳細は{@link #exportAll(Class, ExportFormat, Writer)}を参照すること。
+     * 出力するカラムは、エンティティクラスのカラムのうち検索結果に含まれるものとなる。
+     * <pre>
+     * {@code
+     * UniversalDao.exportBySqlFile(Project.class, "FIND_PROJECT", condition, ExportFormat.NDJSON, out);
+     * }</pre>
+     *
+     * @param <T> 検索結果をマッピングするBeanクラス
+     * @param entityClass 検索結果をマッピングするBeanクラスオブジェクト
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @param format 出力形式
+     * @param writer 出力先(クローズはされない)
+     * @return 出力した件数
+     */
+    public static <T> long exportBySqlFile(final Class<T> entityClass, final String sqlId, final Object params,
+            final ExportFormat format, final Writer writer) {
+        return daoContext().exportBySqlFile(entityClass, sqlId, params, format, writer);
+    }
+
+    /**
+     * SQL_IDをもとにバインド変数を展開した上で検索し、CSVやNDJSONの形式でUTF-8で出力する。
+     * <p/>
+     * 出力先以外は{@link #exportBySqlFile(Class, String, Object, ExportFormat, Writer)}と同じである。
+     *
+     * @param <T> 検索結果をマッピングするBeanクラス
+     * @param entityClass 検索結果をマッピングするBeanクラスオブジェクト
+     * @param sqlId SQL_ID
+     * @param params バインド変数
+     * @param format 出力形式
+     * @param out 出力先(クローズはされない)
+     * @return 出力した件数
+     */
+    public static <T> long exportBySqlFile(final Class<T> entityClass, final String sqlId, final Object params,
+            final ExportFormat format, final OutputStream out) {
+        return daoContext().exportBySqlFile(entityClass, sqlId, params, format, out);
+    }
+
     /**
      * SQL_IDをもとにバインド変数を展開して検索し、結果を格納したBeanを一件取得する。
      * <pre>
@@ -247,7 +608,8 @@ public final class UniversalDao {
     /**
      * SQL_IDをもとにバインド変数を展開して検索し、データが存在するか否かを確認する。
      * <p/>
-     * 検索用のSQLを変換して使用する。
+     * 検索用のSQLを、先頭の1件のみを取得するSQLに変換して使用する。
+     * 件数は取得しないため、条件に該当するレコードが大量に存在する場合でも、最初の1件が見つかった時点で検索を終了する。
      * <p/>
      *
      * @param entityClass エンティティクラス
@@ -257,7 +619,7 @@ public final class UniversalDao {
      * @return 存在すればtrue
      */
     public static <T> boolean exists(final Class<T> entityClass, final String sqlId, final Object params) {
-        return countBySqlFile(entityClass, sqlId, params) > 0;
+        return daoContext().exists(entityClass, sqlId, params);
     }
 
     /**
@@ -448,6 +810,147 @@ public final class UniversalDao {
         return daoContext().defer();
     }
 
+    /**
+     * 遅延取得した検索結果を、別スレッドで先読みする。
+     * <p/>
+     * 検索結果の取得とエンティティへの変換を別スレッドで行い、呼び出し元の処理と並行させる。
+     * 先読みしたエンティティは指定したサイズのバッファに格納し、バッファが一杯の場合は呼び出し元が取り出すまで待機する。
+     * 先読みスレッドで発生した例外は、呼び出し元での取り出し時に送出される。
+     * クローズ時には先読みスレッドを停止した上で、サーバサイドカーソルを解放する。
+     * <pre>
+     * {@code
+     * try (Stream<Project> projects = UniversalDao.prefetch(1000).streamAll(Project.class)) {
+     *     projects.forEach(project -> {
+     *         // 外部システムへの連携など、I/O待ちの多い処理
+     *     });
+     * }
+     * }</pre>
+     * 先読み中は、検索に使用したデータベース接続(同一トランザクション)で他のSQLを実行しないこと。
+     *
+     * @param bufferSize 先読みのバッファサイズ
+     * @return DaoContext
+     */
+    public static DaoContext prefetch(final int bufferSize) {
+        return daoContext().prefetch(bufferSize);
+    }
+
+    /**
+     * 並列処理で、処理中のレコードの件数の上限を指定する。
+     * <p/>
+     * 上限に達した場合、次のレコードの取得は処理結果を受け取るまで待機する。
+     * <pre>
+     * {@code
+     * UniversalDao.parallel(64).findAllInParallel(Project.class, project -> convert(project), writer::write);
+     * }</pre>
+     *
+     * @param maxInFlight 処理中のレコードの件数の上限
+     * @return DaoContext
+     */
+    public static DaoContext parallel(final int maxInFlight) {
+        return daoContext().parallel(maxInFlight);
+    }
+
+    /**
+     * 並列処理で、処理結果を完了した順に受け取る。
+     * <pre>
+     * {@code
+     * UniversalDao.unordered().findAllInParallel(Project.class, project -> convert(project), writer::write);
+     * }</pre>
+     *
+     * @return DaoContext
+     */
+    public static DaoContext unordered() {
+        return daoContext().unordered();
+    }
+
+    /**
+     * SQL実行時に適用する実行プロファイルを指定する。
+     * <p/>
+     * フェッチサイズやクエリタイムアウトなどを、呼び出し単位で変更したい場合に使用する。
+     * <pre>
+     * {@code
+     * ExecutionProfile profile = new ExecutionProfile();
+     * profile.setFetchSize(1000);
+     *
+     * try (DeferredEntityList<Project> searchList = (DeferredEntityList<Project>) UniversalDao
+     *         .executionProfile(profile)
+     *         .defer()
+     *         .findAllBySqlFile(Project.class, "SEARCH_PROJECT", searchCondition)) {
+     *     for (Project project : searchList) {
+     *         // projectを利用した処理
+     *     }
+     * }
+     * }</pre>
+     *
+     * @param executionProfile 実行プロファイル
+     * @return DaoContext
+     */
+    public static DaoContext executionProfile(final ExecutionProfile executionProfile) {
+        return daoContext().executionProfile(executionProfile);
+    }
+
+    /**
+     * 取得するプロパティを指定する。
+     * <p/>
+     * 一覧画面などでエンティティの一部のプロパティのみが必要な場合に、
+     * 取得するカラムを絞り込んでデータ転送量とマッピングのコストを削減するために使用する。
+     * 指定していないプロパティは、初期値のままとなる。
+     * <pre>
+     * {@code
+     * EntityList<Project> projects = UniversalDao
+     *         .select("projectId", "projectName")
+     *         .findAll(Project.class);
+     * }</pre>
+     *
+     * @param propertyNames 取得するプロパティ名
+     * @return DaoContext
+     */
+    public static DaoContext select(final String... propertyNames) {
+        return daoContext().select(propertyNames);
+    }
+
+    /**
+     * 全件の検索のソート順を指定する。
+     * <p/>
+     * プロパティ名の後に半角スペースに続けて{@code ASC}または{@code DESC}を指定できる(省略時は昇順)。
+     * 構築したSQL文は、エンティティクラスとソート順の組み合わせごとにキャッシュされる。
+     * <pre>
+     * {@code
+     * EntityList<Project> projects = UniversalDao
+     *         .orderBy("projectName", "projectId DESC")
+     *         .findAll(Project.class);
+     * }</pre>
+     *
+     * @param orderBy ソート順
+     * @return DaoContext
+     */
+    public static DaoContext orderBy(final String... orderBy) {
+        return daoContext().orderBy(orderBy);
+    }
+
+    /**
+     * 親子を結合した検索結果を、関連プロパティに子エンティティを設定した親エンティティにマッピングする。
+     * <p/>
+     * 親子を結合した1回の検索で親エンティティと子エンティティを取得し、親ごとに子を検索するSQLの実行を削減するために使用する。
+     * 子エンティティのカラムは接頭辞を付けた別名で取得し、検索結果は親エンティティのID列でソートすること。
+     * 親エンティティのID列が同じ連続したレコードが1つの親エンティティにまとめられる。
+     * <pre>
+     * {@code
+     * // SELECT P.PROJECT_ID, P.PROJECT_NAME, M.MEMBER_ID M_MEMBER_ID, M.PROJECT_ID M_PROJECT_ID
+     * //   FROM PROJECT P LEFT JOIN MEMBER M ON M.PROJECT_ID = P.PROJECT_ID ORDER BY P.PROJECT_ID
+     * EntityList<Project> projects = UniversalDao
+     *         .nest("members", "M_")
+     *         .findAllBySqlFile(Project.class, "FIND_PROJECT_WITH_MEMBERS");
+     * }</pre>
+     *
+     * @param propertyName 関連プロパティ名({@link jakarta.persistence.OneToMany}または{@link jakarta.persistence.ManyToOne})
+     * @param columnPrefix 子エンティティのカラムに付けた接頭辞
+     * @return DaoContext
+     */
+    public static DaoContext nest(final String propertyName, final String columnPrefix) {
+        return daoContext().nest(propertyName, columnPrefix);
+    }
+
     /**
      * トランザクション境界を作るためのクラス。
      * <p/>
@@ -503,12 +1006,22 @@ public final class UniversalDao {
             }
             final AppDbConnection origConn = daoContextFactory.getDbConnection();
             daoContextFactory.setDbConnection(connection);
+            final boolean identityMapEnabled = daoContextFactory.isIdentityMapEnabled();
+            final IdentityMap origIdentityMap = identityMapEnabled ? daoContextFactory.getIdentityMap() : null;
+            final IdentityMap identityMap = identityMapEnabled ? new IdentityMap() : null;
+            if (identityMapEnabled) {
+                daoContextFactory.setIdentityMap(identityMap);
+            }
 
             try {
                 execute();
                 return null;
             } finally {
                 daoContextFactory.setDbConnection(origConn);
+                if (identityMapEnabled) {
+                    identityMap.clear();
+                    daoContextFactory.setIdentityMap(origIdentityMap);
+                }
             }
         }
 
@@ -519,6 +1032,10 @@ public final class UniversalDao {
          * このexecuteを実装し、中でUniversalDaoのメソッドを使えば 別トランザクションになる。
          * <p/>
          * また、自動的にコミット/ロールバックが行われる。
+         * <p/>
+         * {@link DaoContextFactory#setIdentityMapEnabled(boolean)}が有効な場合は、
+         * このトランザクション内でプライマリーキーにより取得したエンティティが保持され、
+         * 同じプライマリーキーでの検索時には同一のインスタンスが返される。
          *
          */
         protected abstract void execute();
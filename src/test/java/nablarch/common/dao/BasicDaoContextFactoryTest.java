@@ -10,10 +10,12 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
@@ -169,5 +171,60 @@ public class BasicDaoContextFactoryTest {
         final TransactionManagerConnection connection = ReflectionUtil.getFieldValue(context, "dbConnection");
         assertThat("ファクトリ側のDB接続が設定されていること", connection, is(mockConnection));
     }
-}
 
+    /**
+     * 件数キャッシュを設定しているケース。
+     * <p/>
+     * 生成した{@link BasicDaoContext}に件数キャッシュが設定されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void create_ResultCountCache() throws Exception {
+        final BasicResultCountCache cache = new BasicResultCountCache();
+        sut.setResultCountCache(cache);
+
+        final BasicDaoContext context = (BasicDaoContext) sut.create();
+
+        final ResultCountCache result = ReflectionUtil.getFieldValue(context, "resultCountCache");
+        assertThat(result, is(sameInstance((ResultCountCache) cache)));
+    }
+
+    /**
+     * 実行プロファイルを設定しているケース。
+     * <p/>
+     * 生成した{@link BasicDaoContext}に実行プロファイルが設定されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void create_ExecutionProfiles() throws Exception {
+        final ExecutionProfile profile = new ExecutionProfile();
+        sut.setExecutionProfiles(Collections.singletonMap("sql#ID", profile));
+
+        final BasicDaoContext context = (BasicDaoContext) sut.create();
+
+        assertThat(context.findExecutionProfile("sql#ID", null), is(sameInstance(profile)));
+        assertThat(context.findExecutionProfile("sql#OTHER", Object.class), is(nullValue()));
+    }
+
+    /**
+     * 参照用データのテーブルを設定しているケース。
+     * <p/>
+     * 生成した{@link BasicDaoContext}にエンティティクラスごとのテーブルが設定されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void create_ReferenceDataTables() throws Exception {
+        final ReferenceDataTable<DaoTestHelper.Users> table = new ReferenceDataTable<DaoTestHelper.Users>();
+        table.setEntityClass(DaoTestHelper.Users.class);
+        sut.setReferenceDataTables(Collections.<ReferenceDataTable<?>>singletonList(table));
+
+        final BasicDaoContext context = (BasicDaoContext) sut.create();
+
+        final Map<Class<?>, ReferenceDataTable<?>> result = ReflectionUtil.getFieldValue(context, "referenceDataTables");
+        assertThat(result.get(DaoTestHelper.Users.class), is(sameInstance((Object) table)));
+        assertThat(result.get(DaoTestHelper.Address.class), is(nullValue()));
+    }
+}
@@ -1,13 +1,17 @@
 package nablarch.common.dao;
 
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.NonUniqueResultException;
 import jakarta.persistence.OptimisticLockException;
 import nablarch.common.dao.DaoTestHelper.Address;
+import nablarch.common.dao.DaoTestHelper.AddressWithUser;
 import nablarch.common.dao.DaoTestHelper.AutoGenUsers;
 import nablarch.common.dao.DaoTestHelper.IdentityGenUsers;
+import nablarch.common.dao.DaoTestHelper.TemporaryKeys;
 import nablarch.common.dao.DaoTestHelper.Users;
 import nablarch.common.dao.DaoTestHelper.Users2;
 import nablarch.common.dao.DaoTestHelper.Users3;
+import nablarch.common.dao.DaoTestHelper.UsersWithAddresses;
 import nablarch.common.idgenerator.IdGenerator;
 import nablarch.core.db.DbAccessException;
 import nablarch.core.db.connection.ConnectionFactory;
@@ -16,6 +20,7 @@ import nablarch.core.db.connection.TransactionManagerConnection;
 import nablarch.core.db.dialect.DefaultDialect;
 import nablarch.core.db.statement.ParameterizedSqlPStatement;
 import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SelectOption;
 import nablarch.core.db.statement.SqlPStatement;
 import nablarch.core.db.statement.SqlRow;
 import nablarch.core.transaction.TransactionContext;
@@ -33,17 +38,37 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
-
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.instanceOf;
@@ -51,6 +76,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.junit.Assert.assertThat;
@@ -59,10 +85,15 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -93,6 +124,7 @@ public class BasicDaoContextTest {
         VariousDbTestHelper.createTable(Users2.class);
         VariousDbTestHelper.createTable(Users3.class);
         VariousDbTestHelper.createTable(Address.class);
+        VariousDbTestHelper.createTable(TemporaryKeys.class);
     }
 
     @Before
@@ -195,6 +227,424 @@ public class BasicDaoContextTest {
         assertThat(address.getAddress(), is("東京都新宿区・・・"));
     }
 
+    /**
+     * {@link BasicDaoContext#findAllByIds(Class, java.util.Collection)}で検索するケース。
+     * <p/>
+     * 指定した主キーの順に結果が返され、存在しない主キーと重複した主キーが除かれること。
+     */
+    @Test
+    public void findAllByIds() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        for (int i = 0; i < 30; i++) {
+            long index = i + 1;
+            VariousDbTestHelper.insert(
+                    new Users(index, "なまえ_" + index, DateUtil.getDate("20140101"),
+                            DaoTestHelper.getDate("20150401123456")));
+        }
+
+        少数の主キー:
+        {
+            final EntityList<Users> users = sut.findAllByIds(Users.class, Arrays.<Object>asList(3L, 1, 99L, 3L, "2"));
+            assertThat(users.size(), is(3));
+            assertThat(users.get(0).getId(), is(3L));
+            assertThat(users.get(0).getName(), is("なまえ_3"));
+            assertThat(users.get(1).getId(), is(1L));
+            assertThat(users.get(2).getId(), is(2L));
+        }
+
+        複数回に分けて検索される件数の主キー:
+        {
+            final List<Long> ids = new ArrayList<Long>();
+            for (long i = 30; i >= 1; i--) {
+                ids.add(i);
+            }
+            final EntityList<Users> users = sut.findAllByIds(Users.class, ids);
+            assertThat(users.size(), is(30));
+            for (int i = 0; i < 30; i++) {
+                assertThat(users.get(i).getId(), is(30L - i));
+            }
+        }
+
+        主キーが空:
+        {
+            assertThat(sut.findAllByIds(Users.class, Collections.emptyList()), is(empty()));
+        }
+    }
+
+    /**
+     * {@link BasicDaoContext#loadAssociation(List, String)}で、関連先のエンティティがまとめて設定されること。
+     */
+    @Test
+    public void loadAssociation() throws Exception {
+        for (long i = 1; i <= 20; i++) {
+            VariousDbTestHelper.insert(new Users(i, "なまえ_" + i, DateUtil.getDate("20140101"),
+                    DaoTestHelper.getDate("20150401123456")));
+        }
+        VariousDbTestHelper.insert(new Address(1L, "1", 1L, "1111111", "住所1"));
+        VariousDbTestHelper.insert(new Address(2L, "1", 2L, "2222222", "住所2"));
+        VariousDbTestHelper.insert(new Address(3L, "2", 1L, "3333333", "住所3"));
+        VariousDbTestHelper.insert(new Address(4L, "1", 99L, "4444444", "ユーザなし"));
+        VariousDbTestHelper.insert(new Address(5L, "1", null, "5555555", "外部キーなし"));
+
+        final StandardSqlBuilder sqlBuilder = spy(new StandardSqlBuilder());
+        sut = new BasicDaoContext(sqlBuilder, new DefaultDialect());
+        sut.setDbConnection(connection);
+
+        ManyToOne:
+        {
+            final EntityList<AddressWithUser> addresses = sut.findAll(AddressWithUser.class);
+            sut.loadAssociation(addresses, "user");
+            final Map<Long, AddressWithUser> byId = new HashMap<Long, AddressWithUser>();
+            for (AddressWithUser address : addresses) {
+                byId.put(address.getId(), address);
+            }
+            assertThat(byId.get(1L).getUser().getName(), is("なまえ_1"));
+            assertThat(byId.get(2L).getUser().getName(), is("なまえ_2"));
+            assertThat(byId.get(3L).getUser().getName(), is("なまえ_1"));
+            assertThat("関連先が存在しない", byId.get(4L).getUser(), is(nullValue()));
+            assertThat("外部キーがnull", byId.get(5L).getUser(), is(nullValue()));
+            verify(sqlBuilder).buildSelectByIdsSql(Users.class, 4);
+        }
+
+        OneToMany:
+        {
+            final EntityList<UsersWithAddresses> users = sut.findAll(UsersWithAddresses.class);
+            sut.loadAssociation(users, "addresses");
+            assertThat(users.size(), is(20));
+            for (UsersWithAddresses user : users) {
+                final List<Long> addressIds = new ArrayList<Long>();
+                for (AddressWithUser address : user.getAddresses()) {
+                    addressIds.add(address.getId());
+                }
+                if (user.getId() == 1L) {
+                    assertThat(addressIds, contains(1L, 3L));
+                } else if (user.getId() == 2L) {
+                    assertThat(addressIds, contains(2L));
+                } else {
+                    assertThat("関連先が存在しない", addressIds, is(empty()));
+                }
+            }
+            verify(sqlBuilder).buildSelectByColumnValuesSql(AddressWithUser.class, "USER_ID", 64);
+        }
+
+        エンティティが空:
+        {
+            sut.loadAssociation(new ArrayList<UsersWithAddresses>(), "addresses");
+        }
+
+        関連プロパティでない:
+        {
+            try {
+                sut.loadAssociation(sut.findAll(UsersWithAddresses.class), "name");
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("property is not a ManyToOne or OneToMany association. entity = "
+                        + UsersWithAddresses.class.getName() + ", property = name"));
+            }
+        }
+    }
+
+    /**
+     * {@link BasicDaoContext#findAllByIds(Class, java.util.Collection)}で複合主キーのエンティティを指定した場合、
+     * {@link IllegalArgumentException}が送出されること。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void findAllByIds_multipleKey() throws Exception {
+        sut.findAllByIds(Address.class, Arrays.asList(1L, 2L));
+    }
+
+    /**
+     * {@link BasicDaoContext#findAllByCompositeIds(Class, java.util.Collection)}で検索するケース。
+     */
+    @Test
+    public void findAllByCompositeIds() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Address(100L, "1", 1L, "1001001", "東京都新宿区・・・"),
+                new Address(100L, "2", 1L, "1001002", "東京都新宿区２・・・"),
+                new Address(101L, "1", 2L, "1001003", "東京都新宿区３・・・"));
+
+        final EntityList<Address> addresses = sut.findAllByCompositeIds(Address.class, Arrays.asList(
+                new Object[] {101L, "1"}, new Object[] {100L, "3"}, new Object[] {100, "2"}, new Object[] {100L, "1"}));
+        assertThat(addresses.size(), is(3));
+        assertThat(addresses.get(0).getPostNo(), is("1001003"));
+        assertThat(addresses.get(1).getPostNo(), is("1001002"));
+        assertThat(addresses.get(2).getPostNo(), is("1001001"));
+
+        try {
+            sut.findAllByCompositeIds(Address.class, Collections.singletonList(new Object[] {100L}));
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Mismatch the counts of id columns. expected=2"));
+        }
+    }
+
+    /**
+     * プライマリーキーの件数がキー格納用テーブルの閾値を超える場合、
+     * キー格納用テーブルと結合して検索されること。
+     * また、検索後にキー格納用テーブルからキーが削除されること。
+     */
+    @Test
+    public void findAllByIds_temporaryKeyTable() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        for (int i = 0; i < 10; i++) {
+            long index = i + 1;
+            VariousDbTestHelper.insert(
+                    new Users(index, "なまえ_" + index, DateUtil.getDate("20140101"),
+                            DaoTestHelper.getDate("20150401123456")));
+        }
+        final TemporaryKeyTable keyTable = createTemporaryKeyTable();
+        keyTable.setThreshold(2);
+        keyTable.setBatchSize(2);
+        sut.setTemporaryKeyTable(keyTable);
+
+        final EntityList<Users> users = sut.findAllByIds(Users.class, Arrays.<Object>asList(7L, 2, 99L, 5L, 7L, 1L));
+        assertThat(users.size(), is(4));
+        assertThat(users.get(0).getId(), is(7L));
+        assertThat(users.get(0).getName(), is("なまえ_7"));
+        assertThat(users.get(1).getId(), is(2L));
+        assertThat(users.get(2).getId(), is(5L));
+        assertThat(users.get(3).getId(), is(1L));
+
+        assertThat("キーが削除されていること",
+                connection.prepareStatement("SELECT COUNT(*) CNT FROM DAO_TEMPORARY_KEYS")
+                        .retrieve().get(0).getInteger("cnt"), is(0));
+
+        閾値以下の場合はキー格納用テーブルを使用しない:
+        {
+            keyTable.setTableName("NOT_EXISTS_TABLE");
+            assertThat(sut.findAllByIds(Users.class, Arrays.asList(3L, 4L)).size(), is(2));
+        }
+    }
+
+    /**
+     * 複合主キーのエンティティを、キー格納用テーブルと結合して検索できること。
+     */
+    @Test
+    public void findAllByCompositeIds_temporaryKeyTable() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Address(100L, "1", 1L, "1001001", "東京都新宿区・・・"),
+                new Address(100L, "2", 1L, "1001002", "東京都新宿区２・・・"),
+                new Address(101L, "1", 2L, "1001003", "東京都新宿区３・・・"));
+        final TemporaryKeyTable keyTable = createTemporaryKeyTable();
+        keyTable.setThreshold(1);
+        sut.setTemporaryKeyTable(keyTable);
+
+        final EntityList<Address> addresses = sut.findAllByCompositeIds(Address.class, Arrays.asList(
+                new Object[] {101L, "1"}, new Object[] {100L, "3"}, new Object[] {100L, "1"}));
+        assertThat(addresses.size(), is(2));
+        assertThat(addresses.get(0).getPostNo(), is("1001003"));
+        assertThat(addresses.get(1).getPostNo(), is("1001001"));
+
+        キーカラムが不足している場合:
+        {
+            keyTable.setKeyColumnNames(Collections.singletonList("KEY1"));
+            try {
+                sut.findAllByCompositeIds(Address.class, Arrays.asList(new Object[] {100L, "1"}, new Object[] {100L, "2"}));
+                fail("とおらない");
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("temporary key table must have at least 2 key columns. table = DAO_TEMPORARY_KEYS"));
+            }
+        }
+    }
+
+    /**
+     * キー格納用テーブルとの結合検索に失敗した場合、キーの削除に失敗しても検索時の例外が送出されること。
+     * また、削除時の例外は抑制された例外として追加されること。
+     */
+    @Test
+    public void findAllByIds_temporaryKeyTableCleanupFailure() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        final StandardSqlBuilder sqlBuilder = spy(new StandardSqlBuilder());
+        sut = new BasicDaoContext(sqlBuilder, new DefaultDialect());
+        sut.setDbConnection(connection);
+        final TemporaryKeyTable keyTable = createTemporaryKeyTable();
+        keyTable.setThreshold(1);
+        sut.setTemporaryKeyTable(keyTable);
+
+        検索と削除に失敗する場合:
+        {
+            doReturn("SELECT * FROM NOT_EXISTS_TABLE WHERE KEY1 = ?")
+                    .when(sqlBuilder).buildSelectByTemporaryKeyTableSql(Users.class, keyTable);
+            doReturn("DELETE FROM NOT_EXISTS_TABLE WHERE SESSION_ID = ?")
+                    .when(sqlBuilder).buildDeleteTemporaryKeySql(keyTable);
+            try {
+                sut.findAllByIds(Users.class, Arrays.<Object>asList(1L, 2L));
+                fail("とおらない");
+            } catch (RuntimeException e) {
+                assertThat(e.getMessage(), containsString("SELECT * FROM NOT_EXISTS_TABLE"));
+                assertThat(e.getSuppressed().length, is(1));
+                assertThat(e.getSuppressed()[0].getMessage(), containsString("DELETE FROM NOT_EXISTS_TABLE"));
+            }
+        }
+
+        検索は成功し削除に失敗する場合:
+        {
+            doCallRealMethod().when(sqlBuilder).buildSelectByTemporaryKeyTableSql(Users.class, keyTable);
+            try {
+                sut.findAllByIds(Users.class, Arrays.<Object>asList(1L, 2L));
+                fail("とおらない");
+            } catch (RuntimeException e) {
+                assertThat(e.getMessage(), containsString("DELETE FROM NOT_EXISTS_TABLE"));
+            }
+        }
+    }
+
+    /**
+     * テスト用のキー格納用テーブルを生成する。
+     *
+     * @return キー格納用テーブル
+     */
+    private static TemporaryKeyTable createTemporaryKeyTable() {
+        final TemporaryKeyTable keyTable = new TemporaryKeyTable();
+        keyTable.setTableName("DAO_TEMPORARY_KEYS");
+        keyTable.setKeyColumnNames(Arrays.asList("KEY1", "KEY2"));
+        return keyTable;
+    }
+
+    /**
+     * {@link EntityCache}が設定されている場合、{@link BasicDaoContext#findByIdOrNull(Class, Object...)}で
+     * キャッシュが使用され、削除時にキャッシュから削除されること。
+     */
+    @Test
+    public void findByIdOrNull_entityCache() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(100L, "なまえ_100", DateUtil.getDate("20120101"), DaoTestHelper.getDate("20150401123456"), 99L));
+        final BasicEntityCache entityCache = new BasicEntityCache();
+        entityCache.setEntityClassNames(Collections.singletonList(Users.class.getName()));
+        sut.setEntityCache(entityCache);
+
+        final Users user = sut.findByIdOrNull(Users.class, 100);
+        assertThat(user.getName(), is("なまえ_100"));
+
+        VariousDbTestHelper.setUpTable(
+                new Users(100L, "なまえ_変更", DateUtil.getDate("20120101"), DaoTestHelper.getDate("20150401123456"), 99L));
+        assertThat("キャッシュから取得されること", sut.findByIdOrNull(Users.class, 100L).getName(), is("なまえ_100"));
+
+        sut.delete(user);
+        assertThat("削除によりキャッシュから削除されること", sut.findByIdOrNull(Users.class, 100L), is(nullValue()));
+
+        assertThat(entityCache.getHitCount(), is(1L));
+        assertThat(entityCache.getMissCount(), is(2L));
+
+        キャッシュ対象外のエンティティ:
+        {
+            VariousDbTestHelper.setUpTable(new Address(100L, "1", 1L, "1001001", "東京都新宿区・・・"));
+            sut.findByIdOrNull(Address.class, 100L, "1");
+            assertThat(entityCache.getSize(Address.class), is(0));
+        }
+    }
+
+    /**
+     * {@link EntityCache}が設定されている場合、更新したエンティティは、
+     * トランザクションが未確定の可能性がある間はキャッシュに格納されないこと。
+     */
+    @Test
+    public void findByIdOrNull_entityCacheAfterWrite() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(100L, "なまえ_100", DateUtil.getDate("20120101"), DaoTestHelper.getDate("20150401123456"), 1L));
+        final BasicEntityCache entityCache = new BasicEntityCache();
+        entityCache.setEntityClassNames(Collections.singletonList(Users.class.getName()));
+        sut.setEntityCache(entityCache);
+
+        更新: {
+            final Users user = sut.findById(Users.class, 100L);
+            assertThat(entityCache.getSize(Users.class), is(1));
+            user.setName("なまえ_変更");
+            sut.update(user);
+            assertThat(sut.findByIdOrNull(Users.class, 100L).getName(), is("なまえ_変更"));
+            assertThat(entityCache.getSize(Users.class), is(0));
+        }
+
+        書き込みのないエンティティ: {
+            VariousDbTestHelper.insert(new Users(101L, "なまえ_101", DateUtil.getDate("20120101"),
+                    DaoTestHelper.getDate("20150401123456"), 1L));
+            sut.findByIdOrNull(Users.class, 101L);
+            assertThat(entityCache.getSize(Users.class), is(1));
+        }
+    }
+
+    /**
+     * {@link IdentityMap}が設定されている場合、{@link BasicDaoContext#findByIdOrNull(Class, Object...)}で
+     * 取得済みの同一インスタンスが返され、更新時に破棄されること。
+     */
+    @Test
+    public void findByIdOrNull_identityMap() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(100L, "なまえ_100", DateUtil.getDate("20120101"), DaoTestHelper.getDate("20150401123456"), 99L));
+        final IdentityMap identityMap = new IdentityMap();
+        sut.setIdentityMap(identityMap);
+
+        final Users user = sut.findByIdOrNull(Users.class, 100);
+        assertThat("同一のインスタンスが返されること", sut.findByIdOrNull(Users.class, 100L), is(sameInstance(user)));
+
+        user.setName("なまえ_変更");
+        sut.update(user);
+        final Users updated = sut.findByIdOrNull(Users.class, 100L);
+        assertThat("更新により破棄され、再検索されること", updated, is(not(sameInstance(user))));
+        assertThat(updated.getName(), is("なまえ_変更"));
+        assertThat(updated.getVersion(), is(100L));
+
+        sut.batchDelete(Collections.singletonList(updated));
+        assertThat("削除により破棄されること", sut.findByIdOrNull(Users.class, 100L), is(nullValue()));
+    }
+
+    /**
+     * {@link PrimaryKeyFilter}が設定されている場合、{@link BasicDaoContext#findByIdOrNull(Class, Object...)}で
+     * 存在しないと判定されたプライマリーキーはデータベースにアクセスせずに{@code null}が返され、
+     * 登録したプライマリーキーがフィルタに追加されること。
+     */
+    @Test
+    public void findByIdOrNull_primaryKeyFilter() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(100L, "なまえ_100", DateUtil.getDate("20120101"), DaoTestHelper.getDate("20150401123456"), 99L));
+        final Set<List<Object>> keys = new HashSet<List<Object>>();
+        sut = new BasicDaoContext(new StandardSqlBuilder(), new DefaultDialect() {
+            @Override
+            public boolean supportsSequence() {
+                return true;
+            }
+        });
+        sut.setDbConnection(connection);
+        sut.setIdGenerator(GenerationType.SEQUENCE, mockSequenceIdGenerator);
+        sut.setPrimaryKeyFilter(new PrimaryKeyFilter() {
+            @Override
+            public boolean isTarget(final Class<?> entityClass) {
+                return entityClass == Users.class;
+            }
+
+            @Override
+            public boolean mightContain(final Class<?> entityClass, final List<Object> id) {
+                return keys.contains(id);
+            }
+
+            @Override
+            public void add(final Class<?> entityClass, final List<Object> id) {
+                keys.add(id);
+            }
+        });
+
+        assertThat("フィルタで存在しないと判定されること", sut.findByIdOrNull(Users.class, 100L), is(nullValue()));
+
+        when(mockSequenceIdGenerator.generateId("USER_ID_SEQ")).thenReturn("200", "300", "301");
+        sut.insert(new Users(null, "なまえ_200", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")));
+        sut.batchInsert(Arrays.asList(
+                new Users(null, "なまえ_300", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(null, "なまえ_301", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456"))));
+
+        assertThat(keys, is((Set<List<Object>>) new HashSet<List<Object>>(Arrays.asList(
+                Collections.<Object>singletonList(200L),
+                Collections.<Object>singletonList(300L),
+                Collections.<Object>singletonList(301L)))));
+        assertThat(sut.findByIdOrNull(Users.class, "200").getName(), is("なまえ_200"));
+        assertThat(sut.findByIdOrNull(Users.class, 301L).getName(), is("なまえ_301"));
+
+        判定対象外のエンティティ:
+        {
+            VariousDbTestHelper.setUpTable(new Address(100L, "1", 1L, "1001001", "東京都新宿区・・・"));
+            assertThat(sut.findByIdOrNull(Address.class, 100L, "1"), is(notNullValue()));
+        }
+    }
+
     /**
      * {@link BasicDaoContext#findById(Class, Object...)}でデータが存在しない場合のケース。
      * <p/>
@@ -205,6 +655,40 @@ public class BasicDaoContextTest {
         sut.findById(Users.class, 100);
     }
 
+    /**
+     * 取得するプロパティを指定した場合、指定したプロパティのみが設定されたエンティティが取得できること。
+     * また、一部のプロパティのみを取得したエンティティは、キャッシュに格納されないこと。
+     */
+    @Test
+    public void findAllAndFindById_select() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(10L, "name_10", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456"), 1L),
+                new Users(11L, "name_11", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150402123456"), 1L));
+        final BasicEntityCache entityCache = new BasicEntityCache();
+        entityCache.setEntityClassNames(Collections.singletonList(Users.class.getName()));
+        sut.setEntityCache(entityCache);
+
+        final EntityList<Users> users = sut.select("id", "name").findAll(Users.class);
+        assertThat(users.size(), is(2));
+        for (Users user : users) {
+            assertThat(user.getName(), is("name_" + user.getId()));
+            assertThat("指定していないプロパティは設定されないこと", user.getBirthday(), is(nullValue()));
+            assertThat(user.getVersion(), is(nullValue()));
+        }
+
+        final Users user = sut.findById(Users.class, 11L);
+        assertThat(user.getName(), is("name_11"));
+        assertThat(user.getBirthday(), is(nullValue()));
+        assertThat(entityCache.getSize(Users.class), is(0));
+
+        try {
+            sut.select();
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("property names must not be empty."));
+        }
+    }
+
     /**
      * {@link BasicDaoContext#findByIdOrNull(Class, Object...)}でデータが存在しない場合のケース。
      * <p/>
@@ -282,6 +766,98 @@ public class BasicDaoContextTest {
         assertThat(users.isEmpty(), is(true));
     }
 
+    /**
+     * {@link BasicDaoContext#orderBy(String...)}を指定した場合、指定したソート順で全件が取得されること。
+     */
+    @Test
+    public void findAll_orderBy() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "name_b", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "name_a", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150402123456")),
+                new Users(3L, "name_b", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150403123456"))
+        );
+
+        final EntityList<Users> users = sut.orderBy("name", "id desc").findAll(Users.class);
+        final List<Long> ids = new ArrayList<Long>();
+        for (Users user : users) {
+            ids.add(user.getId());
+        }
+        assertThat(ids, contains(2L, 3L, 1L));
+    }
+
+    /**
+     * {@link BasicDaoContext#findAll(Class)}でページングを指定した場合、
+     * 指定したページの範囲のみが取得され、ページネーションの情報が設定されること。
+     */
+    @Test
+    public void findAll_paginate() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        for (long i = 1; i <= 5; i++) {
+            VariousDbTestHelper.insert(
+                    new Users(i, "なまえ_" + (i % 2), DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")));
+        }
+
+        ソート順の指定なし:
+        {
+            final EntityList<Users> users = sut.page(2).per(2).findAll(Users.class);
+            assertThat("ID列の順に取得されること", users.size(), is(2));
+            assertThat(users.get(0).getId(), is(3L));
+            assertThat(users.get(1).getId(), is(4L));
+            assertThat(users.getPagination().getResultCount(), is(5));
+            assertThat(users.getPagination().getPageNumber(), is(2));
+        }
+
+        ソート順の指定あり:
+        {
+            sut = new BasicDaoContext(new StandardSqlBuilder(), new DefaultDialect());
+            sut.setDbConnection(connection);
+            final EntityList<Users> users = sut.orderBy("name DESC").page(1).per(4).findAll(Users.class);
+            final List<Long> ids = new ArrayList<Long>();
+            for (Users user : users) {
+                ids.add(user.getId());
+            }
+            assertThat("同じ値の場合はID列の順となること", ids, contains(1L, 3L, 5L, 2L));
+            assertThat(users.getPagination().getResultCount(), is(5));
+        }
+    }
+
+    /**
+     * {@link BasicDaoContext#findAll(Class)}で遅延ロードとページングを指定した場合、例外が送出されること。
+     * 不正なソート順を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void findAll_invalid() throws Exception {
+        遅延ロードとページング:
+        {
+            try {
+                sut.defer().page(1).findAll(Users.class);
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("Can't search with defer and pagination."));
+            }
+        }
+
+        不正なソート方向:
+        {
+            try {
+                new BasicDaoContext(new StandardSqlBuilder(), new DefaultDialect()).orderBy("name UP").findAll(Users.class);
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), containsString("invalid order by."));
+            }
+        }
+
+        ソート順なし:
+        {
+            try {
+                sut.orderBy();
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("order by must not be empty."));
+            }
+        }
+    }
+
     /**
      * {@link BasicDaoContext#findAll(Class)}で遅延ロード設定を有効にした場合のケース
      */
@@ -306,6 +882,42 @@ public class BasicDaoContextTest {
         users.close();
     }
 
+    /**
+     * {@link BasicDaoContext#findAll(Class)}で遅延ロードと先読みを有効にした場合のケース
+     */
+    @Test
+    public void findAllDefer_prefetch() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "name_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "name_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150402123456")),
+                new Users(3L, "name_3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150403123456"))
+        );
+
+        final DeferredEntityList<Users> users = (DeferredEntityList<Users>) sut.defer()
+                .prefetch(2)
+                .findAll(Users.class);
+        final List<Long> ids = new ArrayList<Long>();
+        for (Users user : users) {
+            ids.add(user.getId());
+        }
+        users.close();
+        Collections.sort(ids);
+        assertThat(ids, contains(1L, 2L, 3L));
+    }
+
+    /**
+     * {@link BasicDaoContext#prefetch(int)}に1未満を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void prefetch_invalidBufferSize() throws Exception {
+        try {
+            sut.prefetch(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("prefetch buffer size must be greater than 0. buffer size = 0"));
+        }
+    }
+
     /**
      * {@link BasicDaoContext#findAllBySqlFile(Class, String, Object)}、{@link BasicDaoContext#findAllBySqlFile(Class, String)}でページング設定なしのケース
      */
@@ -479,69 +1091,688 @@ public class BasicDaoContextTest {
     }
 
     /**
-     * {@link BasicDaoContext#findAllBySqlFile(Class, String, Object)}、{@link BasicDaoContext#findAllBySqlFile(Class, String)}でページングなしかつ遅延ロードのケース。
+     * {@link BasicDaoContext#findAllBySqlFile(Class, String, Object)}、{@link BasicDaoContext#findAllBySqlFile(Class, String)}でページングなしかつ遅延ロードのケース。
+     */
+    @Test
+    public void findAllBySqlFile_NotPaginate_Defer() throws Exception {
+
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20120101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "なまえ_2", DateUtil.getDate("20120102"), DaoTestHelper.getDate("20150402123456")),
+                new Users(3L, "なまえ_3", DateUtil.getDate("20120103"), DaoTestHelper.getDate("20150403123456"))
+        );
+
+        sut.defer();
+
+        Entityを条件に:
+        {
+            Users cond = new Users();
+            cond.setName("なまえ_2");
+            cond.setId(2L);
+            EntityList<Users> users = sut.findAllBySqlFile(Users.class,
+                    "FIND_USERS_WHERE_ENTITY", cond);
+            assertThat("遅延ロードなので、DeferredEntityListであること",
+                    users, is(instanceOf(DeferredEntityList.class)));
+
+            Iterator<Users> iterator = users.iterator();
+            assertThat("データが取得出来ていること", iterator.hasNext(), is(true));
+            assertThat(iterator.next()
+                    .getId(), is(2L));
+        }
+
+        条件なし:
+        {
+            EntityList<Users> users = sut.findAllBySqlFile(Users.class,
+                    "FIND_USERS_ALL_NOT_COND");
+            assertThat("遅延ロードなので、DeferredEntityListであること",
+                    users, is(instanceOf(DeferredEntityList.class)));
+
+            Iterator<Users> iterator = users.iterator();
+            assertThat(iterator.next()
+                    .getId(), is(1L));
+            assertThat(iterator.next()
+                    .getId(), is(2L));
+            assertThat(iterator.next()
+                    .getId(), is(3L));
+            assertThat("全て読み終わったので次のレコードは存在しない", iterator.hasNext(), is(false));
+        }
+
+        Entityを条件にSqlRowを取得:
+        {
+            Users cond = new Users();
+            cond.setName("なまえ_2");
+            cond.setId(2L);
+            EntityList<SqlRow> users = sut.findAllBySqlFile(
+                    SqlRow.class, "nablarch.common.dao.Result_SqlRow#FIND_USERS_WHERE_ENTITY", cond);
+            assertThat("遅延ロードなので、DeferredEntityListであること",
+                    users, is(instanceOf(DeferredEntityList.class)));
+
+            Iterator<SqlRow> iterator = users.iterator();
+            assertThat("データが取得出来ていること", iterator.hasNext(), is(true));
+            assertThat(iterator.next()
+                    .getLong("USER_ID"), is(2L));
+        }
+    }
+
+
+    /**
+     * {@link BasicDaoContext#streamAll(Class)}のテスト。
+     */
+    @Test
+    public void streamAll() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "なまえ_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")),
+                new Users(3L, "なまえ_3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150401123456")));
+
+        final List<Long> ids;
+        try (Stream<Users> users = sut.streamAll(Users.class)) {
+            ids = users.map(Users::getId)
+                       .sorted()
+                       .collect(Collectors.toList());
+        }
+        assertThat(ids, contains(1L, 2L, 3L));
+    }
+
+    /**
+     * {@link BasicDaoContext#streamBySqlFile(Class, String, Object)}、{@link BasicDaoContext#streamBySqlFile(Class, String)}のテスト。
+     */
+    @Test
+    public void streamBySqlFile() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "name_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")),
+                new Users(3L, "なまえ_3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150401123456")));
+
+        Object配列を条件に:
+        {
+            try (Stream<Users> users = sut.streamBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ%"})) {
+                assertThat(users.map(Users::getId).collect(Collectors.toList()), contains(1L, 3L));
+            }
+        }
+
+        条件なし:
+        {
+            try (Stream<SqlRow> rows = sut.streamBySqlFile(SqlRow.class, "nablarch.common.dao.DaoTestHelper$Users#FIND_USERS_ALL_NOT_COND")) {
+                assertThat(rows.map(row -> row.getLong("userId")).collect(Collectors.toList()), contains(1L, 2L, 3L));
+            }
+        }
+    }
+
+    /**
+     * {@link BasicDaoContext#nest(String, String)}を指定した場合、親子を結合した検索結果が
+     * 関連プロパティに子エンティティを設定した親エンティティにマッピングされること。
+     */
+    @Test
+    public void findAllBySqlFile_nest() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "なまえ_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")),
+                new Users(3L, "なまえ_3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150401123456")));
+        VariousDbTestHelper.setUpTable(
+                new Address(1L, "1", 1L, "1111111", "住所1"),
+                new Address(1L, "2", 1L, "1111112", "住所2"),
+                new Address(2L, "1", 1L, "2222222", "住所3"),
+                new Address(3L, "1", 3L, "3333333", "住所4"));
+
+        EntityListで取得:
+        {
+            final EntityList<UsersWithAddresses> users = sut.nest("addresses", "A_")
+                    .findAllBySqlFile(UsersWithAddresses.class, "FIND_USERS_WITH_ADDRESSES", new Object[] {"なまえ%"});
+            assertThat(users.size(), is(3));
+
+            assertThat(users.get(0).getId(), is(1L));
+            assertThat(users.get(0).getName(), is("なまえ_1"));
+            assertThat(users.get(0).getAddresses().size(), is(3));
+            assertThat(users.get(0).getAddresses().get(0).getCode(), is("1"));
+            assertThat(users.get(0).getAddresses().get(1).getCode(), is("2"));
+            assertThat(users.get(0).getAddresses().get(1).getAddress(), is("住所2"));
+            assertThat(users.get(0).getAddresses().get(2).getId(), is(2L));
+            assertThat(users.get(0).getAddresses().get(2).getPostNo(), is("2222222"));
+
+            assertThat("子が存在しない", users.get(1).getAddresses(), is(empty()));
+
+            assertThat(users.get(2).getAddresses().size(), is(1));
+            assertThat(users.get(2).getAddresses().get(0).getUserId(), is(3L));
+        }
+
+        Streamで取得:
+        {
+            try (Stream<UsersWithAddresses> users = sut.streamBySqlFile(
+                    UsersWithAddresses.class, "FIND_USERS_WITH_ADDRESSES", new Object[] {"なまえ%"})) {
+                assertThat(users.map(user -> user.getAddresses().size()).collect(Collectors.toList()),
+                        contains(3, 0, 1));
+            }
+        }
+
+        遅延ロードとの併用:
+        {
+            try {
+                sut.defer().findAllBySqlFile(UsersWithAddresses.class, "FIND_USERS_WITH_ADDRESSES", new Object[] {"なまえ%"});
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("Can't search with defer and nested mapping. use streamBySqlFile instead."));
+            }
+        }
+    }
+
+    /**
+     * ページングを指定して{@link BasicDaoContext#streamBySqlFile(Class, String)}を呼び出した場合、
+     * {@link IllegalArgumentException}が送出されること。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void streamBySqlFile_Paginate() throws Exception {
+        sut.page(1);
+        sut.streamBySqlFile(Users.class, "FIND_USERS_ALL_NOT_COND");
+    }
+
+    /**
+     * {@link BasicDaoContext#findAllInChunks(Class, int, ChunkHandler)}のテスト。
+     * <p/>
+     * チャンクサイズごとにハンドラが呼び出され、最後のチャンクは残りの件数となること。
+     */
+    @Test
+    public void findAllInChunks() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        for (int i = 0; i < 7; i++) {
+            long index = i + 1;
+            VariousDbTestHelper.insert(
+                    new Users(index, "なまえ_" + index, DateUtil.getDate("20140101"),
+                            DaoTestHelper.getDate("20150401123456")));
+        }
+
+        final List<List<Long>> chunks = new ArrayList<List<Long>>();
+        final long count = sut.findAllInChunks(Users.class, 3, chunk -> {
+            final List<Long> ids = new ArrayList<Long>();
+            for (Users user : chunk) {
+                ids.add(user.getId());
+            }
+            chunks.add(ids);
+        });
+
+        assertThat(count, is(7L));
+        assertThat(chunks, contains(Arrays.asList(1L, 2L, 3L), Arrays.asList(4L, 5L, 6L), Arrays.asList(7L)));
+    }
+
+    /**
+     * {@link BasicDaoContext#findAllBySqlFileInChunks(Class, String, Object, int, ChunkHandler, Runnable)}のテスト。
+     * <p/>
+     * 各チャンクの処理後にフックが呼び出され、チャンクのバッファが再利用されること。
+     */
+    @Test
+    public void findAllBySqlFileInChunks() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "name_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")),
+                new Users(3L, "なまえ_3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150401123456")),
+                new Users(4L, "なまえ_4", DateUtil.getDate("20140104"), DaoTestHelper.getDate("20150401123456")));
+
+        final List<String> events = new ArrayList<String>();
+        final Set<List<Users>> buffers = Collections.newSetFromMap(new IdentityHashMap<List<Users>, Boolean>());
+        final long count = sut.findAllBySqlFileInChunks(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ%"}, 2,
+                chunk -> {
+                    buffers.add(chunk);
+                    for (Users user : chunk) {
+                        events.add("user:" + user.getId());
+                    }
+                }, () -> events.add("after"));
+
+        assertThat(count, is(3L));
+        assertThat(events, contains("user:1", "user:3", "after", "user:4", "after"));
+        assertThat("バッファが再利用されていること", buffers.size(), is(1));
+    }
+
+    /**
+     * {@link BasicDaoContext#findAllBySqlFileInChunks(Class, String, Object, int, ChunkHandler)}で
+     * ハンドラが例外を送出した場合、例外がそのまま送出されること。
+     */
+    @Test
+    public void findAllBySqlFileInChunks_handlerError() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")));
+
+        try {
+            sut.findAllBySqlFileInChunks(Users.class, "FIND_USERS_ALL_NOT_COND", new Object[0], 10, chunk -> {
+                throw new IllegalStateException("error");
+            });
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("error"));
+        }
+    }
+
+    /**
+     * チャンクサイズが1未満の場合、またはページングを指定した場合に{@link IllegalArgumentException}が送出されること。
+     */
+    @Test
+    public void findAllBySqlFileInChunks_invalid() throws Exception {
+        チャンクサイズが0:
+        {
+            try {
+                sut.findAllBySqlFileInChunks(Users.class, "FIND_USERS_ALL_NOT_COND", new Object[0], 0, chunk -> {});
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), containsString("chunk size must be greater than 0."));
+            }
+        }
+
+        ページング指定あり:
+        {
+            sut.page(1);
+            try {
+                sut.findAllInChunks(Users.class, 10, chunk -> {});
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("Can't search with pagination in this method."));
+            }
+        }
+    }
+
+    /**
+     * {@link BasicDaoContext#findAllBySqlFileInParallel(Class, String, Object, Function, Consumer)}のテスト。
+     * <p/>
+     * 処理は並列に実行され、処理結果は呼び出し元のスレッドで検索結果の順に受け取れること。
+     */
+    @Test
+    public void findAllBySqlFileInParallel() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "name_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")),
+                new Users(3L, "なまえ_3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150401123456")),
+                new Users(4L, "なまえ_4", DateUtil.getDate("20140104"), DaoTestHelper.getDate("20150401123456")));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            sut.setParallelExecutor(executor);
+            final Thread caller = Thread.currentThread();
+            final Set<Thread> workers = Collections.synchronizedSet(new HashSet<Thread>());
+            final List<String> results = new ArrayList<String>();
+            final long count = sut.parallel(2)
+                    .findAllBySqlFileInParallel(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ%"}, user -> {
+                        workers.add(Thread.currentThread());
+                        sleep((5 - user.getId()) * 20);
+                        return user.getName();
+                    }, name -> {
+                        assertThat("呼び出し元のスレッドで受け取ること", Thread.currentThread(), is(sameInstance(caller)));
+                        results.add(name);
+                    });
+
+            assertThat(count, is(3L));
+            assertThat(results, contains("なまえ_1", "なまえ_3", "なまえ_4"));
+            assertThat("呼び出し元以外のスレッドで処理されること", workers.contains(caller), is(false));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * {@link BasicDaoContext#unordered()}を指定した場合、処理結果を完了した順に受け取れること。
+     */
+    @Test
+    public void findAllInParallel_unordered() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "なまえ_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")),
+                new Users(3L, "なまえ_3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150401123456")));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            sut.setParallelExecutor(executor);
+            final CountDownLatch others = new CountDownLatch(2);
+            final List<Long> results = new ArrayList<Long>();
+            final long count = sut.unordered()
+                    .parallel(3)
+                    .findAllInParallel(Users.class, user -> {
+                        if (user.getId() == 1L) {
+                            // 他のレコードの処理結果が受け取られるまで待機する
+                            // (順序を保証する場合は受け取られないため、タイムアウトで抜ける)
+                            try {
+                                others.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }
+                        return user.getId();
+                    }, id -> {
+                        results.add(id);
+                        if (id != 1L) {
+                            others.countDown();
+                        }
+                    });
+
+            assertThat(count, is(3L));
+            assertThat(results.size(), is(3));
+            assertThat("先に完了したレコードが、先頭のレコードを待たずに受け取られること", others.getCount(), is(0L));
+            assertThat("最後に完了したレコードが最後に受け取られること", results.get(2), is(1L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * {@link BasicDaoContext#findAllInParallel(Class, Function, Consumer)}で処理が例外を送出した場合、
+     * 例外がそのまま送出されること。
+     */
+    @Test
+    public void findAllInParallel_processorError() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "なまえ_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")));
+
+        try {
+            sut.findAllInParallel(Users.class, user -> {
+                if (user.getId() == 2L) {
+                    throw new IllegalStateException("error");
+                }
+                return user;
+            }, user -> {});
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("error"));
+        }
+    }
+
+    /**
+     * 処理中の件数の上限が1未満の場合、またはページングを指定した場合に{@link IllegalArgumentException}が送出されること。
+     */
+    @Test
+    public void findAllInParallel_invalid() throws Exception {
+        上限が0:
+        {
+            try {
+                sut.parallel(0);
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("max in-flight rows must be greater than 0. max in-flight rows = 0"));
+            }
+        }
+
+        ページング指定あり:
+        {
+            sut.page(1);
+            try {
+                sut.findAllInParallel(Users.class, user -> user, user -> {});
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("Can't search with pagination in this method."));
+            }
+        }
+    }
+
+    /**
+     * 指定したミリ秒だけ待機する。
+     *
+     * @param millis 待機するミリ秒
+     */
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 一時ファイルへの退避の閾値を設定した場合、
+     * {@link BasicDaoContext#findAllBySqlFile(Class, String, Object)}の結果が閾値を超えた分を退避したリストとなること。
+     */
+    @Test
+    public void findAllBySqlFile_spill() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        for (long i = 1; i <= 5; i++) {
+            VariousDbTestHelper.insert(
+                    new Users(i, "なまえ_" + i, DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")));
+        }
+        sut.setSpillThreshold(2);
+
+        final EntityList<Users> actual = sut.findAllBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ%"});
+        assertThat(actual, is(instanceOf(SpillingEntityList.class)));
+        assertThat(((SpillingEntityList<Users>) actual).isSpilled(), is(true));
+        assertThat(actual.size(), is(5));
+        assertThat(actual.getPagination().getResultCount(), is(5));
+        final List<String> names = new ArrayList<String>();
+        for (Users user : actual) {
+            names.add(user.getName());
+        }
+        assertThat(names, contains("なまえ_1", "なまえ_2", "なまえ_3", "なまえ_4", "なまえ_5"));
+        ((SpillingEntityList<Users>) actual).close();
+
+        SqlRowは退避しない:
+        {
+            final EntityList<SqlRow> rows = sut.findAllBySqlFile(SqlRow.class,
+                    "nablarch.common.dao.DaoTestHelper$Users#FIND_USERS_ALL_NOT_COND", new Object[0]);
+            assertThat(rows.getClass().equals(EntityList.class), is(true));
+            assertThat(rows.size(), is(5));
+        }
+    }
+
+    /**
+     * {@link BasicDaoContext#findChangedSince(Class, String, ChangePosition, int, ChangeHandler)}のテスト。
+     * <p/>
+     * ウォーターマークが位置より大きいエンティティがウォーターマーク、IDの順に処理され、
+     * ウォーターマークが同じエンティティが多い場合でもチャンクの件数はチャンクサイズを超えないこと。
      */
     @Test
-    public void findAllBySqlFile_NotPaginate_Defer() throws Exception {
-
+    public void findChangedSince_sameWatermark() throws Exception {
         VariousDbTestHelper.setUpTable(
-                new Users(1L, "なまえ_1", DateUtil.getDate("20120101"), DaoTestHelper.getDate("20150401123456")),
-                new Users(2L, "なまえ_2", DateUtil.getDate("20120102"), DaoTestHelper.getDate("20150402123456")),
-                new Users(3L, "なまえ_3", DateUtil.getDate("20120103"), DaoTestHelper.getDate("20150403123456"))
-        );
-
-        sut.defer();
-
-        Entityを条件に:
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150405000000")),
+                new Users(2L, "なまえ_2", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401000000")),
+                new Users(3L, "なまえ_3", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150403000000")),
+                new Users(4L, "なまえ_4", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150403000000")),
+                new Users(5L, "なまえ_5", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150402000000")),
+                new Users(6L, "なまえ_6", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150403000000")));
+        final Timestamp first = new Timestamp(DaoTestHelper.getDate("20150401000000").getTime());
+        final Timestamp third = new Timestamp(DaoTestHelper.getDate("20150403000000").getTime());
+        final Timestamp last = new Timestamp(DaoTestHelper.getDate("20150405000000").getTime());
+
+        final List<String> events = new ArrayList<String>();
+        final ChangePosition position = sut.findChangedSince(Users.class, "insertDate", ChangePosition.after(first), 2,
+                (chunk, chunkPosition) -> {
+                    final List<Long> ids = new ArrayList<Long>();
+                    for (Users user : chunk) {
+                        ids.add(user.getId());
+                    }
+                    events.add(ids + "@" + chunkPosition.getIds());
+                });
+
+        assertThat(position, is(ChangePosition.of(last, 1L)));
+        assertThat(events, contains("[5, 3]@[3]", "[4, 6]@[6]", "[1]@[1]"));
+
+        チャンクの途中の位置から再開:
         {
-            Users cond = new Users();
-            cond.setName("なまえ_2");
-            cond.setId(2L);
-            EntityList<Users> users = sut.findAllBySqlFile(Users.class,
-                    "FIND_USERS_WHERE_ENTITY", cond);
-            assertThat("遅延ロードなので、DeferredEntityListであること",
-                    users, is(instanceOf(DeferredEntityList.class)));
+            events.clear();
+            sut.findChangedSince(Users.class, "insertDate", ChangePosition.of(third, 3L), 10,
+                    (chunk, chunkPosition) -> events.add(chunk.size() + "@" + chunkPosition.getIds()));
+            assertThat(events, contains("3@[1]"));
+        }
 
-            Iterator<Users> iterator = users.iterator();
-            assertThat("データが取得出来ていること", iterator.hasNext(), is(true));
-            assertThat(iterator.next()
-                    .getId(), is(2L));
+        変更なし:
+        {
+            events.clear();
+            assertThat(sut.findChangedSince(Users.class, "insertDate", position, 2,
+                    (chunk, chunkPosition) -> events.add("called")), is(position));
+            assertThat(events.isEmpty(), is(true));
         }
+    }
 
-        条件なし:
+    /**
+     * {@link BasicDaoContext#findChangedSince(Class, String, ChangePosition, int, ChangeHandler)}のテスト。
+     * <p/>
+     * 指定したプロパティをウォーターマークとし、初回(位置なし)はウォーターマークがnullでない全件が処理されること。
+     * また、返された位置で再度取得した場合、その後に変更されたエンティティのみが処理されること。
+     */
+    @Test
+    public void findChangedSince_property() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150403000000")),
+                new Users(2L, "なまえ_2", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401000000")),
+                new Users(3L, "なまえ_3", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150402000000")),
+                new Users(5L, "なまえ_5", DateUtil.getDate("20140101"), null));
+
+        final List<Long> ids = new ArrayList<Long>();
+        final ChangePosition position = sut.findChangedSince(Users.class, "insertDate", null, 10,
+                (chunk, chunkPosition) -> {
+                    for (Users user : chunk) {
+                        ids.add(user.getId());
+                    }
+                });
+        assertThat(ids, contains(2L, 3L, 1L));
+        assertThat(position, is(ChangePosition.of(
+                new Timestamp(DaoTestHelper.getDate("20150403000000").getTime()), 1L)));
+
+        VariousDbTestHelper.insert(
+                new Users(4L, "なまえ_4", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150404000000")));
+        ids.clear();
+        sut.findChangedSince(Users.class, "insertDate", position, 10, (chunk, chunkPosition) -> {
+            for (Users user : chunk) {
+                ids.add(user.getId());
+            }
+        });
+        assertThat(ids, contains(4L));
+    }
+
+    /**
+     * ウォーターマークとするプロパティが指定されていない場合、存在しない場合、
+     * またはバージョン番号のプロパティの場合、{@link IllegalArgumentException}が送出されること。
+     */
+    @Test
+    public void findChangedSince_invalid() throws Exception {
+        プロパティの指定なし:
         {
-            EntityList<Users> users = sut.findAllBySqlFile(Users.class,
-                    "FIND_USERS_ALL_NOT_COND");
-            assertThat("遅延ロードなので、DeferredEntityListであること",
-                    users, is(instanceOf(DeferredEntityList.class)));
+            try {
+                sut.findChangedSince(Users.class, null, null, 10, (chunk, position) -> {});
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("watermark property must not be null. entity = " + Users.class.getName()));
+            }
+        }
 
-            Iterator<Users> iterator = users.iterator();
-            assertThat(iterator.next()
-                    .getId(), is(1L));
-            assertThat(iterator.next()
-                    .getId(), is(2L));
-            assertThat(iterator.next()
-                    .getId(), is(3L));
-            assertThat("全て読み終わったので次のレコードは存在しない", iterator.hasNext(), is(false));
+        バージョン番号のプロパティ:
+        {
+            try {
+                sut.findChangedSince(Users.class, "version", null, 10, (chunk, position) -> {});
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("version column cannot be used as the watermark"
+                        + " because it is incremented per row. entity = " + Users.class.getName()
+                        + ", property = version"));
+            }
         }
 
-        Entityを条件にSqlRowを取得:
+        プロパティなし:
         {
-            Users cond = new Users();
-            cond.setName("なまえ_2");
-            cond.setId(2L);
-            EntityList<SqlRow> users = sut.findAllBySqlFile(
-                    SqlRow.class, "nablarch.common.dao.Result_SqlRow#FIND_USERS_WHERE_ENTITY", cond);
-            assertThat("遅延ロードなので、DeferredEntityListであること",
-                    users, is(instanceOf(DeferredEntityList.class)));
+            try {
+                sut.findChangedSince(Users.class, "updatedAt", null, 10, (chunk, position) -> {});
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("watermark property was not found. entity = "
+                        + Users.class.getName() + ", property = updatedAt"));
+            }
+        }
 
-            Iterator<SqlRow> iterator = users.iterator();
-            assertThat("データが取得出来ていること", iterator.hasNext(), is(true));
-            assertThat(iterator.next()
-                    .getLong("USER_ID"), is(2L));
+        位置のID列の値の数が異なる:
+        {
+            try {
+                sut.findChangedSince(Users.class, "insertDate", ChangePosition.of(1L, 1L, 2L), 10,
+                        (chunk, position) -> {});
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("the number of ids of the position does not match the id columns."
+                        + " entity = " + Users.class.getName() + ", position = 1/[1, 2]"));
+            }
         }
     }
 
+    /**
+     * {@link BasicDaoContext#exportAll(Class, ExportFormat, Writer)}のテスト。
+     * <p/>
+     * エンティティのカラム定義の順に、CSV形式で全件が出力されること。
+     */
+    @Test
+    public void exportAll_csv() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ,\"1\"", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401093456"), 10L),
+                new Users(2L, "name\n2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150402000000"), null,
+                        true));
+
+        final StringWriter writer = new StringWriter();
+        final long count = sut.exportAll(Users.class, ExportFormat.CSV, writer);
+
+        assertThat(count, is(2L));
+        assertThat(writer.toString(), is(""
+                + "ACTIVE,BIRTHDAY,USER_ID,INSERT_DATE,NAME,VERSION\r\n"
+                + "false,2014-01-01,1,2015-04-01T09:34:56,\"なまえ,\"\"1\"\"\",10\r\n"
+                + "true,2014-01-02,2,2015-04-02T00:00,\"name\n2\",\r\n"));
+    }
+
+    /**
+     * {@link BasicDaoContext#exportBySqlFile(Class, String, Object, ExportFormat, OutputStream)}のテスト。
+     * <p/>
+     * 検索結果がNDJSON形式でUTF-8で出力され、出力先がクローズされないこと。
+     */
+    @Test
+    public void exportBySqlFile_ndjson() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ\"1\"", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401093456"), 10L),
+                new Users(2L, "name_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150402000000")),
+                new Users(3L, "なまえ\\3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150403000000")));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long count = sut.exportBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ%"},
+                ExportFormat.NDJSON, out);
+
+        assertThat(count, is(2L));
+        assertThat(new String(out.toByteArray(), "UTF-8"), is(""
+                + "{\"active\":false,\"birthday\":\"2014-01-01\",\"id\":1,"
+                + "\"insertDate\":\"2015-04-01T09:34:56\",\"name\":\"なまえ\\\"1\\\"\",\"version\":10}\n"
+                + "{\"active\":false,\"birthday\":\"2014-01-03\",\"id\":3,"
+                + "\"insertDate\":\"2015-04-03T00:00\",\"name\":\"なまえ\\\\3\",\"version\":null}\n"));
+    }
+
+    /**
+     * {@link BasicDaoContext#exportBySqlFile(Class, String, Object, ExportFormat, Writer)}で
+     * {@link SqlRow}を指定した場合、検索結果の全てのカラムが出力されること。
+     * また、フラッシュの間隔ごとに出力先がフラッシュされること。
+     */
+    @Test
+    public void exportBySqlFile_sqlRow() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "なまえ_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150402000000")),
+                new Users(3L, "なまえ_3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150403000000")));
+        sut.setExportFlushInterval(2);
+
+        final List<String> flushed = new ArrayList<String>();
+        final StringWriter writer = new StringWriter() {
+            @Override
+            public void flush() {
+                flushed.add(toString());
+            }
+        };
+        final long count = sut.exportBySqlFile(SqlRow.class, "nablarch.common.dao.DaoTestHelper$Users#FIND_USERS_ALL_NOT_COND", new Object[0],
+                ExportFormat.CSV, writer);
+
+        assertThat(count, is(3L));
+        final String[] lines = writer.toString().split("\r\n");
+        assertThat(lines.length, is(4));
+        assertThat(lines[0].toUpperCase(), is("USER_ID,NAME,BIRTHDAY,INSERT_DATE,VERSION,ACTIVE"));
+        assertThat("2件ごとと出力完了時にフラッシュされること", flushed.size(), is(2));
+        assertThat(flushed.get(0).split("\r\n").length, is(3));
+    }
+
+    /**
+     * ページングを指定してエクスポートした場合、例外が送出されること。
+     */
+    @Test
+    public void exportAll_paginate() throws Exception {
+        sut.page(1);
+        try {
+            sut.exportAll(Users.class, ExportFormat.CSV, new StringWriter());
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Can't search with pagination in this method."));
+        }
+    }
 
     /**
      * {@link BasicDaoContext#findAllBySqlFile(Class, String, Object)}、{@link BasicDaoContext#findAllBySqlFile(Class, String)}でページング設定ありのケース
@@ -713,6 +1944,156 @@ public class BasicDaoContextTest {
         }
     }
 
+    /**
+     * 開始位置が{@link Integer#MAX_VALUE}を超えるページを指定した場合、
+     * 桁あふれせずに{@link IllegalArgumentException}が送出されること。
+     */
+    @Test
+    public void findAllBySqlFile_Paginate_startPositionOverflow() throws Exception {
+        try {
+            sut.page(3000000).per(1000).findAllBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ_%"});
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("start position and max must be less than or equal to 2147483647. "
+                    + "start position = 2999999001, max = 1000"));
+        }
+    }
+
+    /**
+     * 総件数を取得する方法({@link CappedCountStrategy})を設定した場合、
+     * 件数が上限を超える場合は上限値が概算の件数となり、超えない場合は正確な件数となること。
+     */
+    @Test
+    public void findAllBySqlFile_Paginate_countStrategy() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        for (int i = 0; i < 10; i++) {
+            long index = i + 1;
+            VariousDbTestHelper.insert(
+                    new Users(index, "なまえ_" + index, DateUtil.getDate(String.valueOf(20120100 + index)),
+                            DaoTestHelper.getDate("20150401123456"))
+            );
+        }
+        final CappedCountStrategy countStrategy = new CappedCountStrategy();
+        countStrategy.setCap(5);
+        sut.setCountStrategy(countStrategy);
+        sut.setResultCountCache(new BasicResultCountCache());
+
+        上限を超える件数:
+        {
+            final EntityList<Users> users = sut.page(1).per(3)
+                    .findAllBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ_%"});
+            assertThat(users.getPagination().getResultCount(), is(5));
+            assertThat(users.getPagination().isApproximate(), is(true));
+            assertThat(users.size(), is(3));
+            assertThat(users.get(0).getId(), is(1L));
+        }
+
+        上限を超えない件数:
+        {
+            final EntityList<Users> users = sut.page(1).per(3)
+                    .findAllBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ_1%"});
+            assertThat(users.getPagination().getResultCount(), is(2));
+            assertThat(users.getPagination().isApproximate(), is(false));
+        }
+
+        概算の件数はキャッシュされないこと:
+        {
+            VariousDbTestHelper.delete(Users.class);
+            final EntityList<Users> users = sut.page(2).per(3)
+                    .findAllBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ_%"});
+            assertThat(users.getPagination().getResultCount(), is(0));
+            assertThat(users.getPagination().isApproximate(), is(false));
+        }
+    }
+
+    /**
+     * 件数キャッシュを設定してページング検索を行うケース。
+     * <p/>
+     * 2ページ目以降はキャッシュした件数が使用され、エンティティの更新でキャッシュが無効化されること。
+     */
+    @Test
+    public void findAllBySqlFile_Paginate_resultCountCache() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        for (int i = 0; i < 10; i++) {
+            long index = i + 1;
+            VariousDbTestHelper.insert(
+                    new Users(index, "なまえ_" + index, DateUtil.getDate(String.valueOf(20120100 + index)),
+                            DaoTestHelper.getDate("20150401123456"))
+            );
+        }
+        sut.setResultCountCache(new BasicResultCountCache());
+
+        sut.page(1).per(3);
+        EntityList<Users> users = sut.findAllBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ_%"});
+        assertThat(users.getPagination().getResultCount(), is(10));
+
+        VariousDbTestHelper.insert(new Users(11L, "なまえ_11", DateUtil.getDate("20120111"),
+                DaoTestHelper.getDate("20150401123456")));
+
+        sut.page(2);
+        users = sut.findAllBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ_%"});
+        assertThat("2ページ目はキャッシュした件数が使われること", users.getPagination().getResultCount(), is(10));
+        assertThat(users.get(0).getId(), is(4L));
+
+        sut.page(1);
+        users = sut.findAllBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ_%"});
+        assertThat("1ページ目は件数を取得し直すこと", users.getPagination().getResultCount(), is(11));
+
+        sut.delete(new Users(11L));
+
+        sut.page(2);
+        users = sut.findAllBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"なまえ_%"});
+        assertThat("削除によりキャッシュが無効化されていること", users.getPagination().getResultCount(), is(10));
+    }
+
+    /**
+     * 実行プロファイルを設定して検索するケース。
+     * <p/>
+     * 呼び出し単位の指定、SQL_ID、エンティティクラスの順に実行プロファイルが適用されること。
+     */
+    @Test
+    public void findAllBySqlFile_executionProfile() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        for (int i = 0; i < 10; i++) {
+            long index = i + 1;
+            VariousDbTestHelper.insert(
+                    new Users(index, "なまえ_" + index, DateUtil.getDate(String.valueOf(20120100 + index)),
+                            DaoTestHelper.getDate("20150401123456"))
+            );
+        }
+        final ExecutionProfile sqlIdProfile = new ExecutionProfile();
+        sqlIdProfile.setMaxRows(3);
+        final ExecutionProfile entityProfile = new ExecutionProfile();
+        entityProfile.setMaxRows(5);
+        final Map<String, ExecutionProfile> profiles = new HashMap<String, ExecutionProfile>();
+        profiles.put(Users.class.getName() + "#FIND_USERS_ALL_NOT_COND", sqlIdProfile);
+        profiles.put(Users.class.getName(), entityProfile);
+        sut.setExecutionProfiles(profiles);
+
+        SQL_IDに対応する実行プロファイル:
+        {
+            EntityList<Users> users = sut.findAllBySqlFile(Users.class, "FIND_USERS_ALL_NOT_COND");
+            assertThat(users.size(), is(3));
+        }
+
+        エンティティクラスに対応する実行プロファイル:
+        {
+            EntityList<Users> users = sut.findAllBySqlFile(Users.class, "FIND_ALL_USERS");
+            assertThat(users.size(), is(5));
+            assertThat(sut.findAll(Users.class).size(), is(5));
+        }
+
+        呼び出し単位に指定した実行プロファイル:
+        {
+            final ExecutionProfile profile = new ExecutionProfile();
+            profile.setMaxRows(1);
+            profile.setFetchSize(100);
+            sut.executionProfile(profile);
+            EntityList<Users> users = sut.findAllBySqlFile(Users.class, "FIND_USERS_ALL_NOT_COND");
+            assertThat(users.size(), is(1));
+        }
+    }
+
     /**
      * {@link BasicDaoContext#findBySqlFile(Class, String, Object)}のテスト。
      *
@@ -979,6 +2360,97 @@ public class BasicDaoContextTest {
         assertThat(user, nullValue());
     }
 
+    /**
+     * {@link BasicDaoContext#findBySqlFileOrNull(Class, String, Object)}で複数件が該当する場合のケース。
+     * <p/>
+     * 先頭の1件が返されること。また、SQL文はページング用に変換されないこと(件数は最大行数で制限する)。
+     */
+    @Test
+    public void findBySqlFileOrNull_multipleRows() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "name_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "name_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")),
+                new Users(3L, "name_3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150401123456")));
+        final TransactionManagerConnection spyConnection = spy(connection);
+        sut.setDbConnection(spyConnection);
+
+        final Users user = sut.findBySqlFileOrNull(Users.class, "FIND_USERS_ALL", new Object[] {"name%"});
+        assertThat(user.getId(), is(1L));
+
+        final ArgumentCaptor<SelectOption> captor = ArgumentCaptor.forClass(SelectOption.class);
+        verify(spyConnection).prepareStatementBySqlId(anyString(), captor.capture());
+        assertThat(captor.getValue().getStartPosition(), is(0));
+        assertThat(captor.getValue().getLimit(), is(0));
+    }
+
+    /**
+     * {@link BasicDaoContext#findBySqlFileOrNull(Class, String, Object)}で件数を制限した場合のケース。
+     * <p/>
+     * 再利用されるステートメントに設定が残らないように、実行後にステートメントの設定が元に戻されること。
+     * また、件数の制限には実行プロファイルの全ての設定が引き継がれること。
+     */
+    @Test
+    public void findBySqlFileOrNull_restoreStatementSettings() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "name_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "name_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")));
+        final ExecutionProfile profile = new ExecutionProfile();
+        profile.setQueryTimeout(30);
+        profile.setFetchSize(500);
+        sut.setExecutionProfiles(Collections.singletonMap(Users.class.getName(), profile));
+
+        final TransactionManagerConnection spyConnection = spy(connection);
+        final List<SqlPStatement> statements = new ArrayList<SqlPStatement>();
+        final List<Integer> queryTimeouts = new ArrayList<Integer>();
+        doAnswer(new Answer<SqlPStatement>() {
+            @Override
+            public SqlPStatement answer(final InvocationOnMock invocation) throws Throwable {
+                final SqlPStatement statement = spy((SqlPStatement) invocation.callRealMethod());
+                statements.add(statement);
+                queryTimeouts.add(statement.getQueryTimeout());
+                return statement;
+            }
+        }).when(spyConnection).prepareStatementBySqlId(anyString(), any(SelectOption.class));
+        sut.setDbConnection(spyConnection);
+
+        final Users user = sut.findBySqlFileOrNull(Users.class, "FIND_USERS_ALL", new Object[] {"name%"});
+        assertThat(user.getId(), is(1L));
+
+        assertThat(statements.size(), is(1));
+        final SqlPStatement statement = statements.get(0);
+        final InOrder inOrder = inOrder(statement);
+        inOrder.verify(statement).setMaxRows(1);
+        inOrder.verify(statement).setFetchSize(1);
+        inOrder.verify(statement).setQueryTimeout(30);
+        inOrder.verify(statement).executeQuery();
+        inOrder.verify(statement).setMaxRows(0);
+        inOrder.verify(statement).setQueryTimeout(queryTimeouts.get(0));
+    }
+
+    /**
+     * 厳密モードの{@link BasicDaoContext#findBySqlFileOrNull(Class, String, Object)}で複数件が該当する場合のケース。
+     * <p/>
+     * {@link NonUniqueResultException}が送出されること。
+     */
+    @Test
+    public void findBySqlFileOrNull_strictSingleResult() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "name_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "name_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")));
+        sut.setStrictSingleResult(true);
+
+        assertThat("1件のみ該当する場合は取得できること",
+                sut.findBySqlFileOrNull(Users.class, "FIND_USERS_ALL", new Object[] {"name\\_2"}).getId(), is(2L));
+        assertThat(sut.findBySqlFileOrNull(Users.class, "FIND_USERS_ALL", new Object[] {"name\\_3"}), is(nullValue()));
+        try {
+            sut.findBySqlFile(Users.class, "FIND_USERS_ALL", new Object[] {"name%"});
+            fail("とおらない");
+        } catch (NonUniqueResultException e) {
+            assertThat(e.getMessage(), is("query returned more than one result. sql_id = "
+                    + Users.class.getName() + "#FIND_USERS_ALL"));
+        }
+    }
+
     /**
      * {@link BasicDaoContext#countBySqlFile(Class, String, Object)}のテスト。
      */
@@ -1052,6 +2524,63 @@ public class BasicDaoContextTest {
         sut.countBySqlFile(Users.class, "FIND_USERS_ALL_WHERE_ENTITY", cond);
     }
 
+    /**
+     * {@link BasicDaoContext#exists(Class, String, Object)}のテスト。
+     */
+    @Test
+    public void exists() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        for (int i = 0; i < 20; i++) {
+            long index = i + 1;
+            VariousDbTestHelper.insert(
+                    new Users(index, "name_" + index, DateUtil.getDate(String.valueOf(20141200 + index)),
+                            DaoTestHelper.getDate("20150401123456"))
+            );
+        }
+
+        Object配列を条件に:
+        {
+            assertThat(sut.exists(Users.class, "FIND_USERS_ALL", new Object[] {"name\\_1_"}), is(true));
+            assertThat(sut.exists(Users.class, "FIND_USERS_ALL", new Object[] {"name\\_3_"}), is(false));
+        }
+
+        Entityを条件に:
+        {
+            Users cond = new Users();
+            cond.setName("name_3");
+            assertThat(sut.exists(Users.class, "FIND_USERS_ALL_WHERE_ENTITY", cond), is(true));
+            cond.setName("name_30");
+            assertThat(sut.exists(Users.class, "FIND_USERS_ALL_WHERE_ENTITY", cond), is(false));
+        }
+
+        Mapを条件に:
+        {
+            HashMap<String, Object> cond = new HashMap<String, Object>();
+            cond.put("name", "name_1");
+            assertThat(sut.exists(Users.class, "FIND_USERS_ALL_WHERE_ENTITY", cond), is(true));
+        }
+    }
+
+    /**
+     * {@link BasicDaoContext#exists(Class, String, Object)}で、件数取得のSQLを使用せず、
+     * 先頭の1件のみを検索範囲とすること。
+     */
+    @Test
+    public void exists_firstRowOnly() throws Exception {
+        final TransactionManagerConnection spyConnection = spy(connection);
+        sut.setDbConnection(spyConnection);
+
+        HashMap<String, Object> cond = new HashMap<String, Object>();
+        cond.put("name", "name_1");
+        sut.exists(Users.class, "FIND_USERS_ALL_WHERE_ENTITY", cond);
+
+        final ArgumentCaptor<SelectOption> captor = ArgumentCaptor.forClass(SelectOption.class);
+        verify(spyConnection).prepareParameterizedSqlStatementBySqlId(anyString(), any(), captor.capture());
+        verify(spyConnection, never()).prepareParameterizedCountSqlStatementBySqlId(anyString(), any());
+        assertThat(captor.getValue().getStartPosition(), is(1));
+        assertThat(captor.getValue().getLimit(), is(1));
+    }
+
     /**
      * {@link BasicDaoContext#update(Object)}のテスト。
      */
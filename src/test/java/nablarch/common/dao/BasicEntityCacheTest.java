@@ -0,0 +1,274 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import jakarta.persistence.Cacheable;
+
+import nablarch.common.dao.DaoTestHelper.Users;
+
+import org.junit.Test;
+
+/**
+ * {@link BasicEntityCache}のテストクラス。
+ */
+public class BasicEntityCacheTest {
+
+    /** 現在時刻 */
+    private long now = 1000L;
+
+    /** テスト対象 */
+    private final BasicEntityCache sut = new BasicEntityCache() {
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    };
+
+    /**
+     * アノテーションまたはクラス名の設定でキャッシュ対象が判定されること。
+     */
+    @Test
+    public void isCacheable() throws Exception {
+        sut.setEntityClassNames(Arrays.asList(Users.class.getName(), NotCacheableEntity.class.getName()));
+
+        assertThat("アノテーションで指定", sut.isCacheable(CacheableEntity.class), is(true));
+        assertThat("クラス名で指定", sut.isCacheable(Users.class), is(true));
+        assertThat("アノテーションの設定が優先される", sut.isCacheable(NotCacheableEntity.class), is(false));
+        assertThat("指定なし", sut.isCacheable(Address.class), is(false));
+    }
+
+    /**
+     * 格納時と取得時にエンティティがコピーされること。
+     */
+    @Test
+    public void get_copy() throws Exception {
+        final Users user = user(1L, "なまえ");
+        put(Users.class, id(1L), user);
+        user.setName("変更後");
+
+        final Users cached = sut.get(Users.class, id(1L));
+        assertThat(cached, is(not(sameInstance(user))));
+        assertThat("格納後の変更は影響しないこと", cached.getName(), is("なまえ"));
+
+        cached.setName("変更後");
+        assertThat("取得後の変更は影響しないこと", sut.get(Users.class, id(1L)).getName(), is("なまえ"));
+    }
+
+    /**
+     * ヒット数、ミス数、ヒット率が取得できること。
+     */
+    @Test
+    public void statistics() throws Exception {
+        assertThat(sut.getHitRate(), is(0.0));
+
+        put(Users.class, id(1L), user(1L, "なまえ"));
+        sut.get(Users.class, id(1L));
+        sut.get(Users.class, id(1L));
+        sut.get(Users.class, id(1L));
+        sut.get(Users.class, id(2L));
+
+        assertThat(sut.getHitCount(), is(3L));
+        assertThat(sut.getMissCount(), is(1L));
+        assertThat(sut.getHitRate(), is(0.75));
+    }
+
+    /**
+     * 有効期限を過ぎたエンティティは取得できないこと。
+     */
+    @Test
+    public void get_expired() throws Exception {
+        sut.setTimeToLive(100L);
+        put(Users.class, id(1L), user(1L, "なまえ"));
+
+        now += 99L;
+        assertThat(sut.get(Users.class, id(1L)).getName(), is("なまえ"));
+
+        now += 1L;
+        assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+        assertThat(sut.getSize(Users.class), is(0));
+    }
+
+    /**
+     * 取得開始後に書き込みがあった場合や、書き込み後の保留期間中は格納されないこと。
+     */
+    @Test
+    public void put_afterWrite() throws Exception {
+        sut.setWriteHoldOff(1000L);
+
+        取得開始後の書き込み: {
+            final long token = sut.beginLoad(Users.class, id(1L));
+            sut.evict(Users.class, id(1L));
+            now += 1000L;
+            sut.put(Users.class, id(1L), user(1L, "書き込み前"), token);
+            assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+        }
+
+        保留期間中: {
+            sut.evict(Users.class, id(1L));
+            now += 999L;
+            put(Users.class, id(1L), user(1L, "確定前"));
+            assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+        }
+
+        保留期間の経過後: {
+            now += 1L;
+            put(Users.class, id(1L), user(1L, "確定後"));
+            assertThat(sut.get(Users.class, id(1L)).getName(), is("確定後"));
+        }
+
+        他のプライマリーキーへの書き込みは影響しないこと: {
+            final long token = sut.beginLoad(Users.class, id(2L));
+            sut.evict(Users.class, id(3L));
+            sut.put(Users.class, id(2L), user(2L, "なまえ2"), token);
+            assertThat(sut.get(Users.class, id(2L)).getName(), is("なまえ2"));
+        }
+
+        エンティティクラス全体の削除: {
+            sut.invalidate(Users.class);
+            put(Users.class, id(4L), user(4L, "なまえ4"));
+            assertThat(sut.get(Users.class, id(4L)), is(nullValue()));
+        }
+    }
+
+    /**
+     * 保留期間を過ぎた書き込み履歴が破棄された場合、破棄前に取得を開始したエンティティは格納されないこと。
+     */
+    @Test
+    public void put_afterPurge() throws Exception {
+        sut.setWriteHoldOff(1000L);
+        final long token = sut.beginLoad(Users.class, id(1L));
+        for (long i = 1; i <= 1024; i++) {
+            sut.evict(Users.class, id(i));
+        }
+        now += 1000L;
+        sut.evict(Users.class, id(2000L));
+
+        sut.put(Users.class, id(1L), user(1L, "破棄前"), token);
+        assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+
+        put(Users.class, id(1L), user(1L, "破棄後"));
+        assertThat(sut.get(Users.class, id(1L)).getName(), is("破棄後"));
+    }
+
+    /**
+     * 有効期限を設定しない場合、10分で期限切れとなること。
+     */
+    @Test
+    public void get_defaultTimeToLive() throws Exception {
+        put(Users.class, id(1L), user(1L, "なまえ"));
+
+        now += 10L * 60L * 1000L - 1L;
+        assertThat(sut.get(Users.class, id(1L)).getName(), is("なまえ"));
+
+        now += 1L;
+        assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+    }
+
+    /**
+     * プライマリーキーまたはエンティティクラスを指定して削除できること。
+     */
+    @Test
+    public void evictAndInvalidate() throws Exception {
+        put(Users.class, id(1L), user(1L, "なまえ1"));
+        put(Users.class, id(2L), user(2L, "なまえ2"));
+        put(Users.class, id(3L), user(3L, "なまえ3"));
+
+        sut.evict(Users.class, id(2L));
+        assertThat(sut.get(Users.class, id(1L)).getName(), is("なまえ1"));
+        assertThat(sut.get(Users.class, id(2L)), is(nullValue()));
+        assertThat(sut.get(Users.class, id(3L)).getName(), is("なまえ3"));
+
+        sut.invalidate(Users.class);
+        assertThat(sut.getSize(Users.class), is(0));
+        assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+    }
+
+    /**
+     * 上限数を超えた場合、アクセス頻度の低いエンティティはメイン領域に格納されず、
+     * アクセス頻度の高いエンティティが保持されること。
+     */
+    @Test
+    public void put_overMaxSize() throws Exception {
+        sut.setMaxSize(100);
+        for (long i = 1; i <= 100; i++) {
+            put(Users.class, id(i), user(i, "なまえ" + i));
+        }
+        for (int count = 0; count < 3; count++) {
+            for (long i = 1; i <= 99; i++) {
+                assertThat(sut.get(Users.class, id(i)).getId(), is(i));
+            }
+        }
+
+        // 一度だけ格納されるエンティティ
+        for (long i = 101; i <= 200; i++) {
+            put(Users.class, id(i), user(i, "なまえ" + i));
+        }
+        assertThat(sut.getSize(Users.class), is(100));
+        for (long i = 1; i <= 99; i++) {
+            assertThat("頻繁にアクセスされるエンティティが保持されていること", sut.get(Users.class, id(i)).getId(), is(i));
+        }
+
+        // 格納前に何度もアクセスされたエンティティは、メイン領域に格納される
+        for (int count = 0; count < 10; count++) {
+            sut.get(Users.class, id(500L));
+        }
+        put(Users.class, id(500L), user(500L, "なまえ500"));
+        put(Users.class, id(501L), user(501L, "なまえ501"));
+        assertThat(sut.get(Users.class, id(500L)).getId(), is(500L));
+        assertThat(sut.getSize(Users.class), is(100));
+    }
+
+    /**
+     * テスト用のエンティティを生成する。
+     *
+     * @param id ID
+     * @param name 名前
+     * @return エンティティ
+     */
+    private static Users user(final Long id, final String name) {
+        final Users user = new Users(id);
+        user.setName(name);
+        return user;
+    }
+
+    /**
+     * キャッシュのキーとなるプライマリーキーを生成する。
+     *
+     * @param id プライマリーキーの値
+     * @return キー
+     */
+    private static List<Object> id(final Object id) {
+        return Collections.singletonList(id);
+    }
+
+    /**
+     * 取得開始時のトークンを取得して、エンティティを格納する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー
+     * @param entity エンティティ
+     * @param <T> エンティティクラスの型
+     */
+    private <T> void put(final Class<T> entityClass, final List<Object> id, final T entity) {
+        sut.put(entityClass, id, entity, sut.beginLoad(entityClass, id));
+    }
+
+    @Cacheable
+    public static class CacheableEntity {
+    }
+
+    @Cacheable(false)
+    public static class NotCacheableEntity {
+    }
+
+    public static class Address {
+    }
+}
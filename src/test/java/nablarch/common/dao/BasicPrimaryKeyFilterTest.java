@@ -0,0 +1,182 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.number.OrderingComparison.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import nablarch.common.dao.DaoTestHelper.Address;
+import nablarch.common.dao.DaoTestHelper.Users;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.transaction.SimpleDbTransactionManager;
+import nablarch.core.transaction.TransactionFactory;
+import nablarch.core.util.DateUtil;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link BasicPrimaryKeyFilter}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class BasicPrimaryKeyFilterTest {
+
+    @Rule
+    public SystemRepositoryResource repositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    /** 現在時刻 */
+    private long now = 100000L;
+
+    /** テスト対象 */
+    private final BasicPrimaryKeyFilter sut = new BasicPrimaryKeyFilter() {
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    };
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        VariousDbTestHelper.createTable(Users.class);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final ConnectionFactory connectionFactory = repositoryResource.getComponent("connectionFactory");
+        final TransactionFactory transactionFactory = repositoryResource.getComponent("jdbcTransactionFactory");
+        final SimpleDbTransactionManager transactionManager = new SimpleDbTransactionManager();
+        transactionManager.setDbTransactionName("filter");
+        transactionManager.setConnectionFactory(connectionFactory);
+        transactionManager.setTransactionFactory(transactionFactory);
+        sut.setTransactionManager(transactionManager);
+        sut.setEntityClassNames(Collections.singletonList(Users.class.getName()));
+
+        final List<Users> users = new ArrayList<Users>();
+        for (long i = 1; i <= 1000; i++) {
+            users.add(new Users(i, "なまえ" + i, DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")));
+        }
+        VariousDbTestHelper.setUpTable(users.toArray(new Users[0]));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sut.dispose();
+    }
+
+    /**
+     * テーブルに存在するプライマリーキーは存在する可能性があると判定され、
+     * 存在しないプライマリーキーの大部分は存在しないと判定されること。
+     */
+    @Test
+    public void mightContain() throws Exception {
+        sut.initialize();
+
+        assertThat(sut.isTarget(Users.class), is(true));
+        for (long i = 1; i <= 1000; i++) {
+            assertThat("偽陰性がないこと", sut.mightContain(Users.class, id(i)), is(true));
+        }
+        assertThat("偽陽性率(1%)の範囲内であること", countFalsePositives(), is(lessThan(200)));
+    }
+
+    /**
+     * 追加したプライマリーキーは、存在する可能性があると判定されること。
+     */
+    @Test
+    public void add() throws Exception {
+        sut.initialize();
+
+        for (long i = 10001; i <= 10100; i++) {
+            sut.add(Users.class, id(i));
+        }
+        for (long i = 10001; i <= 10100; i++) {
+            assertThat(sut.mightContain(Users.class, id(i)), is(true));
+        }
+    }
+
+    /**
+     * 再構築した場合、猶予期間内に追加されたプライマリーキーは再構築後も存在する可能性があると判定されること。
+     */
+    @Test
+    public void rebuild() throws Exception {
+        sut.setRebuildGracePeriod(1000L);
+        sut.initialize();
+
+        sut.add(Users.class, id(20000L));
+        now += 500L;
+        sut.add(Users.class, id(20001L));
+        now += 600L;
+        sut.rebuild(Users.class);
+
+        assertThat("猶予期間内に追加されたプライマリーキー", sut.mightContain(Users.class, id(20001L)), is(true));
+        for (long i = 1; i <= 1000; i++) {
+            assertThat(sut.mightContain(Users.class, id(i)), is(true));
+        }
+    }
+
+    /**
+     * 判定対象外のエンティティクラスは、常に存在する可能性があると判定されること。
+     */
+    @Test
+    public void notTarget() throws Exception {
+        sut.initialize();
+
+        assertThat(sut.isTarget(Address.class), is(false));
+        assertThat(sut.mightContain(Address.class, id(1L)), is(true));
+        try {
+            sut.rebuild(Address.class);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("entity class is not a filter target. class = " + Address.class.getName()));
+        }
+    }
+
+    /**
+     * 偽陽性率に範囲外の値を設定した場合、例外が送出されること。
+     */
+    @Test
+    public void setFalsePositiveProbability_invalid() throws Exception {
+        try {
+            sut.setFalsePositiveProbability(1.0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("false positive probability must be between 0 and 1. false positive probability = 1.0"));
+        }
+    }
+
+    /**
+     * 存在しないプライマリーキー(10000件)のうち、存在する可能性があると判定された件数を返す。
+     *
+     * @return 存在する可能性があると判定された件数
+     */
+    private int countFalsePositives() {
+        int count = 0;
+        for (long i = 1000001; i <= 1010000; i++) {
+            if (sut.mightContain(Users.class, id(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * フィルタのキーとなるプライマリーキーを生成する。
+     *
+     * @param id プライマリーキーの値
+     * @return キー
+     */
+    private static List<Object> id(final Object id) {
+        return Collections.singletonList(id);
+    }
+}
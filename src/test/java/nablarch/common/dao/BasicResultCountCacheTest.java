@@ -0,0 +1,154 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.dao.DaoTestHelper.Users;
+
+import org.junit.Test;
+
+/**
+ * {@link BasicResultCountCache}のテストクラス。
+ */
+public class BasicResultCountCacheTest {
+
+    /** 現在時刻 */
+    private long now = 1000L;
+
+    /** テスト対象 */
+    private final BasicResultCountCache sut = new BasicResultCountCache() {
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    };
+
+    /**
+     * 配列を条件にキャッシュした件数が、同一内容の別インスタンスの配列で取得できること。
+     */
+    @Test
+    public void get_arrayParams() throws Exception {
+        sut.put("sql#ID", new Object[] {"name", 1L}, "DAO_USERS", 10L);
+
+        assertThat(sut.get("sql#ID", new Object[] {"name", 1L}), is(10L));
+        assertThat("条件が異なる場合は取得できないこと", sut.get("sql#ID", new Object[] {"name", 2L}), is(nullValue()));
+        assertThat("SQL_IDが異なる場合は取得できないこと", sut.get("sql#ID2", new Object[] {"name", 1L}), is(nullValue()));
+    }
+
+    /**
+     * Mapを条件にキャッシュした件数が、同一内容の別インスタンスのMapで取得できること。
+     */
+    @Test
+    public void get_mapParams() throws Exception {
+        final Map<String, Object> cond = new HashMap<String, Object>();
+        cond.put("name", "なまえ");
+        cond.put("ids", new Long[] {1L, 2L});
+        sut.put("sql#ID", cond, null, 5L);
+
+        final Map<String, Object> another = new HashMap<String, Object>();
+        another.put("name", "なまえ");
+        another.put("ids", new Long[] {1L, 2L});
+        assertThat(sut.get("sql#ID", another), is(5L));
+    }
+
+    /**
+     * Beanを条件にキャッシュした件数が、同一内容の別インスタンスのBeanで取得できること。
+     */
+    @Test
+    public void get_beanParams() throws Exception {
+        final Users cond = new Users();
+        cond.setName("なまえ");
+        sut.put("sql#ID", cond, "DAO_USERS", 3L);
+
+        final Users another = new Users();
+        another.setName("なまえ");
+        assertThat(sut.get("sql#ID", another), is(3L));
+
+        another.setName("なまえ2");
+        assertThat(sut.get("sql#ID", another), is(nullValue()));
+    }
+
+    /**
+     * 有効期限を過ぎた件数は取得できないこと。
+     */
+    @Test
+    public void get_expired() throws Exception {
+        sut.setTimeToLive(100L);
+        sut.put("sql#ID", new Object[0], null, 10L);
+
+        now += 99L;
+        assertThat(sut.get("sql#ID", new Object[0]), is(10L));
+
+        now += 1L;
+        assertThat(sut.get("sql#ID", new Object[0]), is(nullValue()));
+    }
+
+    /**
+     * 上限数を超えた場合は、最も長い間参照されていない件数から破棄されること。
+     */
+    @Test
+    public void put_overMaxSize() throws Exception {
+        sut.setMaxSize(2);
+        sut.put("sql#ID1", new Object[0], null, 1L);
+        sut.put("sql#ID2", new Object[0], null, 2L);
+        sut.get("sql#ID1", new Object[0]);
+        sut.put("sql#ID3", new Object[0], null, 3L);
+
+        assertThat(sut.get("sql#ID1", new Object[0]), is(1L));
+        assertThat(sut.get("sql#ID2", new Object[0]), is(nullValue()));
+        assertThat(sut.get("sql#ID3", new Object[0]), is(3L));
+    }
+
+    /**
+     * テーブル名を指定して無効化した場合、そのテーブルに関連付けられた件数のみ破棄されること。
+     */
+    @Test
+    public void invalidate() throws Exception {
+        sut.put("sql#ID1", new Object[0], "DAO_USERS", 1L);
+        sut.put("sql#ID2", new Object[0], "DAO_ADDRESS", 2L);
+        sut.put("sql#ID3", new Object[0], null, 3L);
+
+        sut.invalidate("dao_users");
+
+        assertThat(sut.get("sql#ID1", new Object[0]), is(nullValue()));
+        assertThat(sut.get("sql#ID2", new Object[0]), is(2L));
+        assertThat(sut.get("sql#ID3", new Object[0]), is(3L));
+    }
+
+    /**
+     * SQL_IDごとに関連するテーブルを指定した場合、そのテーブルの無効化でも件数が破棄されること。
+     * エンティティクラスでないクラスを検索結果とするSQLも、関連するテーブルの無効化で破棄されること。
+     */
+    @Test
+    public void invalidate_relatedTables() throws Exception {
+        final Map<String, List<String>> relatedTables = new HashMap<String, List<String>>();
+        relatedTables.put("sql#JOIN", Collections.singletonList("dao_address"));
+        relatedTables.put("sql#NOT_ENTITY", Arrays.asList("DAO_USERS", "DAO_ADDRESS"));
+        sut.setRelatedTables(relatedTables);
+
+        sut.put("sql#JOIN", new Object[0], "DAO_USERS", 1L);
+        sut.put("sql#NOT_ENTITY", new Object[0], null, 2L);
+        sut.put("sql#OTHER", new Object[0], "DAO_USERS", 3L);
+
+        sut.invalidate("DAO_ADDRESS");
+
+        assertThat(sut.get("sql#JOIN", new Object[0]), is(nullValue()));
+        assertThat(sut.get("sql#NOT_ENTITY", new Object[0]), is(nullValue()));
+        assertThat(sut.get("sql#OTHER", new Object[0]), is(3L));
+
+        検索結果のエンティティクラスのテーブルも関連付けられていること:
+        {
+            sut.put("sql#JOIN", new Object[0], "DAO_USERS", 1L);
+            sut.invalidate("DAO_USERS");
+            assertThat(sut.get("sql#JOIN", new Object[0]), is(nullValue()));
+            assertThat(sut.get("sql#OTHER", new Object[0]), is(nullValue()));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+/**
+ * {@link CappedCountStrategy}のテストクラス。
+ */
+public class CappedCountStrategyTest {
+
+    /** テスト対象 */
+    private final CappedCountStrategy sut = new CappedCountStrategy();
+
+    /** 件数を取得する検索 */
+    private final CountQuery query = mock(CountQuery.class);
+
+    /**
+     * 上限の次の位置のレコードが存在する場合、件数取得SQLを実行せずに上限値が概算の件数となること。
+     */
+    @Test
+    public void count_overCap() throws Exception {
+        when(query.hasRowAt(10001L)).thenReturn(true);
+
+        final CountResult result = sut.count(query);
+        assertThat(result.getCount(), is(10000L));
+        assertThat(result.isApproximate(), is(true));
+        verify(query, never()).count();
+    }
+
+    /**
+     * 上限の次の位置のレコードが存在しない場合、正確な件数となること。
+     */
+    @Test
+    public void count_withinCap() throws Exception {
+        sut.setCap(100L);
+        when(query.hasRowAt(101L)).thenReturn(false);
+        when(query.count()).thenReturn(42L);
+
+        final CountResult result = sut.count(query);
+        assertThat(result.getCount(), is(42L));
+        assertThat(result.isApproximate(), is(false));
+    }
+
+    /**
+     * 上限に1未満の値、または検索範囲の開始位置に収まらない値を設定した場合、例外が送出されること。
+     */
+    @Test
+    public void setCap_invalid() throws Exception {
+        try {
+            sut.setCap(0L);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("cap must be greater than 0. cap = 0"));
+        }
+        try {
+            sut.setCap(Integer.MAX_VALUE);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("cap must be less than or equal to 2147483646. cap = 2147483647"));
+        }
+        sut.setCap(Integer.MAX_VALUE - 1L);
+        when(query.hasRowAt(Integer.MAX_VALUE)).thenReturn(true);
+        assertThat("上限の最大値を設定できること", sut.count(query).getCount(), is(Integer.MAX_VALUE - 1L));
+    }
+}
@@ -0,0 +1,66 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * {@link ChangePosition}のテストクラス。
+ */
+public class ChangePositionTest {
+
+    /**
+     * ウォーターマークとID列の値を保持すること。
+     */
+    @Test
+    public void of() throws Exception {
+        final ChangePosition sut = ChangePosition.of(3L, 1L, "a");
+        assertThat(sut.getWatermark(), is((Object) 3L));
+        assertThat(sut.getIds(), is(Arrays.<Object>asList(1L, "a")));
+        assertThat(sut, is(ChangePosition.of(3L, 1L, "a")));
+        assertThat(sut, is(not(ChangePosition.of(3L, 2L, "a"))));
+        assertThat(sut.toString(), is("3/[1, a]"));
+    }
+
+    /**
+     * ウォーターマークのみの位置は、ID列の値が空となること。
+     */
+    @Test
+    public void after() throws Exception {
+        final ChangePosition sut = ChangePosition.after(3L);
+        assertThat(sut.getWatermark(), is((Object) 3L));
+        assertThat(sut.getIds(), is(Collections.emptyList()));
+        assertThat(sut, is(not(ChangePosition.of(3L, 1L))));
+    }
+
+    /**
+     * ウォーターマークまたはID列の値がない場合は、{@link IllegalArgumentException}が送出されること。
+     */
+    @Test
+    public void invalid() throws Exception {
+        try {
+            ChangePosition.after(null);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("watermark must not be null."));
+        }
+        try {
+            ChangePosition.of(3L);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("watermark and ids must not be null."));
+        }
+        try {
+            ChangePosition.of(3L, 1L, null);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("watermark and ids must not be null."));
+        }
+    }
+}
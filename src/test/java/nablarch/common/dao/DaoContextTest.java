@@ -0,0 +1,60 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * {@link DaoContext}のデフォルト実装のテストクラス。
+ */
+public class DaoContextTest {
+
+    /** テスト対象(デフォルト実装以外のメソッドはスタブ化する) */
+    private final DaoContext sut = mock(DaoContext.class, CALLS_REAL_METHODS);
+
+    /**
+     * 既存のメソッドに委譲できるものは、委譲した結果が返されること。
+     */
+    @Test
+    public void delegate() throws Exception {
+        doReturn(new EntityList<String>(Arrays.asList("a", "b"))).when(sut).findAll(String.class);
+        doReturn(new EntityList<String>(Arrays.asList("c"))).when(sut).findAllBySqlFile(String.class, "SQL", "p");
+        doReturn(0L).when(sut).countBySqlFile(String.class, "EMPTY", "p");
+        doReturn(3L).when(sut).countBySqlFile(String.class, "SQL", "p");
+
+        assertThat(sut.streamAll(String.class).collect(Collectors.toList()), contains("a", "b"));
+        assertThat(sut.streamBySqlFile(String.class, "SQL", "p").collect(Collectors.toList()), contains("c"));
+        assertThat(sut.exists(String.class, "SQL", "p"), is(true));
+        assertThat(sut.exists(String.class, "EMPTY", "p"), is(false));
+        assertThat("先読みは指定を無視すること", sut.prefetch(10), is(sameInstance(sut)));
+    }
+
+    /**
+     * 既存のメソッドに委譲できないものは、{@link UnsupportedOperationException}が送出されること。
+     */
+    @Test
+    public void unsupported() throws Exception {
+        try {
+            sut.findAllByIds(String.class, Arrays.asList(1L, 2L));
+            fail("とおらない");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), is("findAllByIds"));
+        }
+        try {
+            sut.orderBy("name");
+            fail("とおらない");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), is("orderBy"));
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 
 import jakarta.persistence.Access;
 import jakarta.persistence.AccessType;
@@ -13,6 +14,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.TableGenerator;
@@ -511,6 +515,83 @@ public class DaoTestHelper {
         }
     }
 
+    /** USERSテーブルに対応し、住所との関連を持つEntity */
+    @Entity
+    @Table(name = "DAO_USERS")
+    public static class UsersWithAddresses extends Users {
+
+        private List<AddressWithUser> addresses;
+
+        @OneToMany(mappedBy = "user")
+        public List<AddressWithUser> getAddresses() {
+            return addresses;
+        }
+
+        public void setAddresses(List<AddressWithUser> addresses) {
+            this.addresses = addresses;
+        }
+    }
+
+    /** USER_ADDRESSに対応し、ユーザとの関連を持つエンティティ */
+    @Entity
+    @Table(name = "USER_ADDRESS")
+    public static class AddressWithUser extends Address {
+
+        private Users user;
+
+        @ManyToOne
+        @JoinColumn(name = "USER_ID")
+        public Users getUser() {
+            return user;
+        }
+
+        public void setUser(Users user) {
+            this.user = user;
+        }
+    }
+
+    /** キー格納用テーブル({@link TemporaryKeyTable})に対応したEntity */
+    @Entity
+    @Table(name = "DAO_TEMPORARY_KEYS")
+    public static class TemporaryKeys {
+
+        @Column(name = "SESSION_ID", length = 36)
+        public String sessionId;
+
+        @Column(name = "KEY1", length = 15)
+        public Long key1;
+
+        @Column(name = "KEY2", length = 1)
+        public String key2;
+
+        @Column(name = "SESSION_ID", length = 36)
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public void setSessionId(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        @Column(name = "KEY1", length = 15)
+        public Long getKey1() {
+            return key1;
+        }
+
+        public void setKey1(Long key1) {
+            this.key1 = key1;
+        }
+
+        @Column(name = "KEY2", length = 1)
+        public String getKey2() {
+            return key2;
+        }
+
+        public void setKey2(String key2) {
+            this.key2 = key2;
+        }
+    }
+
     /** 集約関数の結果をマッピングするBeanクラス */
     public static class SqlFunctionResult {
         private BigDecimal bigDecimalCol;
@@ -4,6 +4,10 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.hamcrest.CoreMatchers;
 
@@ -97,6 +101,48 @@ public class DeferredEntityListTest {
         iterator.remove();
     }
 
+    /**
+     * {@link DeferredEntityList#stream()}で検索結果を順に取得できること。
+     */
+    @Test
+    public void stream() throws Exception {
+        try (Stream<SqlRow> stream = createDeferredEntity().stream()) {
+            assertThat(stream.map(row -> row.getInteger("userId")).collect(Collectors.toList()),
+                    CoreMatchers.hasItems(1, 2, 3));
+        }
+    }
+
+    /**
+     * {@link DeferredEntityList#spliterator()}が順序付きかつ非nullであることを報告すること。
+     */
+    @Test
+    public void spliterator() throws Exception {
+        final DeferredEntityList<SqlRow> sut = createDeferredEntity();
+        try {
+            final Spliterator<SqlRow> spliterator = sut.spliterator();
+            assertThat(spliterator.hasCharacteristics(Spliterator.ORDERED), is(true));
+            assertThat(spliterator.hasCharacteristics(Spliterator.NONNULL), is(true));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * {@link DeferredEntityList#stream()}で取得したストリームをクローズすると、リソースが解放されること。
+     */
+    @Test(expected = DbAccessException.class)
+    public void stream_close() throws Exception {
+        final Stream<SqlRow> stream = createDeferredEntity().stream();
+        final Iterator<SqlRow> iterator = stream.iterator();
+        assertThat("レコードがあることを確認", iterator.hasNext(), is(true));
+        iterator.next();
+
+        stream.close();
+
+        // 接続がクローズされているのでここで例外が発生すること
+        iterator.hasNext();
+    }
+
     /**
      * {@link DeferredEntityList#close()}のテスト。
      */
@@ -112,6 +158,87 @@ public class DeferredEntityListTest {
         iterator.next();
     }
 
+    /**
+     * 先読みを指定した場合、{@link DeferredEntityList#iterator()}で検索結果を順に取得できること。
+     */
+    @Test
+    public void iterator_prefetch() throws Exception {
+        final DeferredEntityList<SqlRow> sut = createDeferredEntity(2);
+        try {
+            final Iterator<SqlRow> iterator = sut.iterator();
+            assertThat(iterator.hasNext(), is(true));
+            assertThat(iterator.next().getInteger("userId"), is(1));
+            assertThat(iterator.next().getInteger("userId"), is(2));
+            assertThat(iterator.next().getInteger("userId"), is(3));
+            assertThat("次のレコードはないこと", iterator.hasNext(), is(false));
+            assertThat("繰り返し呼び出しても結果は変わらないこと", iterator.hasNext(), is(false));
+            try {
+                iterator.next();
+                fail("とおらない");
+            } catch (NoSuchElementException ignored) {
+            }
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 先読みを指定した場合、{@link DeferredEntityList#iterator()}を2回呼び出すと例外が送出されること。
+     */
+    @Test
+    public void iterator_prefetchTwice() throws Exception {
+        final DeferredEntityList<SqlRow> sut = createDeferredEntity(2);
+        try {
+            sut.iterator();
+            try {
+                sut.iterator();
+                fail("とおらない");
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("prefetching iterator has already been created."));
+            }
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 先読みを指定した場合、エンティティへの変換も先読みされ、ストリームで検索結果を取得できること。
+     */
+    @Test
+    public void stream_prefetch() throws Exception {
+        createDeferredEntity(1).close();
+        final ResultSetIterator rs = connection.prepareStatement("SELECT * FROM DAO_USERS ORDER BY USER_ID")
+                .executeQuery();
+        try (Stream<Users> stream = new DeferredEntityList<Users>(Users.class, new SqlResourceHolder(rs), 1).stream()) {
+            assertThat(stream.map(Users::getName).collect(Collectors.toList()),
+                    CoreMatchers.hasItems("name_1", "name_2", "name_3"));
+        }
+    }
+
+    /**
+     * 先読みスレッドがバッファの空きを待機している状態でクローズした場合、
+     * 先読みスレッドが停止し、以降の取得で例外が送出されること。
+     */
+    @Test
+    public void close_prefetch() throws Exception {
+        final DeferredEntityList<SqlRow> sut = createDeferredEntity(1);
+        final Iterator<SqlRow> iterator = sut.iterator();
+        assertThat(iterator.next().getInteger("userId"), is(1));
+
+        sut.close();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            assertThat("先読みスレッドが停止していること",
+                    thread.getName().equals("deferred-entity-list-prefetch"), is(false));
+        }
+        try {
+            iterator.hasNext();
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("prefetching has already been cancelled."));
+        }
+        sut.close();
+    }
+
     @Test(expected = UnsupportedOperationException.class)
     public void listIterator() throws Exception {
         createDeferredEntity().listIterator();
@@ -226,6 +353,15 @@ public class DeferredEntityListTest {
      * テスト対象の{@link DeferredEntityList}を生成する。
      */
     private DeferredEntityList<SqlRow> createDeferredEntity() {
+        return createDeferredEntity(0);
+    }
+
+    /**
+     * テスト対象の{@link DeferredEntityList}を生成する。
+     *
+     * @param prefetchSize 先読みのバッファサイズ
+     */
+    private DeferredEntityList<SqlRow> createDeferredEntity(final int prefetchSize) {
         VariousDbTestHelper.setUpTable(
                 new Users(1L, "name_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
                 new Users(2L, "name_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456")),
@@ -234,7 +370,7 @@ public class DeferredEntityListTest {
 
         ResultSetIterator rs = connection.prepareStatement("SELECT * FROM DAO_USERS ORDER BY USER_ID")
                 .executeQuery();
-        return new DeferredEntityList<SqlRow>(SqlRow.class, new SqlResourceHolder(rs));
+        return new DeferredEntityList<SqlRow>(SqlRow.class, new SqlResourceHolder(rs), prefetchSize);
     }
 }
 
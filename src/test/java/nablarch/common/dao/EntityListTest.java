@@ -29,6 +29,27 @@ public class EntityListTest {
         assertThat(pagination.getResultCount(), is(500));
     }
 
+    /**
+     * {@link Integer#MAX_VALUE}を超える総件数と位置が、{@code long}で取得できること。
+     * {@code int}で返すメソッドでは、{@link Integer#MAX_VALUE}に丸められること。
+     */
+    @Test
+    public void paging_large() throws Exception {
+        EntityList<Object> sut = new EntityList<Object>();
+        sut.setMax(1000);
+        sut.setPage(3000000);
+        sut.setResultCount(5000000000L);
+        Pagination pagination = sut.getPagination();
+        assertThat(pagination.getLargeResultCount(), is(5000000000L));
+        assertThat(pagination.getLargePageNumber(), is(3000000L));
+        assertThat(pagination.getLargeMax(), is(1000L));
+        assertThat(pagination.getLargeStartPosition(), is(2999999001L));
+        assertThat(pagination.getLargeEndPosition(), is(3000000000L));
+        assertThat(pagination.getLargePageCount(), is(5000000L));
+        assertThat(pagination.getResultCount(), is(Integer.MAX_VALUE));
+        assertThat(pagination.getPageNumber(), is(3000000));
+    }
+
     /**
      * インスタンスの生成に関するテスト
      */
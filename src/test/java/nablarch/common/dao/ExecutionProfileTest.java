@@ -0,0 +1,119 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import nablarch.core.db.statement.SqlPStatement;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+/**
+ * {@link ExecutionProfile}のテストクラス。
+ */
+public class ExecutionProfileTest {
+
+    /**
+     * 設定した項目がステートメントに適用されること。
+     */
+    @Test
+    public void applyTo() throws Exception {
+        final ExecutionProfile sut = new ExecutionProfile();
+        sut.setFetchSize(500);
+        sut.setMaxRows(1000);
+        sut.setQueryTimeout(30);
+
+        final SqlPStatement statement = mock(SqlPStatement.class);
+        sut.applyTo(statement);
+
+        verify(statement).setFetchSize(500);
+        verify(statement).setMaxRows(1000);
+        verify(statement).setQueryTimeout(30);
+    }
+
+    /**
+     * 設定していない項目はステートメントに適用されないこと。
+     */
+    @Test
+    public void applyTo_notSet() throws Exception {
+        final ExecutionProfile sut = new ExecutionProfile();
+        sut.setFetchSize(100);
+
+        final SqlPStatement statement = mock(SqlPStatement.class);
+        sut.applyTo(statement);
+
+        verify(statement).setFetchSize(100);
+        verify(statement, never()).setMaxRows(anyInt());
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    /**
+     * フェッチサイズが最大行数を超える場合、最大行数に切り詰めて適用されること。
+     */
+    @Test
+    public void applyTo_fetchSizeOverMaxRows() throws Exception {
+        final ExecutionProfile sut = new ExecutionProfile();
+        sut.setFetchSize(100);
+        sut.setMaxRows(5);
+
+        final SqlPStatement statement = mock(SqlPStatement.class);
+        sut.applyTo(statement);
+
+        verify(statement).setMaxRows(5);
+        verify(statement).setFetchSize(5);
+    }
+
+    /**
+     * 設定した項目について、ステートメントの現在の設定値が取得されること。
+     */
+    @Test
+    public void captureFrom() throws Exception {
+        final ExecutionProfile sut = new ExecutionProfile();
+        sut.setFetchSize(500);
+        sut.setMaxRows(1000);
+
+        final SqlPStatement statement = mock(SqlPStatement.class);
+        when(statement.getFetchSize()).thenReturn(10);
+        when(statement.getMaxRows()).thenReturn(0);
+        when(statement.getQueryTimeout()).thenReturn(60);
+        final ExecutionProfile current = sut.captureFrom(statement);
+
+        assertThat(current.getFetchSize(), is(10));
+        assertThat(current.getMaxRows(), is(0));
+        assertThat("設定していない項目は取得されないこと", current.getQueryTimeout(), is(nullValue()));
+    }
+
+    /**
+     * 取得した設定値を適用することで、ステートメントの設定が元に戻されること。
+     */
+    @Test
+    public void captureFrom_restore() throws Exception {
+        final ExecutionProfile sut = new ExecutionProfile();
+        sut.setFetchSize(100);
+        sut.setMaxRows(5);
+        sut.setQueryTimeout(30);
+
+        final SqlPStatement statement = mock(SqlPStatement.class);
+        when(statement.getFetchSize()).thenReturn(10);
+        when(statement.getMaxRows()).thenReturn(0);
+        when(statement.getQueryTimeout()).thenReturn(60);
+        final ExecutionProfile previous = sut.captureFrom(statement);
+        sut.applyTo(statement);
+        previous.applyTo(statement);
+
+        final InOrder inOrder = inOrder(statement);
+        inOrder.verify(statement).setMaxRows(5);
+        inOrder.verify(statement).setFetchSize(5);
+        inOrder.verify(statement).setQueryTimeout(30);
+        inOrder.verify(statement).setMaxRows(0);
+        inOrder.verify(statement).setFetchSize(10);
+        inOrder.verify(statement).setQueryTimeout(60);
+    }
+}
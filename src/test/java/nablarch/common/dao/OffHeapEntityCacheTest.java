@@ -0,0 +1,374 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import nablarch.common.dao.DaoTestHelper.Users;
+import nablarch.core.util.DateUtil;
+
+import org.junit.Test;
+
+/**
+ * {@link OffHeapEntityCache}のテストクラス。
+ */
+public class OffHeapEntityCacheTest {
+
+    /** 現在時刻 */
+    private long now = 1000L;
+
+    /** テスト対象 */
+    private final OffHeapEntityCache sut = new OffHeapEntityCache() {
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    };
+
+    /**
+     * アノテーションまたはクラス名の設定でキャッシュ対象が判定されること。
+     * サポートしない型のプロパティを持つエンティティクラスは、キャッシュ対象とならないこと。
+     */
+    @Test
+    public void isCacheable() throws Exception {
+        sut.setEntityClassNames(Arrays.asList(Users.class.getName(), UnsupportedEntity.class.getName()));
+
+        assertThat("アノテーションで指定", sut.isCacheable(TypesEntity.class), is(true));
+        assertThat("クラス名で指定", sut.isCacheable(Users.class), is(true));
+        assertThat("サポートしない型", sut.isCacheable(UnsupportedEntity.class), is(false));
+        assertThat("指定なし", sut.isCacheable(DaoTestHelper.Address.class), is(false));
+    }
+
+    /**
+     * 格納したエンティティが復元されること。また、取得のたびに異なるインスタンスが返されること。
+     */
+    @Test
+    public void get() throws Exception {
+        final Users user = new Users(1L, "なまえ", DateUtil.getDate("20140101"),
+                DaoTestHelper.getDate("20150401123456"), 3L, true);
+        put(Users.class, id(1L), user);
+        user.setName("変更後");
+
+        final Users cached = sut.get(Users.class, id(1L));
+        assertThat(cached, is(not(sameInstance(user))));
+        assertThat(cached.getId(), is(1L));
+        assertThat("格納後の変更は影響しないこと", cached.getName(), is("なまえ"));
+        assertThat(cached.getBirthday(), is(DateUtil.getDate("20140101")));
+        assertThat(cached.getInsertDate(), is(DaoTestHelper.getDate("20150401123456")));
+        assertThat(cached.getVersion(), is(3L));
+        assertThat(cached.isActive(), is(true));
+
+        cached.setName("変更後");
+        assertThat("取得後の変更は影響しないこと", sut.get(Users.class, id(1L)).getName(), is("なまえ"));
+        assertThat(sut.get(Users.class, id(2L)), is(nullValue()));
+        assertThat(sut.getHitCount(), is(2L));
+        assertThat(sut.getMissCount(), is(1L));
+    }
+
+    /**
+     * サポートする型のプロパティとnullが復元されること。
+     */
+    @Test
+    public void get_types() throws Exception {
+        final TypesEntity entity = new TypesEntity();
+        entity.setId("キー");
+        entity.setAmount(new BigDecimal("-12345.678"));
+        final Timestamp timestamp = Timestamp.valueOf("2015-04-01 12:34:56.123456789");
+        entity.setUpdatedAt(timestamp);
+        entity.setBusinessDate(LocalDate.of(2015, 4, 1));
+        entity.setData(new byte[] {1, 2, 3});
+        put(TypesEntity.class, id("キー"), entity);
+
+        final TypesEntity cached = sut.get(TypesEntity.class, id("キー"));
+        assertThat(cached.getId(), is("キー"));
+        assertThat(cached.getAmount(), is(new BigDecimal("-12345.678")));
+        assertThat(cached.getUpdatedAt(), is(timestamp));
+        assertThat(cached.getBusinessDate(), is(LocalDate.of(2015, 4, 1)));
+        assertThat(cached.getData(), is(new byte[] {1, 2, 3}));
+        assertThat(cached.getCount(), is(nullValue()));
+    }
+
+    /**
+     * 有効期限を過ぎたエンティティは取得できないこと。
+     */
+    @Test
+    public void get_expired() throws Exception {
+        sut.setTimeToLive(100L);
+        put(Users.class, id(1L), user(1L, "なまえ"));
+
+        now += 99L;
+        assertThat(sut.get(Users.class, id(1L)).getName(), is("なまえ"));
+
+        now += 1L;
+        assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+        assertThat(sut.getSize(Users.class), is(0));
+    }
+
+    /**
+     * 取得開始後に書き込みがあった場合や、書き込み後の保留期間中は格納されないこと。
+     */
+    @Test
+    public void put_afterWrite() throws Exception {
+        sut.setWriteHoldOff(1000L);
+
+        取得開始後の書き込み: {
+            final long token = sut.beginLoad(Users.class, id(1L));
+            sut.evict(Users.class, id(1L));
+            now += 1000L;
+            sut.put(Users.class, id(1L), user(1L, "書き込み前"), token);
+            assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+        }
+
+        保留期間中: {
+            sut.evict(Users.class, id(1L));
+            now += 999L;
+            put(Users.class, id(1L), user(1L, "確定前"));
+            assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+        }
+
+        保留期間の経過後: {
+            now += 1L;
+            put(Users.class, id(1L), user(1L, "確定後"));
+            assertThat(sut.get(Users.class, id(1L)).getName(), is("確定後"));
+        }
+
+        他のプライマリーキーへの書き込みは影響しないこと: {
+            final long token = sut.beginLoad(Users.class, id(2L));
+            sut.evict(Users.class, id(3L));
+            sut.put(Users.class, id(2L), user(2L, "なまえ2"), token);
+            assertThat(sut.get(Users.class, id(2L)).getName(), is("なまえ2"));
+        }
+
+        エンティティクラス全体の削除: {
+            sut.invalidate(Users.class);
+            put(Users.class, id(4L), user(4L, "なまえ4"));
+            assertThat(sut.get(Users.class, id(4L)), is(nullValue()));
+        }
+    }
+
+    /**
+     * 有効期限を設定しない場合、10分で期限切れとなること。
+     */
+    @Test
+    public void get_defaultTimeToLive() throws Exception {
+        put(Users.class, id(1L), user(1L, "なまえ"));
+
+        now += 10L * 60L * 1000L - 1L;
+        assertThat(sut.get(Users.class, id(1L)).getName(), is("なまえ"));
+
+        now += 1L;
+        assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+    }
+
+    /**
+     * プライマリーキーまたはエンティティクラスを指定して削除できること。
+     */
+    @Test
+    public void evictAndInvalidate() throws Exception {
+        put(Users.class, id(1L), user(1L, "なまえ1"));
+        put(Users.class, id(2L), user(2L, "なまえ2"));
+        put(Users.class, id(3L), user(3L, "なまえ3"));
+
+        sut.evict(Users.class, id(2L));
+        assertThat(sut.get(Users.class, id(1L)).getName(), is("なまえ1"));
+        assertThat(sut.get(Users.class, id(2L)), is(nullValue()));
+        assertThat(sut.get(Users.class, id(3L)).getName(), is("なまえ3"));
+        assertThat(sut.getSize(Users.class), is(2));
+
+        sut.invalidate(Users.class);
+        assertThat(sut.getSize(Users.class), is(0));
+        assertThat(sut.get(Users.class, id(1L)), is(nullValue()));
+    }
+
+    /**
+     * データ領域と索引が拡張され、全てのエンティティが取得できること。
+     */
+    @Test
+    public void put_grow() throws Exception {
+        sut.setInitialCapacity(1024);
+        for (long i = 1; i <= 5000; i++) {
+            put(Users.class, id(i), user(i, "なまえ" + i));
+        }
+        assertThat(sut.getSize(Users.class), is(5000));
+        assertThat(sut.getCapacity(Users.class) > 1024, is(true));
+        for (long i = 1; i <= 5000; i++) {
+            assertThat(sut.get(Users.class, id(i)).getName(), is("なまえ" + i));
+        }
+    }
+
+    /**
+     * 上限サイズに達した場合、不要な領域が詰められ、有効なエンティティが保持されること。
+     * 詰めても空きがない場合は、全てのエンティティが破棄されること。
+     */
+    @Test
+    public void put_overMaxCapacity() throws Exception {
+        sut.setInitialCapacity(8 * 1024);
+        sut.setMaxCapacity(16 * 1024);
+
+        更新の繰り返し: {
+            for (int count = 0; count < 50; count++) {
+                for (long i = 1; i <= 10; i++) {
+                    put(Users.class, id(i), user(i, "なまえ" + i + "_" + count));
+                }
+            }
+            assertThat(sut.getSize(Users.class), is(10));
+            assertThat("不要な領域が詰められ、拡張されないこと", sut.getCapacity(Users.class), is(8 * 1024));
+            for (long i = 1; i <= 10; i++) {
+                assertThat(sut.get(Users.class, id(i)).getName(), is("なまえ" + i + "_49"));
+            }
+        }
+
+        上限を超える件数: {
+            for (long i = 11; i <= 1000; i++) {
+                put(Users.class, id(i), user(i, "なまえ" + i));
+            }
+            assertThat(sut.getSize(Users.class) < 1000, is(true));
+            assertThat("最後に格納したエンティティは取得できること", sut.get(Users.class, id(1000L)).getName(), is("なまえ1000"));
+        }
+    }
+
+    /**
+     * テスト用のエンティティを生成する。
+     *
+     * @param id ID
+     * @param name 名前
+     * @return エンティティ
+     */
+    private static Users user(final Long id, final String name) {
+        final Users user = new Users(id);
+        user.setName(name);
+        return user;
+    }
+
+    /**
+     * キャッシュのキーとなるプライマリーキーを生成する。
+     *
+     * @param id プライマリーキーの値
+     * @return キー
+     */
+    private static List<Object> id(final Object id) {
+        return Collections.singletonList(id);
+    }
+
+    /**
+     * 取得開始時のトークンを取得して、エンティティを格納する。
+     *
+     * @param entityClass エンティティクラス
+     * @param id プライマリーキー
+     * @param entity エンティティ
+     * @param <T> エンティティクラスの型
+     */
+    private <T> void put(final Class<T> entityClass, final List<Object> id, final T entity) {
+        sut.put(entityClass, id, entity, sut.beginLoad(entityClass, id));
+    }
+
+    @Entity
+    @Table(name = "OFF_HEAP_TYPES")
+    @Cacheable
+    public static class TypesEntity {
+
+        private String id;
+
+        private BigDecimal amount;
+
+        private Integer count;
+
+        private Timestamp updatedAt;
+
+        private LocalDate businessDate;
+
+        private byte[] data;
+
+        @Id
+        @Column(name = "ID")
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public Integer getCount() {
+            return count;
+        }
+
+        public void setCount(Integer count) {
+            this.count = count;
+        }
+
+        public Timestamp getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public void setUpdatedAt(Timestamp updatedAt) {
+            this.updatedAt = updatedAt;
+        }
+
+        public LocalDate getBusinessDate() {
+            return businessDate;
+        }
+
+        public void setBusinessDate(LocalDate businessDate) {
+            this.businessDate = businessDate;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public void setData(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    @Entity
+    @Table(name = "OFF_HEAP_UNSUPPORTED")
+    public static class UnsupportedEntity {
+
+        private Long id;
+
+        private List<String> values;
+
+        @Id
+        @Column(name = "ID")
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public List<String> getValues() {
+            return values;
+        }
+
+        public void setValues(List<String> values) {
+            this.values = values;
+        }
+    }
+}
@@ -22,6 +22,24 @@ public class PaginationTest {
         assertThat("インスタンスが作れること", pagination, is(notNullValue()));
     }
 
+    /**
+     * 継承したメソッドで設定した値が、{@code long}で値を返すメソッドにも反映されること。
+     */
+    @Test
+    public void largeValues_inheritedSetters() throws Exception {
+        Pagination pagination = new Pagination();
+        pagination.setLargeResultCount(5000000000L);
+        pagination.setPageNumber(2);
+        pagination.setMax(20);
+        pagination.setResultCount(30);
+        assertThat(pagination.getLargePageNumber(), is(2L));
+        assertThat(pagination.getLargeMax(), is(20L));
+        assertThat(pagination.getLargeResultCount(), is(30L));
+        assertThat(pagination.getLargeStartPosition(), is(21L));
+        assertThat(pagination.getLargeEndPosition(), is(30L));
+        assertThat(pagination.getLargePageCount(), is(2L));
+    }
+
     /**
      * getSearchConditionPropsは未サポートであること
      *
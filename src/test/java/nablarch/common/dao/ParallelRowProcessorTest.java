@@ -0,0 +1,173 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import nablarch.core.db.statement.SqlRow;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * {@link ParallelRowProcessor}のテストクラス。
+ */
+public class ParallelRowProcessorTest {
+
+    /** テストで使用するスレッドプール */
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 処理中のレコードの件数が上限を超えないこと。
+     */
+    @Test
+    public void maxInFlight() throws Exception {
+        final AtomicInteger pulled = new AtomicInteger();
+        final AtomicInteger delivered = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final Iterator<SqlRow> rows = new Iterator<SqlRow>() {
+            @Override
+            public boolean hasNext() {
+                return pulled.get() < 20;
+            }
+
+            @Override
+            public SqlRow next() {
+                final int inFlight = pulled.incrementAndGet() - delivered.get();
+                maxInFlight.set(Math.max(maxInFlight.get(), inFlight));
+                return row(pulled.get());
+            }
+        };
+        final List<Integer> results = new ArrayList<Integer>();
+        final long count = new ParallelRowProcessor<Integer, Integer>(executor, 3, true)
+                .process(rows, ID, id -> id * 10, result -> {
+                    delivered.incrementAndGet();
+                    results.add(result);
+                });
+
+        assertThat(count, is(20L));
+        assertThat(results.size(), is(20));
+        assertThat(results.get(0), is(10));
+        assertThat(results.get(19), is(200));
+        assertThat(maxInFlight.get(), lessThanOrEqualTo(3));
+    }
+
+    /**
+     * 受け取り関数で例外が発生した場合、例外がそのまま送出され、以降のレコードは取得されないこと。
+     */
+    @Test
+    public void sinkFailure() throws Exception {
+        final AtomicInteger pulled = new AtomicInteger();
+        final Iterator<SqlRow> rows = new Iterator<SqlRow>() {
+            @Override
+            public boolean hasNext() {
+                return pulled.get() < 100;
+            }
+
+            @Override
+            public SqlRow next() {
+                return row(pulled.incrementAndGet());
+            }
+        };
+        final List<Integer> results = new ArrayList<Integer>();
+        try {
+            new ParallelRowProcessor<Integer, Integer>(executor, 2, true).process(rows, ID, id -> id, result -> {
+                if (result == 3) {
+                    throw new IllegalStateException("sink error");
+                }
+                results.add(result);
+            });
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("sink error"));
+        }
+        assertThat(results, contains(1, 2));
+        assertThat(pulled.get(), lessThanOrEqualTo(5));
+    }
+
+    /**
+     * エンティティへの変換で発生したエラーが、そのまま送出されること。
+     */
+    @Test
+    public void mappingFailure() throws Exception {
+        final Iterator<SqlRow> rows = Arrays.asList(row(1), row(2)).iterator();
+        try {
+            new ParallelRowProcessor<Integer, Integer>(executor, 2, false).process(rows,
+                    row -> {
+                        throw new AssertionError("mapping error");
+                    }, id -> id, result -> {});
+            fail("とおらない");
+        } catch (AssertionError e) {
+            assertThat(e.getMessage(), is("mapping error"));
+        }
+    }
+
+    /**
+     * 処理で検査例外が送出された場合、{@link IllegalStateException}で包んで送出されること。
+     */
+    @Test
+    public void checkedExceptionFailure() throws Exception {
+        final Iterator<SqlRow> rows = Arrays.asList(row(1)).iterator();
+        final IOException cause = new IOException("io error");
+        try {
+            new ParallelRowProcessor<Integer, Integer>(executor, 2, false).process(rows, ID,
+                    id -> ParallelRowProcessorTest.<RuntimeException>sneakyThrow(cause), result -> {});
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("failed to process a row."));
+            assertThat(e.getCause(), is(sameInstance((Throwable) cause)));
+        }
+    }
+
+    /**
+     * 検査例外を、非検査例外として送出する。
+     *
+     * @param e 送出する例外
+     * @param <E> 例外の型
+     * @return 戻らない
+     * @throws E 常に送出する
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> Integer sneakyThrow(final Throwable e) throws E {
+        throw (E) e;
+    }
+
+    /** レコードからIDを取得する関数 */
+    private static final Function<SqlRow, Integer> ID = new Function<SqlRow, Integer>() {
+        @Override
+        public Integer apply(final SqlRow row) {
+            return row.getInteger("id");
+        }
+    };
+
+    /**
+     * レコードを生成する。
+     *
+     * @param id ID
+     * @return レコード
+     */
+    private static SqlRow row(final int id) {
+        final HashMap<String, Object> data = new HashMap<String, Object>();
+        data.put("ID", id);
+        return new SqlRow(data, new HashMap<String, Integer>());
+    }
+}
@@ -0,0 +1,262 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.common.dao.DaoTestHelper.Users;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.transaction.SimpleDbTransactionManager;
+import nablarch.core.transaction.TransactionFactory;
+import nablarch.core.util.DateUtil;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link PartitionedTableScanner}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class PartitionedTableScannerTest {
+
+    @Rule
+    public SystemRepositoryResource repositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    /** テスト対象 */
+    private final PartitionedTableScanner sut = new PartitionedTableScanner();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        VariousDbTestHelper.createTable(Users.class);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final ConnectionFactory connectionFactory = repositoryResource.getComponent("connectionFactory");
+        final TransactionFactory transactionFactory = repositoryResource.getComponent("jdbcTransactionFactory");
+        final SimpleDbTransactionManager transactionManager = new SimpleDbTransactionManager();
+        transactionManager.setDbTransactionName("scan");
+        transactionManager.setConnectionFactory(connectionFactory);
+        transactionManager.setTransactionFactory(transactionFactory);
+        sut.setTransactionManager(transactionManager);
+        sut.setParallelism(3);
+    }
+
+    /**
+     * テーブルをパーティションに分割し、全てのレコードが1回ずつ処理されること。
+     * また、パーティションごとに進捗が通知されること。
+     */
+    @Test
+    public void scan() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+        for (int i = 0; i < 30; i++) {
+            long index = i + 1;
+            VariousDbTestHelper.insert(
+                    new Users(index, "なまえ_" + index, DateUtil.getDate("20140101"),
+                            DaoTestHelper.getDate("20150401123456")));
+        }
+
+        final Queue<Long> ids = new ConcurrentLinkedQueue<Long>();
+        final Map<Integer, Long> completed = new ConcurrentHashMap<Integer, Long>();
+        final Map<Integer, PartitionedTableScanner.Partition> partitions =
+                new ConcurrentHashMap<Integer, PartitionedTableScanner.Partition>();
+        final long count = sut.scan(Users.class, 4, 5, chunk -> {
+            for (Users user : chunk) {
+                ids.add(user.getId());
+            }
+        }, new PartitionedTableScanner.ProgressListener() {
+            @Override
+            public void onProgress(final PartitionedTableScanner.Partition partition, final long processedCount) {
+                assertThat(processedCount <= 8, is(true));
+            }
+
+            @Override
+            public void onComplete(final PartitionedTableScanner.Partition partition, final long processedCount) {
+                partitions.put(partition.getIndex(), partition);
+                completed.put(partition.getIndex(), processedCount);
+            }
+        });
+
+        assertThat(count, is(30L));
+        final List<Long> actual = new ArrayList<Long>(ids);
+        Collections.sort(actual);
+        final List<Long> expected = new ArrayList<Long>();
+        for (long i = 1; i <= 30; i++) {
+            expected.add(i);
+        }
+        assertThat(actual, is(expected));
+
+        assertThat(completed.get(0), is(8L));
+        assertThat(completed.get(1), is(8L));
+        assertThat(completed.get(2), is(8L));
+        assertThat(completed.get(3), is(6L));
+        assertThat(partitions.get(0).getLowerBound(), is(1L));
+        assertThat(partitions.get(0).getUpperBound(), is(8L));
+        assertThat(partitions.get(3).getLowerBound(), is(25L));
+        assertThat(partitions.get(3).getUpperBound(), is(30L));
+    }
+
+    /**
+     * IDの範囲がパーティション数より狭い場合、パーティション数が減らされること。
+     */
+    @Test
+    public void split_narrowRange() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(10L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(11L, "なまえ_2", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")));
+
+        final List<PartitionedTableScanner.Partition> partitions = sut.split(Users.class, 4);
+        assertThat(partitions.size(), is(2));
+        assertThat(partitions.get(0).toString(), is("Partition[0](10 - 10)"));
+        assertThat(partitions.get(1).toString(), is("Partition[1](11 - 11)"));
+    }
+
+    /**
+     * データが存在しない場合は、ハンドラが呼び出されないこと。
+     */
+    @Test
+    public void scan_noData() throws Exception {
+        VariousDbTestHelper.delete(Users.class);
+
+        final Queue<Long> ids = new ConcurrentLinkedQueue<Long>();
+        final long count = sut.scan(Users.class, 4, 5, chunk -> {
+            for (Users user : chunk) {
+                ids.add(user.getId());
+            }
+        });
+        assertThat(count, is(0L));
+        assertThat(ids, is(empty()));
+    }
+
+    /**
+     * ハンドラで例外が発生した場合、その例外が送出されること。
+     */
+    @Test
+    public void scan_handlerError() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "なまえ_2", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")));
+
+        try {
+            sut.scan(Users.class, 2, 1, chunk -> {
+                throw new IllegalStateException("error");
+            });
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("error"));
+        }
+    }
+
+    /**
+     * 後のパーティションで例外が発生した場合、先のパーティションの完了を待たずに例外が送出され、
+     * 処理中のパーティションが中断されること。
+     */
+    @Test
+    public void scan_laterPartitionError() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "なまえ_2", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")));
+
+        final CountDownLatch processing = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        try {
+            sut.scan(Users.class, 2, 1, chunk -> {
+                try {
+                    if (chunk.get(0).getId() == 2L) {
+                        // 先のパーティションがハンドラを処理中になってから失敗させる
+                        processing.await(10, TimeUnit.SECONDS);
+                        throw new IllegalStateException("error");
+                    }
+                    // 先のパーティションは中断されるまで処理を続ける
+                    processing.countDown();
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            });
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("error"));
+        }
+        assertThat("先のパーティションの完了を待たないこと",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10, is(true));
+        assertThat("先のパーティションが中断されること", interrupted.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+    /**
+     * パーティション数、チャンクサイズ、並列数が1未満の場合は{@link IllegalArgumentException}が送出されること。
+     */
+    @Test
+    public void invalidArguments() throws Exception {
+        パーティション数:
+        {
+            try {
+                sut.scan(Users.class, 0, 1, chunk -> {});
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("partition count must be greater than 0. partition count = 0"));
+            }
+        }
+
+        チャンクサイズ:
+        {
+            try {
+                sut.scan(Users.class, 1, 0, chunk -> {});
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("chunk size must be greater than 0. chunk size = 0"));
+            }
+        }
+
+        並列数:
+        {
+            try {
+                sut.setParallelism(0);
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), is("parallelism must be greater than 0. parallelism = 0"));
+            }
+        }
+    }
+
+    /**
+     * SQLビルダーと実行プロファイルを設定した場合も、全てのレコードが処理されること。
+     */
+    @Test
+    public void scan_sqlBuilder() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(5L, "なまえ_5", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")));
+
+        final Queue<String> names = new ConcurrentLinkedQueue<String>();
+        sut.setSqlBuilder(new StandardSqlBuilder());
+        sut.setExecutionProfile(new ExecutionProfile());
+        sut.scan(Users.class, 2, 10, chunk -> {
+            for (Users user : chunk) {
+                names.add(user.getName());
+            }
+        });
+        final List<String> actual = new ArrayList<String>(names);
+        Collections.sort(actual);
+        assertThat(actual, contains("なまえ_1", "なまえ_5"));
+    }
+}
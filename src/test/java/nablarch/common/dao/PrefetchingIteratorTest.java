@@ -0,0 +1,195 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import nablarch.core.db.statement.SqlRow;
+
+import org.junit.Test;
+
+/**
+ * {@link PrefetchingIterator}のテストクラス。
+ */
+public class PrefetchingIteratorTest {
+
+    /**
+     * 検索結果の取得で発生した例外が、呼び出し元に送出されること。
+     * 例外の発生前に先読みしたエンティティは取得できること。
+     */
+    @Test
+    public void fetchFailure() throws Exception {
+        final Iterator<SqlRow> rows = new Iterator<SqlRow>() {
+            private int count;
+
+            @Override
+            public boolean hasNext() {
+                if (count == 2) {
+                    throw new IllegalStateException("fetch error");
+                }
+                return true;
+            }
+
+            @Override
+            public SqlRow next() {
+                count++;
+                return row(count);
+            }
+        };
+        final PrefetchingIterator<Integer> sut = new PrefetchingIterator<Integer>(rows, ID, 10);
+
+        assertThat(sut.next(), is(1));
+        assertThat(sut.next(), is(2));
+        try {
+            sut.hasNext();
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("fetch error"));
+        }
+        sut.cancel();
+    }
+
+    /**
+     * エンティティへの変換で発生したエラーが、呼び出し元に送出されること。
+     */
+    @Test
+    public void mappingFailure() throws Exception {
+        final PrefetchingIterator<Integer> sut = new PrefetchingIterator<Integer>(
+                Arrays.asList(row(1), row(2)).iterator(), new Function<SqlRow, Integer>() {
+                    @Override
+                    public Integer apply(final SqlRow row) {
+                        throw new AssertionError("mapping error");
+                    }
+                }, 1);
+        try {
+            sut.next();
+            fail("とおらない");
+        } catch (AssertionError e) {
+            assertThat(e.getMessage(), is("mapping error"));
+        }
+        sut.cancel();
+    }
+
+    /**
+     * 検索結果が0件の場合、要素がないこと。
+     * 停止を複数回要求しても例外とならないこと。
+     */
+    @Test
+    public void empty() throws Exception {
+        final PrefetchingIterator<Integer> sut = new PrefetchingIterator<Integer>(
+                Collections.<SqlRow>emptyIterator(), ID, 1);
+        assertThat(sut.hasNext(), is(false));
+        sut.cancel();
+        sut.cancel();
+    }
+
+    /**
+     * 停止した場合、先読みスレッドに割り込まずに、取得中のレコードの完了を待って停止すること。
+     */
+    @Test
+    public void cancelWithoutInterrupt() throws Exception {
+        final CountDownLatch fetching = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final AtomicInteger fetched = new AtomicInteger();
+        final Iterator<SqlRow> rows = new Iterator<SqlRow>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public SqlRow next() {
+                final int id = fetched.incrementAndGet();
+                if (id == 3) {
+                    // データベースからの取得中を模擬する
+                    fetching.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                    }
+                }
+                return row(id);
+            }
+        };
+        final PrefetchingIterator<Integer> sut = new PrefetchingIterator<Integer>(rows, ID, 1);
+        assertThat(sut.next(), is(1));
+        fetching.await();
+
+        final Thread releaser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ignored) {
+                    // 何もしない
+                }
+                release.countDown();
+            }
+        });
+        releaser.start();
+        sut.cancel();
+
+        assertThat("割り込まれていないこと", interrupted.get(), is(false));
+        assertThat("取得中のレコードの完了後、次のレコードを取得せずに停止すること", fetched.get(), is(3));
+        releaser.join();
+    }
+
+    /**
+     * バッファが一杯で先読みスレッドが格納を待機している場合でも、停止できること。
+     */
+    @Test
+    public void cancelWhileBufferFull() throws Exception {
+        final AtomicInteger fetched = new AtomicInteger();
+        final Iterator<SqlRow> rows = new Iterator<SqlRow>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public SqlRow next() {
+                return row(fetched.incrementAndGet());
+            }
+        };
+        final PrefetchingIterator<Integer> sut = new PrefetchingIterator<Integer>(rows, ID, 1);
+        assertThat(sut.next(), is(1));
+        while (fetched.get() < 3) {
+            Thread.sleep(1);
+        }
+        sut.cancel();
+        final int count = fetched.get();
+        Thread.sleep(50);
+        assertThat("停止後は取得しないこと", fetched.get(), is(count));
+    }
+
+    /** レコードからIDを取得する関数 */
+    private static final Function<SqlRow, Integer> ID = new Function<SqlRow, Integer>() {
+        @Override
+        public Integer apply(final SqlRow row) {
+            return row.getInteger("id");
+        }
+    };
+
+    /**
+     * レコードを生成する。
+     *
+     * @param id ID
+     * @return レコード
+     */
+    private static SqlRow row(final int id) {
+        final HashMap<String, Object> data = new HashMap<String, Object>();
+        data.put("ID", id);
+        return new SqlRow(data, new HashMap<String, Integer>());
+    }
+}
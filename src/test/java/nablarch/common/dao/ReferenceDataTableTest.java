@@ -0,0 +1,300 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import nablarch.common.dao.DaoTestHelper.Address;
+import nablarch.common.dao.DaoTestHelper.Users;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.transaction.SimpleDbTransactionManager;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.core.transaction.TransactionFactory;
+import nablarch.core.util.DateUtil;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link ReferenceDataTable}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class ReferenceDataTableTest {
+
+    @Rule
+    public SystemRepositoryResource repositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    /** 現在時刻 */
+    private long now = 1000L;
+
+    /** テスト対象 */
+    private final ReferenceDataTable<Users> sut = new ReferenceDataTable<Users>() {
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    };
+
+    /** トランザクションマネージャ */
+    private SimpleDbTransactionManager transactionManager;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        VariousDbTestHelper.createTable(Users.class);
+        VariousDbTestHelper.createTable(Address.class);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final ConnectionFactory connectionFactory = repositoryResource.getComponent("connectionFactory");
+        final TransactionFactory transactionFactory = repositoryResource.getComponent("jdbcTransactionFactory");
+        transactionManager = new SimpleDbTransactionManager();
+        transactionManager.setDbTransactionName("reference");
+        transactionManager.setConnectionFactory(connectionFactory);
+        transactionManager.setTransactionFactory(transactionFactory);
+        sut.setTransactionManager(transactionManager);
+        sut.setEntityClassName(Users.class.getName());
+        sut.setIndexedProperties(Arrays.asList("name", "active"));
+
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "なまえ1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456"), 1L, true),
+                new Users(2L, "なまえ2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456"), 1L, false),
+                new Users(3L, "なまえ2", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150401123456"), 1L, true));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sut.dispose();
+    }
+
+    /**
+     * テーブル全体が読み込まれ、プライマリーキーとインデックスを構築したプロパティで検索できること。
+     */
+    @Test
+    public void find() throws Exception {
+        sut.initialize();
+
+        assertThat(sut.findAll(), hasSize(3));
+
+        プライマリーキー: {
+            assertThat(sut.findById(2L).getName(), is("なまえ2"));
+            assertThat("型が異なる値でも検索できること", sut.findById("3").getId(), is(3L));
+            assertThat("同じインスタンスが返されること", sut.findById(1L), is(sameInstance(sut.findById(1L))));
+            assertThat(sut.findById(4L), is(nullValue()));
+        }
+
+        インデックス: {
+            assertThat(sut.findBy("name", "なまえ2"), hasSize(2));
+            assertThat(sut.findBy("name", "なまえ1").get(0).getId(), is(1L));
+            assertThat(sut.findBy("active", "true"), hasSize(2));
+            assertThat(sut.findBy("name", "なまえ9"), is(empty()));
+        }
+    }
+
+    /**
+     * インデックスを構築していないプロパティやプライマリーキーの数が異なる場合は、例外が送出されること。
+     */
+    @Test
+    public void find_invalid() throws Exception {
+        sut.initialize();
+        try {
+            sut.findBy("birthday", DateUtil.getDate("20140101"));
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("property is not indexed. property = birthday"));
+        }
+        try {
+            sut.findById(1L, 2L);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Mismatch the counts of id columns. expected=1"));
+        }
+    }
+
+    /**
+     * 初期化前に検索した場合は、例外が送出されること。
+     */
+    @Test(expected = IllegalStateException.class)
+    public void find_notInitialized() throws Exception {
+        sut.findAll();
+    }
+
+    /**
+     * ウォーターマークまたはレコード件数が変化した場合のみ、再読み込みされること。
+     */
+    @Test
+    public void refresh() throws Exception {
+        sut.setWatermarkProperty("insertDate");
+        sut.initialize();
+
+        変更なし: {
+            assertThat(sut.refresh(), is(false));
+        }
+
+        更新: {
+            VariousDbTestHelper.setUpTable(
+                    new Users(1L, "変更後", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123457"), 1L, true),
+                    new Users(2L, "なまえ2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150401123456"), 1L, false),
+                    new Users(3L, "なまえ2", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150401123456"), 1L, true));
+            assertThat(sut.refresh(), is(true));
+            assertThat(sut.findById(1L).getName(), is("変更後"));
+            assertThat(sut.findBy("name", "変更後"), hasSize(1));
+        }
+
+        削除: {
+            VariousDbTestHelper.setUpTable(
+                    new Users(1L, "変更後", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123457"), 1L, true));
+            assertThat(sut.refresh(), is(true));
+            assertThat(sut.findAll(), hasSize(1));
+            assertThat(sut.findById(2L), is(nullValue()));
+        }
+    }
+
+    /**
+     * 更新間隔を設定した場合、バックグラウンドで再読み込みされること。
+     */
+    @Test
+    public void refresh_background() throws Exception {
+        sut.setRefreshInterval(10L);
+        sut.initialize();
+
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "変更後", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456"), 2L, true));
+
+        final long timeout = System.currentTimeMillis() + 5000L;
+        while (sut.findAll().size() != 1) {
+            if (System.currentTimeMillis() > timeout) {
+                fail("とおらない");
+            }
+            Thread.sleep(10L);
+        }
+        assertThat(sut.findById(1L).getName(), is("変更後"));
+    }
+
+    /**
+     * 存在しないプロパティやバージョン番号のプロパティをウォーターマークに指定した場合は、例外が送出されること。
+     */
+    @Test
+    public void watermarkProperty_invalid() throws Exception {
+        sut.setWatermarkProperty("unknown");
+        try {
+            sut.initialize();
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("watermark property was not found. property = unknown"));
+        }
+
+        sut.setWatermarkProperty("version");
+        try {
+            sut.initialize();
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("version column cannot be used as the watermark"
+                    + " because it is incremented per row. property = version"));
+        }
+    }
+
+    /**
+     * ウォーターマークとするプロパティを設定しない場合、件数が変わらない更新も含めて確認のたびに再読み込みされること。
+     */
+    @Test
+    public void refresh_withoutWatermark() throws Exception {
+        VariousDbTestHelper.setUpTable(new Address(1L, "1", 1L, "1001001", "東京都"));
+        final ReferenceDataTable<Address> table = new ReferenceDataTable<Address>();
+        table.setTransactionManager(transactionManager);
+        table.setEntityClass(Address.class);
+        table.initialize();
+
+        VariousDbTestHelper.setUpTable(new Address(1L, "1", 1L, "1001001", "大阪府"));
+        assertThat(table.refresh(), is(true));
+        assertThat(table.findById(1L, "1").getAddress(), is("大阪府"));
+        assertThat(table.refresh(), is(true));
+    }
+
+    /**
+     * {@link DaoContextFactory}に設定した場合、プライマリーキーによる検索はデータベースにアクセスせずにテーブルから取得されること。
+     */
+    @Test
+    public void findByIdFromDaoContext() throws Exception {
+        sut.initialize();
+        final BasicDaoContextFactory factory = new BasicDaoContextFactory();
+        factory.setReferenceDataTables(Collections.<ReferenceDataTable<?>>singletonList(sut));
+        final TransactionManagerConnection connection = mock(TransactionManagerConnection.class);
+        factory.setDbConnection(connection);
+
+        final DaoContext context = factory.create();
+        final Users found = context.findById(Users.class, 2L);
+        assertThat(found.getName(), is("なまえ2"));
+        assertThat("コピーが返されること", found, is(not(sameInstance(sut.findById(2L)))));
+        found.setName("変更後");
+        assertThat(sut.findById(2L).getName(), is("なまえ2"));
+        assertThat(context.findByIdOrNull(Users.class, 9L), is(nullValue()));
+        verify(connection, never()).prepareStatement(anyString());
+    }
+
+    /**
+     * {@link DaoContext}で更新した場合、保留期間の経過後に再読み込みするまでは、
+     * プライマリーキーによる検索がデータベースから取得されること。
+     */
+    @Test
+    public void findByIdFromDaoContext_afterWrite() throws Exception {
+        sut.setWatermarkProperty("insertDate");
+        sut.setWriteHoldOff(60000L);
+        sut.initialize();
+        final ConnectionFactory connectionFactory = repositoryResource.getComponent("connectionFactory");
+        final TransactionManagerConnection connection = connectionFactory.getConnection(
+                TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY);
+        final BasicDaoContextFactory factory = new BasicDaoContextFactory();
+        factory.setReferenceDataTables(Collections.<ReferenceDataTable<?>>singletonList(sut));
+        factory.setDbConnection(connection);
+        try {
+            final DaoContext context = factory.create();
+            final Users user = context.findById(Users.class, 1L);
+            user.setName("変更後");
+            context.update(user);
+            connection.commit();
+
+            assertThat("データベースから取得されること", context.findById(Users.class, 1L).getName(), is("変更後"));
+            assertThat(sut.findById(1L).getName(), is("なまえ1"));
+
+            保留期間中:
+            {
+                now += 59999L;
+                assertThat(sut.refresh(), is(false));
+                assertThat(context.findById(Users.class, 1L).getName(), is("変更後"));
+            }
+
+            保留期間の経過後:
+            {
+                now += 1L;
+                assertThat(sut.refresh(), is(true));
+                final TransactionManagerConnection mockConnection = mock(TransactionManagerConnection.class);
+                factory.setDbConnection(mockConnection);
+                assertThat(factory.create().findById(Users.class, 1L).getName(), is("変更後"));
+                verify(mockConnection, never()).prepareStatement(anyString());
+            }
+        } finally {
+            connection.terminate();
+        }
+    }
+}
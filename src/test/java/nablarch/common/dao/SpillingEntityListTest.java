@@ -0,0 +1,242 @@
+package nablarch.common.dao;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import nablarch.common.dao.DaoTestHelper.Users;
+import nablarch.core.util.DateUtil;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link SpillingEntityList}のテストクラス。
+ */
+public class SpillingEntityListTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 件数の閾値を超えたエンティティが一時ファイルに退避され、
+     * インデックスやイテレータで全てのエンティティが参照できること。
+     */
+    @Test
+    public void spillByRowThreshold() throws Exception {
+        final SpillingEntityList<Users> sut = createList(3, 0L);
+        for (long i = 1; i <= 10; i++) {
+            sut.add(new Users(i, "なまえ_" + i, DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456")));
+        }
+
+        assertThat(sut.isSpilled(), is(true));
+        assertThat(sut.size(), is(10));
+        assertThat(sut.isEmpty(), is(false));
+        assertThat(sut.get(0).getName(), is("なまえ_1"));
+        assertThat(sut.get(9).getName(), is("なまえ_10"));
+        assertThat(sut.get(4).getBirthday(), is(DateUtil.getDate("20140101")));
+        assertThat(sut.get(4).getInsertDate(), is(DaoTestHelper.getDate("20150401123456")));
+        assertThat(ids(sut), contains(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+        assertThat(sut.stream().map(Users::getId).collect(Collectors.toList()),
+                contains(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+        assertThat(sut.toArray().length, is(10));
+        assertThat(sut.toArray(new Users[0])[7].getId(), is(8L));
+
+        後ろから参照:
+        {
+            final ListIterator<Users> iterator = sut.listIterator(sut.size());
+            final List<Long> ids = new ArrayList<Long>();
+            while (iterator.hasPrevious()) {
+                ids.add(iterator.previous().getId());
+            }
+            assertThat(ids, contains(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L));
+        }
+
+        範囲外:
+        {
+            try {
+                sut.get(10);
+                fail("とおらない");
+            } catch (IndexOutOfBoundsException e) {
+                assertThat(e.getMessage(), is("Index: 10, Size: 10"));
+            }
+        }
+        sut.close();
+    }
+
+    /**
+     * バイト数の閾値を超えたエンティティが一時ファイルに退避されること。
+     * また、読み込みバッファより大きいエンティティも参照できること。
+     */
+    @Test
+    public void spillByByteThreshold() throws Exception {
+        final SpillingEntityList<Users> sut = createList(0, 1000L);
+        sut.add(new Users(1L, "なまえ_1", null, null));
+        assertThat(sut.isSpilled(), is(false));
+
+        final String largeName = String.join("", Collections.nCopies(100000, "あ"));
+        sut.add(new Users(2L, largeName, null, null));
+        sut.add(new Users(3L, "なまえ_3", null, null));
+
+        assertThat(sut.isSpilled(), is(true));
+        assertThat(ids(sut), contains(1L, 2L, 3L));
+        assertThat(sut.get(1).getName(), is(largeName));
+        assertThat(sut.get(2).getName(), is("なまえ_3"));
+        assertThat(sut.get(1).getBirthday() == null, is(true));
+        sut.close();
+    }
+
+    /**
+     * クローズした場合、一時ファイルが削除され、退避したエンティティは参照できなくなること。
+     * 複数回クローズしても例外とならないこと。
+     */
+    @Test
+    public void close() throws Exception {
+        final SpillingEntityList<Users> sut = createList(1, 0L);
+        sut.add(new Users(1L));
+        sut.add(new Users(2L));
+
+        sut.close();
+        assertThat(folder.getRoot().listFiles().length, is(0));
+        assertThat(sut.get(0).getId(), is(1L));
+        try {
+            sut.get(1);
+            fail("とおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("spill file has already been closed."));
+        }
+        sut.close();
+    }
+
+    /**
+     * 閾値を超えない場合は、一時ファイルが作成されないこと。
+     */
+    @Test
+    public void notSpilled() throws Exception {
+        final SpillingEntityList<Users> sut = createList(10, 0L);
+        sut.addAll(Arrays.asList(new Users(1L), new Users(2L)));
+
+        assertThat(sut.isSpilled(), is(false));
+        assertThat(ids(sut), contains(1L, 2L));
+        assertThat(sut.indexOf(sut.get(1)), is(1));
+        assertThat(folder.getRoot().listFiles().length, is(0));
+        sut.close();
+    }
+
+    /**
+     * 一時ファイルに退避する前は、削除や並び替えなどの変更操作が利用できること。
+     */
+    @Test
+    public void modifyBeforeSpill() throws Exception {
+        final SpillingEntityList<Users> sut = createList(3, 0L);
+        sut.addAll(Arrays.asList(new Users(2L), new Users(1L), new Users(3L)));
+
+        sut.sort(new Comparator<Users>() {
+            @Override
+            public int compare(final Users o1, final Users o2) {
+                return o1.getId().compareTo(o2.getId());
+            }
+        });
+        assertThat(ids(sut), contains(1L, 2L, 3L));
+        assertThat(ids(sut.subList(1, 3)), contains(2L, 3L));
+
+        assertThat(sut.remove(sut.get(0)), is(true));
+        assertThat(ids(sut), contains(2L, 3L));
+        assertThat(sut.removeIf(new Predicate<Users>() {
+            @Override
+            public boolean test(final Users users) {
+                return users.getId() == 3L;
+            }
+        }), is(true));
+        assertThat(ids(sut), contains(2L));
+
+        sut.clear();
+        assertThat(sut.isEmpty(), is(true));
+
+        削除後も閾値まではヒープ上に保持されること:
+        {
+            sut.addAll(Arrays.asList(new Users(4L), new Users(5L), new Users(6L)));
+            assertThat(sut.isSpilled(), is(false));
+            sut.add(new Users(7L));
+            assertThat(sut.isSpilled(), is(true));
+            assertThat(ids(sut), contains(4L, 5L, 6L, 7L));
+        }
+        sut.close();
+    }
+
+    /**
+     * 一時ファイルに退避した後に変更操作が呼び出された場合、{@link UnsupportedOperationException}が送出されること。
+     */
+    @Test
+    public void unsupportedOperations() throws Exception {
+        final SpillingEntityList<Users> sut = createList(1, 0L);
+        sut.add(new Users(1L));
+        sut.add(new Users(2L));
+
+        try {
+            sut.remove(sut.get(0));
+            fail("とおらない");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), is("remove"));
+        }
+        try {
+            sut.clear();
+            fail("とおらない");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), is("clear"));
+        }
+        try {
+            sut.subList(0, 1);
+            fail("とおらない");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), is("subList"));
+        }
+        try {
+            sut.sort(null);
+            fail("とおらない");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), is("sort"));
+        }
+        sut.close();
+    }
+
+    /**
+     * テスト対象のリストを生成する。
+     *
+     * @param rowThreshold 件数の閾値
+     * @param byteThreshold バイト数の閾値
+     * @return テスト対象
+     */
+    private SpillingEntityList<Users> createList(final int rowThreshold, final long byteThreshold) {
+        final File directory = folder.getRoot();
+        return new SpillingEntityList<Users>(Users.class, EntityCodec.create(Users.class), rowThreshold,
+                byteThreshold, directory.toPath());
+    }
+
+    /**
+     * エンティティのIDを取得する。
+     *
+     * @param users エンティティ
+     * @return ID
+     */
+    private static List<Long> ids(final List<Users> users) {
+        final List<Long> ids = new ArrayList<Long>();
+        for (Users user : users) {
+            ids.add(user.getId());
+        }
+        return ids;
+    }
+}
@@ -4,8 +4,10 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -93,6 +95,60 @@ public class StandardSqlBuilderTest {
                         + " FROM USER_INFO"));
     }
 
+    /**
+     * 指定したプロパティのカラムのみを取得するSELECT文が構築され、キャッシュされること。
+     */
+    @Test
+    public void testBuildSelectAllWithProperties() throws Exception {
+        final String sql = sut.buildSelectAllSql(UsersEntity.class, Arrays.asList("id", "name"));
+        assertThat(sql, is("SELECT ID,NAME FROM USER_INFO"));
+        assertThat(sut.buildSelectAllSql(UsersEntity.class, Arrays.asList("id", "name")), is(sameInstance(sql)));
+        assertThat(sut.buildSelectByIdSql(WithSchemaEntity.class, Arrays.asList("name")),
+                is("SELECT NAME FROM test_schema.TEST_ENTITY WHERE ID=?"));
+    }
+
+    /**
+     * ソート順を指定したSELECT文が構築され、キャッシュされること。
+     */
+    @Test
+    public void testBuildSelectAllWithOrderBy() throws Exception {
+        final String sql = sut.buildSelectAllSql(UsersEntity.class, null, Arrays.asList("name", " id  desc "));
+        assertThat(sql, is("SELECT " + joinAllColumnNames(UsersEntity.class) + " FROM USER_INFO ORDER BY NAME,ID DESC"));
+        assertThat(sut.buildSelectAllSql(UsersEntity.class, null, Arrays.asList("name", " id  desc ")),
+                is(sameInstance(sql)));
+        assertThat(sut.buildSelectAllSql(UsersEntity.class, Arrays.asList("id", "name"), Arrays.asList("name asc")),
+                is("SELECT ID,NAME FROM USER_INFO ORDER BY NAME ASC"));
+
+        try {
+            sut.buildSelectAllSql(UsersEntity.class, null, Arrays.asList("name descending"));
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("invalid order by. entity = "
+                    + UsersEntity.class.getName() + ", order by = name descending"));
+        }
+        try {
+            sut.buildSelectAllSql(UsersEntity.class, null, Arrays.asList("unknown"));
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("property was not found in entity. entity = "
+                    + UsersEntity.class.getName() + ", property = unknown"));
+        }
+    }
+
+    /**
+     * 存在しないプロパティを指定した場合、例外が送出されること。
+     */
+    @Test
+    public void testBuildSelectAllWithProperties_notFound() throws Exception {
+        try {
+            sut.buildSelectAllSql(UsersEntity.class, Arrays.asList("id", "unknown"));
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("property was not found in entity. entity = "
+                    + UsersEntity.class.getName() + ", property = unknown"));
+        }
+    }
+
     /**
      * {@link Table#schema()}指定有りの場合、スキーマ修飾子が指定されたSQL文が生成されること
      */
@@ -104,6 +160,129 @@ public class StandardSqlBuilderTest {
                         + " FROM test_schema.TEST_ENTITY"));
     }
 
+    /**
+     * 単一のID列のエンティティの場合、IN句で複数のID値を条件とするSELECT文が構築できること。
+     */
+    @Test
+    public void testBuildSelectByIdsFromSingleId() throws Exception {
+        assertThat(sut.buildSelectByIdsSql(UsersEntity.class, 3),
+                is("SELECT "
+                        + joinAllColumnNames(UsersEntity.class)
+                        + " FROM USER_INFO WHERE ID IN (?,?,?)"));
+    }
+
+    /**
+     * 複数のID列のエンティティの場合、ID列の条件をORで結合したSELECT文が構築できること。
+     */
+    @Test
+    public void testBuildSelectByIdsFromMultiId() throws Exception {
+        assertThat(sut.buildSelectByIdsSql(MultiIdEntity.class, 2),
+                is("SELECT "
+                        + joinAllColumnNames(MultiIdEntity.class)
+                        + " FROM MULTI_ID_ENTITY WHERE (ID=? AND NO=?) OR (ID=? AND NO=?)"));
+    }
+
+    /**
+     * 指定したカラムの複数の値をIN句の条件とし、ID列の順に並べるSELECT文が構築できること。
+     */
+    @Test
+    public void testBuildSelectByColumnValues() throws Exception {
+        assertThat(sut.buildSelectByColumnValuesSql(MultiIdEntity.class, "USER_NAME", 3),
+                is("SELECT "
+                        + joinAllColumnNames(MultiIdEntity.class)
+                        + " FROM MULTI_ID_ENTITY WHERE USER_NAME IN (?,?,?) ORDER BY ID,NO"));
+    }
+
+    /**
+     * 位置(ウォーターマークとID列)より後の変更を取得するSQL文が構築できること。
+     */
+    @Test
+    public void testBuildSelectChangedSince() throws Exception {
+        assertThat(sut.buildSelectChangedSinceSql(MultiIdEntity.class, "VERSION", 3),
+                is("SELECT "
+                        + joinAllColumnNames(MultiIdEntity.class)
+                        + " FROM MULTI_ID_ENTITY WHERE (VERSION>? OR (VERSION=? AND ID>?) OR (VERSION=? AND ID=? AND NO>?))"
+                        + " ORDER BY VERSION,ID,NO"));
+        assertThat(sut.buildSelectChangedSinceSql(MultiIdEntity.class, "VERSION", 1),
+                is("SELECT "
+                        + joinAllColumnNames(MultiIdEntity.class)
+                        + " FROM MULTI_ID_ENTITY WHERE VERSION>? ORDER BY VERSION,ID,NO"));
+        assertThat(sut.buildSelectChangedSinceSql(MultiIdEntity.class, "VERSION", 0),
+                is("SELECT "
+                        + joinAllColumnNames(MultiIdEntity.class)
+                        + " FROM MULTI_ID_ENTITY WHERE VERSION IS NOT NULL ORDER BY VERSION,ID,NO"));
+    }
+
+    /**
+     * キー格納用テーブルを使用するSQL文が構築できること。
+     */
+    @Test
+    public void testBuildTemporaryKeyTableSql() throws Exception {
+        final TemporaryKeyTable keyTable = new TemporaryKeyTable();
+        keyTable.setTableName("WORK_KEYS");
+        keyTable.setKeyColumnNames(Arrays.asList("KEY1", "KEY2", "KEY3"));
+
+        final StringBuilder columns = new StringBuilder();
+        for (ColumnMeta column : EntityUtil.findAllColumns(MultiIdEntity.class)) {
+            columns.append(columns.length() == 0 ? "" : ",").append("E.").append(column.getName());
+        }
+        assertThat(sut.buildSelectByTemporaryKeyTableSql(MultiIdEntity.class, keyTable),
+                is("SELECT " + columns + " FROM MULTI_ID_ENTITY E INNER JOIN WORK_KEYS K "
+                        + "ON E.ID=K.KEY1 AND E.NO=K.KEY2 WHERE K.SESSION_ID=?"));
+        assertThat(sut.buildInsertTemporaryKeySql(keyTable, 2),
+                is("INSERT INTO WORK_KEYS(SESSION_ID,KEY1,KEY2)VALUES(?,?,?)"));
+        assertThat(sut.buildDeleteTemporaryKeySql(keyTable),
+                is("DELETE FROM WORK_KEYS WHERE SESSION_ID=?"));
+    }
+
+    /**
+     * ID列の範囲を条件とするSELECT文が構築できること。
+     */
+    @Test
+    public void testBuildSelectByIdRange() throws Exception {
+        assertThat(sut.buildSelectByIdRangeSql(UsersEntity.class),
+                is("SELECT "
+                        + joinAllColumnNames(UsersEntity.class)
+                        + " FROM USER_INFO WHERE ID>=? AND ID<=?"));
+    }
+
+    /**
+     * ID列の最小値と最大値を取得するSELECT文が構築できること。
+     */
+    @Test
+    public void testBuildSelectIdBounds() throws Exception {
+        assertThat(sut.buildSelectIdBoundsSql(WithSchemaEntity.class),
+                is("SELECT MIN(ID) MIN_ID,MAX(ID) MAX_ID FROM test_schema.TEST_ENTITY"));
+    }
+
+    /**
+     * レコード件数とウォーターマークを取得するSELECT文が構築できること。
+     */
+    @Test
+    public void testBuildSelectWatermark() throws Exception {
+        assertThat(sut.buildSelectWatermarkSql(WithSchemaEntity.class, "UPDATED_AT"),
+                is("SELECT COUNT(*) RECORD_COUNT,MAX(UPDATED_AT) WATERMARK FROM test_schema.TEST_ENTITY"));
+    }
+
+    /**
+     * 全レコードのID列のみを取得するSELECT文が構築できること。
+     */
+    @Test
+    public void testBuildSelectAllIds() throws Exception {
+        assertThat(sut.buildSelectAllIdsSql(WithSchemaEntity.class),
+                is("SELECT ID FROM test_schema.TEST_ENTITY"));
+        assertThat(sut.buildSelectAllIdsSql(MultiIdEntity.class),
+                is("SELECT ID,NO FROM MULTI_ID_ENTITY"));
+    }
+
+    /**
+     * ID列が複数のエンティティの場合、ID列の範囲を条件とするSELECT文は構築できないこと。
+     */
+    @Test(expected = IllegalEntityException.class)
+    public void testBuildSelectByIdRange_multiId() throws Exception {
+        sut.buildSelectByIdRangeSql(MultiIdEntity.class);
+    }
+
     /**
      * バージョンカラムなしの更新用SQL文が生成できること
      */
@@ -46,10 +46,14 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static nablarch.common.dao.UniversalDao.exists;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.fail;
@@ -248,6 +252,25 @@ public class UniversalDaoTest {
         }
     }
 
+    /**
+     * {@link UniversalDao#select(String...)}で取得するプロパティを指定した場合のテストケース
+     */
+    @Test
+    public void findAll_select() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "name_1", DateUtil.getDate("20000101"), DaoTestHelper.getDate("20150401123456")),
+                new Users(2L, "name_2", DateUtil.getDate("20000101"), DaoTestHelper.getDate("20150401123456"))
+        );
+        List<Users> result = new ArrayList<>(UniversalDao.select("id", "name").findAll(Users.class));
+        result.sort(Comparator.comparing(Users::getId));
+
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0).getName(), is("name_1"));
+        assertThat(result.get(0).getBirthday(), is(nullValue()));
+        assertThat(result.get(1).getName(), is("name_2"));
+        assertThat(result.get(1).getInsertDate(), is(nullValue()));
+    }
+
     /**
      * {@link UniversalDao#findAllBySqlFile(Class, String, Object)}のテストケース
      *
@@ -701,6 +724,65 @@ public class UniversalDaoTest {
         }
     }
 
+    /**
+     * ストリームによる検索のテスト
+     */
+    @Test
+    public void stream() {
+        VariousDbTestHelper.delete(Users.class);
+        for (int i = 0; i < 10; i++) {
+            VariousDbTestHelper.insert(new Users((long) (i + 1)));
+        }
+
+        try (Stream<Users> users = UniversalDao.streamBySqlFile(Users.class, "FIND_ALL_USERS")) {
+            assertThat(users.filter(user -> user.getId() % 2 == 0).count(), is(5L));
+        }
+
+        try (Stream<Users> users = UniversalDao.streamAll(Users.class)) {
+            assertThat(users.mapToLong(Users::getId).sum(), is(55L));
+        }
+    }
+
+    /**
+     * {@link UniversalDao#findAllByIds(Class, java.util.Collection)}のテスト。
+     */
+    @Test
+    public void findAllByIds() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "name_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456"), 9L, false),
+                new Users(2L, "name_2", DateUtil.getDate("20140102"), DaoTestHelper.getDate("20150402123456"), 99L, true),
+                new Users(3L, "name_3", DateUtil.getDate("20140103"), DaoTestHelper.getDate("20150403123456"), 999L, false)
+        );
+        final EntityList<Users> users = UniversalDao.findAllByIds(Users.class, Arrays.asList(3L, 1L));
+        assertThat(users.size(), is(2));
+        assertThat(users.get(0).getName(), is("name_3"));
+        assertThat(users.get(1).getName(), is("name_1"));
+    }
+
+    /**
+     * {@link UniversalDao#findAllByIds(Class, java.util.Collection)}のテスト。
+     * <p/>
+     * 主キー検索未対応の場合（データベースのメタ情報が取れなかった場合）
+     */
+    @Test
+    public void findAllByIds_unsupported() throws Exception {
+
+        // 主キー検索可否をfalseで上書き
+        EntityMeta entityMeta = EntityUtil.findEntityMeta(Users.class);
+
+        ReflectionUtil.setFieldValue(entityMeta, "enableFindById", false);
+        try {
+            UniversalDao.findAllByIds(Users.class, Arrays.asList(1L, 2L));
+            fail("ここはとおらない");
+        } catch (Exception e) {
+            assertThat(e, is(instanceOf(IllegalStateException.class)));
+            assertThat(e.getMessage(), is("For findAllByIds, enable to get the orders of primary keys."));
+        } finally {
+            // 強制的に書き換えを行ったのでキャッシュを綺麗にする。
+            EntityUtil.clearCache();
+        }
+    }
+
     /**
      * {@link Transaction}のテスト。
      *
@@ -776,6 +858,38 @@ public class UniversalDaoTest {
         }
     }
 
+    /**
+     * {@link DaoContextFactory#setIdentityMapEnabled(boolean)}が有効な場合、
+     * {@link Transaction}内で取得済みのエンティティが保持され、トランザクション終了時に破棄されること。
+     */
+    @Test
+    public void transaction_identityMap() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new Users(1L, "name_1", DateUtil.getDate("20140101"), DaoTestHelper.getDate("20150401123456"), 9L, false));
+
+        final DaoContextFactory daoContextFactory = new BasicDaoContextFactory();
+        daoContextFactory.setIdentityMapEnabled(true);
+        repositoryResource.addComponent("daoContextFactory", daoContextFactory);
+
+        final SimpleDbTransactionManager transactionManager = new SimpleDbTransactionManager();
+        transactionManager.setDbTransactionName("identityMap");
+        transactionManager.setConnectionFactory(repositoryResource.<ConnectionFactory>getComponent("connectionFactory"));
+        transactionManager.setTransactionFactory(repositoryResource.<TransactionFactory>getComponent("jdbcTransactionFactory"));
+
+        final List<Users> loaded = new ArrayList<Users>();
+        new Transaction(transactionManager) {
+            @Override
+            protected void execute() {
+                loaded.add(UniversalDao.findById(Users.class, 1L));
+                loaded.add(UniversalDao.findById(Users.class, 1L));
+            }
+        };
+        assertThat("トランザクション内では同一のインスタンスが返されること", loaded.get(1), is(sameInstance(loaded.get(0))));
+        assertThat("トランザクション終了後は保持していないこと", daoContextFactory.getIdentityMap(), is(nullValue()));
+        assertThat("トランザクション外では保持しないこと",
+                UniversalDao.findById(Users.class, 1L), is(not(sameInstance(UniversalDao.findById(Users.class, 1L)))));
+    }
+
     /**
      * 集約関数を使ったSQLを使用するテスト(BigDecimal）
      */
@@ -0,0 +1,16 @@
+FIND_USERS_WITH_ADDRESSES =
+SELECT U.USER_ID,
+       U.NAME,
+       U.BIRTHDAY,
+       U.INSERT_DATE,
+       U.VERSION,
+       U.ACTIVE,
+       A.ADDRESS_ID A_ADDRESS_ID,
+       A.ADDRESS_CODE A_ADDRESS_CODE,
+       A.USER_ID A_USER_ID,
+       A.POST_NO A_POST_NO,
+       A.ADDRESS A_ADDRESS
+FROM DAO_USERS U
+     LEFT OUTER JOIN USER_ADDRESS A ON A.USER_ID = U.USER_ID
+WHERE U.NAME LIKE ?
+ORDER BY U.USER_ID, A.ADDRESS_ID, A.ADDRESS_CODE